@@ -1,21 +1,24 @@
 package com.inzira.admin.controllers;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.inzira.shared.repositories.BookingRepository;
-import com.inzira.shared.repositories.PaymentRepository;
+import com.inzira.admin.dtos.TrendPoint;
+import com.inzira.admin.services.TrendService;
+import com.inzira.shared.dtos.BookingStatsTotals;
+import com.inzira.shared.dtos.PointPopularity;
 import com.inzira.shared.exceptions.ApiResponse;
+import com.inzira.shared.services.BookingSketchService;
+import com.inzira.shared.services.DailyBookingStatsService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,22 +26,27 @@ import lombok.RequiredArgsConstructor;
 @RequestMapping("/api/admin/analytics")
 @RequiredArgsConstructor
 public class AdminAnalyticsController {
-    private final BookingRepository bookingRepository;
-    private final PaymentRepository paymentRepository;
+    private final TrendService trendService;
+    private final DailyBookingStatsService dailyBookingStatsService;
+    private final BookingSketchService bookingSketchService;
+
+    // Any metric (bookings, revenue) at any granularity (hour, day, week, month) in one grouped query
+    @GetMapping("/trend")
+    public ResponseEntity<ApiResponse<List<TrendPoint>>> trend(
+        @RequestParam String metric,
+        @RequestParam(defaultValue = "day") String granularity,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        TrendService.Metric m = parse(TrendService.Metric.class, metric, "metric");
+        TrendService.Granularity g = parse(TrendService.Granularity.class, granularity, "granularity");
+        return ResponseEntity.ok(new ApiResponse<>(true, "Trend", trendService.trend(m, g, start, end)));
+    }
 
     @GetMapping("/bookings/trend/day")
     public ResponseEntity<ApiResponse<List<TrendPoint>>> bookingsByDay(
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
-        LocalDate cur = start;
-        java.util.ArrayList<TrendPoint> points = new java.util.ArrayList<>();
-        while (!cur.isAfter(end)) {
-            LocalDateTime s = cur.atStartOfDay();
-            LocalDateTime e = cur.atTime(LocalTime.MAX);
-            long c = bookingRepository.countByCreatedAtBetween(s, e);
-            points.add(new TrendPoint(cur.toString(), c));
-            cur = cur.plusDays(1);
-        }
+        List<TrendPoint> points = trendService.trend(TrendService.Metric.BOOKINGS, TrendService.Granularity.DAY, start, end);
         return ResponseEntity.ok(new ApiResponse<>(true, "Bookings per day", points));
     }
 
@@ -46,18 +54,7 @@ public class AdminAnalyticsController {
     public ResponseEntity<ApiResponse<List<TrendPoint>>> bookingsByWeek(
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
-        // Align to week starts (Monday)
-        LocalDate cur = start.minusDays((start.getDayOfWeek().getValue() + 6) % 7);
-        java.util.ArrayList<TrendPoint> points = new java.util.ArrayList<>();
-        while (!cur.isAfter(end)) {
-            LocalDate weekStart = cur;
-            LocalDate weekEnd = cur.plusDays(6);
-            if (weekStart.isBefore(start)) weekStart = start;
-            if (weekEnd.isAfter(end)) weekEnd = end;
-            long c = bookingRepository.countByCreatedAtBetween(weekStart.atStartOfDay(), weekEnd.atTime(LocalTime.MAX));
-            points.add(new TrendPoint(weekStart.toString(), c));
-            cur = cur.plusWeeks(1);
-        }
+        List<TrendPoint> points = trendService.trend(TrendService.Metric.BOOKINGS, TrendService.Granularity.WEEK, start, end);
         return ResponseEntity.ok(new ApiResponse<>(true, "Bookings per week", points));
     }
 
@@ -65,19 +62,7 @@ public class AdminAnalyticsController {
     public ResponseEntity<ApiResponse<List<TrendPoint>>> paymentsByDay(
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
-        LocalDate cur = start;
-        java.util.ArrayList<TrendPoint> points = new java.util.ArrayList<>();
-        while (!cur.isAfter(end)) {
-            LocalDateTime s = cur.atStartOfDay();
-            LocalDateTime e = cur.atTime(LocalTime.MAX);
-            java.math.BigDecimal sum = paymentRepository
-                .findByStatusAndCreatedAtBetween("SUCCESS", s, e)
-                .stream()
-                .map(p -> p.getAmount() == null ? java.math.BigDecimal.ZERO : p.getAmount())
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-            points.add(new TrendPoint(cur.toString(), sum.longValue()));
-            cur = cur.plusDays(1);
-        }
+        List<TrendPoint> points = trendService.trend(TrendService.Metric.REVENUE, TrendService.Granularity.DAY, start, end);
         return ResponseEntity.ok(new ApiResponse<>(true, "Payments per day", points));
     }
 
@@ -85,40 +70,26 @@ public class AdminAnalyticsController {
     public ResponseEntity<ApiResponse<List<TrendPoint>>> paymentsByWeek(
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
-        LocalDateTime s = start.atStartOfDay();
-        // Align to week starts (Monday)
-        LocalDate cur = start.minusDays((start.getDayOfWeek().getValue() + 6) % 7);
-        java.util.ArrayList<TrendPoint> points = new java.util.ArrayList<>();
-        while (!cur.isAfter(end)) {
-            LocalDate weekStart = cur;
-            LocalDate weekEnd = cur.plusDays(6);
-            if (weekStart.isBefore(start)) weekStart = start;
-            if (weekEnd.isAfter(end)) weekEnd = end;
-            java.math.BigDecimal sum = paymentRepository
-                .findByStatusAndCreatedAtBetween("SUCCESS", weekStart.atStartOfDay(), weekEnd.atTime(LocalTime.MAX))
-                .stream()
-                .map(p -> p.getAmount() == null ? java.math.BigDecimal.ZERO : p.getAmount())
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add);
-            points.add(new TrendPoint(weekStart.toString(), sum.longValue()));
-            cur = cur.plusWeeks(1);
-        }
+        List<TrendPoint> points = trendService.trend(TrendService.Metric.REVENUE, TrendService.Granularity.WEEK, start, end);
         return ResponseEntity.ok(new ApiResponse<>(true, "Payments per week", points));
     }
-    // There is no SQL or database-specific code at $PLACEHOLDER$, so there is no conflict between PostgreSQL and MySQL here.
-    // All repository methods used (countByCreatedAtBetween, findByStatusAndCreatedAtBetween, topAgenciesByBookings, topAgenciesByRevenue)
-    // must be implemented in a way that works for both databases, but nothing in this controller is inherently incompatible.
-    // The code uses standard Java and Spring Data features, which are database-agnostic.
+
+    // Booking counts per status, seats sold and revenue over the days in [start, end], optionally for one agency
+    @GetMapping("/totals")
+    public ResponseEntity<ApiResponse<BookingStatsTotals>> totals(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @RequestParam(required = false) Long agencyId) {
+        return ResponseEntity.ok(new ApiResponse<>(true, "Booking totals", dailyBookingStatsService.totals(agencyId, start, end)));
+    }
+
+    // Leaderboards are summed from daily_booking_stats, one row per day and route instead of per booking
     @GetMapping("/top/agencies/bookings")
     public ResponseEntity<ApiResponse<List<LeaderboardRow>>> topAgenciesByBookings(
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
         @RequestParam(defaultValue = "10") int limit) {
-        LocalDateTime s = start.atStartOfDay();
-        LocalDateTime e = end.atTime(LocalTime.MAX);
-        List<LeaderboardRow> rows = bookingRepository.topAgenciesByBookings(s, e).stream()
-            .map(r -> new LeaderboardRow(((Number) r[0]).longValue(), String.valueOf(r[1]), ((Number) r[2]).doubleValue()))
-            .limit(limit)
-            .collect(Collectors.toList());
+        List<LeaderboardRow> rows = leaderboard(DailyBookingStatsService.Ranking.BOOKINGS, start, end, limit);
         return ResponseEntity.ok(new ApiResponse<>(true, "Top agencies by bookings", rows));
     }
 
@@ -127,19 +98,54 @@ public class AdminAnalyticsController {
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
         @RequestParam(defaultValue = "10") int limit) {
-        LocalDateTime s = start.atStartOfDay();
-        LocalDateTime e = end.atTime(LocalTime.MAX);
-        List<LeaderboardRow> rows = paymentRepository.topAgenciesByRevenue(s, e).stream()
+        List<LeaderboardRow> rows = leaderboard(DailyBookingStatsService.Ranking.REVENUE, start, end, limit);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Top agencies by revenue", rows));
+    }
+
+    // Estimated distinct customers who booked over [start, end], in any status, from the daily HyperLogLog sketches
+    @GetMapping("/customers/distinct")
+    public ResponseEntity<ApiResponse<Long>> distinctCustomers(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @RequestParam(required = false) Long agencyId,
+        @RequestParam(required = false) Long routeId) {
+        long customers = bookingSketchService.distinctCustomers(agencyId, routeId, start, end);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Distinct customers (estimated)", customers));
+    }
+
+    // Busiest pickup or drop points over [start, end], from the daily count-min sketches
+    @GetMapping("/points/top")
+    public ResponseEntity<ApiResponse<List<PointPopularity>>> topPoints(
+        @RequestParam(defaultValue = "pickup") String type,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @RequestParam(required = false) Long agencyId,
+        @RequestParam(defaultValue = "10") int limit) {
+        BookingSketchService.PointType pointType = parse(BookingSketchService.PointType.class, type, "point type");
+        return ResponseEntity.ok(new ApiResponse<>(true, "Top " + type.toLowerCase() + " points (estimated)",
+            bookingSketchService.topPoints(pointType, agencyId, start, end, limit)));
+    }
+
+    // Recomputes the daily rollup for [start, end], e.g. after fixing rows by hand
+    @PostMapping("/rollup/rebuild")
+    public ResponseEntity<ApiResponse<Integer>> rebuildRollup(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
+        return ResponseEntity.ok(new ApiResponse<>(true, "Rollup rebuilt", dailyBookingStatsService.rebuild(start, end)));
+    }
+
+    private List<LeaderboardRow> leaderboard(DailyBookingStatsService.Ranking ranking, LocalDate start, LocalDate end, int limit) {
+        return dailyBookingStatsService.topAgencies(ranking, start, end, limit).stream()
             .map(r -> new LeaderboardRow(((Number) r[0]).longValue(), String.valueOf(r[1]), ((Number) r[2]).doubleValue()))
-            .limit(limit)
             .collect(Collectors.toList());
-        return ResponseEntity.ok(new ApiResponse<>(true, "Top agencies by revenue", rows));
     }
 
-    public static class TrendPoint {
-        public String bucket;
-        public long value;
-        public TrendPoint(String bucket, long value) { this.bucket = bucket; this.value = value; }
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + name + ": " + value);
+        }
     }
 
     public static class LeaderboardRow {
@@ -1,12 +1,12 @@
 package com.inzira.admin.controllers;
 
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
@@ -14,9 +14,13 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.inzira.admin.services.AdminListingService;
+import com.inzira.shared.dtos.CursorPage;
 import com.inzira.shared.entities.Booking;
 import com.inzira.shared.entities.Payment;
 import com.inzira.shared.exceptions.ApiResponse;
@@ -31,6 +35,7 @@ import lombok.RequiredArgsConstructor;
 public class AdminListingController {
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
+    private final AdminListingService adminListingService;
 
     public static class AgencyGroupSummary {
         public Long agencyId;
@@ -43,122 +48,68 @@ public class AdminListingController {
     }
 
     @GetMapping("/bookings")
-    public ResponseEntity<ApiResponse<List<Booking>>> listBookings(
+    public ResponseEntity<ApiResponse<CursorPage<Booking>>> listBookings(
         @RequestParam(required = false) String status,
         @RequestParam(required = false) Long agencyId,
         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
-        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
-        List<Booking> all = bookingRepository.findAll();
-        List<Booking> filtered = all.stream()
-            .filter(b -> status == null || status.isBlank() || status.equalsIgnoreCase(b.getStatus()))
-            .filter(b -> {
-                if (agencyId == null) return true;
-                if (b.getSchedule() == null || b.getSchedule().getAgencyRoute() == null || b.getSchedule().getAgencyRoute().getAgency() == null) return false;
-                return agencyId.equals(b.getSchedule().getAgencyRoute().getAgency().getId());
-            })
-            .filter(b -> {
-                if (start == null && end == null) return true;
-                LocalDateTime t = b.getCreatedAt();
-                LocalDateTime s = start != null ? start.atStartOfDay() : LocalDate.MIN.atStartOfDay();
-                LocalDateTime e = end != null ? end.atTime(LocalTime.MAX) : LocalDate.MAX.atTime(LocalTime.MAX);
-                return t != null && (t.isEqual(s) || t.isAfter(s)) && (t.isEqual(e) || t.isBefore(e));
-            })
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(new ApiResponse<>(true, "Bookings", filtered));
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + AdminListingService.DEFAULT_PAGE_SIZE) int size) {
+        CursorPage<Booking> page = adminListingService.listBookings(status, agencyId, start, end, cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Bookings", page));
     }
 
     @GetMapping("/bookings/export")
-    public ResponseEntity<byte[]> exportBookingsCsv(
+    public ResponseEntity<StreamingResponseBody> exportBookingsCsv(
         @RequestParam(required = false) String status,
         @RequestParam(required = false) Long agencyId,
         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
-        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) throws IOException {
-        List<Booking> bookings = listBookings(status, agencyId, start, end).getBody().getData();
-        StringBuilder sb = new StringBuilder();
-        sb.append("Reference,Agency,Customer,Status,PaymentStatus,Seats,Amount,CreatedAt\n");
-        for (Booking b : bookings) {
-            String agencyName = b.getSchedule()!=null && b.getSchedule().getAgencyRoute()!=null && b.getSchedule().getAgencyRoute().getAgency()!=null ? b.getSchedule().getAgencyRoute().getAgency().getAgencyName() : "";
-            sb.append(String.join(",",
-                safe(b.getBookingReference()),
-                safe(agencyName),
-                safe(b.getCustomer() != null ? (b.getCustomer().getFirstName()+" "+b.getCustomer().getLastName()) : ""),
-                safe(b.getStatus()),
-                safe(b.getPaymentStatus()),
-                String.valueOf(b.getNumberOfSeats()),
-                b.getTotalAmount() != null ? b.getTotalAmount().toString() : "",
-                b.getCreatedAt() != null ? b.getCreatedAt().toString() : ""
-            )).append("\n");
-        }
-
-        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
-        return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=bookings.csv")
-            .contentType(MediaType.TEXT_PLAIN)
-            .body(bytes);
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csv("bookings.csv", acceptEncoding, out -> adminListingService.exportBookings(status, agencyId, start, end, out));
     }
 
     @GetMapping("/payments")
-    public ResponseEntity<ApiResponse<List<Payment>>> listPayments(
+    public ResponseEntity<ApiResponse<CursorPage<Payment>>> listPayments(
         @RequestParam(required = false) String status,
         @RequestParam(required = false) Long agencyId,
         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
-        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
-        List<Payment> all = paymentRepository.findAll();
-        List<Payment> filtered = all.stream()
-            .filter(p -> status == null || status.isBlank() || status.equalsIgnoreCase(p.getStatus()))
-            .filter(p -> {
-                if (agencyId == null) return true;
-                if (p.getBooking()==null || p.getBooking().getSchedule()==null || p.getBooking().getSchedule().getAgencyRoute()==null || p.getBooking().getSchedule().getAgencyRoute().getAgency()==null) return false;
-                return agencyId.equals(p.getBooking().getSchedule().getAgencyRoute().getAgency().getId());
-            })
-            .filter(p -> {
-                if (start == null && end == null) return true;
-                var t = p.getCreatedAt();
-                LocalDateTime s = start != null ? start.atStartOfDay() : LocalDate.MIN.atStartOfDay();
-                LocalDateTime e = end != null ? end.atTime(LocalTime.MAX) : LocalDate.MAX.atTime(LocalTime.MAX);
-                return t != null && (t.isEqual(s) || t.isAfter(s)) && (t.isEqual(e) || t.isBefore(e));
-            })
-            .collect(Collectors.toList());
-        return ResponseEntity.ok(new ApiResponse<>(true, "Payments", filtered));
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + AdminListingService.DEFAULT_PAGE_SIZE) int size) {
+        CursorPage<Payment> page = adminListingService.listPayments(status, agencyId, start, end, cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Payments", page));
     }
 
     @GetMapping("/payments/export")
-    public ResponseEntity<byte[]> exportPaymentsCsv(
+    public ResponseEntity<StreamingResponseBody> exportPaymentsCsv(
         @RequestParam(required = false) String status,
         @RequestParam(required = false) Long agencyId,
         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
-        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end) {
-        List<Payment> payments = listPayments(status, agencyId, start, end).getBody().getData();
-        StringBuilder sb = new StringBuilder();
-        sb.append("Reference,Agency,Status,Amount,Currency,Method,Customer,CreatedAt\n");
-        for (Payment p : payments) {
-            String agencyName = (p.getBooking()!=null && p.getBooking().getSchedule()!=null && p.getBooking().getSchedule().getAgencyRoute()!=null && p.getBooking().getSchedule().getAgencyRoute().getAgency()!=null) ? p.getBooking().getSchedule().getAgencyRoute().getAgency().getAgencyName() : "";
-            sb.append(String.join(",",
-                safe(p.getTransactionReference()),
-                safe(agencyName),
-                safe(p.getStatus()),
-                p.getAmount() != null ? p.getAmount().toString() : "",
-                safe(p.getCurrency()),
-                safe(p.getPaymentMethod()),
-                safe(p.getCustomerName()),
-                p.getCreatedAt() != null ? p.getCreatedAt().toString() : ""
-            )).append("\n");
-        }
-
-        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
-        return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=payments.csv")
-            .contentType(MediaType.TEXT_PLAIN)
-            .body(bytes);
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return csv("payments.csv", acceptEncoding, out -> adminListingService.exportPayments(status, agencyId, start, end, out));
     }
 
-    private String safe(String s) {
-        if (s == null) return "";
-        String v = s.replace("\"", "\"\"");
-        if (v.contains(",") || v.contains("\n")) {
-            return "\"" + v + "\"";
+    /**
+     * Streams an export as it is written instead of building it in memory; gzip-compressed when the
+     * client accepts it. Sync-flush gzip so the header row still reaches the client right away.
+     */
+    private ResponseEntity<StreamingResponseBody> csv(String filename, String acceptEncoding, StreamingResponseBody export) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = !gzip ? export : out -> {
+            GZIPOutputStream compressed = new GZIPOutputStream(out, true);
+            export.writeTo(compressed);
+            compressed.finish();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
-        return v;
+        return response.body(body);
     }
 
     @GetMapping("/groups/agencies/summary")
@@ -4,26 +4,34 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import com.inzira.admin.services.ScheduleCleanupService;
 import com.inzira.shared.exceptions.ApiResponse;
+import com.inzira.shared.services.ScheduleLifecycleService;
+import com.inzira.shared.services.ScheduleLifecycleService.Transitions;
 
 @RestController
 @RequestMapping("/api/admin/schedules")
 public class ScheduleCleanupController {
 
     @Autowired
-    private ScheduleCleanupService scheduleCleanupService;
+    private ScheduleLifecycleService scheduleLifecycleService;
 
     @PostMapping("/cleanup-expired")
-    public ResponseEntity<ApiResponse<Integer>> cleanupExpiredSchedules() {
-        int updatedCount = scheduleCleanupService.manuallyUpdateExpiredSchedules();
+    public ResponseEntity<ApiResponse<Transitions>> cleanupExpiredSchedules() {
+        Transitions transitions = scheduleLifecycleService.advance();
         return ResponseEntity.ok(new ApiResponse<>(true, 
-            "Updated " + updatedCount + " expired schedules", updatedCount));
+            "Updated " + transitions.total() + " expired schedules", transitions));
+    }
+
+    @PostMapping("/archive")
+    public ResponseEntity<ApiResponse<Transitions>> archiveOldSchedules() {
+        Transitions transitions = scheduleLifecycleService.archive();
+        return ResponseEntity.ok(new ApiResponse<>(true,
+            "Archived " + transitions.archived() + " old schedules", transitions));
     }
 
     @GetMapping("/stats")
-    public ResponseEntity<ApiResponse<ScheduleCleanupService.ScheduleStats>> getScheduleStats() {
-        ScheduleCleanupService.ScheduleStats stats = scheduleCleanupService.getScheduleStats();
+    public ResponseEntity<ApiResponse<ScheduleLifecycleService.ScheduleStats>> getScheduleStats() {
+        ScheduleLifecycleService.ScheduleStats stats = scheduleLifecycleService.getScheduleStats();
         return ResponseEntity.ok(new ApiResponse<>(true, "Schedule statistics retrieved", stats));
     }
-}
\ No newline at end of file
+}
@@ -20,4 +20,5 @@ public class AdminMetricsSummary {
     private long paymentsSuccess;
     private long paymentsPending;
     private long paymentsRefunded;
+    private long paymentsRefundPending;
 }
@@ -0,0 +1,14 @@
+package com.inzira.admin.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One bucket of a trend: its start (ISO date, or date-time for hourly buckets) and value
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendPoint {
+    private String bucket;
+    private long value;
+}
@@ -0,0 +1,195 @@
+package com.inzira.admin.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.inzira.shared.dtos.CursorPage;
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.entities.Payment;
+import com.inzira.shared.repositories.BookingRepository;
+import com.inzira.shared.repositories.PaymentRepository;
+import com.inzira.shared.utils.CsvWriter;
+import com.inzira.shared.utils.KeysetCursor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.FetchParent;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Admin booking and payment listings and their CSV exports. Every filter is a SQL predicate. Pages
+ * are read with keyset pagination on (createdAt desc, id desc) and exports are streamed, so neither
+ * loads more than a page of rows however large the tables get.
+ */
+@Service
+@RequiredArgsConstructor
+public class AdminListingService {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final String BOOKINGS_CSV_HEADER = "Reference,Agency,Customer,Status,PaymentStatus,Seats,Amount,CreatedAt";
+    public static final String PAYMENTS_CSV_HEADER = "Reference,Agency,Status,Amount,Currency,Method,Customer,CreatedAt";
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+    // Rows the JDBC driver buffers per round trip while an export streams
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public CursorPage<Booking> listBookings(String status, Long agencyId, LocalDate start, LocalDate end, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Specification<Booking> spec = (root, query, cb) -> {
+            Join<?, ?> agencyRoute = fetchBookingGraph(root);
+            return filters(root, agencyRoute, cb, status, agencyId, start, end, after);
+        };
+        return page(bookingRepository, spec, size, b -> new KeysetCursor(b.getCreatedAt(), b.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<Payment> listPayments(String status, Long agencyId, LocalDate start, LocalDate end, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Specification<Payment> spec = (root, query, cb) -> {
+            Join<?, ?> agencyRoute = fetchBookingGraph(root.fetch("booking"));
+            return filters(root, agencyRoute, cb, status, agencyId, start, end, after);
+        };
+        return page(paymentRepository, spec, size, p -> new KeysetCursor(p.getCreatedAt(), p.getId()));
+    }
+
+    /**
+     * Writes the bookings matching the filters to the stream as CSV, newest first, and returns the
+     * row count. Only the exported columns are selected and read through a forward-only cursor, so
+     * no entities pile up in the persistence context. The cursor lives as long as this transaction.
+     */
+    @Transactional(readOnly = true)
+    public long exportBookings(String status, Long agencyId, LocalDate start, LocalDate end, OutputStream out) throws IOException {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Booking> root = query.from(Booking.class);
+        Join<?, ?> customer = root.join("customer");
+        Join<?, ?> agencyRoute = root.join("schedule").join("agencyRoute");
+        query.multiselect(
+                root.get("bookingReference"),
+                agencyRoute.join("agency").get("agencyName"),
+                cb.concat(cb.concat(customer.<String>get("firstName"), " "), customer.<String>get("lastName")),
+                root.get("status"),
+                root.get("paymentStatus"),
+                root.get("numberOfSeats"),
+                root.get("totalAmount"),
+                root.get("createdAt"))
+            .where(filters(root, agencyRoute, cb, status, agencyId, start, end, null))
+            .orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+        return export(query, BOOKINGS_CSV_HEADER, out);
+    }
+
+    // Payments counterpart of exportBookings
+    @Transactional(readOnly = true)
+    public long exportPayments(String status, Long agencyId, LocalDate start, LocalDate end, OutputStream out) throws IOException {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Payment> root = query.from(Payment.class);
+        Join<?, ?> agencyRoute = root.join("booking").join("schedule").join("agencyRoute");
+        query.multiselect(
+                root.get("transactionReference"),
+                agencyRoute.join("agency").get("agencyName"),
+                root.get("status"),
+                root.get("amount"),
+                root.get("currency"),
+                root.get("paymentMethod"),
+                root.get("customerName"),
+                root.get("createdAt"))
+            .where(filters(root, agencyRoute, cb, status, agencyId, start, end, null))
+            .orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+        return export(query, PAYMENTS_CSV_HEADER, out);
+    }
+
+    private long export(CriteriaQuery<Object[]> query, String header, OutputStream out) throws IOException {
+        try (Stream<Object[]> rows = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            return CsvWriter.write(out, header, rows);
+        }
+    }
+
+    // Reads one row more than the page size to know whether another page follows
+    private static <T> CursorPage<T> page(JpaSpecificationExecutor<T> repository, Specification<T> spec, int size,
+                                          Function<T, KeysetCursor> position) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<T> rows = repository.findBy(spec, query -> query.sortBy(NEWEST_FIRST).limit(size + 1).all());
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = hasMore ? position.apply(items.get(size - 1)).encode() : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Fetch-joins the eager to-one graph a listed booking serialises, so a page costs one query
+     * instead of one per row. Returns the agency route join for the agency filter.
+     */
+    private static Join<?, ?> fetchBookingGraph(FetchParent<?, ?> booking) {
+        booking.fetch("customer");
+        booking.fetch("pickupPoint");
+        booking.fetch("dropPoint");
+        Fetch<?, ?> schedule = booking.fetch("schedule");
+        schedule.fetch("bus");
+        schedule.fetch("driver");
+        Fetch<?, ?> agencyRoute = schedule.fetch("agencyRoute");
+        agencyRoute.fetch("agency");
+        Fetch<?, ?> route = agencyRoute.fetch("route");
+        route.fetch("origin");
+        route.fetch("destination");
+        return (Join<?, ?>) agencyRoute;
+    }
+
+    private static Predicate filters(Root<?> root, Join<?, ?> agencyRoute, CriteriaBuilder cb, String status, Long agencyId,
+                                     LocalDate start, LocalDate end, KeysetCursor after) {
+        Path<LocalDateTime> createdAt = root.get("createdAt");
+        Path<Long> id = root.get("id");
+        // Rows without a creation time cannot be placed in the keyset order
+        List<Predicate> predicates = new ArrayList<>(List.of(cb.isNotNull(createdAt)));
+        if (status != null && !status.isBlank()) {
+            predicates.add(cb.equal(root.get("status"), status.trim().toUpperCase()));
+        }
+        if (agencyId != null) {
+            predicates.add(cb.equal(agencyRoute.get("agency").get("id"), agencyId));
+        }
+        if (start != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdAt, start.atStartOfDay()));
+        }
+        if (end != null) {
+            predicates.add(cb.lessThan(createdAt, end.plusDays(1).atStartOfDay()));
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                cb.lessThan(createdAt, after.createdAt()),
+                cb.and(cb.equal(createdAt, after.createdAt()), cb.lessThan(id, after.id()))));
+        }
+        return cb.and(predicates.toArray(Predicate[]::new));
+    }
+}
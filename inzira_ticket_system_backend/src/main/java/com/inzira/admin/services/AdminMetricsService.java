@@ -1,15 +1,43 @@
 package com.inzira.admin.services;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.inzira.admin.dtos.AdminMetricsSummary;
 import com.inzira.agency.repositories.AgencyRepository;
+import com.inzira.shared.dtos.BookingStatsTotals;
 import com.inzira.shared.repositories.*;
+import com.inzira.shared.services.DailyBookingStatsService;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Platform-wide admin dashboard summary.
+ *
+ * Built from count-only queries: plain counts for reference data and fleet, one status-grouped count
+ * for agencies and payments, and booking counts from the booking rollup. The queries run concurrently.
+ *
+ * The summary is cached with refresh-ahead: once it is older than refresh-ahead-seconds the next read
+ * still gets it but starts a reload in the background, and only a summary older than
+ * max-staleness-seconds makes readers wait. Concurrent readers share a single load, so any number of
+ * admins polling the dashboard cost about one computation per refresh interval.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AdminMetricsService {
     private final AgencyRepository agencyRepository;
     private final ProvinceRepository provinceRepository;
@@ -17,27 +45,137 @@ public class AdminMetricsService {
     private final RouteRepository routeRepository;
     private final BusRepository busRepository;
     private final DriverRepository driverRepository;
-    private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
+    private final DailyBookingStatsService dailyBookingStatsService;
+
+    @Value("${admin-metrics.threads:4}")
+    private int threads = 4;
+
+    @Value("${admin-metrics.refresh-ahead-seconds:10}")
+    private long refreshAheadSeconds = 10;
+
+    @Value("${admin-metrics.max-staleness-seconds:30}")
+    private long maxStalenessSeconds = 30;
+
+    private volatile Snapshot snapshot;
+    private final AtomicReference<CompletableFuture<Snapshot>> loading = new AtomicReference<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "admin-metrics-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 
     public AdminMetricsSummary getSummary() {
-        AdminMetricsSummary s = new AdminMetricsSummary();
-        s.setTotalProvinces(provinceRepository.count());
-        s.setTotalDistricts(districtRepository.count());
-        s.setTotalRoutes(routeRepository.count());
-        s.setTotalAgencies(agencyRepository.count());
-        s.setActiveAgencies(agencyRepository.findAll().stream().filter(a -> "ACTIVE".equalsIgnoreCase(a.getStatus())).count());
-        s.setInactiveAgencies(Math.max(0, s.getTotalAgencies() - s.getActiveAgencies()));
-        s.setTotalBuses(busRepository.count());
-        s.setTotalDrivers(driverRepository.count());
-        s.setTotalBookings(bookingRepository.count());
-        s.setConfirmedBookings(bookingRepository.countByStatus("CONFIRMED"));
-        s.setPendingBookings(bookingRepository.countByStatus("PENDING"));
-        s.setCompletedBookings(bookingRepository.countByStatus("COMPLETED"));
-        s.setCancelledBookings(bookingRepository.countByStatus("CANCELLED"));
-        s.setPaymentsSuccess(paymentRepository.findByStatus("SUCCESS").size());
-        s.setPaymentsPending(paymentRepository.findByStatus("PENDING").size());
-        s.setPaymentsRefunded(paymentRepository.findByStatus("REFUNDED").size());
-        return s;
+        Snapshot current = snapshot;
+        long age = current == null ? Long.MAX_VALUE : System.nanoTime() - current.loadedAt();
+        if (age < TimeUnit.SECONDS.toNanos(refreshAheadSeconds)) {
+            return current.summary();
+        }
+        CompletableFuture<Snapshot> load = reload();
+        if (age < TimeUnit.SECONDS.toNanos(maxStalenessSeconds)) {
+            return current.summary();
+        }
+        try {
+            return load.join().summary();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Drops the cached summary, so the next request loads it again
+    public void evict() {
+        snapshot = null;
     }
+
+    // Starts a load unless one is running, and returns the running one
+    private CompletableFuture<Snapshot> reload() {
+        while (true) {
+            CompletableFuture<Snapshot> running = loading.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<Snapshot> load = new CompletableFuture<>();
+            if (loading.compareAndSet(null, load)) {
+                long startedAt = System.nanoTime();
+                compute().whenComplete((summary, error) -> {
+                    if (error == null) {
+                        snapshot = new Snapshot(summary, startedAt);
+                        load.complete(snapshot);
+                    } else {
+                        log.warn("Failed to load the admin metrics summary: {}", error.getMessage());
+                        load.completeExceptionally(error);
+                    }
+                    loading.set(null);
+                });
+                return load;
+            }
+        }
+    }
+
+    private CompletableFuture<AdminMetricsSummary> compute() {
+        CompletableFuture<Long> provinces = async(provinceRepository::count);
+        CompletableFuture<Long> districts = async(districtRepository::count);
+        CompletableFuture<Long> routes = async(routeRepository::count);
+        CompletableFuture<Long> buses = async(busRepository::count);
+        CompletableFuture<Long> drivers = async(driverRepository::count);
+        CompletableFuture<List<Object[]>> agencies = async(agencyRepository::statusCounts);
+        CompletableFuture<List<Object[]>> payments = async(paymentRepository::statusCounts);
+        CompletableFuture<BookingStatsTotals> bookings = async(() -> dailyBookingStatsService.totals(null, null, null));
+
+        return CompletableFuture.allOf(provinces, districts, routes, buses, drivers, agencies, payments, bookings)
+            .thenApply(done -> {
+                AdminMetricsSummary s = new AdminMetricsSummary();
+                s.setTotalProvinces(provinces.join());
+                s.setTotalDistricts(districts.join());
+                s.setTotalRoutes(routes.join());
+                s.setTotalBuses(buses.join());
+                s.setTotalDrivers(drivers.join());
+
+                for (Object[] row : agencies.join()) {
+                    long count = ((Number) row[1]).longValue();
+                    s.setTotalAgencies(s.getTotalAgencies() + count);
+                    if ("ACTIVE".equalsIgnoreCase((String) row[0])) {
+                        s.setActiveAgencies(s.getActiveAgencies() + count);
+                    }
+                }
+                s.setInactiveAgencies(s.getTotalAgencies() - s.getActiveAgencies());
+
+                // Bookings by current status, summed from the rollup
+                BookingStatsTotals totals = bookings.join();
+                s.setTotalBookings(totals.getTotalBookings());
+                s.setConfirmedBookings(totals.getConfirmedBookings());
+                s.setPendingBookings(totals.getPendingBookings());
+                s.setCompletedBookings(totals.getCompletedBookings());
+                s.setCancelledBookings(totals.getCancelledBookings());
+
+                for (Object[] row : payments.join()) {
+                    long count = ((Number) row[1]).longValue();
+                    switch (String.valueOf(row[0])) {
+                        case "SUCCESS" -> s.setPaymentsSuccess(count);
+                        case "PENDING" -> s.setPaymentsPending(count);
+                        case "REFUNDED" -> s.setPaymentsRefunded(count);
+                        case "REFUND_PENDING" -> s.setPaymentsRefundPending(count);
+                        default -> { }
+                    }
+                }
+                return s;
+            });
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    private record Snapshot(AdminMetricsSummary summary, long loadedAt) {}
 }
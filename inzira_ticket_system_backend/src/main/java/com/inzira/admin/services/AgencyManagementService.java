@@ -19,6 +19,7 @@ import com.inzira.agency.repositories.AgencyRepository;
 import com.inzira.shared.entities.User;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.UserRepository;
+import com.inzira.shared.security.TokenDenylist;
 import com.inzira.shared.services.FileStorageService;
 import com.inzira.shared.utils.PasswordUtility;
 
@@ -39,6 +40,9 @@ public class AgencyManagementService {
 
     @Autowired
     private AgencyMapper agencyMapper;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
     
     // Get all agencies as DTOs
     public List<AgencyDTO> getAllAgencies() {
@@ -92,6 +96,7 @@ public class AgencyManagementService {
         userRepository.findByEmail(agency.getEmail()).ifPresent(user -> {
             user.setPassword(passwordUtility.encodePassword(newPassword));
             userRepository.save(user);
+            tokenDenylist.revokeUser(user.getId());
         });
 
         return newPassword;
@@ -1,10 +1,15 @@
 package com.inzira.admin.services;
 
+import com.inzira.agency.entities.AgencyRoute;
+import com.inzira.agency.repositories.AgencyRouteRepository;
 import com.inzira.shared.entities.District;
 import com.inzira.shared.entities.Route;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.DistrictRepository;
 import com.inzira.shared.repositories.RouteRepository;
+import com.inzira.shared.services.ConnectionPlanner;
+import com.inzira.shared.services.DepartureIndex;
+import com.inzira.shared.services.ScheduleSearchCache;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,6 +26,18 @@ public class RouteManagementService {
     @Autowired
     private DistrictRepository districtRepository;
 
+    @Autowired
+    private AgencyRouteRepository agencyRouteRepository;
+
+    @Autowired
+    private ScheduleSearchCache scheduleSearchCache;
+
+    @Autowired
+    private DepartureIndex departureIndex;
+
+    @Autowired
+    private ConnectionPlanner connectionPlanner;
+
     public Route createRoute(Route route) {
         if (route.getOrigin() == null || route.getDestination() == null) {
             throw new IllegalArgumentException("Origin and destination must be provided");
@@ -78,7 +95,16 @@ public class RouteManagementService {
         existingRoute.setDestination(updatedRoute.getDestination());
         existingRoute.setDistanceKm(updatedRoute.getDistanceKm());
 
-        return routeRepository.save(existingRoute);
+        Route savedRoute = routeRepository.save(existingRoute);
+        if (!sameIds) {
+            // Searches, departures and connections are keyed by the route's districts
+            scheduleSearchCache.evictAll();
+            for (AgencyRoute agencyRoute : agencyRouteRepository.findByRouteId(id)) {
+                departureIndex.reloadAgencyRoute(agencyRoute.getId());
+            }
+            connectionPlanner.invalidateGraph();
+        }
+        return savedRoute;
     }
 
     public void deleteRoute(Long id) {
@@ -86,5 +112,6 @@ public class RouteManagementService {
             throw new ResourceNotFoundException("Route not found with ID: " + id);
         }
         routeRepository.deleteById(id);
+        connectionPlanner.invalidateGraph();
     }
 }
\ No newline at end of file
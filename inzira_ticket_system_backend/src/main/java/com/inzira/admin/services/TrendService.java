@@ -0,0 +1,207 @@
+package com.inzira.admin.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.inzira.admin.dtos.TrendPoint;
+import com.inzira.shared.utils.TransactionCallbacks;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Booking and revenue trends at hour, day, week or month granularity.
+ *
+ * A request is answered by one GROUP BY query over the buckets it still needs. The query groups on
+ * the HQL year/month/day/hour functions, which Hibernate renders for every dialect (H2, PostgreSQL,
+ * MySQL). Weeks are folded from days into Monday-aligned buckets, and buckets without rows are filled
+ * with zero.
+ *
+ * A bucket counts as closed once it ended more than settle-minutes ago; late payment confirmations
+ * land inside that window. Closed buckets never change, so they are cached per JVM (LRU, bounded) and
+ * later requests only query the open ones. Refunds and late confirmations of older payments evict the
+ * buckets they fall in.
+ */
+@Service
+public class TrendService {
+
+    public static final int MAX_BUCKETS = 5000;
+
+    public enum Metric {
+        // Bookings created, whatever their status
+        BOOKINGS("count(e.id)", "Booking e", ""),
+        // Amount of successful payments
+        REVENUE("sum(e.amount)", "Payment e", "e.status = 'SUCCESS' and ");
+
+        private final String aggregate;
+        private final String from;
+        private final String condition;
+
+        Metric(String aggregate, String from, String condition) {
+            this.aggregate = aggregate;
+            this.from = from;
+            this.condition = condition;
+        }
+    }
+
+    public enum Granularity {
+        HOUR("year(e.createdAt), month(e.createdAt), day(e.createdAt), hour(e.createdAt)"),
+        DAY("year(e.createdAt), month(e.createdAt), day(e.createdAt)"),
+        // Grouped by day, then folded into weeks so ISO week numbering never depends on the database
+        WEEK("year(e.createdAt), month(e.createdAt), day(e.createdAt)"),
+        MONTH("year(e.createdAt), month(e.createdAt)");
+
+        private final String groupBy;
+
+        Granularity(String groupBy) {
+            this.groupBy = groupBy;
+        }
+
+        // Start of the bucket containing the time
+        LocalDateTime align(LocalDateTime time) {
+            return switch (this) {
+                case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+                case WEEK -> time.toLocalDate().minusDays(time.getDayOfWeek().getValue() - 1).atStartOfDay();
+                case MONTH -> time.toLocalDate().withDayOfMonth(1).atStartOfDay();
+            };
+        }
+
+        LocalDateTime next(LocalDateTime bucket) {
+            return switch (this) {
+                case HOUR -> bucket.plusHours(1);
+                case DAY -> bucket.plusDays(1);
+                case WEEK -> bucket.plusWeeks(1);
+                case MONTH -> bucket.plusMonths(1);
+            };
+        }
+
+        String label(LocalDateTime bucket) {
+            return this == HOUR ? bucket.toString() : bucket.toLocalDate().toString();
+        }
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${analytics.trends.settle-minutes:60}")
+    private long settleMinutes = 60;
+
+    @Value("${analytics.trends.cache-max-entries:50000}")
+    private int cacheMaxEntries = 50000;
+
+    private final Map<BucketKey, Long> closedBuckets = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<BucketKey, Long> eldest) {
+            return size() > cacheMaxEntries;
+        }
+    });
+
+    /**
+     * One point per bucket overlapping [start, end], oldest first. Buckets are whole periods, so the
+     * first and last may extend past the requested dates.
+     */
+    @Transactional(readOnly = true)
+    public List<TrendPoint> trend(Metric metric, Granularity granularity, LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        List<LocalDateTime> buckets = new ArrayList<>();
+        LocalDateTime limit = end.plusDays(1).atStartOfDay();
+        for (LocalDateTime bucket = granularity.align(start.atStartOfDay()); bucket.isBefore(limit); bucket = granularity.next(bucket)) {
+            if (buckets.size() == MAX_BUCKETS) {
+                throw new IllegalArgumentException("Date range spans more than " + MAX_BUCKETS + " " + granularity.name().toLowerCase() + " buckets");
+            }
+            buckets.add(bucket);
+        }
+
+        LocalDateTime settledBefore = LocalDateTime.now().minusMinutes(settleMinutes);
+        Map<LocalDateTime, Long> values = new HashMap<>();
+        LocalDateTime queryFrom = null;
+        LocalDateTime queryTo = null;
+        for (LocalDateTime bucket : buckets) {
+            Long cached = closedBuckets.get(new BucketKey(metric, granularity, bucket));
+            if (cached != null) {
+                values.put(bucket, cached);
+            } else {
+                queryFrom = queryFrom == null ? bucket : queryFrom;
+                queryTo = granularity.next(bucket);
+            }
+        }
+
+        if (queryFrom != null) {
+            Map<LocalDateTime, Long> loaded = load(metric, granularity, queryFrom, queryTo);
+            for (LocalDateTime bucket : buckets) {
+                if (bucket.isBefore(queryFrom) || !bucket.isBefore(queryTo) || values.containsKey(bucket)) {
+                    continue;
+                }
+                long value = loaded.getOrDefault(bucket, 0L);
+                values.put(bucket, value);
+                if (!granularity.next(bucket).isAfter(settledBefore)) {
+                    closedBuckets.put(new BucketKey(metric, granularity, bucket), value);
+                }
+            }
+        }
+
+        List<TrendPoint> points = new ArrayList<>(buckets.size());
+        for (LocalDateTime bucket : buckets) {
+            points.add(new TrendPoint(granularity.label(bucket), values.get(bucket)));
+        }
+        return points;
+    }
+
+    // Drops the cached buckets containing the time once the change to a row created then commits
+    public void evict(Metric metric, LocalDateTime createdAt) {
+        if (createdAt == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            for (Granularity granularity : Granularity.values()) {
+                closedBuckets.remove(new BucketKey(metric, granularity, granularity.align(createdAt)));
+            }
+        });
+    }
+
+    public int cachedBuckets() {
+        return closedBuckets.size();
+    }
+
+    // Bucket start -> value for the buckets in [from, to) that have rows
+    private Map<LocalDateTime, Long> load(Metric metric, Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        String jpql = "select " + granularity.groupBy + ", " + metric.aggregate
+            + " from " + metric.from
+            + " where " + metric.condition + "e.createdAt >= :from and e.createdAt < :to"
+            + " group by " + granularity.groupBy;
+        List<Object[]> rows = entityManager.createQuery(jpql, Object[].class)
+            .setParameter("from", from)
+            .setParameter("to", to)
+            .getResultList();
+
+        Map<LocalDateTime, Long> values = new HashMap<>();
+        for (Object[] row : rows) {
+            int fields = row.length - 1;
+            LocalDateTime time = LocalDateTime.of(
+                ((Number) row[0]).intValue(),
+                ((Number) row[1]).intValue(),
+                fields > 2 ? ((Number) row[2]).intValue() : 1,
+                fields > 3 ? ((Number) row[3]).intValue() : 0,
+                0);
+            long value = row[fields] == null ? 0 : ((Number) row[fields]).longValue();
+            values.merge(granularity.align(time), value, Long::sum);
+        }
+        return values;
+    }
+
+    private record BucketKey(Metric metric, Granularity granularity, LocalDateTime start) {}
+}
@@ -1,6 +1,7 @@
 package com.inzira.agency.controllers;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,8 +11,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import com.inzira.agency.services.ScheduleService;
+import com.inzira.shared.dtos.DepartureDTO;
+import com.inzira.shared.dtos.ItineraryDTO;
+import com.inzira.shared.dtos.SeatMapDTO;
 import com.inzira.shared.entities.Schedule;
 import com.inzira.shared.exceptions.ApiResponse;
+import com.inzira.shared.services.ConnectionPlanner;
+import com.inzira.shared.services.DepartureIndex;
+import com.inzira.shared.services.SeatMapService;
 
 @RestController
 @RequestMapping("/api/agency/schedules")
@@ -20,6 +27,15 @@ public class ScheduleController {
     @Autowired
     private ScheduleService scheduleService;
 
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private DepartureIndex departureIndex;
+
+    @Autowired
+    private ConnectionPlanner connectionPlanner;
+
     @PostMapping
     public ResponseEntity<ApiResponse<Schedule>> createSchedule(@RequestBody Schedule schedule) {
         Schedule createdSchedule = scheduleService.createSchedule(schedule);
@@ -40,6 +56,12 @@ public class ScheduleController {
         return ResponseEntity.ok(new ApiResponse<>(true, "Schedule found", schedule));
     }
 
+    @GetMapping("/{id}/seats")
+    public ResponseEntity<ApiResponse<SeatMapDTO>> getSeatMap(@PathVariable Long id) {
+        SeatMapDTO seatMap = seatMapService.getSeatMap(id);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Seat map retrieved successfully", seatMap));
+    }
+
     @GetMapping("/agency/{agencyId}")
     public ResponseEntity<ApiResponse<List<Schedule>>> getSchedulesByAgency(@PathVariable Long agencyId) {
         List<Schedule> schedules = scheduleService.getSchedulesByAgency(agencyId);
@@ -65,6 +87,47 @@ public class ScheduleController {
         return ResponseEntity.ok(new ApiResponse<>(true, message, schedules));
     }
 
+    @GetMapping("/departures/next")
+    public ResponseEntity<ApiResponse<List<DepartureDTO>>> getNextDepartures(
+            @RequestParam Long originId,
+            @RequestParam Long destinationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(defaultValue = "1") int seats) {
+
+        List<DepartureDTO> departures = departureIndex.nextDepartures(originId, destinationId,
+            after != null ? after : LocalDateTime.now(), limit, seats);
+        String message = departures.isEmpty() ? "No upcoming departures found" : "Upcoming departures found";
+        return ResponseEntity.ok(new ApiResponse<>(true, message, departures));
+    }
+
+    @GetMapping("/departures/cheapest")
+    public ResponseEntity<ApiResponse<List<DepartureDTO>>> getCheapestDeparturesPerDay(
+            @RequestParam Long originId,
+            @RequestParam Long destinationId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(defaultValue = "1") int seats) {
+
+        List<DepartureDTO> departures = departureIndex.cheapestPerDay(originId, destinationId, fromDate, toDate, seats);
+        String message = departures.isEmpty() ? "No departures found in the specified dates" : "Cheapest departures found";
+        return ResponseEntity.ok(new ApiResponse<>(true, message, departures));
+    }
+
+    @GetMapping("/connections")
+    public ResponseEntity<ApiResponse<List<ItineraryDTO>>> searchConnections(
+            @RequestParam Long originId,
+            @RequestParam Long destinationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(defaultValue = "1") int seats,
+            @RequestParam(defaultValue = "5") int limit) {
+
+        List<ItineraryDTO> itineraries = connectionPlanner.plan(originId, destinationId,
+            after != null ? after : LocalDateTime.now(), seats, limit);
+        String message = itineraries.isEmpty() ? "No connections found" : "Connections found";
+        return ResponseEntity.ok(new ApiResponse<>(true, message, itineraries));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Schedule>> updateSchedule(@PathVariable Long id, @RequestBody Schedule schedule) {
         Schedule updatedSchedule = scheduleService.updateSchedule(id, schedule);
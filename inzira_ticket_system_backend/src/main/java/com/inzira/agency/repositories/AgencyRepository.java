@@ -1,8 +1,10 @@
 package com.inzira.agency.repositories;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.inzira.agency.entities.Agency;
@@ -12,4 +14,8 @@ public interface AgencyRepository extends JpaRepository<Agency, Long> {
     Optional<Agency> findByEmail(String email);
     boolean existsByEmail(String email);
     boolean existsByAgencyName(String agencyName);
+
+    // [status, count] of all agencies, for dashboards
+    @Query("select a.status, count(a) from Agency a group by a.status")
+    List<Object[]> statusCounts();
 }
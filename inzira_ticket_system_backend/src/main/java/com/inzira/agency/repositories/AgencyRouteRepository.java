@@ -3,6 +3,7 @@ package com.inzira.agency.repositories;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import com.inzira.agency.entities.AgencyRoute;
 
@@ -10,4 +11,8 @@ public interface AgencyRouteRepository extends JpaRepository<AgencyRoute, Long>
     List<AgencyRoute> findByRouteId(Long routeId);
     List<AgencyRoute> findByRouteOriginIdAndRouteDestinationId(Long originDistrictId, Long destinationDistrictId);
     List<AgencyRoute> findByAgencyId(Long agencyId);
+
+    // District pairs served by at least one agency: [origin id, origin name, destination id, destination name]
+    @Query("SELECT DISTINCT o.id, o.name, d.id, d.name FROM AgencyRoute ar JOIN ar.route r JOIN r.origin o JOIN r.destination d")
+    List<Object[]> findServedDistrictPairs();
 }
@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.inzira.agency.entities.Agent;
@@ -15,4 +17,8 @@ public interface AgentRepository extends JpaRepository<Agent, Long> {
     List<Agent> findByAgencyIdAndStatus(Long agencyId, String status);
     boolean existsByEmail(String email);
     Optional<Agent> findByEmail(String email);
-}
\ No newline at end of file
+
+    // [status, count] of the agency's agents, for dashboards
+    @Query("select a.status, count(a) from Agent a where a.agency.id = :agencyId group by a.status")
+    List<Object[]> statusCountsByAgencyId(@Param("agencyId") Long agencyId);
+}
@@ -3,6 +3,8 @@ package com.inzira.agency.repositories;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.inzira.agency.entities.BranchOffice;
@@ -12,4 +14,8 @@ public interface BranchOfficeRepository extends JpaRepository<BranchOffice, Long
     List<BranchOffice> findByAgencyId(Long agencyId);
     List<BranchOffice> findByAgencyIdAndStatus(Long agencyId, String status);
     boolean existsByOfficeNameAndAgencyId(String officeName, Long agencyId);
-}
\ No newline at end of file
+
+    // [status, count] of the agency's branch offices, for dashboards
+    @Query("select o.status, count(o) from BranchOffice o where o.agency.id = :agencyId group by o.status")
+    List<Object[]> statusCountsByAgencyId(@Param("agencyId") Long agencyId);
+}
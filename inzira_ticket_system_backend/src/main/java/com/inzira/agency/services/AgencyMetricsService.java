@@ -1,28 +1,51 @@
 package com.inzira.agency.services;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import com.inzira.agency.repositories.AgentRepository;
 import com.inzira.agency.repositories.BranchOfficeRepository;
-import com.inzira.shared.entities.Booking;
-import com.inzira.shared.repositories.BookingRepository;
+import com.inzira.shared.dtos.BookingStatsTotals;
 import com.inzira.shared.repositories.BusRepository;
-import com.inzira.shared.repositories.CustomerRepository;
 import com.inzira.shared.repositories.DriverRepository;
 import com.inzira.shared.repositories.ScheduleRepository;
-
+import com.inzira.shared.services.BookingSketchService;
+import com.inzira.shared.services.DailyBookingStatsService;
+import com.inzira.shared.services.ScheduleCountService;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Agency dashboard metrics.
+ *
+ * Every figure comes from an aggregate query: fleet and staff counts grouped by status, today's
+ * schedules, and the schedule count, booking, revenue and customer totals from the per-agency rollups. The queries are independent,
+ * so they run concurrently on a small pool and a dashboard costs about as much as its slowest query.
+ * Results are cached per agency for a few seconds; concurrent requests for one agency share one load.
+ */
 @Service
 public class AgencyMetricsService {
 
     @Autowired
-    private BookingRepository bookingRepository;
+    private DailyBookingStatsService dailyBookingStatsService;
+
+    @Autowired
+    private BookingSketchService bookingSketchService;
 
     @Autowired
     private BusRepository busRepository;
@@ -33,87 +56,128 @@ public class AgencyMetricsService {
     @Autowired
     private ScheduleRepository scheduleRepository;
 
+    @Autowired
+    private ScheduleCountService scheduleCountService;
+
     @Autowired
     private AgentRepository agentRepository;
 
     @Autowired
     private BranchOfficeRepository branchOfficeRepository;
 
-    @Autowired
-    private CustomerRepository customerRepository;
+    @Value("${agency-metrics.threads:4}")
+    private int threads = 4;
+
+    @Value("${agency-metrics.cache-ttl-seconds:10}")
+    private long cacheTtlSeconds = 10;
+
+    @Value("${agency-metrics.cache-max-entries:1000}")
+    private int cacheMaxEntries = 1000;
+
+    private final Map<Long, CachedMetrics> cache = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "agency-metrics-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
 
     public Map<String, Object> getAgencyMetrics(Long agencyId) {
-        Map<String, Object> metrics = new HashMap<>();
-
-        // Basic counts
-        metrics.put("totalBuses", busRepository.findByAgencyId(agencyId).size());
-        metrics.put("activeBuses", busRepository.findByAgencyIdAndStatus(agencyId, "ACTIVE").size());
-        metrics.put("totalDrivers", driverRepository.findByAgencyId(agencyId).size());
-        metrics.put("activeDrivers", driverRepository.findByAgencyIdAndStatus(agencyId, "ACTIVE").size());
-        metrics.put("totalAgents", agentRepository.findByAgencyId(agencyId).size());
-        metrics.put("activeAgents", agentRepository.findByAgencyIdAndStatus(agencyId, "ACTIVE").size());
-        metrics.put("totalBranchOffices", branchOfficeRepository.findByAgencyId(agencyId).size());
-        metrics.put("activeBranchOffices", branchOfficeRepository.findByAgencyIdAndStatus(agencyId, "ACTIVE").size());
-
-        // Schedule metrics
-        List<com.inzira.shared.entities.Schedule> todaySchedules = scheduleRepository.findByAgencyRouteAgencyId(agencyId)
-            .stream()
-            .filter(s -> s.getDepartureDate().equals(LocalDate.now()))
-            .toList();
-        metrics.put("todaySchedules", todaySchedules.size());
-
-        List<com.inzira.shared.entities.Schedule> allSchedules = scheduleRepository.findByAgencyRouteAgencyId(agencyId);
-        metrics.put("totalSchedules", allSchedules.size());
-
-        // Booking metrics
-        List<Booking> allBookings = getAllBookingsForAgency(agencyId);
-        metrics.put("totalBookings", allBookings.size());
-
-        long confirmedBookings = allBookings.stream()
-            .filter(b -> "CONFIRMED".equals(b.getStatus()))
-            .count();
-        metrics.put("confirmedBookings", confirmedBookings);
-
-        long completedBookings = allBookings.stream()
-            .filter(b -> "COMPLETED".equals(b.getStatus()))
-            .count();
-        metrics.put("completedBookings", completedBookings);
-
-        long pendingBookings = allBookings.stream()
-            .filter(b -> "PENDING".equals(b.getStatus()))
-            .count();
-        metrics.put("pendingBookings", pendingBookings);
-
-        // Revenue metrics
-        BigDecimal totalRevenue = allBookings.stream()
-            .filter(b -> "CONFIRMED".equals(b.getStatus()) || "COMPLETED".equals(b.getStatus()))
-            .map(Booking::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        metrics.put("totalRevenue", totalRevenue);
-
-        BigDecimal monthlyRevenue = allBookings.stream()
-            .filter(b -> ("CONFIRMED".equals(b.getStatus()) || "COMPLETED".equals(b.getStatus())) 
-                && b.getCreatedAt().getMonth() == LocalDate.now().getMonth()
-                && b.getCreatedAt().getYear() == LocalDate.now().getYear())
-            .map(Booking::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        metrics.put("monthlyRevenue", monthlyRevenue);
-
-        // Customer metrics
-        long uniqueCustomers = allBookings.stream()
-            .map(b -> b.getCustomer().getId())
-            .distinct()
-            .count();
-        metrics.put("uniqueCustomers", uniqueCustomers);
-
-        return metrics;
+        long now = System.nanoTime();
+        long ttlNanos = TimeUnit.SECONDS.toNanos(cacheTtlSeconds);
+        CachedMetrics cached = cache.compute(agencyId, (id, entry) ->
+            entry != null && now - entry.loadedAt() < ttlNanos && !entry.metrics().isCompletedExceptionally()
+                ? entry
+                : new CachedMetrics(load(id), now));
+        if (cache.size() > cacheMaxEntries) {
+            cache.values().removeIf(entry -> now - entry.loadedAt() >= ttlNanos);
+        }
+
+        try {
+            // Copied so callers never modify the cached map
+            return new HashMap<>(cached.metrics().join());
+        } catch (CompletionException e) {
+            cache.remove(agencyId, cached);
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    // Drops the cached metrics of the agency, so the next request loads them again
+    public void evict(Long agencyId) {
+        cache.remove(agencyId);
     }
 
-    private List<Booking> getAllBookingsForAgency(Long agencyId) {
-        List<com.inzira.shared.entities.Schedule> agencySchedules = scheduleRepository.findByAgencyRouteAgencyId(agencyId);
-        
-        return agencySchedules.stream()
-            .flatMap(schedule -> bookingRepository.findByScheduleId(schedule.getId()).stream())
-            .toList();
+    private CompletableFuture<Map<String, Object>> load(Long agencyId) {
+        LocalDate today = LocalDate.now();
+        CompletableFuture<List<Object[]>> buses = async(() -> busRepository.statusCountsByAgencyId(agencyId));
+        CompletableFuture<List<Object[]>> drivers = async(() -> driverRepository.statusCountsByAgencyId(agencyId));
+        CompletableFuture<List<Object[]>> agents = async(() -> agentRepository.statusCountsByAgencyId(agencyId));
+        CompletableFuture<List<Object[]>> branchOffices = async(() -> branchOfficeRepository.statusCountsByAgencyId(agencyId));
+        CompletableFuture<Long> schedules = async(() -> scheduleCountService.count(agencyId));
+        CompletableFuture<Long> todaySchedules = async(() -> scheduleRepository.countByAgencyIdAndDepartureDate(agencyId, today));
+        CompletableFuture<BookingStatsTotals> allTime = async(() -> dailyBookingStatsService.totals(agencyId, null, null));
+        CompletableFuture<BookingStatsTotals> thisMonth = async(() -> dailyBookingStatsService.totals(agencyId, today.withDayOfMonth(1), null));
+        CompletableFuture<Long> customers = async(() -> dailyBookingStatsService.customers(agencyId));
+        CompletableFuture<Long> monthlyCustomers = async(() -> bookingSketchService.distinctCustomers(agencyId, null, today.withDayOfMonth(1), today));
+
+        return CompletableFuture.allOf(buses, drivers, agents, branchOffices, schedules, todaySchedules, allTime, thisMonth, customers, monthlyCustomers)
+            .thenApply(done -> {
+                Map<String, Object> metrics = new HashMap<>();
+
+                // Basic counts
+                putStatusCounts(metrics, "Buses", buses.join());
+                putStatusCounts(metrics, "Drivers", drivers.join());
+                putStatusCounts(metrics, "Agents", agents.join());
+                putStatusCounts(metrics, "BranchOffices", branchOffices.join());
+
+                // Schedule metrics
+                metrics.put("totalSchedules", schedules.join());
+                metrics.put("todaySchedules", todaySchedules.join());
+
+                // Booking metrics and revenue, from the booking rollups
+                BookingStatsTotals totals = allTime.join();
+                metrics.put("totalBookings", totals.getTotalBookings());
+                metrics.put("confirmedBookings", totals.getConfirmedBookings());
+                metrics.put("completedBookings", totals.getCompletedBookings());
+                metrics.put("pendingBookings", totals.getPendingBookings());
+                metrics.put("totalRevenue", totals.getBookingRevenue());
+                metrics.put("monthlyRevenue", thisMonth.join().getBookingRevenue());
+
+                // Customers who made any booking, sold or not, estimated from the customer sketches
+                metrics.put("uniqueCustomers", customers.join());
+                metrics.put("monthlyUniqueCustomers", monthlyCustomers.join());
+                return metrics;
+            });
     }
-}
\ No newline at end of file
+
+    private <T> CompletableFuture<T> async(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    // total<Name> and active<Name> from [status, count] rows
+    private static void putStatusCounts(Map<String, Object> metrics, String name, List<Object[]> rows) {
+        long total = 0;
+        long active = 0;
+        for (Object[] row : rows) {
+            long count = ((Number) row[1]).longValue();
+            total += count;
+            if ("ACTIVE".equals(row[0])) {
+                active += count;
+            }
+        }
+        metrics.put("total" + name, total);
+        metrics.put("active" + name, active);
+    }
+
+    private record CachedMetrics(CompletableFuture<Map<String, Object>> metrics, long loadedAt) {}
+}
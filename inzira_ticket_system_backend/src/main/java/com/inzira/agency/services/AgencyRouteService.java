@@ -9,6 +9,9 @@ import com.inzira.shared.entities.RoutePoint;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.RoutePointRepository;
 import com.inzira.shared.repositories.RouteRepository;
+import com.inzira.shared.services.ConnectionPlanner;
+import com.inzira.shared.services.DepartureIndex;
+import com.inzira.shared.services.ScheduleSearchCache;
 
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +34,15 @@ public class AgencyRouteService {
     @Autowired
     private RoutePointRepository routePointRepository;
 
+    @Autowired
+    private ScheduleSearchCache scheduleSearchCache;
+
+    @Autowired
+    private DepartureIndex departureIndex;
+
+    @Autowired
+    private ConnectionPlanner connectionPlanner;
+
     public AgencyRoute createAgencyRoute(Long agencyId, Long routeId, double price, List<Long> pickupPointIds, List<Long> dropPointIds) {
         Agency agency = agencyRepository.findById(agencyId)
                 .orElseThrow(() -> new EntityNotFoundException("Agency not found with ID: " + agencyId));
@@ -57,7 +69,9 @@ public class AgencyRouteService {
         agencyRoute.setPickupPoints(pickupPoints);
         agencyRoute.setDropPoints(dropPoints);
 
-        return agencyRouteRepository.save(agencyRoute);
+        AgencyRoute savedRoute = agencyRouteRepository.save(agencyRoute);
+        connectionPlanner.invalidateGraph();
+        return savedRoute;
     }
 
     public AgencyRoute updateAgencyRoute(Long id, Long agencyId, Long routeId, double price, List<Long> pickupPointIds, List<Long> dropPointIds) {
@@ -86,7 +100,12 @@ public class AgencyRouteService {
         existingRoute.setPickupPoints(pickupPoints);
         existingRoute.setDropPoints(dropPoints);
 
-        return agencyRouteRepository.save(existingRoute);
+        // Cached schedule searches and the departure index embed the route's price and points
+        scheduleSearchCache.evictAll();
+        AgencyRoute savedRoute = agencyRouteRepository.save(existingRoute);
+        departureIndex.reloadAgencyRoute(savedRoute.getId());
+        connectionPlanner.invalidateGraph();
+        return savedRoute;
     }
 
     public List<AgencyRoute> getAllAgencyRoutes() {
@@ -107,5 +126,7 @@ public class AgencyRouteService {
             throw new ResourceNotFoundException("Agency route not found with ID: " + id);
         }
         agencyRouteRepository.deleteById(id);
+        scheduleSearchCache.evictAll();
+        connectionPlanner.invalidateGraph();
     }
 }
\ No newline at end of file
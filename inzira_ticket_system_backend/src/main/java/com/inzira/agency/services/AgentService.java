@@ -15,6 +15,7 @@ import com.inzira.agency.repositories.BranchOfficeRepository;
 import com.inzira.shared.entities.User;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.UserRepository;
+import com.inzira.shared.security.TokenDenylist;
 import com.inzira.shared.utils.PasswordUtility;
 
 @Service
@@ -38,6 +39,9 @@ public class AgentService {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     public Agent createAgent(Agent agent) {
         // Validate agency exists
         Agency agency = agencyRepository.findById(agent.getAgency().getId())
@@ -157,6 +161,10 @@ public class AgentService {
             user.setPhoneNumber(savedAgent.getPhoneNumber());
             user.setStatus(savedAgent.getStatus());
             userRepository.save(user);
+            // A suspended or deactivated account loses its sessions right away
+            if (!"ACTIVE".equals(user.getStatus())) {
+                tokenDenylist.revokeUser(user.getId());
+            }
         });
 
         return savedAgent;
@@ -175,6 +183,7 @@ public class AgentService {
         userRepository.findByEmail(agent.getEmail()).ifPresent(user -> {
             user.setPassword(passwordEncoder.encode(newPassword));
             userRepository.save(user);
+            tokenDenylist.revokeUser(user.getId());
         });
 
         return newPassword;
@@ -3,19 +3,28 @@ package com.inzira.agency.services;
 import java.time.LocalDate;
 import java.util.List;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.inzira.agency.entities.AgencyRoute;
 import com.inzira.agency.repositories.AgencyRouteRepository;
 import com.inzira.shared.entities.Bus;
 import com.inzira.shared.entities.Driver;
 import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.events.DomainEvent.ScheduleStatusChanged;
+import com.inzira.shared.events.DomainEventBus;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.BookingRepository;
 import com.inzira.shared.repositories.BusRepository;
 import com.inzira.shared.repositories.DriverRepository;
 import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.services.DepartureIndex;
+import com.inzira.shared.services.ScheduleSearchCache;
+import com.inzira.shared.services.ScheduleStateMachine;
+import com.inzira.shared.services.SeatInventory;
+import com.inzira.shared.services.SeatMapService;
 
 @Service
 public class ScheduleService {
@@ -35,6 +44,24 @@ public class ScheduleService {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private ScheduleSearchCache scheduleSearchCache;
+
+    @Autowired
+    private DepartureIndex departureIndex;
+
+    @Autowired
+    private ScheduleStateMachine scheduleStateMachine;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
     public Schedule createSchedule(Schedule schedule) {
         // Validate agency route exists
         AgencyRoute agencyRoute = agencyRouteRepository.findById(schedule.getAgencyRoute().getId())
@@ -76,7 +103,12 @@ public class ScheduleService {
         schedule.setAvailableSeats(bus.getCapacity()); // Initialize with bus capacity
         schedule.setStatus("SCHEDULED"); // Default status
 
-        return scheduleRepository.save(schedule);
+        Schedule savedSchedule = scheduleRepository.save(schedule);
+        seatInventory.register(savedSchedule);
+        scheduleSearchCache.evict(savedSchedule);
+        departureIndex.add(savedSchedule);
+        scheduleStateMachine.track(savedSchedule);
+        return savedSchedule;
     }
 
     public List<Schedule> getAllSchedules() {
@@ -92,12 +124,26 @@ public class ScheduleService {
         return scheduleRepository.findByAgencyRouteAgencyId(agencyId);
     }
 
+    @Transactional(readOnly = true)
     public List<Schedule> searchSchedules(Long originId, Long destinationId, LocalDate departureDate) {
-        return scheduleRepository.findAvailableSchedules(originId, destinationId, departureDate, "SCHEDULED", null);
+        return scheduleSearchCache.get(originId, destinationId, departureDate, null,
+            () -> findAvailableSchedules(originId, destinationId, departureDate, null));
     }
 
+    @Transactional(readOnly = true)
     public List<Schedule> searchSchedulesByAgency(Long originId, Long destinationId, LocalDate departureDate, Long agencyId) {
-        return scheduleRepository.findAvailableSchedules(originId, destinationId, departureDate, "SCHEDULED", agencyId);
+        return scheduleSearchCache.get(originId, destinationId, departureDate, agencyId,
+            () -> findAvailableSchedules(originId, destinationId, departureDate, agencyId));
+    }
+
+    // Cached results outlive the session, so the lazy pickup/drop point lists are loaded up front
+    private List<Schedule> findAvailableSchedules(Long originId, Long destinationId, LocalDate departureDate, Long agencyId) {
+        List<Schedule> schedules = scheduleRepository.findAvailableSchedules(originId, destinationId, departureDate, "SCHEDULED", agencyId);
+        for (Schedule schedule : schedules) {
+            Hibernate.initialize(schedule.getAgencyRoute().getPickupPoints());
+            Hibernate.initialize(schedule.getAgencyRoute().getDropPoints());
+        }
+        return schedules;
     }
 
     public Schedule updateSchedule(Long id, Schedule updatedSchedule) {
@@ -109,23 +155,37 @@ public class ScheduleService {
             throw new IllegalArgumentException("Cannot update schedule that is not in SCHEDULED status");
         }
 
+        // Evict the searches for the old date as well as the new one
+        scheduleSearchCache.evict(existingSchedule);
+
         existingSchedule.setDepartureDate(updatedSchedule.getDepartureDate());
         existingSchedule.setDepartureTime(updatedSchedule.getDepartureTime());
         existingSchedule.setArrivalTime(updatedSchedule.getArrivalTime());
 
-        return scheduleRepository.save(existingSchedule);
+        Schedule savedSchedule = scheduleRepository.save(existingSchedule);
+        scheduleSearchCache.evict(savedSchedule);
+        departureIndex.add(savedSchedule);
+        scheduleStateMachine.track(savedSchedule);
+        return savedSchedule;
     }
 
     public void cancelSchedule(Long id) {
         Schedule schedule = scheduleRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Schedule not found with ID: " + id));
 
-        if (!"SCHEDULED".equals(schedule.getStatus())) {
+        // A trip closed for booking has not left yet, so it can still be called off
+        if (!"SCHEDULED".equals(schedule.getStatus()) && !"BOOKING_CLOSED".equals(schedule.getStatus())) {
             throw new IllegalArgumentException("Can only cancel scheduled trips");
         }
 
         schedule.setStatus("CANCELLED");
         scheduleRepository.save(schedule);
+        seatInventory.close(id);
+        seatMapService.evict(id);
+        scheduleSearchCache.evict(schedule);
+        departureIndex.remove(id);
+        scheduleStateMachine.untrack(id);
+        domainEventBus.publish(new ScheduleStatusChanged(id, "CANCELLED"));
     }
 
     public void deleteSchedule(Long id) {
@@ -143,5 +203,8 @@ public class ScheduleService {
         }
 
         scheduleRepository.deleteById(id);
+        scheduleSearchCache.evict(schedule);
+        departureIndex.remove(id);
+        scheduleStateMachine.untrack(id);
     }
 }
\ No newline at end of file
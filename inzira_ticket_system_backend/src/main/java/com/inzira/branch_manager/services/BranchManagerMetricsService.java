@@ -1,6 +1,5 @@
 package com.inzira.branch_manager.services;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
@@ -12,11 +11,14 @@ import org.springframework.stereotype.Service;
 import com.inzira.agency.repositories.AgentRepository;
 import com.inzira.branch_manager.entities.BranchManager;
 import com.inzira.branch_manager.repositories.BranchManagerRepository;
+import com.inzira.shared.dtos.BookingStatsTotals;
 import com.inzira.shared.entities.Booking;
 import com.inzira.shared.entities.Schedule;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.BookingRepository;
 import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.services.DailyBookingStatsService;
+import com.inzira.shared.services.ScheduleCountService;
 
 @Service
 public class BranchManagerMetricsService {
@@ -27,9 +29,15 @@ public class BranchManagerMetricsService {
     @Autowired
     private ScheduleRepository scheduleRepository;
 
+    @Autowired
+    private ScheduleCountService scheduleCountService;
+
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private DailyBookingStatsService dailyBookingStatsService;
+
     @Autowired
     private AgentRepository agentRepository;
 
@@ -54,47 +62,19 @@ public class BranchManagerMetricsService {
             .count());
 
         // Schedule metrics for this agency (branch managers can see all agency schedules)
-        List<Schedule> agencySchedules = scheduleRepository.findByAgencyRouteAgencyId(agencyId);
-        metrics.put("totalSchedules", agencySchedules.size());
-
-        List<Schedule> todaySchedules = agencySchedules.stream()
-            .filter(s -> s.getDepartureDate().equals(LocalDate.now()))
-            .toList();
-        metrics.put("todaySchedules", todaySchedules.size());
-
-        // Booking metrics for agency schedules
-        List<Booking> allBookings = getAllBookingsForAgency(agencyId);
-        metrics.put("totalBookings", allBookings.size());
-
-        long confirmedBookings = allBookings.stream()
-            .filter(b -> "CONFIRMED".equals(b.getStatus()))
-            .count();
-        metrics.put("confirmedBookings", confirmedBookings);
-
-        long completedBookings = allBookings.stream()
-            .filter(b -> "COMPLETED".equals(b.getStatus()))
-            .count();
-        metrics.put("completedBookings", completedBookings);
-
-        long pendingBookings = allBookings.stream()
-            .filter(b -> "PENDING".equals(b.getStatus()))
-            .count();
-        metrics.put("pendingBookings", pendingBookings);
-
-        // Revenue metrics
-        BigDecimal totalRevenue = allBookings.stream()
-            .filter(b -> "CONFIRMED".equals(b.getStatus()) || "COMPLETED".equals(b.getStatus()))
-            .map(Booking::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        metrics.put("totalRevenue", totalRevenue);
-
-        BigDecimal monthlyRevenue = allBookings.stream()
-            .filter(b -> ("CONFIRMED".equals(b.getStatus()) || "COMPLETED".equals(b.getStatus())) 
-                && b.getCreatedAt().getMonth() == LocalDate.now().getMonth()
-                && b.getCreatedAt().getYear() == LocalDate.now().getYear())
-            .map(Booking::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        metrics.put("monthlyRevenue", monthlyRevenue);
+        metrics.put("totalSchedules", scheduleCountService.count(agencyId));
+        metrics.put("todaySchedules", scheduleRepository.countByAgencyIdAndDepartureDate(agencyId, LocalDate.now()));
+
+        // Booking metrics and revenue for agency schedules, summed from the daily rollup
+        BookingStatsTotals allTime = dailyBookingStatsService.totals(agencyId, null, null);
+        metrics.put("totalBookings", allTime.getTotalBookings());
+        metrics.put("confirmedBookings", allTime.getConfirmedBookings());
+        metrics.put("completedBookings", allTime.getCompletedBookings());
+        metrics.put("pendingBookings", allTime.getPendingBookings());
+        metrics.put("totalRevenue", allTime.getBookingRevenue());
+
+        LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
+        metrics.put("monthlyRevenue", dailyBookingStatsService.totals(agencyId, monthStart, null).getBookingRevenue());
 
         // Branch office info
         metrics.put("branchOfficeName", branchManager.getBranchOffice().getOfficeName());
@@ -113,12 +93,4 @@ public class BranchManagerMetricsService {
     public List<Booking> getBookingsBySchedule(Long scheduleId) {
         return bookingRepository.findByScheduleId(scheduleId);
     }
-
-    private List<Booking> getAllBookingsForAgency(Long agencyId) {
-        List<Schedule> agencySchedules = scheduleRepository.findByAgencyRouteAgencyId(agencyId);
-        
-        return agencySchedules.stream()
-            .flatMap(schedule -> bookingRepository.findByScheduleId(schedule.getId()).stream())
-            .toList();
-    }
 }
\ No newline at end of file
@@ -15,6 +15,7 @@ import com.inzira.branch_manager.repositories.BranchManagerRepository;
 import com.inzira.shared.entities.User;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.UserRepository;
+import com.inzira.shared.security.TokenDenylist;
 import com.inzira.shared.utils.PasswordUtility;
 
 @Service
@@ -38,6 +39,9 @@ public class BranchManagerService {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     public BranchManager createBranchManager(BranchManager branchManager) {
         // Validate agency exists
         Agency agency = agencyRepository.findById(branchManager.getAgency().getId())
@@ -137,6 +141,10 @@ public class BranchManagerService {
             user.setPhoneNumber(savedBranchManager.getPhoneNumber());
             user.setStatus(savedBranchManager.getStatus());
             userRepository.save(user);
+            // A suspended or deactivated account loses its sessions right away
+            if (!"ACTIVE".equals(user.getStatus())) {
+                tokenDenylist.revokeUser(user.getId());
+            }
         });
 
         return savedBranchManager;
@@ -155,6 +163,7 @@ public class BranchManagerService {
         userRepository.findByEmail(branchManager.getEmail()).ifPresent(user -> {
             user.setPassword(passwordEncoder.encode(newPassword));
             userRepository.save(user);
+            tokenDenylist.revokeUser(user.getId());
         });
 
         return newPassword;
@@ -12,7 +12,9 @@ import com.inzira.customer.services.BookingService;
 import com.inzira.shared.entities.Booking;
 import com.inzira.shared.exceptions.ApiResponse;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
+import com.inzira.shared.services.TicketArtifactService;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -23,28 +25,18 @@ public class TicketController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private TicketArtifactService ticketArtifactService;
+
     @GetMapping("/download/{bookingId}")
     public ResponseEntity<Resource> downloadTicket(@PathVariable Long bookingId) {
         try {
             Booking booking = bookingService.getBookingById(bookingId);
-            
-            if (booking.getTicketPdfPath() == null) {
-                throw new ResourceNotFoundException("Ticket PDF not available for this booking");
-            }
 
-            // Normalize path: booking.getTicketPdfPath() may already include 'uploads/' or be absolute
-            String stored = booking.getTicketPdfPath();
-            Path filePath;
-            if (stored == null || stored.isBlank()) {
-                throw new ResourceNotFoundException("Ticket PDF not available for this booking");
-            }
-            String normalized = stored.replace("\\", "/");
-            if (normalized.startsWith("/")) {
-                filePath = Paths.get(normalized);
-            } else if (normalized.startsWith("uploads/")) {
-                filePath = Paths.get(normalized);
-            } else {
-                filePath = Paths.get("uploads").resolve(normalized);
+            Path filePath = resolveTicketPath(booking.getTicketPdfPath());
+            if (filePath == null || !Files.exists(filePath)) {
+                // Not rendered yet (pipeline behind or failed): render it now instead of failing the download
+                filePath = resolveTicketPath(ticketArtifactService.renderNow(booking));
             }
             Resource resource = new UrlResource(filePath.toUri());
 
@@ -58,11 +50,25 @@ public class TicketController {
                             "attachment; filename=\"ticket_" + booking.getBookingReference() + ".pdf\"")
                     .body(resource);
 
+        } catch (ResourceNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to download ticket", e);
         }
     }
 
+    // Normalize path: the stored path may already include 'uploads/' or be absolute
+    private Path resolveTicketPath(String stored) {
+        if (stored == null || stored.isBlank()) {
+            return null;
+        }
+        String normalized = stored.replace("\\", "/");
+        if (normalized.startsWith("/") || normalized.startsWith("uploads/")) {
+            return Paths.get(normalized);
+        }
+        return Paths.get("uploads").resolve(normalized);
+    }
+
     @GetMapping("/verify/{bookingReference}")
     public ResponseEntity<ApiResponse<Booking>> verifyTicket(@PathVariable String bookingReference) {
         Booking booking = bookingService.getBookingByReference(bookingReference);
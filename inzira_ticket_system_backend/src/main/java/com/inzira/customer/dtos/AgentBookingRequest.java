@@ -1,5 +1,7 @@
 package com.inzira.customer.dtos;
 
+import java.util.List;
+
 import lombok.Data;
 
 @Data
@@ -9,6 +11,7 @@ public class AgentBookingRequest {
     private Long pickupPointId;
     private Long dropPointId;
     private Integer numberOfSeats;
+    private List<Integer> seatNumbers; // optional seat selection; auto-assigned when empty
     
     // Customer details for walk-in customers
     private String customerFirstName;
@@ -1,10 +1,7 @@
 package com.inzira.customer.services;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -14,17 +11,23 @@ import org.springframework.transaction.annotation.Transactional;
 import com.inzira.agency.entities.Agent;
 import com.inzira.agency.repositories.AgentRepository;
 import com.inzira.customer.dtos.AgentBookingRequest;
+import com.inzira.customer.services.BookingContextLoader.BookingContext;
 import com.inzira.shared.entities.Booking;
 import com.inzira.shared.entities.Customer;
 import com.inzira.shared.entities.RoutePoint;
 import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.events.DomainEvent.BookingCancelled;
+import com.inzira.shared.events.DomainEvent.BookingCreated;
+import com.inzira.shared.events.DomainEventBus;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.BookingRepository;
 import com.inzira.shared.repositories.CustomerRepository;
-import com.inzira.shared.repositories.RoutePointRepository;
 import com.inzira.shared.repositories.ScheduleRepository;
-import com.inzira.shared.services.QRCodeService;
-import com.inzira.shared.services.PDFTicketService;
+import com.inzira.shared.services.SeatHoldService;
+import com.inzira.shared.services.SeatInventory;
+import com.inzira.shared.services.SeatMapService;
+import com.inzira.shared.services.TicketArtifactService;
+import com.inzira.shared.utils.ReferenceGenerator;
 
 @Service
 public class AgentBookingService {
@@ -39,16 +42,28 @@ public class AgentBookingService {
     private ScheduleRepository scheduleRepository;
 
     @Autowired
-    private RoutePointRepository routePointRepository;
+    private AgentRepository agentRepository;
 
     @Autowired
-    private AgentRepository agentRepository;
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
 
     @Autowired
-    private QRCodeService qrCodeService;
+    private TicketArtifactService ticketArtifactService;
 
     @Autowired
-    private PDFTicketService pdfTicketService;
+    private ReferenceGenerator referenceGenerator;
+
+    @Autowired
+    private BookingContextLoader bookingContextLoader;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
 
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
@@ -70,51 +85,31 @@ public class AgentBookingService {
         // Find or create customer
         Customer customer = findOrCreateCustomer(request);
 
-        // Validate schedule exists and is available
-        Schedule schedule = scheduleRepository.findById(request.getScheduleId())
-            .orElseThrow(() -> new ResourceNotFoundException("Schedule not found"));
+        // Schedule, route points and everything the booking reads from them, in one query
+        BookingContext context = bookingContextLoader.load(request.getScheduleId(), request.getPickupPointId(), request.getDropPointId());
+        Schedule schedule = context.schedule();
+        RoutePoint pickupPoint = context.pickupPoint();
+        RoutePoint dropPoint = context.dropPoint();
 
-        if (!"SCHEDULED".equals(schedule.getStatus())) {
-            throw new IllegalArgumentException("Schedule is not available for booking");
+        if (request.getNumberOfSeats() == null || request.getNumberOfSeats() < 1) {
+            throw new IllegalArgumentException("Number of seats must be at least 1");
         }
 
-        // Check seat availability
-        if (schedule.getAvailableSeats() < request.getNumberOfSeats()) {
-            throw new IllegalArgumentException("Not enough seats available. Available: " + schedule.getAvailableSeats());
+        // Reserve seats in the live inventory; they are handed back if this transaction rolls back
+        if (!seatInventory.reserve(schedule.getId(), request.getNumberOfSeats())) {
+            throw new IllegalArgumentException("Not enough seats available. Available: " + seatInventory.getAvailableSeats(schedule.getId()));
         }
 
-        // Validate pickup and drop points
-        RoutePoint pickupPoint = routePointRepository.findById(request.getPickupPointId())
-            .orElseThrow(() -> new ResourceNotFoundException("Pickup point not found"));
-
-        RoutePoint dropPoint = routePointRepository.findById(request.getDropPointId())
-            .orElseThrow(() -> new ResourceNotFoundException("Drop point not found"));
-
-        // Validate that pickup point belongs to origin district and drop point belongs to destination district
-        if (!pickupPoint.getDistrict().getId().equals(schedule.getAgencyRoute().getRoute().getOrigin().getId())) {
-            throw new IllegalArgumentException("Pickup point must be in the origin district");
-        }
-
-        if (!dropPoint.getDistrict().getId().equals(schedule.getAgencyRoute().getRoute().getDestination().getId())) {
-            throw new IllegalArgumentException("Drop point must be in the destination district");
-        }
+        // Assign seat numbers: the passenger's selection when given, otherwise adjacent free seats
+        List<Integer> seats = seatMapService.allocate(schedule.getId(), request.getNumberOfSeats(), request.getSeatNumbers());
 
         // Generate booking reference
-        String bookingReference = generateBookingReference();
+        String bookingReference = referenceGenerator.nextAgentBookingReference();
 
         // Calculate total amount
         BigDecimal pricePerSeat = BigDecimal.valueOf(schedule.getAgencyRoute().getPrice());
         BigDecimal totalAmount = pricePerSeat.multiply(BigDecimal.valueOf(request.getNumberOfSeats()));
 
-        // Generate QR Code
-        String qrData = qrCodeService.generateTicketQRData(
-            bookingReference,
-            customer.getEmail(),
-            schedule.getAgencyRoute().getRoute().getOrigin().getName() + " → " + schedule.getAgencyRoute().getRoute().getDestination().getName(),
-            schedule.getDepartureDate().toString()
-        );
-        String qrCode = qrCodeService.generateQRCode(qrData);
-
         // Create booking
         Booking booking = new Booking();
         booking.setCustomer(customer);
@@ -124,28 +119,19 @@ public class AgentBookingService {
         booking.setBookingReference(bookingReference);
         booking.setTotalAmount(totalAmount);
         booking.setNumberOfSeats(request.getNumberOfSeats());
+        booking.setSeatNumbers(SeatMapService.formatSeatNumbers(seats));
         booking.setStatus("CONFIRMED"); // Agent bookings are automatically confirmed
         booking.setPaymentStatus("PAID"); // Assume payment is handled by agent
-        booking.setQrCode(qrCode);
+        booking.setTicketStatus("PENDING");
         booking.setCreatedBy("AGENT");
         booking.setCreatedByAgentId(request.getAgentId());
 
-        // Save booking first
+        // Save booking
         Booking savedBooking = bookingRepository.save(booking);
+        domainEventBus.publish(new BookingCreated(savedBooking.getId(), schedule.getId(), savedBooking.getNumberOfSeats()));
 
-        // Generate PDF ticket
-        try {
-            String pdfPath = pdfTicketService.generateTicketPDF(savedBooking);
-            savedBooking.setTicketPdfPath(pdfPath);
-            savedBooking = bookingRepository.save(savedBooking);
-        } catch (Exception e) {
-            // PDF generation failed, but booking is still valid
-            System.err.println("Failed to generate PDF ticket: " + e.getMessage());
-        }
-
-        // Update available seats
-        schedule.setAvailableSeats(schedule.getAvailableSeats() - request.getNumberOfSeats());
-        scheduleRepository.save(schedule);
+        // QR code and PDF are rendered after commit by the ticket pipeline
+        ticketArtifactService.enqueue(savedBooking.getId());
 
         return savedBooking;
     }
@@ -203,8 +189,10 @@ public class AgentBookingService {
             throw new IllegalArgumentException("Only pending bookings can be confirmed");
         }
 
-        booking.setStatus("CONFIRMED");
-        booking.setPaymentStatus("PAID");
+        // Conditional confirm: loses cleanly against a hold that has just expired
+        if (!seatHoldService.confirm(booking)) {
+            throw new IllegalArgumentException("Booking hold has expired");
+        }
         return bookingRepository.save(booking);
     }
 
@@ -213,22 +201,18 @@ public class AgentBookingService {
         Booking booking = bookingRepository.findById(bookingId)
             .orElseThrow(() -> new ResourceNotFoundException("Booking not found with ID: " + bookingId));
 
-        if ("COMPLETED".equals(booking.getStatus()) || "CANCELLED".equals(booking.getStatus())) {
-            throw new IllegalArgumentException("Cannot cancel completed or already cancelled booking");
+        // Conditional status flip: only the first of two concurrent cancellations restores seats
+        if (bookingRepository.cancelIfActive(bookingId) == 0) {
+            throw new IllegalArgumentException("Cannot cancel completed, expired or already cancelled booking");
         }
+        seatHoldService.release(bookingId);
 
         // Restore available seats
-        Schedule schedule = booking.getSchedule();
-        schedule.setAvailableSeats(schedule.getAvailableSeats() + booking.getNumberOfSeats());
-        scheduleRepository.save(schedule);
+        seatInventory.release(booking.getSchedule().getId(), booking.getNumberOfSeats());
+        seatMapService.release(booking.getSchedule().getId(), booking.getSeatNumbers());
+        domainEventBus.publish(new BookingCancelled(bookingId, booking.getSchedule().getId(), booking.getNumberOfSeats()));
 
         booking.setStatus("CANCELLED");
         return bookingRepository.save(booking);
     }
-
-    private String generateBookingReference() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "AG" + timestamp + uuid; // AG prefix for agent bookings
-    }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.inzira.customer.services;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.inzira.shared.entities.RoutePoint;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.exceptions.ResourceNotFoundException;
+import com.inzira.shared.repositories.RoutePointRepository;
+import com.inzira.shared.repositories.ScheduleRepository;
+
+/**
+ * Loads and validates the schedule and route points of a new booking with a single query,
+ * shared by the customer, guest and agent booking flows.
+ */
+@Service
+public class BookingContextLoader {
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private RoutePointRepository routePointRepository;
+
+    public record BookingContext(Schedule schedule, RoutePoint pickupPoint, RoutePoint dropPoint) {}
+
+    /**
+     * Returns the schedule (with agency route, route, districts, agency, bus and driver) and both
+     * route points. Checks that the schedule is open for booking and that the points lie in the
+     * route's origin and destination districts.
+     */
+    public BookingContext load(Long scheduleId, Long pickupPointId, Long dropPointId) {
+        List<Object[]> rows = scheduleRepository.findBookingContext(scheduleId, pickupPointId, dropPointId);
+        if (rows.isEmpty()) {
+            throw notFound(scheduleId, pickupPointId, dropPointId);
+        }
+        Object[] row = rows.get(0);
+        Schedule schedule = (Schedule) row[0];
+        RoutePoint pickupPoint = (RoutePoint) row[1];
+        RoutePoint dropPoint = (RoutePoint) row[2];
+
+        if (!"SCHEDULED".equals(schedule.getStatus())) {
+            throw new IllegalArgumentException("Schedule is not available for booking");
+        }
+
+        // Validate that pickup point belongs to origin district and drop point belongs to destination district
+        if (!pickupPoint.getDistrict().getId().equals(schedule.getAgencyRoute().getRoute().getOrigin().getId())) {
+            throw new IllegalArgumentException("Pickup point must be in the origin district");
+        }
+
+        if (!dropPoint.getDistrict().getId().equals(schedule.getAgencyRoute().getRoute().getDestination().getId())) {
+            throw new IllegalArgumentException("Drop point must be in the destination district");
+        }
+
+        return new BookingContext(schedule, pickupPoint, dropPoint);
+    }
+
+    // Error path only: work out which id was missing to keep the original messages
+    private ResourceNotFoundException notFound(Long scheduleId, Long pickupPointId, Long dropPointId) {
+        if (scheduleId == null || !scheduleRepository.existsById(scheduleId)) {
+            return new ResourceNotFoundException("Schedule not found");
+        }
+        if (pickupPointId == null || !routePointRepository.existsById(pickupPointId)) {
+            return new ResourceNotFoundException("Pickup point not found");
+        }
+        if (dropPointId == null || !routePointRepository.existsById(dropPointId)) {
+            return new ResourceNotFoundException("Drop point not found");
+        }
+        // A point without a district cannot be fetch-joined
+        return new ResourceNotFoundException("Pickup or drop point has no district");
+    }
+}
@@ -1,26 +1,28 @@
 package com.inzira.customer.services;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.inzira.customer.services.BookingContextLoader.BookingContext;
 import com.inzira.shared.entities.Booking;
 import com.inzira.shared.entities.Customer;
 import com.inzira.shared.entities.RoutePoint;
 import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.events.DomainEvent.BookingCancelled;
+import com.inzira.shared.events.DomainEvent.BookingCreated;
+import com.inzira.shared.events.DomainEventBus;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.BookingRepository;
 import com.inzira.shared.repositories.CustomerRepository;
-import com.inzira.shared.repositories.RoutePointRepository;
-import com.inzira.shared.repositories.ScheduleRepository;
-import com.inzira.shared.services.QRCodeService;
-import com.inzira.shared.services.PDFTicketService;
+import com.inzira.shared.services.SeatHoldService;
+import com.inzira.shared.services.SeatInventory;
+import com.inzira.shared.services.SeatMapService;
+import com.inzira.shared.services.TicketArtifactService;
+import com.inzira.shared.utils.ReferenceGenerator;
 
 @Service
 public class BookingService {
@@ -32,16 +34,25 @@ public class BookingService {
     private CustomerRepository customerRepository;
 
     @Autowired
-    private ScheduleRepository scheduleRepository;
+    private SeatInventory seatInventory;
 
     @Autowired
-    private RoutePointRepository routePointRepository;
+    private SeatMapService seatMapService;
 
     @Autowired
-    private QRCodeService qrCodeService;
+    private SeatHoldService seatHoldService;
 
     @Autowired
-    private PDFTicketService pdfTicketService;
+    private TicketArtifactService ticketArtifactService;
+
+    @Autowired
+    private ReferenceGenerator referenceGenerator;
+
+    @Autowired
+    private BookingContextLoader bookingContextLoader;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
 
     @Transactional
     public Booking createBooking(Booking booking) {
@@ -49,79 +60,52 @@ public class BookingService {
         Customer customer = customerRepository.findById(booking.getCustomer().getId())
             .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
 
-        // Validate schedule exists and is available
-        Schedule schedule = scheduleRepository.findById(booking.getSchedule().getId())
-            .orElseThrow(() -> new ResourceNotFoundException("Schedule not found"));
-
-        if (!"SCHEDULED".equals(schedule.getStatus())) {
-            throw new IllegalArgumentException("Schedule is not available for booking");
-        }
+        // Schedule, route points and everything the booking reads from them, in one query
+        BookingContext context = bookingContextLoader.load(booking.getSchedule().getId(), booking.getPickupPoint().getId(), booking.getDropPoint().getId());
+        Schedule schedule = context.schedule();
+        RoutePoint pickupPoint = context.pickupPoint();
+        RoutePoint dropPoint = context.dropPoint();
 
-        // Check seat availability
-        if (schedule.getAvailableSeats() < booking.getNumberOfSeats()) {
-            throw new IllegalArgumentException("Not enough seats available. Available: " + schedule.getAvailableSeats());
+        if (booking.getNumberOfSeats() == null || booking.getNumberOfSeats() < 1) {
+            throw new IllegalArgumentException("Number of seats must be at least 1");
         }
 
-        // Validate pickup and drop points
-        RoutePoint pickupPoint = routePointRepository.findById(booking.getPickupPoint().getId())
-            .orElseThrow(() -> new ResourceNotFoundException("Pickup point not found"));
-
-        RoutePoint dropPoint = routePointRepository.findById(booking.getDropPoint().getId())
-            .orElseThrow(() -> new ResourceNotFoundException("Drop point not found"));
-
-        // Validate that pickup point belongs to origin district and drop point belongs to destination district
-        if (!pickupPoint.getDistrict().getId().equals(schedule.getAgencyRoute().getRoute().getOrigin().getId())) {
-            throw new IllegalArgumentException("Pickup point must be in the origin district");
+        // Reserve seats in the live inventory; they are handed back if this transaction rolls back
+        if (!seatInventory.reserve(schedule.getId(), booking.getNumberOfSeats())) {
+            throw new IllegalArgumentException("Not enough seats available. Available: " + seatInventory.getAvailableSeats(schedule.getId()));
         }
 
-        if (!dropPoint.getDistrict().getId().equals(schedule.getAgencyRoute().getRoute().getDestination().getId())) {
-            throw new IllegalArgumentException("Drop point must be in the destination district");
-        }
+        // Assign seat numbers: the passenger's selection when given, otherwise adjacent free seats
+        List<Integer> seats = seatMapService.allocate(schedule.getId(), booking.getNumberOfSeats(), SeatMapService.parseSeatNumbers(booking.getSeatNumbers()));
 
         // Generate booking reference
-        String bookingReference = generateBookingReference();
+        String bookingReference = referenceGenerator.nextBookingReference();
 
         // Calculate total amount
         BigDecimal pricePerSeat = BigDecimal.valueOf(schedule.getAgencyRoute().getPrice());
         BigDecimal totalAmount = pricePerSeat.multiply(BigDecimal.valueOf(booking.getNumberOfSeats()));
 
-        // Generate QR Code
-        String qrData = qrCodeService.generateTicketQRData(
-            bookingReference,
-            customer.getEmail(),
-            schedule.getAgencyRoute().getRoute().getOrigin().getName() + " → " + schedule.getAgencyRoute().getRoute().getDestination().getName(),
-            schedule.getDepartureDate().toString()
-        );
-        String qrCode = qrCodeService.generateQRCode(qrData);
-
         // Set booking details
         booking.setCustomer(customer);
         booking.setSchedule(schedule);
         booking.setPickupPoint(pickupPoint);
         booking.setDropPoint(dropPoint);
+        booking.setSeatNumbers(SeatMapService.formatSeatNumbers(seats));
         booking.setBookingReference(bookingReference);
         booking.setTotalAmount(totalAmount);
         booking.setStatus("PENDING");
         booking.setPaymentStatus("PENDING");
-        booking.setQrCode(qrCode);
+        booking.setHoldExpiresAt(seatHoldService.newHoldDeadline());
+        booking.setTicketStatus("PENDING");
         booking.setCreatedBy("CUSTOMER");
 
-        // Save booking first
+        // Save booking
         Booking savedBooking = bookingRepository.save(booking);
+        seatHoldService.hold(savedBooking);
+        domainEventBus.publish(new BookingCreated(savedBooking.getId(), schedule.getId(), savedBooking.getNumberOfSeats()));
 
-        // Generate PDF ticket
-        try {
-            String pdfPath = pdfTicketService.generateTicketPDF(savedBooking);
-            savedBooking.setTicketPdfPath(pdfPath);
-            savedBooking = bookingRepository.save(savedBooking);
-        } catch (Exception e) {
-            // PDF generation failed, but booking is still valid
-            System.err.println("Failed to generate PDF ticket: " + e.getMessage());
-        }
-
-        // Update available seats
-        schedule.setAvailableSeats(schedule.getAvailableSeats() - booking.getNumberOfSeats());
-        scheduleRepository.save(schedule);
+        // QR code and PDF are rendered after commit by the ticket pipeline
+        ticketArtifactService.enqueue(savedBooking.getId());
 
         return savedBooking;
     }
@@ -171,22 +155,18 @@ public class BookingService {
         Booking booking = bookingRepository.findById(bookingId)
             .orElseThrow(() -> new ResourceNotFoundException("Booking not found with ID: " + bookingId));
 
-        if ("COMPLETED".equals(booking.getStatus()) || "CANCELLED".equals(booking.getStatus())) {
-            throw new IllegalArgumentException("Cannot cancel completed or already cancelled booking");
+        // Conditional status flip: only the first of two concurrent cancellations restores seats
+        if (bookingRepository.cancelIfActive(bookingId) == 0) {
+            throw new IllegalArgumentException("Cannot cancel completed, expired or already cancelled booking");
         }
+        seatHoldService.release(bookingId);
 
         // Restore available seats
-        Schedule schedule = booking.getSchedule();
-        schedule.setAvailableSeats(schedule.getAvailableSeats() + booking.getNumberOfSeats());
-        scheduleRepository.save(schedule);
+        seatInventory.release(booking.getSchedule().getId(), booking.getNumberOfSeats());
+        seatMapService.release(booking.getSchedule().getId(), booking.getSeatNumbers());
+        domainEventBus.publish(new BookingCancelled(bookingId, booking.getSchedule().getId(), booking.getNumberOfSeats()));
 
         booking.setStatus("CANCELLED");
         return bookingRepository.save(booking);
     }
-
-    private String generateBookingReference() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "BK" + timestamp + uuid;
-    }
 }
\ No newline at end of file
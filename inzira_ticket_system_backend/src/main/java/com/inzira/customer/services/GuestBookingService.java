@@ -1,9 +1,7 @@
 package com.inzira.customer.services;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.UUID;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -11,17 +9,20 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.inzira.customer.dtos.AgentBookingRequest;
+import com.inzira.customer.services.BookingContextLoader.BookingContext;
 import com.inzira.shared.entities.Booking;
 import com.inzira.shared.entities.Customer;
 import com.inzira.shared.entities.RoutePoint;
 import com.inzira.shared.entities.Schedule;
-import com.inzira.shared.exceptions.ResourceNotFoundException;
+import com.inzira.shared.events.DomainEvent.BookingCreated;
+import com.inzira.shared.events.DomainEventBus;
 import com.inzira.shared.repositories.BookingRepository;
 import com.inzira.shared.repositories.CustomerRepository;
-import com.inzira.shared.repositories.RoutePointRepository;
-import com.inzira.shared.repositories.ScheduleRepository;
-import com.inzira.shared.services.QRCodeService;
-import com.inzira.shared.services.PDFTicketService;
+import com.inzira.shared.services.SeatHoldService;
+import com.inzira.shared.services.SeatInventory;
+import com.inzira.shared.services.SeatMapService;
+import com.inzira.shared.services.TicketArtifactService;
+import com.inzira.shared.utils.ReferenceGenerator;
 
 @Service
 public class GuestBookingService {
@@ -33,16 +34,25 @@ public class GuestBookingService {
     private CustomerRepository customerRepository;
 
     @Autowired
-    private ScheduleRepository scheduleRepository;
+    private SeatInventory seatInventory;
 
     @Autowired
-    private RoutePointRepository routePointRepository;
+    private SeatMapService seatMapService;
 
     @Autowired
-    private QRCodeService qrCodeService;
+    private SeatHoldService seatHoldService;
 
     @Autowired
-    private PDFTicketService pdfTicketService;
+    private TicketArtifactService ticketArtifactService;
+
+    @Autowired
+    private ReferenceGenerator referenceGenerator;
+
+    @Autowired
+    private BookingContextLoader bookingContextLoader;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
 
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
@@ -52,51 +62,31 @@ public class GuestBookingService {
         // Find or create customer
         Customer customer = findOrCreateCustomer(request);
 
-        // Validate schedule exists and is available
-        Schedule schedule = scheduleRepository.findById(request.getScheduleId())
-            .orElseThrow(() -> new ResourceNotFoundException("Schedule not found"));
+        // Schedule, route points and everything the booking reads from them, in one query
+        BookingContext context = bookingContextLoader.load(request.getScheduleId(), request.getPickupPointId(), request.getDropPointId());
+        Schedule schedule = context.schedule();
+        RoutePoint pickupPoint = context.pickupPoint();
+        RoutePoint dropPoint = context.dropPoint();
 
-        if (!"SCHEDULED".equals(schedule.getStatus())) {
-            throw new IllegalArgumentException("Schedule is not available for booking");
+        if (request.getNumberOfSeats() == null || request.getNumberOfSeats() < 1) {
+            throw new IllegalArgumentException("Number of seats must be at least 1");
         }
 
-        // Check seat availability
-        if (schedule.getAvailableSeats() < request.getNumberOfSeats()) {
-            throw new IllegalArgumentException("Not enough seats available. Available: " + schedule.getAvailableSeats());
+        // Reserve seats in the live inventory; they are handed back if this transaction rolls back
+        if (!seatInventory.reserve(schedule.getId(), request.getNumberOfSeats())) {
+            throw new IllegalArgumentException("Not enough seats available. Available: " + seatInventory.getAvailableSeats(schedule.getId()));
         }
 
-        // Validate pickup and drop points
-        RoutePoint pickupPoint = routePointRepository.findById(request.getPickupPointId())
-            .orElseThrow(() -> new ResourceNotFoundException("Pickup point not found"));
-
-        RoutePoint dropPoint = routePointRepository.findById(request.getDropPointId())
-            .orElseThrow(() -> new ResourceNotFoundException("Drop point not found"));
-
-        // Validate that pickup point belongs to origin district and drop point belongs to destination district
-        if (!pickupPoint.getDistrict().getId().equals(schedule.getAgencyRoute().getRoute().getOrigin().getId())) {
-            throw new IllegalArgumentException("Pickup point must be in the origin district");
-        }
-
-        if (!dropPoint.getDistrict().getId().equals(schedule.getAgencyRoute().getRoute().getDestination().getId())) {
-            throw new IllegalArgumentException("Drop point must be in the destination district");
-        }
+        // Assign seat numbers: the passenger's selection when given, otherwise adjacent free seats
+        List<Integer> seats = seatMapService.allocate(schedule.getId(), request.getNumberOfSeats(), request.getSeatNumbers());
 
         // Generate booking reference
-        String bookingReference = generateBookingReference();
+        String bookingReference = referenceGenerator.nextGuestBookingReference();
 
         // Calculate total amount
         BigDecimal pricePerSeat = BigDecimal.valueOf(schedule.getAgencyRoute().getPrice());
         BigDecimal totalAmount = pricePerSeat.multiply(BigDecimal.valueOf(request.getNumberOfSeats()));
 
-        // Generate QR Code
-        String qrData = qrCodeService.generateTicketQRData(
-            bookingReference,
-            customer.getEmail(),
-            schedule.getAgencyRoute().getRoute().getOrigin().getName() + " → " + schedule.getAgencyRoute().getRoute().getDestination().getName(),
-            schedule.getDepartureDate().toString()
-        );
-        String qrCode = qrCodeService.generateQRCode(qrData);
-
         // Create booking with pending status - requires payment completion
         Booking booking = new Booking();
         booking.setCustomer(customer);
@@ -106,20 +96,19 @@ public class GuestBookingService {
         booking.setBookingReference(bookingReference);
         booking.setTotalAmount(totalAmount);
         booking.setNumberOfSeats(request.getNumberOfSeats());
+        booking.setSeatNumbers(SeatMapService.formatSeatNumbers(seats));
         booking.setStatus("PENDING"); // Guest bookings now require payment completion
         booking.setPaymentStatus("PENDING"); // Payment status is pending until payment is completed
-        booking.setQrCode(qrCode);
+        booking.setHoldExpiresAt(seatHoldService.newHoldDeadline());
         booking.setCreatedBy("GUEST");
 
-        // Save booking first
+        // Save booking
         Booking savedBooking = bookingRepository.save(booking);
+        seatHoldService.hold(savedBooking);
+        domainEventBus.publish(new BookingCreated(savedBooking.getId(), schedule.getId(), savedBooking.getNumberOfSeats()));
 
-        // Note: PDF ticket will be generated after payment completion
-        // This is handled by the payment service when payment is successful
-
-        // Update available seats
-        schedule.setAvailableSeats(schedule.getAvailableSeats() - request.getNumberOfSeats());
-        scheduleRepository.save(schedule);
+        // QR code is rendered after commit; the PDF ticket is requested once payment completes
+        ticketArtifactService.enqueue(savedBooking.getId());
 
         return savedBooking;
     }
@@ -160,10 +149,4 @@ public class GuestBookingService {
         String timestamp = String.valueOf(System.currentTimeMillis());
         return firstName + "." + lastName + "." + timestamp + "@guest.inzira.com";
     }
-
-    private String generateBookingReference() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "GT" + timestamp + uuid; // GT prefix for guest bookings
-    }
 }
\ No newline at end of file
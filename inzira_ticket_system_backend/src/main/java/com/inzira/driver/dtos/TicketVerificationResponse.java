@@ -19,6 +19,7 @@ public class TicketVerificationResponse {
     private String customerName;
     private String customerPhone;
     private Integer numberOfSeats;
+    private String seatNumbers;
     private BigDecimal totalAmount;
     private String pickupPointName;
     private String dropPointName;
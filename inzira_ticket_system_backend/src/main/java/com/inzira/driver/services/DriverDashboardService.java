@@ -47,7 +47,8 @@ public class DriverDashboardService {
         return scheduleRepository.findByDriverId(driverId)
             .stream()
             .filter(schedule -> schedule.getDepartureDate().isAfter(today) || 
-                              (schedule.getDepartureDate().equals(today) && "SCHEDULED".equals(schedule.getStatus())))
+                              (schedule.getDepartureDate().equals(today)
+                                  && ("SCHEDULED".equals(schedule.getStatus()) || "BOOKING_CLOSED".equals(schedule.getStatus()))))
             .toList();
     }
 
@@ -1,6 +1,7 @@
 package com.inzira.driver.services;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,8 @@ import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.BookingRepository;
 import com.inzira.shared.repositories.DriverRepository;
 import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.services.SeatMapService;
+import com.inzira.shared.utils.ReferenceGenerator;
 
 @Service
 public class TicketVerificationService {
@@ -35,8 +38,14 @@ public class TicketVerificationService {
         Driver driver = driverRepository.findById(driverId)
             .orElseThrow(() -> new ResourceNotFoundException("Driver not found"));
 
+        // Typed references: catch typos with the check character before looking anything up
+        String reference = ReferenceGenerator.normalize(bookingReference);
+        if (ReferenceGenerator.isBookingReferenceFormat(reference) && !ReferenceGenerator.isValid(reference)) {
+            return new TicketVerificationResponse(false, "Booking reference looks mistyped, please check it", "INVALID_REFERENCE");
+        }
+
         // Find booking by reference
-        Optional<Booking> bookingOpt = bookingRepository.findByBookingReference(bookingReference);
+        Optional<Booking> bookingOpt = bookingRepository.findByBookingReference(reference);
         if (bookingOpt.isEmpty()) {
             return new TicketVerificationResponse(false, "Booking not found", "NOT_FOUND");
         }
@@ -81,8 +90,10 @@ public class TicketVerificationService {
             return new TicketVerificationResponse(false, "Schedule not assigned to this driver", "INVALID_SCHEDULE");
         }
 
-        // Get all bookings for this schedule
-        List<Booking> bookings = bookingRepository.findByScheduleId(scheduleId);
+        // Get all bookings for this schedule, ordered by seat so the manifest reads like the bus layout
+        List<Booking> bookings = bookingRepository.findByScheduleId(scheduleId).stream()
+            .sorted(Comparator.comparingInt(TicketVerificationService::firstSeat))
+            .toList();
         
         TicketVerificationResponse response = new TicketVerificationResponse();
         response.setValid(true);
@@ -132,6 +143,7 @@ public class TicketVerificationService {
         response.setCustomerName(booking.getCustomer().getFirstName() + " " + booking.getCustomer().getLastName());
         response.setCustomerPhone(booking.getCustomer().getPhoneNumber());
         response.setNumberOfSeats(booking.getNumberOfSeats());
+        response.setSeatNumbers(booking.getSeatNumbers());
         response.setTotalAmount(booking.getTotalAmount());
         response.setPickupPointName(booking.getPickupPoint().getName());
         response.setDropPointName(booking.getDropPoint().getName());
@@ -165,6 +177,7 @@ public class TicketVerificationService {
         response.setCustomerName(booking.getCustomer().getFirstName() + " " + booking.getCustomer().getLastName());
         response.setCustomerPhone(booking.getCustomer().getPhoneNumber());
         response.setNumberOfSeats(booking.getNumberOfSeats());
+        response.setSeatNumbers(booking.getSeatNumbers());
         response.setTotalAmount(booking.getTotalAmount());
         response.setPickupPointName(booking.getPickupPoint().getName());
         response.setDropPointName(booking.getDropPoint().getName());
@@ -177,6 +190,12 @@ public class TicketVerificationService {
         return response;
     }
 
+    // Bookings without assigned seats (made before seat selection) go last
+    private static int firstSeat(Booking booking) {
+        List<Integer> seats = SeatMapService.parseSeatNumbers(booking.getSeatNumbers());
+        return seats.isEmpty() ? Integer.MAX_VALUE : seats.get(0);
+    }
+
     private String extractBookingReferenceFromQR(String qrData) {
         try {
             // QR format: "INZIRA_TICKET|REF:bookingRef|EMAIL:email|ROUTE:route|DATE:date"
@@ -2,6 +2,7 @@ package com.inzira.shared.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -9,6 +10,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -16,6 +18,8 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.inzira.shared.security.JwtAuthenticationFilter;
 
+import jakarta.servlet.DispatcherType;
+
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
@@ -24,6 +28,28 @@ import java.util.Arrays;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Open to everyone; JwtAuthenticationFilter does not parse tokens sent to these
+    public static final String[] PUBLIC_PATHS = {
+        "/api/auth/**",
+        "/api/guest/**",
+        "/api/sse/**",
+        "/uploads/**",
+        "/api/tickets/verify/**",
+        "/api/tickets/download/**",
+        "/api/momo/**",
+        "/api/payments/**",
+        "/error",
+        // Shared reference data and schedule search
+        "/api/admin/districts",
+        "/api/admin/districts/**",
+        "/api/admin/provinces",
+        "/api/admin/provinces/**",
+        "/api/agency/schedules/**",
+        // Customer endpoints
+        "/api/customers/**",
+        "/api/bookings/**"
+    };
+
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
@@ -42,25 +68,15 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
-                // Public endpoints - allow all
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/guest/**").permitAll()
-                .requestMatchers("/api/sse/**").permitAll()
-                .requestMatchers("/uploads/**").permitAll()
-                .requestMatchers("/api/tickets/verify/**").permitAll()
-                .requestMatchers("/api/tickets/download/**").permitAll()
-                .requestMatchers("/api/momo/**").permitAll()
-                .requestMatchers("/api/payments/**").permitAll()
-                .requestMatchers("/error").permitAll()
+                // Completion of a streamed response that was already authorised (CSV exports)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
+                // Public endpoints - allow all (before /api/admin/** and /api/agency/**)
+                .requestMatchers(PUBLIC_PATHS).permitAll()
                 
                 // Shared endpoints that multiple roles can access - MUST come before /api/admin/**
-                .requestMatchers("/api/admin/districts").permitAll()
-                .requestMatchers("/api/admin/districts/**").permitAll()
-                .requestMatchers("/api/admin/provinces").permitAll()
-                .requestMatchers("/api/admin/provinces/**").permitAll()
                 .requestMatchers("/api/admin/routes").hasAnyRole("ADMIN", "AGENCY","AGENT")
                 .requestMatchers("/api/admin/routes/**").hasAnyRole("ADMIN", "AGENCY")
-                .requestMatchers("/api/agency/schedules/**").permitAll()
                 
                 // Password change - accessible by all authenticated users
                 .requestMatchers("/api/auth/change-password").authenticated()
@@ -68,6 +84,7 @@ public class SecurityConfig {
                 
                 // Admin endpoints
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
                 
                 // Agency endpoints  
                 .requestMatchers("/api/agency/**").hasAnyRole("AGENCY", "BRANCH_MANAGER")
@@ -82,13 +99,13 @@ public class SecurityConfig {
                 .requestMatchers("/api/driver/**").hasRole("DRIVER")
                 
                 // Customer endpoints
-                .requestMatchers("/api/customers/**").permitAll()
-                .requestMatchers("/api/bookings/**").permitAll()
                 .requestMatchers("/api/tickets/**").hasAnyRole("CUSTOMER", "ADMIN", "AGENCY", "AGENT")
                 
                 // All other requests need authentication
                 .anyRequest().authenticated()
             )
+            // 401 rather than 403 for a missing, expired or revoked token, so clients know to refresh it
+            .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
             .formLogin(form -> form.disable())
             .httpBasic(basic -> basic.disable());
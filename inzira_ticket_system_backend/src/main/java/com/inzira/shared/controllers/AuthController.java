@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.*;
 
 import com.inzira.shared.dtos.LoginRequest;
 import com.inzira.shared.dtos.LoginResponse;
+import com.inzira.shared.dtos.RefreshTokenRequest;
 import com.inzira.shared.dtos.RegisterRequest;
 import com.inzira.shared.entities.User;
 import com.inzira.shared.exceptions.ApiResponse;
@@ -61,6 +62,26 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<ApiResponse<LoginResponse>> refresh(@RequestBody RefreshTokenRequest request) {
+        try {
+            LoginResponse response = authService.refresh(request.getRefreshToken());
+            return ResponseEntity.ok(new ApiResponse<>(true, "Token refreshed", response));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new ApiResponse<>(false, e.getMessage(), null));
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Logged out", null));
+    }
+
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<User>> getCurrentUser(@RequestHeader("Authorization") String authHeader) {
         // This would be implemented with JWT token parsing
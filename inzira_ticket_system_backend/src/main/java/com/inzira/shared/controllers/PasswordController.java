@@ -8,6 +8,8 @@ import com.inzira.shared.dtos.ChangePasswordRequest;
 import com.inzira.shared.exceptions.ApiResponse;
 import com.inzira.shared.services.PasswordService;
 
+import io.jsonwebtoken.JwtException;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "http://localhost:5173")
@@ -30,6 +32,10 @@ public class PasswordController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                 .body(new ApiResponse<>(false, e.getMessage(), null));
+        } catch (JwtException e) {
+            // Expired or revoked access token: 401 lets the client refresh it and retry
+            return ResponseEntity.status(401)
+                .body(new ApiResponse<>(false, "Invalid or expired token", null));
         } catch (Exception e) {
             return ResponseEntity.status(500)
                 .body(new ApiResponse<>(false, "Failed to change password: " + e.getMessage(), null));
@@ -5,14 +5,18 @@ import java.time.LocalDateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.inzira.admin.services.TrendService;
+import com.inzira.shared.dtos.PaymentStatus;
 import com.inzira.shared.entities.Payment;
-import com.inzira.shared.repositories.BookingRepository;
 import com.inzira.shared.repositories.PaymentRepository;
+import com.inzira.shared.services.SeatHoldService;
+import com.inzira.shared.services.TicketArtifactService;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
@@ -30,7 +34,16 @@ public class StripeCheckoutConfirmController {
     private PaymentRepository paymentRepository;
 
     @Autowired
-    private BookingRepository bookingRepository;
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private TicketArtifactService ticketArtifactService;
+
+    @Autowired
+    private TrendService trendService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @Value("${stripe.secret.key:}")
     private String secretKey;
@@ -79,32 +92,39 @@ public class StripeCheckoutConfirmController {
                 return ResponseEntity.badRequest().body("Payment not completed");
             }
 
-            Payment payment = paymentRepository.findByTransactionReference(reference)
-                .orElse(null);
+            String callbackData = "{\"session_id\":\"" + sessionId + "\",\"payment_intent\":\"" + (paymentIntentId != null ? paymentIntentId : "") + "\"}";
+            // Hold conversion and payment status commit together: SUCCESS is only written once the seats are ours
+            Payment payment = transactionTemplate.execute(status -> {
+                Payment p = paymentRepository.findByTransactionReference(reference).orElse(null);
+                if (p == null) {
+                    return null;
+                }
+                // A payment already set aside for a refund (or refunded) is not revenue again
+                if (PaymentStatus.REFUND_PENDING.equals(p.getStatus()) || PaymentStatus.REFUNDED.equals(p.getStatus())) {
+                    return p;
+                }
+                if (seatHoldService.confirm(p.getBooking())) {
+                    p.setStatus("SUCCESS");
+                } else {
+                    log.warn("Stripe session {} paid after booking {} expired", sessionId, p.getBooking().getId());
+                    p.setStatus(PaymentStatus.REFUND_PENDING);
+                    p.setFailureReason("Booking hold expired before payment completed; refund required");
+                }
+                p.setCallbackData(callbackData);
+                p.setUpdatedAt(LocalDateTime.now());
+                return paymentRepository.save(p);
+            });
             if (payment == null) {
                 return ResponseEntity.badRequest().body("Payment record not found");
             }
-
-            payment.setStatus("SUCCESS");
-            payment.setCallbackData("{\"session_id\":\"" + sessionId + "\",\"payment_intent\":\"" + (paymentIntentId != null ? paymentIntentId : "") + "\"}");
-            payment.setUpdatedAt(LocalDateTime.now());
-            paymentRepository.save(payment);
-
-            // Update booking payment status and auto-confirm + generate ticket
-            var booking = payment.getBooking();
-            booking.setPaymentStatus("PAID");
-            booking.setStatus("CONFIRMED");
-            try {
-                if (booking.getTicketPdfPath() == null || booking.getTicketPdfPath().isBlank()) {
-                    // Generate ticket PDF so guests can download immediately
-                    com.inzira.shared.services.PDFTicketService pdf = new com.inzira.shared.services.PDFTicketService();
-                    String pdfPath = pdf.generateTicketPDF(booking);
-                    booking.setTicketPdfPath(pdfPath);
-                }
-            } catch (Exception genEx) {
-                log.warn("Failed to generate PDF ticket on confirm: {}", genEx.getMessage());
+            if (!"SUCCESS".equals(payment.getStatus())) {
+                return ResponseEntity.status(409).body(PaymentStatus.REFUNDED.equals(payment.getStatus())
+                    ? "Payment refunded" : "Booking hold expired");
             }
-            bookingRepository.save(booking);
+            trendService.evict(TrendService.Metric.REVENUE, payment.getCreatedAt());
+
+            // Guests can download right away: the download renders on demand if the pipeline is behind
+            ticketArtifactService.requestTicket(payment.getBooking());
 
             log.info("Stripe session confirmed without webhook. Ref: {}", reference);
             return ResponseEntity.ok().body("confirmed");
@@ -10,6 +10,8 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.inzira.admin.services.TrendService;
+import com.inzira.shared.dtos.PaymentStatus;
 import com.inzira.shared.repositories.PaymentRepository;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.Event;
@@ -27,12 +29,14 @@ import lombok.extern.slf4j.Slf4j;
 public class StripeWebhookController {
 
     private final PaymentRepository paymentRepository;
+    private final TrendService trendService;
 
     @Value("${stripe.webhook.secret:}")
     private String webhookSecret;
 
-    public StripeWebhookController(PaymentRepository paymentRepository) {
+    public StripeWebhookController(PaymentRepository paymentRepository, TrendService trendService) {
         this.paymentRepository = paymentRepository;
+        this.trendService = trendService;
     }
 
     @PostMapping
@@ -67,13 +71,18 @@ public class StripeWebhookController {
                         Session session = (Session) stripeObject;
                         String ref = session.getClientReferenceId();
                         if (ref != null) {
-                            paymentRepository.findByTransactionReference(ref).ifPresent(payment -> {
-                                payment.setStatus("SUCCESS");
-                                payment.setCallbackData(payload);
-                                payment.setUpdatedAt(LocalDateTime.now());
-                                paymentRepository.save(payment);
-                                log.info("Payment marked SUCCESS via webhook. Ref: {}", ref);
-                            });
+                            paymentRepository.findByTransactionReference(ref)
+                                // A payment already set aside for a refund (or refunded) is not revenue again
+                                .filter(payment -> !PaymentStatus.REFUND_PENDING.equals(payment.getStatus())
+                                    && !PaymentStatus.REFUNDED.equals(payment.getStatus()))
+                                .ifPresent(payment -> {
+                                    payment.setStatus("SUCCESS");
+                                    payment.setCallbackData(payload);
+                                    payment.setUpdatedAt(LocalDateTime.now());
+                                    paymentRepository.save(payment);
+                                    trendService.evict(TrendService.Metric.REVENUE, payment.getCreatedAt());
+                                    log.info("Payment marked SUCCESS via webhook. Ref: {}", ref);
+                                });
                         }
                     }
                     break;
@@ -114,6 +123,7 @@ public class StripeWebhookController {
                                 payment.setCallbackData(payload);
                                 payment.setUpdatedAt(LocalDateTime.now());
                                 paymentRepository.save(payment);
+                                trendService.evict(TrendService.Metric.REVENUE, payment.getCreatedAt());
                                 log.info("Payment marked REFUNDED via webhook. Ref: {}", ref);
                             });
                         }
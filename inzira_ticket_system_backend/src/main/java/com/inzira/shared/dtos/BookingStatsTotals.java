@@ -0,0 +1,21 @@
+package com.inzira.shared.dtos;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+
+// Sums of daily_booking_stats rows over a date range
+@Data
+public class BookingStatsTotals {
+    private long totalBookings;
+    private long pendingBookings;
+    private long confirmedBookings;
+    private long completedBookings;
+    private long cancelledBookings;
+    private long expiredBookings;
+    private long seatsSold;
+    private BigDecimal bookingRevenue = BigDecimal.ZERO;
+    private long payments;
+    private long successfulPayments;
+    private BigDecimal paymentRevenue = BigDecimal.ZERO;
+}
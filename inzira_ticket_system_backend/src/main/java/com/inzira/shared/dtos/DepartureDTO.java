@@ -0,0 +1,18 @@
+package com.inzira.shared.dtos;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.Data;
+
+@Data
+public class DepartureDTO {
+    private Long scheduleId;
+    private Long agencyId;
+    private String agencyName;
+    private LocalDate departureDate;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+    private Double price;
+    private Integer availableSeats;
+}
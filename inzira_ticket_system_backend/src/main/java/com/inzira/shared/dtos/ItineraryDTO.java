@@ -0,0 +1,15 @@
+package com.inzira.shared.dtos;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ItineraryDTO {
+    private LocalDateTime departure;
+    private LocalDateTime arrival;
+    private Double totalPrice;
+    private Integer transfers;
+    private List<ItineraryLegDTO> legs;
+}
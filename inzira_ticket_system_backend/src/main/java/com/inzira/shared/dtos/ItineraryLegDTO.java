@@ -0,0 +1,20 @@
+package com.inzira.shared.dtos;
+
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+@Data
+public class ItineraryLegDTO {
+    private Long scheduleId;
+    private Long agencyId;
+    private String agencyName;
+    private Long originId;
+    private String originName;
+    private Long destinationId;
+    private String destinationName;
+    private LocalDateTime departure;
+    private LocalDateTime arrival;
+    private Double price;
+    private Integer availableSeats;
+}
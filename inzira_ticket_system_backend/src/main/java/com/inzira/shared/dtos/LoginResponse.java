@@ -5,6 +5,8 @@ import lombok.Data;
 @Data
 public class LoginResponse {
     private String token;
+    private String refreshToken;
+    private Long expiresIn; // access token lifetime in milliseconds
     private String role;
     private Long userId;
     private String firstName;
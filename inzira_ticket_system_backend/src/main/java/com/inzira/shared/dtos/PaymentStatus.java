@@ -24,6 +24,8 @@ public class PaymentStatus {
     public static final String PENDING = "PENDING";
     public static final String SUCCESS = "SUCCESS";
     public static final String FAILED = "FAILED";
+    // Paid after the booking's seat hold expired: money taken, no seats, awaiting a refund
+    public static final String REFUND_PENDING = "REFUND_PENDING";
     public static final String REFUNDED = "REFUNDED";
     public static final String CANCELLED = "CANCELLED";
     
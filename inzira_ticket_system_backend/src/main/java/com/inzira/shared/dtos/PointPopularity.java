@@ -0,0 +1,15 @@
+package com.inzira.shared.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Estimated sold bookings picking up or dropping off at a route point
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PointPopularity {
+    private Long pointId;
+    private String name;
+    private long bookings;
+}
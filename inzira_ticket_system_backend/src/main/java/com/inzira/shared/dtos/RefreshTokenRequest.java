@@ -0,0 +1,8 @@
+package com.inzira.shared.dtos;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
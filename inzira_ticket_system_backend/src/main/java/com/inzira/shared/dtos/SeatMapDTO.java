@@ -0,0 +1,13 @@
+package com.inzira.shared.dtos;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class SeatMapDTO {
+    private Long scheduleId;
+    private Integer capacity;
+    private Integer availableSeats;
+    private List<Integer> occupiedSeats;
+}
@@ -0,0 +1,47 @@
+package com.inzira.shared.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * All-time booking and payment totals of one agency: the sums of its daily_booking_stats rows, kept
+ * beside them by DailyBookingStatsService so all-time dashboard figures read one row.
+ */
+@Entity
+@Table(name = "agency_booking_stats",
+    uniqueConstraints = @UniqueConstraint(name = "uk_agency_booking_stats_agency", columnNames = "agency_id"))
+@Data
+public class AgencyBookingStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long agencyId;
+
+    private long totalBookings;
+    private long pendingBookings;
+    private long confirmedBookings;
+    private long completedBookings;
+    private long cancelledBookings;
+    private long expiredBookings;
+    private long seatsSold;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal bookingRevenue;
+
+    private long payments;
+    private long successfulPayments;
+
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal paymentRevenue;
+
+    // HyperLogLog of every customer who ever booked with the agency; only ever merged into
+    @Column(length = 8192)
+    private byte[] customerSketch;
+
+    private LocalDateTime refreshedAt;
+}
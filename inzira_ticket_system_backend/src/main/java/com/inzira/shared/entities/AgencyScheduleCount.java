@@ -0,0 +1,17 @@
+package com.inzira.shared.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * Number of schedules an agency has, kept in step with the schedule table by ScheduleCountService so
+ * the dashboards read one row instead of counting the agency's schedules. A row is created from a
+ * count of the table the first time the agency is read or changed.
+ */
+@Entity
+@Table(name = "agency_schedule_counts")
+public class AgencyScheduleCount {
+    @Id
+    private Long agencyId;
+
+    private long schedules;
+}
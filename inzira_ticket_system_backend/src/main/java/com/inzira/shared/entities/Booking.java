@@ -4,13 +4,19 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.inzira.shared.services.DailyBookingStatsListener;
+
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
+@Table(indexes = @Index(name = "idx_booking_created_at_id", columnList = "created_at, id")) // admin listing keyset order
 @Data
+@EntityListeners(DailyBookingStatsListener.class) // keeps daily_booking_stats in step
+@DynamicUpdate // only write changed columns so entity saves never overwrite ticket artifacts written by the pipeline
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -38,15 +44,22 @@ public class Booking {
     @Column(nullable = false)
     private Integer numberOfSeats;
 
+    // Assigned seat numbers, comma-separated (e.g. "12,13"); may be sent on create to pick seats
+    @Column(length = 500)
+    private String seatNumbers;
+
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal totalAmount;
 
     @Column(nullable = false)
-    private String status; // PENDING, CONFIRMED, CANCELLED, COMPLETED
+    private String status; // PENDING, CONFIRMED, CANCELLED, COMPLETED, EXPIRED, NO_SHOW
 
     @Column(nullable = false)
     private String paymentStatus; // PENDING, PAID, REFUNDED
 
+    // Seats of an unpaid booking are held until this time, then the booking expires
+    private LocalDateTime holdExpiresAt;
+
     // QR Code for ticket verification
     @Column(length = 1000)
     private String qrCode;
@@ -55,6 +68,13 @@ public class Booking {
     @Column(length = 500)
     private String ticketPdfPath;
 
+    // Ticket PDF pipeline: PENDING (queued), READY, FAILED; null while no ticket has been requested
+    @Column(length = 20)
+    private String ticketStatus;
+
+    // Times the recovery sweep re-queued the pipeline for this booking (null: never); reset when a ticket is requested
+    private Integer ticketRecoveries;
+
     // Track who created the booking (for reporting)
     @Column(length = 50)
     private String createdBy; // "CUSTOMER", "AGENT"
@@ -0,0 +1,22 @@
+package com.inzira.shared.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * One seat held by a live booking. The unique (schedule_id, seat_no) key is what stops two nodes, each
+ * working from its own seat map, from selling the same seat; rows are inserted in the booking
+ * transaction and deleted when the booking gives its seats back. Written by SeatMapService only.
+ */
+@Entity
+@Table(name = "booking_seats", uniqueConstraints = @UniqueConstraint(name = "uk_booking_seat", columnNames = {"schedule_id", "seat_no"}))
+public class BookingSeat {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "schedule_id", nullable = false)
+    private Long scheduleId;
+
+    @Column(name = "seat_no", nullable = false)
+    private Integer seatNo;
+}
@@ -0,0 +1,43 @@
+package com.inzira.shared.entities;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * One live-update message relayed between backend nodes by JdbcClusterTransport. The id doubles as
+ * the cluster-wide sequence number clients resume from (Last-Event-ID); rows are pruned after
+ * cluster.retention-minutes.
+ */
+@Entity
+@Table(name = "cluster_events", indexes = @Index(name = "idx_cluster_events_created_at", columnList = "created_at")) // pruning
+@Data
+public class ClusterEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Node that published it; that node has already delivered it to its own clients
+    @Column(nullable = false, length = 64)
+    private String nodeId;
+
+    // Comma-separated SSE topics
+    @Column(nullable = false, length = 512)
+    private String topics;
+
+    @Column(nullable = false, length = 64)
+    private String name;
+
+    @Column(length = 128)
+    private String eventKey;
+
+    @Column(nullable = false, length = 2048)
+    private String data;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
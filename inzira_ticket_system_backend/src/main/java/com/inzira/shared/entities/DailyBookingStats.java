@@ -0,0 +1,66 @@
+package com.inzira.shared.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Booking and payment totals of one agency route on one day. Bookings count on the day they were
+ * created, payments on the day they were made. Rows are written by DailyBookingStatsService only.
+ */
+@Entity
+@Table(name = "daily_booking_stats",
+    uniqueConstraints = @UniqueConstraint(name = "uk_daily_booking_stats_day_agency_route", columnNames = { "stat_date", "agency_id", "route_id" }),
+    indexes = @Index(name = "idx_daily_booking_stats_agency_day", columnList = "agency_id, stat_date")) // per-agency dashboards
+@Data
+public class DailyBookingStats {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate statDate;
+
+    @Column(nullable = false)
+    private Long agencyId;
+
+    @Column(nullable = false)
+    private Long routeId;
+
+    // Bookings created that day, by current status; totalBookings also counts any other status
+    private long totalBookings;
+    private long pendingBookings;
+    private long confirmedBookings;
+    private long completedBookings;
+    private long cancelledBookings;
+    private long expiredBookings;
+
+    // Seats and totalAmount of the CONFIRMED, COMPLETED and NO_SHOW ones
+    private long seatsSold;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal bookingRevenue;
+
+    // Payments made that day, and the amount of the SUCCESS ones
+    private long payments;
+    private long successfulPayments;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal paymentRevenue;
+
+    // Serialized sketches, merged across rows by BookingSketchService: HyperLogLog of the customer ids
+    // of the day's bookings, count-min of the pickup and drop RoutePoint ids of the sold ones
+    @Column(length = 8192)
+    private byte[] customerSketch;
+
+    @Column(length = 8192)
+    private byte[] pickupSketch;
+
+    @Column(length = 8192)
+    private byte[] dropSketch;
+
+    private LocalDateTime refreshedAt;
+}
@@ -0,0 +1,22 @@
+package com.inzira.shared.entities;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.*;
+
+/**
+ * A day whose daily_booking_stats rows must be recomputed, written in the same transaction as the
+ * booking or payment change behind it. Any node's flush recomputes the day and deletes the marks it
+ * read, so a change is never lost with the node that made it. Rows are written by
+ * DailyBookingStatsService only.
+ */
+@Entity
+@Table(name = "daily_booking_stats_marks")
+public class DailyBookingStatsMark {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate statDate;
+}
@@ -6,12 +6,15 @@ import java.time.LocalDateTime;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import com.inzira.shared.services.DailyBookingStatsListener;
+
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = @Index(name = "idx_payment_created_at_id", columnList = "created_at, id")) // admin listing keyset order
 @Data
+@EntityListeners(DailyBookingStatsListener.class) // keeps daily_booking_stats in step
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,7 +31,7 @@ public class Payment {
     private String paymentMethod; // STRIPE, CASH
 
     @Column(nullable = false)
-    private String status; // PENDING, SUCCESS, FAILED, REFUNDED, CANCELLED
+    private String status; // PENDING, SUCCESS, FAILED, REFUND_PENDING (paid after the booking expired), REFUNDED, CANCELLED
 
     @Column(unique = true)
     private String transactionReference;
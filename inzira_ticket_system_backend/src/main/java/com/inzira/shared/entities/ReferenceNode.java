@@ -0,0 +1,26 @@
+package com.inzira.shared.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * A reference node id (0-1023) leased by one running backend node, so no two nodes stamp the same id
+ * into booking and transaction references. The owner renews the lease while it runs; once expiresAt
+ * has passed, any node may take the id over.
+ */
+@Entity
+@Table(name = "reference_nodes")
+@Data
+public class ReferenceNode {
+    @Id
+    private Integer nodeId;
+
+    // Random id of the process holding the lease
+    @Column(nullable = false, length = 64)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,38 @@
+package com.inzira.shared.entities;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * One revocation, read by every node into its TokenDenylist: either a single token (tokenId, the JWT
+ * id) or every token of a user issued up to createdAt (userId only). Rows are pruned once expiresAt,
+ * the last moment an affected token could still be presented, has passed. A token id is unique, so
+ * only one of two concurrent revocations of the same token, on any node, can succeed.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_tokens_created_at", columnList = "created_at"), // polling
+    @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at") // startup load and pruning
+}, uniqueConstraints = @UniqueConstraint(name = "uk_revoked_tokens_token_id", columnNames = "token_id"))
+@Data
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64)
+    private String tokenId;
+
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -5,15 +5,23 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import com.inzira.agency.entities.AgencyRoute;
+import com.inzira.shared.services.ScheduleCountListener;
 
 import jakarta.persistence.*;
 import lombok.Data;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_schedule_agency_route_departure", columnList = "agency_route_id, departure_date"), // per-agency counts
+    @Index(name = "idx_schedule_status_departure", columnList = "status, departure_date") // lifecycle transitions
+})
 @Data
+@EntityListeners(ScheduleCountListener.class) // keeps agency_schedule_counts in step
+@DynamicUpdate // only write changed columns so entity saves never overwrite availableSeats maintained by atomic updates
 public class Schedule {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,7 +52,7 @@ public class Schedule {
     private Integer availableSeats;
 
     @Column(nullable = false)
-    private String status; // SCHEDULED, DEPARTED, ARRIVED, CANCELLED
+    private String status; // SCHEDULED, BOOKING_CLOSED, DEPARTED, ARRIVED, COMPLETED, CANCELLED, ARCHIVED
 
     @CreationTimestamp
     @Column(updatable = false)
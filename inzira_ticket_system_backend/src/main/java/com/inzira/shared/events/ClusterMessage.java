@@ -0,0 +1,15 @@
+package com.inzira.shared.events;
+
+import java.util.Set;
+
+/**
+ * A live-update message as relayed between nodes: the SSE event (name, coalescing key, JSON data), the
+ * topics it goes to, and its cluster-wide sequence number (0 until the transport assigned one).
+ * Messages without topics reach no SSE client; they carry node state such as search cache evictions.
+ */
+public record ClusterMessage(long sequence, Set<String> topics, String name, String key, String data) {
+
+    public ClusterMessage withSequence(long sequence) {
+        return new ClusterMessage(sequence, topics, name, key, data);
+    }
+}
@@ -0,0 +1,31 @@
+package com.inzira.shared.events;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Carries live-update messages to the other backend nodes, which relay them to their own SSE clients.
+ *
+ * JdbcClusterTransport (cluster.transport=jdbc, the default) needs nothing but the shared database.
+ * A broker transport (Redis, Kafka, ...) implements this interface as a bean conditional on another
+ * cluster.transport value. Sequence numbers must increase with publication order across the cluster
+ * so that a reconnecting client can resume after the last one it saw.
+ */
+public interface ClusterTransport {
+
+    /** Sends the message to the other nodes and returns its sequence number. */
+    long send(ClusterMessage message);
+
+    /**
+     * Starts handing messages published by other nodes to the receiver, in sequence order. Several
+     * components may each register a receiver; every one of them gets every message.
+     */
+    void start(Consumer<ClusterMessage> receiver);
+
+    /**
+     * Messages after the sequence number, oldest first, at most limit of them; empty when that history
+     * is no longer available and the client has to reload instead.
+     */
+    Optional<List<ClusterMessage>> since(long sequence, int limit);
+}
@@ -0,0 +1,20 @@
+package com.inzira.shared.events;
+
+/**
+ * Something that happened to a schedule, published on DomainEventBus once the transaction commits.
+ */
+public sealed interface DomainEvent {
+
+    Long scheduleId();
+
+    // Seats of a new booking were taken from the schedule
+    record BookingCreated(Long bookingId, Long scheduleId, int seats) implements DomainEvent {}
+
+    // A booking was cancelled and its seats went back to the schedule
+    record BookingCancelled(Long bookingId, Long scheduleId, int seats) implements DomainEvent {}
+
+    // Seats went back to the schedule without a cancellation, e.g. an unpaid hold expired
+    record SeatsReleased(Long scheduleId, int seats) implements DomainEvent {}
+
+    record ScheduleStatusChanged(Long scheduleId, String status) implements DomainEvent {}
+}
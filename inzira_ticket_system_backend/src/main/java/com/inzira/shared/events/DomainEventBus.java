@@ -0,0 +1,185 @@
+package com.inzira.shared.events;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.inzira.shared.utils.TransactionCallbacks;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process bus for booking and schedule events.
+ *
+ * Events are queued once the publishing transaction commits (never on rollback) and coalesced per
+ * schedule: the first event of a schedule opens a coalesce-window, and everything published for it until
+ * the window closes is delivered as one ScheduleEvents. A burst of bookings on one trip therefore reaches
+ * subscribers once. Each subscriber has its own delivery thread, so a slow one only delays itself and a
+ * publisher never waits for any of them. Delivery is per JVM and not persisted; subscribers treat events
+ * as hints and read current state (seat counters, schedule rows) when they act.
+ *
+ * A subscriber that falls behind holds at most one waiting batch per schedule: a later batch for a
+ * schedule already waiting is merged into it. Once max-queued-schedules schedules are waiting, batches
+ * for further schedules are dropped and counted in domain.events.dropped (tagged by subscriber).
+ */
+@Component
+@Slf4j
+public class DomainEventBus {
+
+    @Value("${domain-events.coalesce-ms:200}")
+    private long coalesceMillis = 200;
+
+    @Value("${domain-events.max-queued-schedules:10000}")
+    private int maxQueuedSchedules = 10000;
+
+    @Autowired
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final Map<Long, List<DomainEvent>> pending = new ConcurrentHashMap<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService windows;
+
+    @PostConstruct
+    public void init() {
+        windows = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "domain-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        windows.shutdownNow();
+        subscriptions.forEach(Subscription::close);
+    }
+
+    // Queues the event once the current transaction commits, or right away outside one
+    public void publish(DomainEvent event) {
+        TransactionCallbacks.afterCommit(() -> offer(event));
+    }
+
+    /**
+     * Delivers every coalesced batch to the subscriber on its own thread, named after it.
+     * Closing the returned subscription stops delivery.
+     */
+    public Subscription subscribe(String name, Consumer<ScheduleEvents> subscriber) {
+        Subscription subscription = new Subscription(name, subscriber);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    private void offer(DomainEvent event) {
+        boolean[] opened = new boolean[1];
+        pending.compute(event.scheduleId(), (id, events) -> {
+            if (events == null) {
+                events = new ArrayList<>();
+                opened[0] = true;
+            }
+            events.add(event);
+            return events;
+        });
+        if (opened[0]) {
+            windows.schedule(() -> close(event.scheduleId()), coalesceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void close(Long scheduleId) {
+        List<DomainEvent> events = pending.remove(scheduleId);
+        if (events == null) {
+            return;
+        }
+        ScheduleEvents batch = new ScheduleEvents(scheduleId, List.copyOf(events));
+        for (Subscription subscription : subscriptions) {
+            subscription.deliver(batch);
+        }
+    }
+
+    public final class Subscription implements AutoCloseable {
+        private final String name;
+        private final Consumer<ScheduleEvents> subscriber;
+        private final ExecutorService executor;
+        private final Counter dropped;
+
+        // Batches waiting for the subscriber, one per schedule, oldest first; guarded by this
+        private final LinkedHashMap<Long, ScheduleEvents> waiting = new LinkedHashMap<>();
+        private boolean draining;
+
+        private Subscription(String name, Consumer<ScheduleEvents> subscriber) {
+            this.name = name;
+            this.subscriber = subscriber;
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "domain-events-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.dropped = Counter.builder("domain.events.dropped").tag("subscriber", name)
+                .description("Event batches dropped because the subscriber fell too far behind").register(meterRegistry);
+        }
+
+        private void deliver(ScheduleEvents batch) {
+            synchronized (this) {
+                ScheduleEvents earlier = waiting.get(batch.scheduleId());
+                if (earlier != null) {
+                    waiting.put(batch.scheduleId(), earlier.merge(batch));
+                    return;
+                }
+                if (waiting.size() >= maxQueuedSchedules) {
+                    dropped.increment();
+                    return;
+                }
+                waiting.put(batch.scheduleId(), batch);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        // Hands the waiting batches to the subscriber until none are left
+        private void drain() {
+            while (true) {
+                ScheduleEvents batch;
+                synchronized (this) {
+                    Iterator<ScheduleEvents> oldest = waiting.values().iterator();
+                    if (!oldest.hasNext()) {
+                        draining = false;
+                        return;
+                    }
+                    batch = oldest.next();
+                    oldest.remove();
+                }
+                try {
+                    subscriber.accept(batch);
+                } catch (Exception e) {
+                    log.warn("Subscriber {} failed on the events of schedule {}: {}", name, batch.scheduleId(), e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+            executor.shutdownNow();
+        }
+    }
+}
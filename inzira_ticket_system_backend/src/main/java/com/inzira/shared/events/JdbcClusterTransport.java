@@ -0,0 +1,234 @@
+package com.inzira.shared.events;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.inzira.shared.entities.ClusterEvent;
+import com.inzira.shared.repositories.ClusterEventRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cluster transport over the shared database: every message is a cluster_events row whose identity id
+ * is its sequence number, and each node polls for rows after the last one it relayed.
+ *
+ * Ids are handed out at insert but rows become visible at commit, so a row can show up after one with
+ * a higher id. The poll cursor therefore stops at the first missing id and re-reads past it until the
+ * row appears or gap-timeout passes (a rolled-back insert leaves a permanent hole). Rows older than
+ * retention-minutes are deleted; a client asking to resume from a deleted row has to reload.
+ *
+ * The poller stops with the context's lifecycle beans, after the web server and before the DataSource
+ * closes, and the stop waits for a poll in progress.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.transport", havingValue = "jdbc", matchIfMissing = true)
+@Slf4j
+public class JdbcClusterTransport implements ClusterTransport, SmartLifecycle {
+
+    private static final int BATCH_SIZE = 500;
+    private static final long PRUNE_INTERVAL_MILLIS = 60_000;
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+    private final ClusterEventRepository clusterEventRepository;
+    private final String nodeId;
+    private final long pollMillis;
+    private final long retentionMinutes;
+    private final long gapTimeoutMillis;
+
+    private final List<Consumer<ClusterMessage>> receivers = new CopyOnWriteArrayList<>();
+
+    // Poll state, guarded by this
+    private long cursor;
+    private final TreeSet<Long> seenAfterCursor = new TreeSet<>();
+    private long gapSince;
+
+    private volatile ScheduledExecutorService poller;
+
+    public JdbcClusterTransport(ClusterEventRepository clusterEventRepository,
+                                @Value("${cluster.node-id:}") String nodeId,
+                                @Value("${cluster.poll-ms:500}") long pollMillis,
+                                @Value("${cluster.retention-minutes:15}") long retentionMinutes,
+                                @Value("${cluster.gap-timeout-ms:5000}") long gapTimeoutMillis) {
+        this.clusterEventRepository = clusterEventRepository;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.pollMillis = pollMillis;
+        this.retentionMinutes = retentionMinutes;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+    }
+
+    // The poller is started by the first receiver, not by the context
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return poller != null && !poller.isShutdown();
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ScheduledExecutorService poller = this.poller;
+        if (poller == null) {
+            return;
+        }
+        poller.shutdownNow();
+        try {
+            if (!poller.awaitTermination(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("Cluster event poller did not stop within {} ms", STOP_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public long send(ClusterMessage message) {
+        ClusterEvent event = new ClusterEvent();
+        event.setNodeId(nodeId);
+        event.setTopics(String.join(",", message.topics()));
+        event.setName(message.name());
+        event.setEventKey(message.key());
+        event.setData(message.data());
+        return clusterEventRepository.save(event).getId();
+    }
+
+    @Override
+    public synchronized void start(Consumer<ClusterMessage> receiver) {
+        receivers.add(receiver);
+        if (poller != null) {
+            return;
+        }
+        // Only what is published from now on; a node has no clients to catch up yet
+        this.cursor = clusterEventRepository.findMaxId();
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cluster-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollQuietly, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::pruneQuietly, PRUNE_INTERVAL_MILLIS, PRUNE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        log.info("Cluster events relayed over the database as node {}", nodeId);
+    }
+
+    @Override
+    public Optional<List<ClusterMessage>> since(long sequence, int limit) {
+        // The row the client saw last is gone (pruned, or another database): what followed may be too
+        if (!clusterEventRepository.existsById(sequence)) {
+            return Optional.empty();
+        }
+        List<ClusterEvent> events = clusterEventRepository.findByIdGreaterThanOrderByIdAsc(sequence, PageRequest.of(0, limit + 1));
+        if (events.size() > limit) {
+            return Optional.empty();
+        }
+        return Optional.of(events.stream().map(JdbcClusterTransport::toMessage).toList());
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    // Relays the rows other nodes committed since the last poll; returns how many were relayed
+    synchronized int poll() {
+        int relayed = 0;
+        List<ClusterEvent> events;
+        do {
+            events = clusterEventRepository.findByIdGreaterThanOrderByIdAsc(cursor, PageRequest.of(0, BATCH_SIZE));
+            for (ClusterEvent event : events) {
+                // Rows past a hole are read again until the hole fills; relay them once
+                if (!seenAfterCursor.add(event.getId())) {
+                    continue;
+                }
+                if (!nodeId.equals(event.getNodeId())) {
+                    deliver(toMessage(event));
+                    relayed++;
+                }
+            }
+            advanceCursor();
+        } while (events.size() == BATCH_SIZE && cursor >= events.get(events.size() - 1).getId());
+        return relayed;
+    }
+
+    // A receiver that fails must not keep the message from the others
+    private void deliver(ClusterMessage message) {
+        for (Consumer<ClusterMessage> receiver : receivers) {
+            try {
+                receiver.accept(message);
+            } catch (Exception e) {
+                log.warn("Failed to relay cluster event {}: {}", message.sequence(), e.getMessage());
+            }
+        }
+    }
+
+    private void advanceCursor() {
+        while (!seenAfterCursor.isEmpty()) {
+            if (seenAfterCursor.first() == cursor + 1) {
+                cursor = seenAfterCursor.pollFirst();
+                gapSince = 0;
+                continue;
+            }
+            long now = System.currentTimeMillis();
+            if (gapSince == 0) {
+                gapSince = now;
+            }
+            if (now - gapSince < gapTimeoutMillis) {
+                return;
+            }
+            log.debug("Cluster events {} to {} never committed, skipping them", cursor + 1, seenAfterCursor.first() - 1);
+            cursor = seenAfterCursor.first() - 1;
+            gapSince = 0;
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.warn("Failed to poll cluster events: {}", e.getMessage());
+        }
+    }
+
+    private void pruneQuietly() {
+        try {
+            int deleted = clusterEventRepository.deleteCreatedBefore(LocalDateTime.now().minusMinutes(retentionMinutes));
+            if (deleted > 0) {
+                log.debug("Pruned {} cluster events", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to prune cluster events: {}", e.getMessage());
+        }
+    }
+
+    private static ClusterMessage toMessage(ClusterEvent event) {
+        Set<String> topics = event.getTopics().isEmpty() ? Set.of() : new LinkedHashSet<>(Arrays.asList(event.getTopics().split(",")));
+        return new ClusterMessage(event.getId(), topics, event.getName(), event.getEventKey(), event.getData());
+    }
+}
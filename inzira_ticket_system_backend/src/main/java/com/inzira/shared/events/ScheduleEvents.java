@@ -0,0 +1,50 @@
+package com.inzira.shared.events;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.inzira.shared.events.DomainEvent.ScheduleStatusChanged;
+
+/**
+ * The events of one schedule coalesced over one window, in publication order. Batches a subscriber fell
+ * behind on are merged, keeping only what subscribers read: the last seat change and the last status.
+ */
+public record ScheduleEvents(Long scheduleId, List<DomainEvent> events) {
+
+    public boolean seatsChanged() {
+        return events.stream().anyMatch(event -> !(event instanceof ScheduleStatusChanged));
+    }
+
+    // The status the schedule ended the window in, or null when it did not change
+    public String latestStatus() {
+        String status = null;
+        for (DomainEvent event : events) {
+            if (event instanceof ScheduleStatusChanged changed) {
+                status = changed.status();
+            }
+        }
+        return status;
+    }
+
+    // This batch followed by a later one of the same schedule, reduced to its last seat and status events
+    ScheduleEvents merge(ScheduleEvents later) {
+        List<DomainEvent> all = new ArrayList<>(events);
+        all.addAll(later.events());
+        DomainEvent lastSeats = null;
+        DomainEvent lastStatus = null;
+        for (DomainEvent event : all) {
+            if (event instanceof ScheduleStatusChanged) {
+                lastStatus = event;
+            } else {
+                lastSeats = event;
+            }
+        }
+        List<DomainEvent> kept = new ArrayList<>(2);
+        for (DomainEvent event : all) {
+            if (event == lastSeats || event == lastStatus) {
+                kept.add(event);
+            }
+        }
+        return new ScheduleEvents(scheduleId, List.copyOf(kept));
+    }
+}
@@ -0,0 +1,157 @@
+package com.inzira.shared.reactive;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.inzira.agency.services.ScheduleService;
+import com.inzira.shared.dtos.SeatMapDTO;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.exceptions.ApiResponse;
+import com.inzira.shared.exceptions.ResourceNotFoundException;
+import com.inzira.shared.services.SeatMapService;
+import com.inzira.shared.services.SeatUpdateFeed;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * The reactive read tier's endpoints, on the same paths and with the same responses as their
+ * ScheduleController and SSEController counterparts. Every blocking call (JPA, a search cache miss, the
+ * cluster history a resuming stream reads) runs on a bounded scheduler of reactive.jpa-threads, sized
+ * below the connection pool, with at most reactive.jpa-queue calls waiting; Netty's event loops never block.
+ */
+@Component
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveReadRoutes {
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private SeatUpdateFeed seatUpdateFeed;
+
+    @Value("${reactive.jpa-threads:8}")
+    private int jpaThreads;
+
+    @Value("${reactive.jpa-queue:1000}")
+    private int jpaQueue;
+
+    private Scheduler jpaScheduler;
+
+    @PostConstruct
+    public void init() {
+        jpaScheduler = Schedulers.newBoundedElastic(jpaThreads, jpaQueue, "reactive-jpa");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jpaScheduler.dispose();
+    }
+
+    public RouterFunction<ServerResponse> router() {
+        return RouterFunctions.route()
+            .GET("/api/agency/schedules/search", this::searchSchedules)
+            .GET("/api/agency/schedules/{id}/seats", this::getSeatMap)
+            .GET("/api/sse/seat-updates", this::streamSeatUpdates)
+            .onError(ResourceNotFoundException.class, (e, request) -> error(HttpStatus.NOT_FOUND, e))
+            .onError(EntityNotFoundException.class, (e, request) -> error(HttpStatus.NOT_FOUND, e))
+            .onError(IllegalArgumentException.class, (e, request) -> error(HttpStatus.BAD_REQUEST, e))
+            .build();
+    }
+
+    private Mono<ServerResponse> searchSchedules(ServerRequest request) {
+        return Mono.fromCallable(() -> {
+                Long originId = requiredLong(request, "originId");
+                Long destinationId = requiredLong(request, "destinationId");
+                LocalDate departureDate = date(request, "departureDate", true);
+                Long agencyId = request.queryParam("agencyId").map(ReactiveReadRoutes::toLong).orElse(null);
+                return agencyId != null
+                    ? scheduleService.searchSchedulesByAgency(originId, destinationId, departureDate, agencyId)
+                    : scheduleService.searchSchedules(originId, destinationId, departureDate);
+            })
+            .subscribeOn(jpaScheduler)
+            .flatMap(schedules -> {
+                String message = schedules.isEmpty() ? "No schedules found for the specified criteria" : "Schedules found";
+                return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new ApiResponse<List<Schedule>>(true, message, schedules));
+            });
+    }
+
+    private Mono<ServerResponse> getSeatMap(ServerRequest request) {
+        return Mono.fromCallable(() -> seatMapService.getSeatMap(toLong(request.pathVariable("id"))))
+            .subscribeOn(jpaScheduler)
+            .flatMap(seatMap -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ApiResponse<SeatMapDTO>(true, "Seat map retrieved successfully", seatMap)));
+    }
+
+    // Seat updates of the given schedules and/or one route and day; resumes after Last-Event-ID
+    private Mono<ServerResponse> streamSeatUpdates(ServerRequest request) {
+        List<Long> scheduleIds = request.queryParams().getOrDefault("scheduleId", List.of()).stream()
+            .flatMap(value -> Arrays.stream(value.split(",")))
+            .map(ReactiveReadRoutes::toLong)
+            .toList();
+        Long originId = request.queryParam("originId").map(ReactiveReadRoutes::toLong).orElse(null);
+        Long destinationId = request.queryParam("destinationId").map(ReactiveReadRoutes::toLong).orElse(null);
+        LocalDate date = date(request, "date", false);
+        String lastEventId = request.headers().firstHeader("Last-Event-ID");
+        Long resumeAfter = lastEventId != null ? toLong(lastEventId) : null;
+
+        // Subscribing reads the missed events from the database, so it runs off the event loop too
+        return ServerResponse.ok().contentType(MediaType.TEXT_EVENT_STREAM)
+            .body(BodyInserters.fromServerSentEvents(
+                Flux.defer(() -> seatUpdateFeed.stream(scheduleIds.isEmpty() ? null : scheduleIds, originId, destinationId, date, resumeAfter))
+                    .subscribeOn(jpaScheduler)));
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, Throwable e) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new ApiResponse<Void>(false, e.getMessage()));
+    }
+
+    private static Long requiredLong(ServerRequest request, String name) {
+        return request.queryParam(name).map(ReactiveReadRoutes::toLong)
+            .orElseThrow(() -> new IllegalArgumentException("Required parameter '" + name + "' is missing"));
+    }
+
+    private static LocalDate date(ServerRequest request, String name, boolean required) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException("Required parameter '" + name + "' is missing");
+            }
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date for '" + name + "': " + value);
+        }
+    }
+
+    // NumberFormatException is an IllegalArgumentException, so a bad id is a 400
+    private static Long toLong(String value) {
+        return Long.valueOf(value.trim());
+    }
+}
@@ -0,0 +1,80 @@
+package com.inzira.shared.reactive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Optional reactive read tier (reactive.enabled=true): schedule search, seat maps and the live seat
+ * stream served by WebFlux on Netty at reactive.port, beside the servlet API. Only public reads live
+ * here, so it needs no security filter chain; the load balancer sends those paths to this port.
+ *
+ * An idle stream costs a socket and a small buffer, not a request thread, and the event loops are
+ * sized by CPU rather than by connections. The servlet endpoints stay as they are.
+ */
+@Component
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+@Slf4j
+public class ReactiveReadServer {
+
+    @Value("${reactive.port:8081}")
+    private int port;
+
+    @Autowired
+    private ReactiveReadRoutes reactiveReadRoutes;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CorsConfigurationSource corsConfigurationSource;
+
+    private DisposableServer server;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Same JSON and CORS rules as the servlet API
+        CorsConfiguration cors = ((UrlBasedCorsConfigurationSource) corsConfigurationSource).getCorsConfigurations().get("/**");
+        HandlerStrategies strategies = HandlerStrategies.builder()
+            .codecs(codecs -> {
+                codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+            })
+            .webFilter(new CorsWebFilter(exchange -> cors))
+            .build();
+        HttpHandler handler = RouterFunctions.toHttpHandler(reactiveReadRoutes.router(), strategies);
+        server = HttpServer.create().port(port).handle(new ReactorHttpHandlerAdapter(handler)).bindNow();
+        log.info("Reactive read tier listening on port {}", server.port());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+        }
+    }
+
+    public int getPort() {
+        return server.port();
+    }
+}
@@ -0,0 +1,10 @@
+package com.inzira.shared.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.inzira.shared.entities.AgencyBookingStats;
+
+@Repository
+public interface AgencyBookingStatsRepository extends JpaRepository<AgencyBookingStats, Long> {
+}
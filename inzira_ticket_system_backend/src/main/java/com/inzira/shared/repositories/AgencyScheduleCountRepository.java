@@ -0,0 +1,24 @@
+package com.inzira.shared.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.inzira.shared.entities.AgencyScheduleCount;
+
+@Repository
+public interface AgencyScheduleCountRepository extends JpaRepository<AgencyScheduleCount, Long> {
+    @Query("SELECT c.schedules FROM AgencyScheduleCount c WHERE c.agencyId = :agencyId")
+    Long findSchedulesByAgencyId(@Param("agencyId") Long agencyId);
+
+    // Creates the agency's row from a count of its schedules, unless another caller already did; returns rows inserted
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO agency_schedule_counts (agency_id, schedules)"
+        + " SELECT :agencyId, COUNT(*) FROM schedule s JOIN agency_route ar ON ar.id = s.agency_route_id WHERE ar.agency_id = :agencyId"
+        + " ON CONFLICT DO NOTHING", nativeQuery = true)
+    int initialize(@Param("agencyId") Long agencyId);
+}
@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,7 +13,7 @@ import org.springframework.stereotype.Repository;
 import com.inzira.shared.entities.Booking;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking> {
     List<Booking> findByCustomerId(Long customerId);
     List<Booking> findByScheduleId(Long scheduleId);
     Optional<Booking> findByBookingReference(String bookingReference);
@@ -24,12 +26,77 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     long countByCreatedAtBetween(java.time.LocalDateTime start, java.time.LocalDateTime end);
 
-    // Cleanup support: find old unpaid bookings
-    java.util.List<Booking> findByStatusAndPaymentStatusAndCreatedAtBefore(String status, String paymentStatus, java.time.LocalDateTime cutoff);
+    // Seat map loading: [seatNumbers, numberOfSeats] of every booking still holding seats on the schedule
+    @Query("select b.seatNumbers, b.numberOfSeats from Booking b where b.schedule.id = :scheduleId and b.status not in ('CANCELLED', 'EXPIRED')")
+    java.util.List<Object[]> findSeatAssignmentsByScheduleId(@Param("scheduleId") Long scheduleId);
 
-    // Trends moved to controller to remain DB-agnostic
+    // Seat hold rebuild: [id, scheduleId, numberOfSeats, seatNumbers, holdExpiresAt, createdAt] of unpaid bookings
+    @Query("select b.id, b.schedule.id, b.numberOfSeats, b.seatNumbers, b.holdExpiresAt, b.createdAt from Booking b where b.status = 'PENDING' and b.paymentStatus = 'PENDING'")
+    java.util.List<Object[]> findActiveHolds();
+
+    // Conditional hold expiry; bookings paid, cancelled or expired elsewhere in the meantime are not touched.
+    // Returns rows updated, so only the caller that moved the row gives its seats back
+    @Modifying
+    @Query("update Booking b set b.status = 'EXPIRED' where b.id = :id and b.status = 'PENDING' and b.paymentStatus = 'PENDING'")
+    int expireHold(@Param("id") Long id);
+
+    @Query("select b.id from Booking b where b.id in :ids and b.status = :status")
+    java.util.List<Long> findIdsByIdInAndStatus(@Param("ids") java.util.Collection<Long> ids, @Param("status") String status);
+
+    // Conditional confirm so a payment and the hold expiry cannot both win; returns rows updated
+    @Modifying
+    @Query("update Booking b set b.status = 'CONFIRMED', b.paymentStatus = 'PAID', b.holdExpiresAt = null where b.id = :bookingId and b.status = 'PENDING'")
+    int confirmHold(@Param("bookingId") Long bookingId);
+
+    @Query("select b.status from Booking b where b.id = :bookingId")
+    String findStatusById(@Param("bookingId") Long bookingId);
+
+    // Conditional cancel so two concurrent cancellations cannot both restore seats; returns rows updated
+    @Modifying
+    @Query("update Booking b set b.status = 'CANCELLED' where b.id = :bookingId and b.status not in ('COMPLETED', 'CANCELLED', 'EXPIRED', 'NO_SHOW')")
+    int cancelIfActive(@Param("bookingId") Long bookingId);
+
+    // Arrival settlement: creation times of the still CONFIRMED bookings, so their rollup days are refreshed
+    @Query("select b.createdAt from Booking b where b.schedule.id in :scheduleIds and b.status = 'CONFIRMED'")
+    java.util.List<java.time.LocalDateTime> findConfirmedCreatedAtByScheduleIds(@Param("scheduleIds") java.util.Collection<Long> scheduleIds);
+
+    // Schedules among these whose tickets were checked at boarding (at least one booking verified as COMPLETED)
+    @Query("select distinct b.schedule.id from Booking b where b.schedule.id in :scheduleIds and b.status = 'COMPLETED'")
+    java.util.List<Long> findVerifiedScheduleIds(@Param("scheduleIds") java.util.Collection<Long> scheduleIds);
 
-    // Top agencies by bookings
-    @Query("select a.id, a.agencyName, count(b.id) from Booking b join b.schedule s join s.agencyRoute ar join ar.agency a where b.createdAt between :start and :end group by a.id, a.agencyName order by count(b.id) desc")
-    java.util.List<Object[]> topAgenciesByBookings(@Param("start") java.time.LocalDateTime start, @Param("end") java.time.LocalDateTime end);
+    // Moves the remaining CONFIRMED bookings of arrived schedules to COMPLETED or NO_SHOW; returns rows updated
+    @Modifying
+    @Query("update Booking b set b.status = :status where b.schedule.id in :scheduleIds and b.status = 'CONFIRMED'")
+    int settleConfirmed(@Param("scheduleIds") java.util.Collection<Long> scheduleIds, @Param("status") String status);
+
+    // Ticket artifact pipeline: targeted updates so rendering never races with status changes
+    @Modifying
+    @Query("update Booking b set b.qrCode = :qrCode where b.id = :bookingId")
+    int updateQrCode(@Param("bookingId") Long bookingId, @Param("qrCode") String qrCode);
+
+    @Modifying
+    @Query("update Booking b set b.qrCode = :qrCode, b.ticketPdfPath = :ticketPdfPath, b.ticketStatus = 'READY' where b.id = :bookingId")
+    int markTicketReady(@Param("bookingId") Long bookingId, @Param("qrCode") String qrCode, @Param("ticketPdfPath") String ticketPdfPath);
+
+    // Gives up on a ticket (PENDING) or on a QR code alone (no ticket requested yet)
+    @Modifying
+    @Query("update Booking b set b.ticketStatus = 'FAILED' where b.id = :bookingId and (b.ticketStatus = 'PENDING' or b.ticketStatus is null)")
+    int markTicketFailed(@Param("bookingId") Long bookingId);
+
+    // Requests a ticket unless one is already rendered or queued; returns rows updated
+    @Modifying
+    @Query("update Booking b set b.ticketStatus = 'PENDING', b.ticketRecoveries = 0 where b.id = :bookingId and (b.ticketStatus is null or b.ticketStatus = 'FAILED')")
+    int requestTicket(@Param("bookingId") Long bookingId);
+
+    // Recovery: bookings whose artifacts were queued but never written (queue full, restart), FAILED ones
+    // and those already re-queued maxRecoveries times excluded
+    @Query("select b.id from Booking b where (b.ticketStatus = 'PENDING' or (b.ticketStatus is null and b.qrCode is null and b.status not in ('CANCELLED', 'EXPIRED'))) " +
+           "and coalesce(b.ticketRecoveries, 0) < :maxRecoveries order by b.id")
+    java.util.List<Long> findIdsAwaitingTicketArtifacts(@Param("maxRecoveries") int maxRecoveries, org.springframework.data.domain.Pageable pageable);
+
+    @Modifying
+    @Query("update Booking b set b.ticketRecoveries = coalesce(b.ticketRecoveries, 0) + 1 where b.id in :bookingIds")
+    int countTicketRecovery(@Param("bookingIds") java.util.Collection<Long> bookingIds);
+
+    // Trends moved to controller to remain DB-agnostic
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.inzira.shared.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.inzira.shared.entities.BookingSeat;
+
+@Repository
+public interface BookingSeatRepository extends JpaRepository<BookingSeat, Long> {
+    // Takes a seat unless another booking holds it; returns rows inserted. No exception on a clash, so
+    // the surrounding booking transaction stays usable and can try other seats
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO booking_seats (schedule_id, seat_no) VALUES (:scheduleId, :seatNo) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int claim(@Param("scheduleId") Long scheduleId, @Param("seatNo") int seatNo);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BookingSeat s WHERE s.scheduleId = :scheduleId AND s.seatNo IN :seats")
+    int release(@Param("scheduleId") Long scheduleId, @Param("seats") Collection<Integer> seats);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BookingSeat s WHERE s.scheduleId = :scheduleId")
+    int deleteByScheduleId(@Param("scheduleId") Long scheduleId);
+
+    @Query("SELECT s.seatNo FROM BookingSeat s WHERE s.scheduleId = :scheduleId")
+    List<Integer> findSeatNosByScheduleId(@Param("scheduleId") Long scheduleId);
+}
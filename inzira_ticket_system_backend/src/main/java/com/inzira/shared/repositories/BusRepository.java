@@ -3,6 +3,8 @@ package com.inzira.shared.repositories;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.inzira.shared.entities.Bus;
@@ -13,4 +15,8 @@ public interface BusRepository extends JpaRepository<Bus, Long> {
     List<Bus> findByStatus(String status);
     boolean existsByPlateNumber(String plateNumber);
     List<Bus> findByAgencyIdAndStatus(Long agencyId, String status);
-}
\ No newline at end of file
+
+    // [status, count] of the agency's buses, for dashboards
+    @Query("select b.status, count(b) from Bus b where b.agency.id = :agencyId group by b.status")
+    List<Object[]> statusCountsByAgencyId(@Param("agencyId") Long agencyId);
+}
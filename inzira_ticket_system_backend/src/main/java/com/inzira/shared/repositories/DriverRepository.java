@@ -4,6 +4,8 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.inzira.shared.entities.Driver;
@@ -16,4 +18,8 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
     boolean existsByLicenseNumber(String licenseNumber);
     Optional<Driver> findByEmail(String email);
     List<Driver> findByAgencyIdAndStatus(Long agencyId, String status);
-}
\ No newline at end of file
+
+    // [status, count] of the agency's drivers, for dashboards
+    @Query("select d.status, count(d) from Driver d where d.agency.id = :agencyId group by d.status")
+    List<Object[]> statusCountsByAgencyId(@Param("agencyId") Long agencyId);
+}
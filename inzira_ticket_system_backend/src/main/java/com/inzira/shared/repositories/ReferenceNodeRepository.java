@@ -0,0 +1,34 @@
+package com.inzira.shared.repositories;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.inzira.shared.entities.ReferenceNode;
+
+@Repository
+public interface ReferenceNodeRepository extends JpaRepository<ReferenceNode, Integer> {
+    // Plain insert rather than save(), which would merge into a row another node already holds
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO reference_nodes (node_id, owner, expires_at) VALUES (:nodeId, :owner, :expiresAt)", nativeQuery = true)
+    int insert(@Param("nodeId") int nodeId, @Param("owner") String owner, @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Renews a lease the owner still holds, or takes over one that has expired
+    @Modifying
+    @Transactional
+    @Query("UPDATE ReferenceNode n SET n.owner = :owner, n.expiresAt = :expiresAt " +
+           "WHERE n.nodeId = :nodeId AND (n.owner = :owner OR n.expiresAt < :now)")
+    int claim(@Param("nodeId") int nodeId, @Param("owner") String owner,
+              @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ReferenceNode n WHERE n.nodeId = :nodeId AND n.owner = :owner")
+    int release(@Param("nodeId") int nodeId, @Param("owner") String owner);
+}
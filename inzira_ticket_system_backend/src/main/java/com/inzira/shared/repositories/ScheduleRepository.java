@@ -1,9 +1,12 @@
 package com.inzira.shared.repositories;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -27,5 +30,97 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     List<Schedule> findByBusIdAndDepartureDate(Long busId, LocalDate departureDate);
     List<Schedule> findByDriverIdAndDepartureDate(Long driverId, LocalDate departureDate);
     List<Schedule> findByAgencyRouteAgencyId(Long agencyId);
+
+    // Answered from idx_schedule_agency_route_departure without reading schedule rows; the all-time
+    // count is kept in agency_schedule_counts (ScheduleCountService)
+    @Query("SELECT COUNT(*) FROM Schedule s JOIN s.agencyRoute ar WHERE ar.agency.id = :agencyId AND s.departureDate = :day")
+    long countByAgencyIdAndDepartureDate(@Param("agencyId") Long agencyId, @Param("day") LocalDate day);
+
     List<Schedule> findByDriverId(Long driverId);
-}
\ No newline at end of file
+
+    // Lifecycle transitions: ids of schedules in one of the statuses departing before the day, oldest first
+    @Query("SELECT s.id FROM Schedule s WHERE s.status IN :statuses AND s.departureDate < :before ORDER BY s.departureDate, s.id")
+    List<Long> findIdsByStatusDepartingBefore(@Param("statuses") Collection<String> statuses,
+                                              @Param("before") LocalDate before, Pageable page);
+
+    // Moves the schedules to the status unless they left the expected ones meanwhile; returns the rows changed
+    @Modifying
+    @Query("UPDATE Schedule s SET s.status = :status, s.updatedAt = CURRENT_TIMESTAMP WHERE s.id IN :ids AND s.status IN :statuses")
+    int transition(@Param("ids") Collection<Long> ids, @Param("statuses") Collection<String> statuses,
+                   @Param("status") String status);
+
+    // Timeline rebuild: [id, status, departure date, departure time, arrival time] of schedules still on the road
+    @Query("SELECT s.id, s.status, s.departureDate, s.departureTime, s.arrivalTime FROM Schedule s " +
+           "WHERE s.status IN ('SCHEDULED', 'BOOKING_CLOSED', 'DEPARTED')")
+    List<Object[]> findTimelineRows();
+
+    @Query("SELECT s.id FROM Schedule s WHERE s.id IN :ids AND s.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    // [status, count] of all schedules
+    @Query("SELECT s.status, COUNT(s) FROM Schedule s GROUP BY s.status")
+    List<Object[]> statusCounts();
+
+    // Atomic seat reservation: only decrements while the trip is SCHEDULED and enough seats remain.
+    // Returns 1 when the seats were taken, 0 otherwise.
+    @Modifying
+    @Query("UPDATE Schedule s SET s.availableSeats = s.availableSeats - :seats " +
+           "WHERE s.id = :scheduleId AND s.status = 'SCHEDULED' AND s.availableSeats >= :seats")
+    int reserveSeats(@Param("scheduleId") Long scheduleId, @Param("seats") int seats);
+
+    // Atomic counterpart of reserveSeats, used when a booking is cancelled or expires; a trip that is
+    // no longer SCHEDULED keeps its count
+    @Modifying
+    @Query("UPDATE Schedule s SET s.availableSeats = s.availableSeats + :seats " +
+           "WHERE s.id = :scheduleId AND s.status = 'SCHEDULED'")
+    int releaseSeats(@Param("scheduleId") Long scheduleId, @Param("seats") int seats);
+
+    @Query("SELECT s.availableSeats FROM Schedule s WHERE s.id = :scheduleId")
+    Integer findAvailableSeatsById(@Param("scheduleId") Long scheduleId);
+
+    // [schedule id, availableSeats] of the given schedules that are still SCHEDULED
+    @Query("SELECT s.id, s.availableSeats FROM Schedule s WHERE s.id IN :ids AND s.status = 'SCHEDULED'")
+    List<Object[]> findAvailableSeatsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT s.bus.capacity FROM Schedule s WHERE s.id = :scheduleId")
+    Integer findBusCapacityById(@Param("scheduleId") Long scheduleId);
+
+    // Departure rows used to build DepartureIndex: [schedule id, agency route id, agency id, agency name,
+    // origin id, destination id, departure date, departure time, arrival time, price]
+    @Query("SELECT s.id, ar.id, a.id, a.agencyName, r.origin.id, r.destination.id, s.departureDate, s.departureTime, s.arrivalTime, ar.price " +
+           "FROM Schedule s JOIN s.agencyRoute ar JOIN ar.agency a JOIN ar.route r " +
+           "WHERE s.status = 'SCHEDULED' AND s.departureDate >= :fromDate")
+    List<Object[]> findDepartureRows(@Param("fromDate") LocalDate fromDate);
+
+    @Query("SELECT s.id, ar.id, a.id, a.agencyName, r.origin.id, r.destination.id, s.departureDate, s.departureTime, s.arrivalTime, ar.price " +
+           "FROM Schedule s JOIN s.agencyRoute ar JOIN ar.agency a JOIN ar.route r " +
+           "WHERE s.status = 'SCHEDULED' AND s.departureDate >= :fromDate AND ar.id = :agencyRouteId")
+    List<Object[]> findDepartureRowsByAgencyRoute(@Param("fromDate") LocalDate fromDate, @Param("agencyRouteId") Long agencyRouteId);
+
+    // Seat ledger used to rebuild SeatInventory: [schedule id, bus capacity, seats held by non-cancelled bookings, stored availableSeats]
+    @Query("SELECT s.id, b.capacity, COALESCE(SUM(bk.numberOfSeats), 0), s.availableSeats FROM Schedule s JOIN s.bus b " +
+           "LEFT JOIN Booking bk ON bk.schedule = s AND bk.status NOT IN ('CANCELLED', 'EXPIRED') " +
+           "WHERE s.status = 'SCHEDULED' GROUP BY s.id, b.capacity, s.availableSeats")
+    List<Object[]> findSeatLedger();
+
+    @Query("SELECT s.id, b.capacity, COALESCE(SUM(bk.numberOfSeats), 0), s.availableSeats FROM Schedule s JOIN s.bus b " +
+           "LEFT JOIN Booking bk ON bk.schedule = s AND bk.status NOT IN ('CANCELLED', 'EXPIRED') " +
+           "WHERE s.id = :scheduleId AND s.status = 'SCHEDULED' GROUP BY s.id, b.capacity, s.availableSeats")
+    List<Object[]> findSeatLedgerById(@Param("scheduleId") Long scheduleId);
+
+    /**
+     * Everything a booking needs in one round trip: [Schedule, pickup RoutePoint, drop RoutePoint].
+     * Every eager to-one on the way is fetch-joined, otherwise Hibernate would issue follow-up selects
+     * for them. Empty when any of the three ids does not exist.
+     */
+    @Query("SELECT s, p, d FROM Schedule s " +
+           "JOIN FETCH s.agencyRoute ar JOIN FETCH ar.agency JOIN FETCH ar.route r " +
+           "JOIN FETCH r.origin o JOIN FETCH o.province JOIN FETCH r.destination de JOIN FETCH de.province " +
+           "JOIN FETCH s.bus b JOIN FETCH b.agency JOIN FETCH s.driver dr JOIN FETCH dr.agency, " +
+           "RoutePoint p JOIN FETCH p.district pd JOIN FETCH pd.province, " +
+           "RoutePoint d JOIN FETCH d.district dd JOIN FETCH dd.province " +
+           "WHERE s.id = :scheduleId AND p.id = :pickupPointId AND d.id = :dropPointId")
+    List<Object[]> findBookingContext(@Param("scheduleId") Long scheduleId,
+                                      @Param("pickupPointId") Long pickupPointId,
+                                      @Param("dropPointId") Long dropPointId);
+}
@@ -9,10 +9,16 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.inzira.shared.config.SecurityConfig;
+
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
 
 @Component
@@ -21,44 +27,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    // Public endpoints never look at the caller, so their tokens are not even parsed
+    private final RequestMatcher publicEndpoints = new OrRequestMatcher(Arrays.stream(SecurityConfig.PUBLIC_PATHS)
+            .map(path -> (RequestMatcher) new AntPathRequestMatcher(path))
+            .toList());
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return publicEndpoints.matches(request);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String email = null;
+        JwtPrincipal principal = null;
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                email = jwtUtil.getEmailFromToken(token);
+                principal = jwtUtil.parse(authHeader.substring(7));
             } catch (Exception e) {
-                // Invalid token
+                // Invalid or expired token
             }
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtUtil.validateToken(token) && !jwtUtil.isTokenExpired(token)) {
-                String role = jwtUtil.getRoleFromToken(token);
-                Long userId = jwtUtil.getUserIdFromToken(token);
-                Long roleEntityId = jwtUtil.getRoleEntityIdFromToken(token);
+        if (principal != null) {
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    principal.email(), null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + principal.role())));
 
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        email, null, Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role)));
-                
-                // Add custom details
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                // Store additional info in security context
-                request.setAttribute("userId", userId);
-                request.setAttribute("userRole", role);
-                request.setAttribute("roleEntityId", roleEntityId);
-                
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            // Add custom details
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+            // Store additional info in security context
+            request.setAttribute("userId", principal.userId());
+            request.setAttribute("userRole", principal.role());
+            request.setAttribute("roleEntityId", principal.roleEntityId());
+
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,22 @@
+package com.inzira.shared.security;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * What a verified token says about its bearer. Times are epoch millis; tokenId is null for tokens
+ * issued before tokens carried an id.
+ */
+public record JwtPrincipal(String email, String role, Long userId, Long roleEntityId, String tokenId,
+                           long issuedAt, long expiresAt, boolean refresh) {
+
+    static JwtPrincipal of(Claims claims) {
+        return new JwtPrincipal(claims.getSubject(), claims.get("role", String.class), claims.get("userId", Long.class),
+            claims.get("roleEntityId", Long.class), claims.getId(),
+            claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime(), claims.getExpiration().getTime(),
+            JwtUtil.REFRESH_TYPE.equals(claims.get("type", String.class)));
+    }
+
+    public boolean isExpired() {
+        return expiresAt <= System.currentTimeMillis();
+    }
+}
@@ -2,22 +2,68 @@ package com.inzira.shared.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Issues and verifies JWTs. The key and parser are built once; a token's signature is checked the
+ * first time it is seen and the resulting principal is cached, keyed by the SHA-256 of the token, until
+ * the token expires. Beyond cache-max-entries expired principals are dropped first, then arbitrary
+ * ones; a dropped token is simply verified again.
+ *
+ * Access tokens are short-lived; a refresh token (type "refresh") only gets the bearer a new pair from
+ * AuthService. Both carry an id so TokenDenylist can revoke them, and revocation is checked on every
+ * parse, cached or not.
+ */
 @Component
 public class JwtUtil {
 
+    static final String REFRESH_TYPE = "refresh";
+
     @Value("${jwt.secret:myVerySecureSecretKeyThatIsAtLeast256BitsLongForJWTSigning1234567890}")
     private String secret;
 
-    @Value("${jwt.expiration:86400000}") // 24 hours
+    @Value("${jwt.expiration:900000}") // 15 minutes
     private Long expiration;
 
+    @Value("${jwt.refresh-expiration:604800000}") // 7 days
+    private Long refreshExpiration;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Value("${jwt.cache-max-entries:10000}")
+    private int cacheMaxEntries = 10000;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Read on every request without locking; the size is only approximate while several threads add
+    private final Map<ByteBuffer, JwtPrincipal> verified = new ConcurrentHashMap<>();
+
+    // One thread trims at a time, the others carry on
+    private final AtomicBoolean trimming = new AtomicBoolean();
+
+    @PostConstruct
+    public void init() {
+        signingKey = getSigningKey();
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     private SecretKey getSigningKey() {
         // Ensure the key is at least 256 bits (32 bytes)
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
@@ -31,62 +77,114 @@ public class JwtUtil {
     }
 
     public String generateToken(String email, String role, Long userId, Long roleEntityId) {
+        return buildToken(email, role, userId, roleEntityId, expiration).compact();
+    }
+
+    public String generateRefreshToken(String email, String role, Long userId, Long roleEntityId) {
+        return buildToken(email, role, userId, roleEntityId, refreshExpiration).claim("type", REFRESH_TYPE).compact();
+    }
+
+    public long getExpiration() {
+        return expiration;
+    }
+
+    private JwtBuilder buildToken(String email, String role, Long userId, Long roleEntityId, long lifetime) {
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration);
+        Date expiryDate = new Date(now.getTime() + lifetime);
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
                 .claim("role", role)
                 .claim("userId", userId)
                 .claim("roleEntityId", roleEntityId)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .signWith(signingKey);
+    }
+
+    /**
+     * The principal of a valid, unexpired and unrevoked access token; throws JwtException otherwise.
+     */
+    public JwtPrincipal parse(String token) {
+        JwtPrincipal principal = verify(token);
+        if (principal.refresh()) {
+            throw new JwtException("Refresh tokens cannot authenticate requests");
+        }
+        return checkNotRevoked(principal);
+    }
+
+    /**
+     * The principal of a valid, unexpired and unrevoked refresh token; throws JwtException otherwise.
+     */
+    public JwtPrincipal parseRefreshToken(String token) {
+        JwtPrincipal principal = verify(token);
+        if (!principal.refresh()) {
+            throw new JwtException("Not a refresh token");
+        }
+        return checkNotRevoked(principal);
+    }
+
+    private JwtPrincipal checkNotRevoked(JwtPrincipal principal) {
+        if (tokenDenylist.isRevoked(principal)) {
+            throw new JwtException("Token has been revoked");
+        }
+        return principal;
+    }
+
+    private JwtPrincipal verify(String token) {
+        ByteBuffer key = hash(token);
+        JwtPrincipal principal = verified.get(key);
+        if (principal != null && !principal.isExpired()) {
+            return principal;
+        }
+        if (principal != null) {
+            // Parsed again so the caller gets the same ExpiredJwtException as for an unseen token
+            verified.remove(key);
+        }
+        principal = JwtPrincipal.of(parser.parseClaimsJws(token).getBody());
+        verified.put(key, principal);
+        if (verified.size() > cacheMaxEntries) {
+            trim();
+        }
+        return principal;
+    }
+
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            verified.values().removeIf(JwtPrincipal::isExpired);
+            Iterator<ByteBuffer> keys = verified.keySet().iterator();
+            while (verified.size() > cacheMaxEntries && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            trimming.set(false);
+        }
     }
 
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return parse(token).email();
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("role", String.class);
+        return parse(token).role();
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("userId", Long.class);
+        return parse(token).userId();
     }
 
     public Long getRoleEntityIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.get("roleEntityId", Long.class);
+        return parse(token).roleEntityId();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
+            parse(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -95,14 +193,24 @@ public class JwtUtil {
 
     public boolean isTokenExpired(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getExpiration().before(new Date());
+            return parse(token).isExpired();
         } catch (JwtException | IllegalArgumentException e) {
             return true;
         }
     }
-}
\ No newline at end of file
+
+    int getCachedCount() {
+        return verified.size();
+    }
+
+    private static ByteBuffer hash(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        }
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.inzira.shared.security;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import com.inzira.shared.entities.RevokedToken;
+import com.inzira.shared.repositories.RevokedTokenRepository;
+import com.inzira.shared.utils.BloomFilter;
+import com.inzira.shared.utils.TransactionCallbacks;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Revoked tokens, checked on every authenticated request without touching the database.
+ *
+ * A revocation is a revoked_tokens row: one token by its JWT id (logout, refresh rotation), or every
+ * token a user was issued up to that moment (password change, suspension). Each node loads the live
+ * rows at startup and polls for new ones every revocation-poll-ms, so a token revoked on one node is
+ * refused everywhere within about that long; the node that revoked it refuses it once the revocation
+ * commits. Token ids sit in an exact set behind a Bloom filter, so the common case, a token nobody
+ * revoked, is answered from a few bits. Entries and rows go once the tokens they cover have expired.
+ *
+ * JWT issue times have whole-second precision: a token issued in the same second as a user-wide
+ * revocation counts as issued before it.
+ *
+ * The poller stops with the context's lifecycle beans, after the web server and before the DataSource
+ * closes, and the stop waits for a poll in progress.
+ */
+@Component
+@Slf4j
+public class TokenDenylist implements SmartLifecycle {
+
+    private static final long PRUNE_INTERVAL_MILLIS = 60_000;
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+    // Rows are read again for this long after they are created: one that committed late, or was
+    // stamped by a node whose clock runs behind, is still picked up
+    private static final long REREAD_MILLIS = 60_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long pollMillis;
+    private final long refreshExpiration;
+    private final int expectedTokens;
+
+    // Token id -> expiry, and user id -> the time their earlier tokens stopped counting (epoch millis)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+    // Rebuilt by prune(); additions and rebuilds are guarded by this, lookups are not
+    private volatile BloomFilter tokenFilter;
+    private LocalDateTime lastPoll;
+
+    private volatile ScheduledExecutorService poller;
+
+    public TokenDenylist(RevokedTokenRepository revokedTokenRepository,
+                         @Value("${jwt.revocation-poll-ms:1000}") long pollMillis,
+                         @Value("${jwt.refresh-expiration:604800000}") long refreshExpiration,
+                         @Value("${jwt.denylist-expected-tokens:100000}") int expectedTokens) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.pollMillis = pollMillis;
+        this.refreshExpiration = refreshExpiration;
+        this.expectedTokens = expectedTokens;
+        this.tokenFilter = new BloomFilter(expectedTokens);
+    }
+
+    // Started at construction so no request is checked against an empty denylist
+    @PostConstruct
+    @Override
+    public synchronized void start() {
+        lastPoll = LocalDateTime.now();
+        revokedTokenRepository.findByExpiresAtAfter(lastPoll).forEach(this::apply);
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-denylist");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollQuietly, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+        poller.scheduleWithFixedDelay(this::pruneQuietly, PRUNE_INTERVAL_MILLIS, PRUNE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return poller != null && !poller.isShutdown();
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ScheduledExecutorService poller = this.poller;
+        if (poller == null) {
+            return;
+        }
+        poller.shutdownNow();
+        try {
+            if (!poller.awaitTermination(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                log.warn("Token denylist poller did not stop within {} ms", STOP_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        Long revokedBefore = principal.userId() == null ? null : revokedUsers.get(principal.userId());
+        if (revokedBefore != null && principal.issuedAt() < revokedBefore) {
+            return true;
+        }
+        String tokenId = principal.tokenId();
+        return tokenId != null && tokenFilter.mightContain(tokenId) && revokedTokens.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes one token until it expires; tokens issued without an id can only be revoked with their user.
+     * Returns false when the token was already revoked, here or on another node not yet polled. Inside
+     * a transaction that failure leaves it rollback-only.
+     */
+    public boolean revokeToken(JwtPrincipal principal) {
+        if (principal.tokenId() == null) {
+            log.debug("Token of user {} has no id to revoke", principal.userId());
+            return true;
+        }
+        RevokedToken revoked = new RevokedToken();
+        revoked.setTokenId(principal.tokenId());
+        revoked.setUserId(principal.userId());
+        revoked.setExpiresAt(toDateTime(principal.expiresAt()));
+        try {
+            // Flushed now so a duplicate surfaces here rather than at commit
+            RevokedToken saved = revokedTokenRepository.saveAndFlush(revoked);
+            TransactionCallbacks.afterCommit(() -> apply(saved));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    // Revokes every token issued to the user so far; the longest-lived of them is a refresh token
+    public void revokeUser(Long userId) {
+        RevokedToken revoked = new RevokedToken();
+        revoked.setUserId(userId);
+        revoked.setExpiresAt(LocalDateTime.now().plus(refreshExpiration, ChronoUnit.MILLIS));
+        RevokedToken saved = revokedTokenRepository.save(revoked);
+        TransactionCallbacks.afterCommit(() -> apply(saved));
+    }
+
+    // Reads the revocations made since the last poll, on any node; returns how many rows were read
+    synchronized int poll() {
+        LocalDateTime now = LocalDateTime.now();
+        List<RevokedToken> rows = revokedTokenRepository.findByCreatedAtAfter(lastPoll.minus(REREAD_MILLIS, ChronoUnit.MILLIS));
+        rows.forEach(this::apply);
+        lastPoll = now;
+        return rows.size();
+    }
+
+    // Drops what has expired and rebuilds the filter without it; returns how many entries remain
+    synchronized int prune() {
+        long now = System.currentTimeMillis();
+        revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        revokedTokens.values().removeIf(expiresAt -> expiresAt < now);
+        revokedUsers.values().removeIf(revokedBefore -> revokedBefore + refreshExpiration < now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, revokedTokens.size() * 2));
+        revokedTokens.keySet().forEach(rebuilt::add);
+        tokenFilter = rebuilt;
+        return revokedTokens.size() + revokedUsers.size();
+    }
+
+    private synchronized void apply(RevokedToken revoked) {
+        if (revoked.getTokenId() != null) {
+            revokedTokens.put(revoked.getTokenId(), toEpochMillis(revoked.getExpiresAt()));
+            tokenFilter.add(revoked.getTokenId());
+        } else if (revoked.getUserId() != null) {
+            // Rounded up to the next second, the precision of a token's issue time
+            long revokedBefore = (toEpochMillis(revoked.getCreatedAt()) / 1000 + 1) * 1000;
+            revokedUsers.merge(revoked.getUserId(), revokedBefore, Math::max);
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.warn("Failed to poll revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    private void pruneQuietly() {
+        try {
+            prune();
+        } catch (Exception e) {
+            log.warn("Failed to prune revoked tokens: {}", e.getMessage());
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -19,7 +19,11 @@ import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.CustomerRepository;
 import com.inzira.shared.repositories.DriverRepository;
 import com.inzira.shared.repositories.UserRepository;
+import com.inzira.shared.security.JwtPrincipal;
 import com.inzira.shared.security.JwtUtil;
+import com.inzira.shared.security.TokenDenylist;
+
+import io.jsonwebtoken.JwtException;
 
 @Service
 public class AuthService {
@@ -45,6 +49,9 @@ public class AuthService {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Transactional
     public User registerUser(RegisterRequest request) {
         System.out.println("Starting registration for: " + request.getEmail());
@@ -141,25 +148,8 @@ public class AuthService {
 
             System.out.println("Password verified for user: " + request.getEmail());
 
-            // Generate JWT token
-            String token = jwtUtil.generateToken(
-                    user.getEmail(),
-                    user.getRole().name(),
-                    user.getId(),
-                    user.getRoleEntityId()
-            );
-
-            System.out.println("Generated token for user: " + request.getEmail());
-
-            // Create response
-            LoginResponse response = new LoginResponse();
-            response.setToken(token);
-            response.setRole(user.getRole().name());
-            response.setUserId(user.getId());
-            response.setFirstName(user.getFirstName());
-            response.setLastName(user.getLastName());
-            response.setEmail(user.getEmail());
-            response.setRoleEntityId(user.getRoleEntityId());
+            // Generate access and refresh tokens
+            LoginResponse response = issueTokens(user);
 
             System.out.println("Login successful for: " + request.getEmail());
             return response;
@@ -174,6 +164,61 @@ public class AuthService {
         }
     }
 
+    /**
+     * Exchanges a refresh token for a new token pair. The old refresh token is revoked, and the user
+     * must still be active: this is the one place a short-lived session meets the database. Of two
+     * refreshes with the same token, on any nodes, only the one whose revocation lands first succeeds.
+     */
+    @Transactional
+    public LoginResponse refresh(String refreshToken) {
+        JwtPrincipal principal;
+        try {
+            principal = jwtUtil.parseRefreshToken(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid or expired refresh token");
+        }
+        User user = userRepository.findByEmailAndStatus(principal.email(), "ACTIVE")
+                .orElseThrow(() -> new IllegalArgumentException("Invalid or expired refresh token"));
+
+        if (!tokenDenylist.revokeToken(principal)) {
+            throw new IllegalArgumentException("Invalid or expired refresh token");
+        }
+        return issueTokens(user);
+    }
+
+    // Revokes the tokens of a session, each on its own; tokens that are already invalid or revoked are ignored
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            try {
+                tokenDenylist.revokeToken(jwtUtil.parse(accessToken));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Nothing left to revoke
+            }
+        }
+        if (refreshToken != null) {
+            try {
+                tokenDenylist.revokeToken(jwtUtil.parseRefreshToken(refreshToken));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Nothing left to revoke
+            }
+        }
+    }
+
+    private LoginResponse issueTokens(User user) {
+        String role = user.getRole().name();
+        LoginResponse response = new LoginResponse();
+        response.setToken(jwtUtil.generateToken(user.getEmail(), role, user.getId(), user.getRoleEntityId()));
+        response.setRefreshToken(jwtUtil.generateRefreshToken(user.getEmail(), role, user.getId(), user.getRoleEntityId()));
+        response.setExpiresIn(jwtUtil.getExpiration());
+        response.setRole(role);
+        response.setUserId(user.getId());
+        response.setFirstName(user.getFirstName());
+        response.setLastName(user.getLastName());
+        response.setEmail(user.getEmail());
+        response.setRoleEntityId(user.getRoleEntityId());
+        return response;
+    }
+
     public User getCurrentUser(String email) {
         return userRepository.findByEmailAndStatus(email, "ACTIVE")
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -0,0 +1,104 @@
+package com.inzira.shared.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.inzira.shared.dtos.PointPopularity;
+import com.inzira.shared.utils.CountMinSketch;
+import com.inzira.shared.utils.HyperLogLog;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Approximate booking analytics merged from the sketch columns of daily_booking_stats: distinct
+ * customers who booked (HyperLogLog, about 1.6% error) and the pickup/drop point popularity of sold
+ * bookings (count-min, never under the true count) over any date range. A query reads one small sketch per day and route and merges
+ * them into a single one, so its cost follows the range, not the number of bookings.
+ */
+@Service
+public class BookingSketchService {
+
+    public enum PointType {
+        PICKUP("s.pickupSketch"),
+        DROP("s.dropSketch");
+
+        private final String column;
+
+        PointType(String column) {
+            this.column = column;
+        }
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    // Distinct customers who made a booking in [from, to], whatever its status (pending, cancelled and expired
+    // ones included), for all agencies or one, optionally one route
+    public long distinctCustomers(Long agencyId, Long routeId, LocalDate from, LocalDate to) {
+        HyperLogLog customers = new HyperLogLog();
+        for (byte[] sketch : sketches("s.customerSketch", agencyId, routeId, from, to)) {
+            customers.merge(sketch);
+        }
+        return customers.estimate();
+    }
+
+    /**
+     * The busiest pickup or drop points in [from, to], busiest first. Candidates are the points in the
+     * districts the agency's routes serve (every point when agencyId is null); their counts are read
+     * from the merged sketch.
+     */
+    public List<PointPopularity> topPoints(PointType type, Long agencyId, LocalDate from, LocalDate to, int limit) {
+        CountMinSketch popularity = new CountMinSketch();
+        for (byte[] sketch : sketches(type.column, agencyId, null, from, to)) {
+            popularity.merge(sketch);
+        }
+        if (popularity.total() == 0) {
+            return List.of();
+        }
+
+        List<PointPopularity> points = new ArrayList<>();
+        for (Object[] point : candidatePoints(agencyId)) {
+            Long pointId = ((Number) point[0]).longValue();
+            long bookings = popularity.estimate(pointId);
+            if (bookings > 0) {
+                points.add(new PointPopularity(pointId, (String) point[1], bookings));
+            }
+        }
+        points.sort(Comparator.comparingLong(PointPopularity::getBookings).reversed());
+        return points.size() > limit ? points.subList(0, limit) : points;
+    }
+
+    private List<byte[]> sketches(String column, Long agencyId, Long routeId, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        String jpql = "select " + column + " from DailyBookingStats s where s.statDate >= :from and s.statDate <= :to"
+            + " and " + column + " is not null"
+            + (agencyId != null ? " and s.agencyId = :agencyId" : "")
+            + (routeId != null ? " and s.routeId = :routeId" : "");
+        TypedQuery<byte[]> query = entityManager.createQuery(jpql, byte[].class)
+            .setParameter("from", from)
+            .setParameter("to", to);
+        if (agencyId != null) query.setParameter("agencyId", agencyId);
+        if (routeId != null) query.setParameter("routeId", routeId);
+        return query.getResultList();
+    }
+
+    private List<Object[]> candidatePoints(Long agencyId) {
+        if (agencyId == null) {
+            return entityManager.createQuery("select p.id, p.name from RoutePoint p", Object[].class).getResultList();
+        }
+        return entityManager.createQuery("select p.id, p.name from RoutePoint p where p.district.id in"
+                + " (select r.origin.id from AgencyRoute ar join ar.route r where ar.agency.id = :agencyId)"
+                + " or p.district.id in (select r.destination.id from AgencyRoute ar join ar.route r where ar.agency.id = :agencyId)",
+                Object[].class)
+            .setParameter("agencyId", agencyId)
+            .getResultList();
+    }
+}
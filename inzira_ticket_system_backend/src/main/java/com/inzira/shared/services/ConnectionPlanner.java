@@ -0,0 +1,314 @@
+package com.inzira.shared.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.inzira.agency.repositories.AgencyRouteRepository;
+import com.inzira.shared.dtos.ItineraryDTO;
+import com.inzira.shared.dtos.ItineraryLegDTO;
+import com.inzira.shared.services.DepartureIndex.Departure;
+import com.inzira.shared.utils.TransactionCallbacks;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Itineraries between two districts with up to two transfers, over the live departures in DepartureIndex.
+ *
+ * The district graph (pairs served by at least one agency route) is cached and rebuilt after routes or
+ * agency routes change. A query first uses it to keep only the legs that can lie on a path of at most
+ * three legs, then runs a connection scan over those departures in the search window: each district
+ * keeps, per number of legs, the Pareto set of (arrival time, total price) labels. A transfer needs the
+ * minimum connection time between arrival and the next departure. Results are ranked by arrival time,
+ * then total price, then number of transfers.
+ */
+@Component
+@Slf4j
+public class ConnectionPlanner {
+
+    public static final int MAX_TRANSFERS = 2;
+    public static final int MAX_LIMIT = 20;
+
+    private static final int MAX_LEGS = MAX_TRANSFERS + 1;
+
+    private static final Comparator<Label> RANKING = Comparator.comparingLong(Label::arrival)
+        .thenComparingDouble(Label::price)
+        .thenComparingInt(Label::legs);
+
+    @Autowired
+    private AgencyRouteRepository agencyRouteRepository;
+
+    @Autowired
+    private DepartureIndex departureIndex;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Value("${connections.min-transfer-minutes:30}")
+    private int minTransferMinutes = 30;
+
+    @Value("${connections.search-window-hours:24}")
+    private int searchWindowHours = 24;
+
+    // Null when routes changed since it was built
+    private volatile Graph graph;
+
+    public List<ItineraryDTO> plan(Long originId, Long destinationId, LocalDateTime after, int seats, int limit) {
+        if (originId.equals(destinationId)) {
+            throw new IllegalArgumentException("Origin and destination districts cannot be the same");
+        }
+        if (seats < 1) {
+            throw new IllegalArgumentException("Number of seats must be at least 1");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        Graph graph = graph();
+        List<Connection> connections = connections(graph, originId, destinationId, after);
+
+        // bags[k]: district -> non-dominated labels reached with exactly k legs
+        List<Map<Long, Bag>> bags = new ArrayList<>();
+        for (int k = 0; k <= MAX_LEGS; k++) {
+            bags.add(new HashMap<>());
+        }
+        Bag start = new Bag();
+        start.add(new Label(minutes(after), 0, 0, null, null));
+        bags.get(0).put(originId, start);
+
+        for (Connection connection : connections) {
+            for (int k = 1; k <= MAX_LEGS; k++) {
+                Bag from = bags.get(k - 1).get(connection.departure().originId());
+                if (from == null) {
+                    continue;
+                }
+                // Cheapest label that arrived early enough to make this departure
+                Label previous = from.cheapestArrivedBy(k == 1 ? connection.departs() : connection.departs() - minTransferMinutes);
+                if (previous == null) {
+                    continue;
+                }
+                Label label = new Label(connection.arrives(), previous.price() + connection.departure().price(), k, previous, connection);
+                // Seats are only looked up for legs that can actually be boarded
+                if (!dominated(bags, connection.departure().destinationId(), label)
+                        && seatInventory.getAvailableSeats(connection.departure().scheduleId()) >= seats) {
+                    insert(bags, connection.departure().destinationId(), label);
+                }
+            }
+        }
+
+        List<Label> arrivals = new ArrayList<>();
+        for (int k = 1; k <= MAX_LEGS; k++) {
+            Bag bag = bags.get(k).get(destinationId);
+            if (bag != null) {
+                arrivals.addAll(bag.labels);
+            }
+        }
+        arrivals.sort(RANKING);
+
+        List<ItineraryDTO> itineraries = new ArrayList<>();
+        for (Label arrival : arrivals) {
+            if (itineraries.size() == limit) {
+                break;
+            }
+            itineraries.add(toItinerary(arrival, graph));
+        }
+        return itineraries;
+    }
+
+    // Drops the cached district graph once the route change commits; the next query rebuilds it
+    public void invalidateGraph() {
+        TransactionCallbacks.afterCommit(() -> graph = null);
+    }
+
+    /**
+     * Departures on legs that fit a path of at most MAX_LEGS legs from origin to destination, leaving
+     * inside the search window, in departure order.
+     */
+    private List<Connection> connections(Graph graph, Long originId, Long destinationId, LocalDateTime after) {
+        Map<Long, Integer> fromOrigin = hops(graph.outgoing(), originId);
+        Map<Long, Integer> toDestination = hops(graph.incoming(), destinationId);
+        LocalDateTime until = after.plusHours(searchWindowHours);
+
+        List<Connection> connections = new ArrayList<>();
+        for (Map.Entry<Long, Integer> from : fromOrigin.entrySet()) {
+            for (Long to : graph.outgoing().getOrDefault(from.getKey(), List.of())) {
+                Integer remaining = toDestination.get(to);
+                if (remaining == null || from.getValue() + 1 + remaining > MAX_LEGS) {
+                    continue;
+                }
+                for (Departure departure : departureIndex.departuresBetween(from.getKey(), to, after, until)) {
+                    connections.add(new Connection(departure, minutes(departure.departsAt()), minutes(departure.arrivesAt())));
+                }
+            }
+        }
+        connections.sort(Comparator.comparingLong(Connection::departs).thenComparingLong(Connection::arrives));
+        return connections;
+    }
+
+    // Breadth-first hop counts from the start district, up to MAX_LEGS - 1 hops
+    private static Map<Long, Integer> hops(Map<Long, List<Long>> edges, Long start) {
+        Map<Long, Integer> hops = new HashMap<>();
+        hops.put(start, 0);
+        ArrayDeque<Long> queue = new ArrayDeque<>(List.of(start));
+        while (!queue.isEmpty()) {
+            Long district = queue.poll();
+            int next = hops.get(district) + 1;
+            if (next >= MAX_LEGS) {
+                continue;
+            }
+            for (Long neighbour : edges.getOrDefault(district, List.of())) {
+                if (hops.putIfAbsent(neighbour, next) == null) {
+                    queue.add(neighbour);
+                }
+            }
+        }
+        return hops;
+    }
+
+    // True when a label with no more legs reaches the district no later for no more money
+    private static boolean dominated(List<Map<Long, Bag>> bags, Long district, Label label) {
+        for (int k = 0; k <= label.legs(); k++) {
+            Bag bag = bags.get(k).get(district);
+            if (bag != null) {
+                Label best = bag.cheapestArrivedBy(label.arrival());
+                if (best != null && best.price() <= label.price()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Adds a non-dominated label and drops the labels with as many or more legs that it beats
+    private static void insert(List<Map<Long, Bag>> bags, Long district, Label label) {
+        for (int k = label.legs() + 1; k <= MAX_LEGS; k++) {
+            Bag bag = bags.get(k).get(district);
+            if (bag != null) {
+                bag.removeBeatenBy(label);
+            }
+        }
+        bags.get(label.legs()).computeIfAbsent(district, key -> new Bag()).add(label);
+    }
+
+    private Graph graph() {
+        Graph current = graph;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (graph == null) {
+                graph = buildGraph();
+            }
+            return graph;
+        }
+    }
+
+    private Graph buildGraph() {
+        Map<Long, String> names = new HashMap<>();
+        Map<Long, List<Long>> outgoing = new HashMap<>();
+        Map<Long, List<Long>> incoming = new HashMap<>();
+        List<Object[]> pairs = agencyRouteRepository.findServedDistrictPairs();
+        for (Object[] row : pairs) {
+            Long originId = ((Number) row[0]).longValue();
+            Long destinationId = ((Number) row[2]).longValue();
+            names.put(originId, (String) row[1]);
+            names.put(destinationId, (String) row[3]);
+            outgoing.computeIfAbsent(originId, key -> new ArrayList<>()).add(destinationId);
+            incoming.computeIfAbsent(destinationId, key -> new ArrayList<>()).add(originId);
+        }
+        log.info("Connection graph built with {} districts and {} served pairs", names.size(), pairs.size());
+        return new Graph(names, outgoing, incoming);
+    }
+
+    private ItineraryDTO toItinerary(Label arrival, Graph graph) {
+        List<ItineraryLegDTO> legs = new ArrayList<>();
+        for (Label label = arrival; label.connection() != null; label = label.previous()) {
+            Connection connection = label.connection();
+            Departure departure = connection.departure();
+            ItineraryLegDTO leg = new ItineraryLegDTO();
+            leg.setScheduleId(departure.scheduleId());
+            leg.setAgencyId(departure.agencyId());
+            leg.setAgencyName(departure.agencyName());
+            leg.setOriginId(departure.originId());
+            leg.setOriginName(graph.names().get(departure.originId()));
+            leg.setDestinationId(departure.destinationId());
+            leg.setDestinationName(graph.names().get(departure.destinationId()));
+            leg.setDeparture(departure.departsAt());
+            leg.setArrival(departure.arrivesAt());
+            leg.setPrice(departure.price());
+            leg.setAvailableSeats(seatInventory.getAvailableSeats(departure.scheduleId()));
+            legs.add(0, leg);
+        }
+
+        ItineraryDTO itinerary = new ItineraryDTO();
+        itinerary.setDeparture(legs.get(0).getDeparture());
+        itinerary.setArrival(legs.get(legs.size() - 1).getArrival());
+        itinerary.setTotalPrice(arrival.price());
+        itinerary.setTransfers(legs.size() - 1);
+        itinerary.setLegs(legs);
+        return itinerary;
+    }
+
+    private record Graph(Map<Long, String> names, Map<Long, List<Long>> outgoing, Map<Long, List<Long>> incoming) {}
+
+    // Minutes since the epoch, so the scan compares longs instead of date-times
+    private static long minutes(LocalDateTime time) {
+        return time.toLocalDate().toEpochDay() * 1440 + time.toLocalTime().toSecondOfDay() / 60;
+    }
+
+    private record Connection(Departure departure, long departs, long arrives) {}
+
+    /**
+     * Pareto set of labels for one district and leg count, ordered by arrival with strictly falling
+     * prices, so the cheapest label arriving by a given time is found by binary search.
+     */
+    private static class Bag {
+        private final List<Label> labels = new ArrayList<>();
+
+        Label cheapestArrivedBy(long time) {
+            int index = firstArrivingAfter(time) - 1;
+            return index >= 0 ? labels.get(index) : null;
+        }
+
+        // The label must not be dominated by this bag
+        void add(Label label) {
+            removeBeatenBy(label);
+            labels.add(firstArrivingAfter(label.arrival()), label);
+        }
+
+        // Labels arriving no earlier and costing no less form one run right after the label's position
+        void removeBeatenBy(Label label) {
+            int from = firstArrivingAfter(label.arrival() - 1);
+            int to = from;
+            while (to < labels.size() && labels.get(to).price() >= label.price()) {
+                to++;
+            }
+            labels.subList(from, to).clear();
+        }
+
+        private int firstArrivingAfter(long time) {
+            int low = 0;
+            int high = labels.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (labels.get(mid).arrival() <= time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // A way of reaching a district: arrival (epoch minutes), price so far, legs used and the leg that got there
+    private record Label(long arrival, double price, int legs, Label previous, Connection connection) {}
+}
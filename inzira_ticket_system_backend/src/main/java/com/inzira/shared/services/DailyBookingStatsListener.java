@@ -0,0 +1,36 @@
+package com.inzira.shared.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.entities.Payment;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Entity listener on Booking and Payment that marks their day in the daily stats rollup. Hibernate
+ * asks Spring for the listener instance; the service is injected lazily because the listener is
+ * created while the EntityManagerFactory the service depends on is still being built.
+ */
+@Component
+public class DailyBookingStatsListener {
+
+    @Autowired
+    @Lazy
+    private DailyBookingStatsService dailyBookingStatsService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        if (entity instanceof Booking booking) {
+            dailyBookingStatsService.touch(booking.getCreatedAt());
+        } else if (entity instanceof Payment payment) {
+            dailyBookingStatsService.touch(payment.getCreatedAt());
+        }
+    }
+}
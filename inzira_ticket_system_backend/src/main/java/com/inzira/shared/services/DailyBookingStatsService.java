@@ -0,0 +1,483 @@
+package com.inzira.shared.services;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.shared.dtos.BookingStatsTotals;
+import com.inzira.shared.entities.DailyBookingStats;
+import com.inzira.shared.repositories.AgencyBookingStatsRepository;
+import com.inzira.shared.repositories.DailyBookingStatsRepository;
+import com.inzira.shared.utils.CountMinSketch;
+import com.inzira.shared.utils.HyperLogLog;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains daily_booking_stats: booking counts per status, seats sold and revenue per day, agency
+ * and route.
+ *
+ * A booking or payment change marks the day its row was created with a daily_booking_stats_marks row
+ * written in the same transaction, so the mark commits or rolls back with the change and survives the
+ * node that made it. A flush every few seconds, on every node, recomputes each marked day with two
+ * grouped queries and replaces that day's rows; the marks it read are deleted in the same transaction,
+ * so a node that finds them gone leaves the day to whoever took them. Recomputing a day instead of applying +1/-1 deltas keeps the rollup exact
+ * through the bulk conditional updates (hold confirmation and expiry, cancellation) that never report
+ * the status they replaced, and makes every refresh idempotent. An empty table is backfilled at
+ * startup, the last few days are reconciled nightly, and admins can rebuild any range.
+ *
+ * Each row also carries sketches of its customers and of the pickup and drop points of its sold
+ * bookings, which BookingSketchService merges over any range; as they are rebuilt with the day, a
+ * cancelled booking drops out of the point counts although sketches themselves cannot delete. A refresh
+ * then re-sums agency_booking_stats for the agencies it touched and merges the day's customer sketches
+ * into theirs, so all-time figures read one row per agency. Dashboards read, sum or merge these rows,
+ * so their cost never grows with bookings.
+ */
+@Service
+@Slf4j
+public class DailyBookingStatsService {
+
+    public enum Ranking {
+        BOOKINGS("sum(s.totalBookings)"),
+        REVENUE("sum(s.paymentRevenue)");
+
+        private final String aggregate;
+
+        Ranking(String aggregate) {
+            this.aggregate = aggregate;
+        }
+    }
+
+    private static final String SUMS = "sum(s.totalBookings), sum(s.pendingBookings), sum(s.confirmedBookings),"
+        + " sum(s.completedBookings), sum(s.cancelledBookings), sum(s.expiredBookings), sum(s.seatsSold), sum(s.bookingRevenue),"
+        + " sum(s.payments), sum(s.successfulPayments), sum(s.paymentRevenue)";
+
+    private static final String DAY = "year(%1$s.createdAt), month(%1$s.createdAt), day(%1$s.createdAt)";
+
+    private static final String BOOKING_ROLLUP = "select " + DAY.formatted("b") + ", ar.agency.id, ar.route.id, count(b.id),"
+        + " sum(case when b.status = 'PENDING' then 1 else 0 end),"
+        + " sum(case when b.status = 'CONFIRMED' then 1 else 0 end),"
+        + " sum(case when b.status = 'COMPLETED' then 1 else 0 end),"
+        + " sum(case when b.status = 'CANCELLED' then 1 else 0 end),"
+        + " sum(case when b.status = 'EXPIRED' then 1 else 0 end),"
+        + " sum(case when b.status in ('CONFIRMED', 'COMPLETED', 'NO_SHOW') then b.numberOfSeats else 0 end),"
+        + " sum(case when b.status in ('CONFIRMED', 'COMPLETED', 'NO_SHOW') then b.totalAmount else 0 end)"
+        + " from Booking b join b.schedule s join s.agencyRoute ar"
+        + " where b.createdAt >= :from and b.createdAt < :to"
+        + " group by " + DAY.formatted("b") + ", ar.agency.id, ar.route.id";
+
+    private static final String PAYMENT_ROLLUP = "select " + DAY.formatted("p") + ", ar.agency.id, ar.route.id, count(p.id),"
+        + " sum(case when p.status = 'SUCCESS' then 1 else 0 end),"
+        + " sum(case when p.status = 'SUCCESS' then p.amount else 0 end)"
+        + " from Payment p join p.booking b join b.schedule s join s.agencyRoute ar"
+        + " where p.createdAt >= :from and p.createdAt < :to"
+        + " group by " + DAY.formatted("p") + ", ar.agency.id, ar.route.id";
+
+    private static final String INSERT = "INSERT INTO daily_booking_stats (stat_date, agency_id, route_id, total_bookings,"
+        + " pending_bookings, confirmed_bookings, completed_bookings, cancelled_bookings, expired_bookings, seats_sold,"
+        + " booking_revenue, payments, successful_payments, payment_revenue, customer_sketch, pickup_sketch, drop_sketch,"
+        + " refreshed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Bookings of one day in key order, so sketches are built one agency route at a time
+    private static final String SKETCH_ROWS = "select ar.agency.id, ar.route.id, b.customer.id, b.pickupPoint.id, b.dropPoint.id,"
+        + " b.status from Booking b join b.schedule s join s.agencyRoute ar"
+        + " where b.createdAt >= :from and b.createdAt < :to"
+        + " order by ar.agency.id, ar.route.id";
+
+    private static final String INSERT_AGENCY = "INSERT INTO agency_booking_stats (agency_id, total_bookings, pending_bookings,"
+        + " confirmed_bookings, completed_bookings, cancelled_bookings, expired_bookings, seats_sold, booking_revenue,"
+        + " payments, successful_payments, payment_revenue, customer_sketch, refreshed_at)"
+        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Value("${booking-stats.rebuild-chunk-days:31}")
+    private int rebuildChunkDays = 31;
+
+    @Value("${booking-stats.reconcile-days:7}")
+    private int reconcileDays = 7;
+
+    @Autowired
+    private DailyBookingStatsRepository dailyBookingStatsRepository;
+
+    @Autowired
+    private AgencyBookingStatsRepository agencyBookingStatsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static final int MARK_DELETE_CHUNK = 1000;
+
+    private final Object refreshLock = new Object();
+    // Transaction resource key: the days the current transaction has marked, so a bulk change marks each once
+    private final Object markedDaysKey = new Object();
+
+    // Marks the day of a booking or payment created at the time for refresh, as part of the current transaction
+    public void touch(LocalDateTime createdAt) {
+        LocalDate day = createdAt != null ? createdAt.toLocalDate() : LocalDate.now();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            @SuppressWarnings("unchecked")
+            Set<LocalDate> marked = (Set<LocalDate>) TransactionSynchronizationManager.getResource(markedDaysKey);
+            if (marked == null) {
+                marked = new HashSet<>();
+                TransactionSynchronizationManager.bindResource(markedDaysKey, marked);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(markedDaysKey);
+                    }
+                });
+            }
+            if (!marked.add(day)) {
+                return;
+            }
+        }
+        jdbcTemplate.update("INSERT INTO daily_booking_stats_marks (stat_date) VALUES (?)", Date.valueOf(day));
+    }
+
+    /**
+     * Recomputes the rows of every marked day, whichever node marked it. Returns the number of days
+     * refreshed here; a day that fails keeps its marks for the next flush.
+     */
+    @Scheduled(fixedDelayString = "${booking-stats.flush-interval-ms:5000}")
+    public int flush() {
+        // Held throughout, so a caller returns only once a flush already under way here has finished
+        synchronized (refreshLock) {
+            // Only committed marks are read, so the changes behind them are visible to the refresh
+            Map<LocalDate, List<Long>> marks = new TreeMap<>();
+            jdbcTemplate.query("SELECT id, stat_date FROM daily_booking_stats_marks", (ResultSet rs) -> {
+                marks.computeIfAbsent(rs.getDate(2).toLocalDate(), day -> new ArrayList<>()).add(rs.getLong(1));
+            });
+            int refreshed = 0;
+            for (Map.Entry<LocalDate, List<Long>> day : marks.entrySet()) {
+                try {
+                    if (refresh(day.getKey(), day.getKey().plusDays(1), day.getValue()) >= 0) {
+                        refreshed++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to refresh booking stats for {}, retrying: {}", day.getKey(), e.getMessage());
+                }
+            }
+            return refreshed;
+        }
+    }
+
+    // Recomputes the rows of [from, to] a chunk of days at a time and returns the number of rows written
+    public int rebuild(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        int rows = 0;
+        LocalDate limit = to.plusDays(1);
+        for (LocalDate chunk = from; chunk.isBefore(limit); chunk = chunk.plusDays(rebuildChunkDays)) {
+            LocalDate chunkEnd = chunk.plusDays(rebuildChunkDays);
+            rows += refresh(chunk, chunkEnd.isBefore(limit) ? chunkEnd : limit);
+        }
+        log.info("Booking stats rebuilt for {} to {}: {} rows", from, to, rows);
+        return rows;
+    }
+
+    // Rebuilds everything from the first booking or payment up to today
+    public int rebuildAll() {
+        LocalDate first = firstActivityDay();
+        return first == null ? 0 : rebuild(first, LocalDate.now());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (dailyBookingStatsRepository.count() == 0 || agencyBookingStatsRepository.count() == 0) {
+            rebuildAll();
+        }
+    }
+
+    // Safety net for changes made outside the application, e.g. by hand in the database
+    @Scheduled(cron = "${booking-stats.reconcile-cron:0 30 2 * * *}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(reconcileDays), today);
+    }
+
+    /**
+     * Sums over the days in [from, to], either end open when null, for one agency or all when agencyId
+     * is null. All-time totals are read from the per-agency rows.
+     */
+    public BookingStatsTotals totals(Long agencyId, LocalDate from, LocalDate to) {
+        List<String> conditions = new ArrayList<>();
+        if (agencyId != null) conditions.add("s.agencyId = :agencyId");
+        if (from != null) conditions.add("s.statDate >= :from");
+        if (to != null) conditions.add("s.statDate <= :to");
+        String jpql = "select " + SUMS + " from " + (from == null && to == null ? "AgencyBookingStats" : "DailyBookingStats") + " s"
+            + (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions));
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql, Object[].class);
+        if (agencyId != null) query.setParameter("agencyId", agencyId);
+        if (from != null) query.setParameter("from", from);
+        if (to != null) query.setParameter("to", to);
+        return toTotals(query.getSingleResult());
+    }
+
+    // Estimated customers who ever booked with the agency
+    public long customers(Long agencyId) {
+        List<byte[]> sketch = entityManager.createQuery(
+                "select s.customerSketch from AgencyBookingStats s where s.agencyId = :agencyId and s.customerSketch is not null", byte[].class)
+            .setParameter("agencyId", agencyId)
+            .getResultList();
+        return sketch.isEmpty() ? 0 : HyperLogLog.fromBytes(sketch.get(0)).estimate();
+    }
+
+    private static BookingStatsTotals toTotals(Object[] row) {
+        BookingStatsTotals totals = new BookingStatsTotals();
+        totals.setTotalBookings(count(row[0]));
+        totals.setPendingBookings(count(row[1]));
+        totals.setConfirmedBookings(count(row[2]));
+        totals.setCompletedBookings(count(row[3]));
+        totals.setCancelledBookings(count(row[4]));
+        totals.setExpiredBookings(count(row[5]));
+        totals.setSeatsSold(count(row[6]));
+        totals.setBookingRevenue(amount(row[7]));
+        totals.setPayments(count(row[8]));
+        totals.setSuccessfulPayments(count(row[9]));
+        totals.setPaymentRevenue(amount(row[10]));
+        return totals;
+    }
+
+    // [agencyId, agencyName, value] of the top agencies over the days in [from, to], highest first
+    public List<Object[]> topAgencies(Ranking ranking, LocalDate from, LocalDate to, int limit) {
+        return entityManager.createQuery("select a.id, a.agencyName, " + ranking.aggregate
+                + " from DailyBookingStats s join Agency a on a.id = s.agencyId"
+                + " where s.statDate >= :from and s.statDate <= :to"
+                + " group by a.id, a.agencyName order by " + ranking.aggregate + " desc", Object[].class)
+            .setParameter("from", from)
+            .setParameter("to", to)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    // Days marked for refresh, on any node
+    public int getDirtyDayCount() {
+        Integer days = jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT stat_date) FROM daily_booking_stats_marks", Integer.class);
+        return days == null ? 0 : days;
+    }
+
+    // Replaces the rows of the days in [from, to) with freshly aggregated ones
+    private int refresh(LocalDate from, LocalDate to) {
+        return refresh(from, to, List.of());
+    }
+
+    /**
+     * Same, first deleting the given marks: a change marked later keeps its own mark for the next flush.
+     * Returns -1 without refreshing when another node has taken the marks already.
+     */
+    private int refresh(LocalDate from, LocalDate to, List<Long> marks) {
+        synchronized (refreshLock) {
+            return transactionTemplate.execute(status -> {
+                if (!marks.isEmpty() && deleteMarks(marks) == 0) {
+                    return -1;
+                }
+                Set<Long> agencyIds = new TreeSet<>(jdbcTemplate.queryForList(
+                    "SELECT DISTINCT agency_id FROM daily_booking_stats WHERE stat_date >= ? AND stat_date < ?",
+                    Long.class, Date.valueOf(from), Date.valueOf(to)));
+                Map<Key, DailyBookingStats> rows = new LinkedHashMap<>();
+                for (Object[] r : rollup(BOOKING_ROLLUP, from, to)) {
+                    DailyBookingStats row = row(rows, r);
+                    row.setTotalBookings(count(r[5]));
+                    row.setPendingBookings(count(r[6]));
+                    row.setConfirmedBookings(count(r[7]));
+                    row.setCompletedBookings(count(r[8]));
+                    row.setCancelledBookings(count(r[9]));
+                    row.setExpiredBookings(count(r[10]));
+                    row.setSeatsSold(count(r[11]));
+                    row.setBookingRevenue(amount(r[12]));
+                }
+                for (Object[] r : rollup(PAYMENT_ROLLUP, from, to)) {
+                    DailyBookingStats row = row(rows, r);
+                    row.setPayments(count(r[5]));
+                    row.setSuccessfulPayments(count(r[6]));
+                    row.setPaymentRevenue(amount(r[7]));
+                }
+                for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+                    sketch(rows, day);
+                }
+
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Object[]> batch = new ArrayList<>(rows.size());
+                for (DailyBookingStats row : rows.values()) {
+                    batch.add(new Object[] { Date.valueOf(row.getStatDate()), row.getAgencyId(), row.getRouteId(),
+                        row.getTotalBookings(), row.getPendingBookings(), row.getConfirmedBookings(),
+                        row.getCompletedBookings(), row.getCancelledBookings(), row.getExpiredBookings(),
+                        row.getSeatsSold(), row.getBookingRevenue(), row.getPayments(), row.getSuccessfulPayments(),
+                        row.getPaymentRevenue(), row.getCustomerSketch(), row.getPickupSketch(), row.getDropSketch(), now });
+                }
+                jdbcTemplate.update("DELETE FROM daily_booking_stats WHERE stat_date >= ? AND stat_date < ?",
+                    Date.valueOf(from), Date.valueOf(to));
+                if (!batch.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT, batch);
+                }
+                rows.values().forEach(row -> agencyIds.add(row.getAgencyId()));
+                refreshAgencies(agencyIds, rows.values(), now);
+                return batch.size();
+            });
+        }
+    }
+
+    /**
+     * Re-sums the agency_booking_stats row of each agency from its daily rows and merges the customer
+     * sketches of the refreshed days into it. Merging is idempotent, so refreshing a day twice is harmless.
+     */
+    private void refreshAgencies(Set<Long> agencyIds, Collection<DailyBookingStats> days, Timestamp now) {
+        if (agencyIds.isEmpty()) {
+            return;
+        }
+        Map<Long, HyperLogLog> customers = new HashMap<>();
+        for (Object[] r : entityManager.createQuery("select s.agencyId, s.customerSketch from AgencyBookingStats s"
+                + " where s.agencyId in :agencyIds and s.customerSketch is not null", Object[].class)
+                .setParameter("agencyIds", agencyIds)
+                .getResultList()) {
+            customers.put((Long) r[0], HyperLogLog.fromBytes((byte[]) r[1]));
+        }
+        for (DailyBookingStats day : days) {
+            if (day.getCustomerSketch() != null) {
+                customers.computeIfAbsent(day.getAgencyId(), id -> new HyperLogLog()).merge(day.getCustomerSketch());
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>(agencyIds.size());
+        for (Object[] r : entityManager.createQuery("select s.agencyId, " + SUMS + " from DailyBookingStats s"
+                + " where s.agencyId in :agencyIds group by s.agencyId", Object[].class)
+                .setParameter("agencyIds", agencyIds)
+                .getResultList()) {
+            Long agencyId = (Long) r[0];
+            BookingStatsTotals totals = toTotals(Arrays.copyOfRange(r, 1, r.length));
+            HyperLogLog sketch = customers.get(agencyId);
+            batch.add(new Object[] { agencyId, totals.getTotalBookings(), totals.getPendingBookings(),
+                totals.getConfirmedBookings(), totals.getCompletedBookings(), totals.getCancelledBookings(),
+                totals.getExpiredBookings(), totals.getSeatsSold(), totals.getBookingRevenue(), totals.getPayments(),
+                totals.getSuccessfulPayments(), totals.getPaymentRevenue(), sketch == null ? null : sketch.toBytes(), now });
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM agency_booking_stats WHERE agency_id = ?",
+            agencyIds.stream().map(id -> new Object[] { id }).toList());
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_AGENCY, batch);
+        }
+    }
+
+    // Fills the sketch columns of the day's rows: customers of all its bookings, points of the sold ones
+    private void sketch(Map<Key, DailyBookingStats> rows, LocalDate day) {
+        Key current = null;
+        HyperLogLog customers = null;
+        CountMinSketch pickups = null;
+        CountMinSketch drops = null;
+        List<Object[]> sold = entityManager.createQuery(SKETCH_ROWS, Object[].class)
+            .setParameter("from", day.atStartOfDay())
+            .setParameter("to", day.plusDays(1).atStartOfDay())
+            .getResultList();
+        for (Object[] r : sold) {
+            Key key = new Key(day, ((Number) r[0]).longValue(), ((Number) r[1]).longValue());
+            if (!key.equals(current)) {
+                storeSketches(rows.get(current), customers, pickups, drops);
+                current = key;
+                customers = new HyperLogLog();
+                pickups = new CountMinSketch();
+                drops = new CountMinSketch();
+            }
+            customers.add(((Number) r[2]).longValue());
+            if ("CONFIRMED".equals(r[5]) || "COMPLETED".equals(r[5]) || "NO_SHOW".equals(r[5])) {
+                pickups.add(((Number) r[3]).longValue(), 1);
+                drops.add(((Number) r[4]).longValue(), 1);
+            }
+        }
+        storeSketches(current == null ? null : rows.get(current), customers, pickups, drops);
+    }
+
+    private static void storeSketches(DailyBookingStats row, HyperLogLog customers, CountMinSketch pickups, CountMinSketch drops) {
+        if (row != null) {
+            row.setCustomerSketch(customers.toBytes());
+            row.setPickupSketch(pickups.toBytes());
+            row.setDropSketch(drops.toBytes());
+        }
+    }
+
+    private List<Object[]> rollup(String jpql, LocalDate from, LocalDate to) {
+        return entityManager.createQuery(jpql, Object[].class)
+            .setParameter("from", from.atStartOfDay())
+            .setParameter("to", to.atStartOfDay())
+            .getResultList();
+    }
+
+    // The row keyed by the [year, month, day, agencyId, routeId] columns of a rollup result
+    private static DailyBookingStats row(Map<Key, DailyBookingStats> rows, Object[] r) {
+        LocalDate day = LocalDate.of(((Number) r[0]).intValue(), ((Number) r[1]).intValue(), ((Number) r[2]).intValue());
+        Key key = new Key(day, ((Number) r[3]).longValue(), ((Number) r[4]).longValue());
+        return rows.computeIfAbsent(key, k -> {
+            DailyBookingStats row = new DailyBookingStats();
+            row.setStatDate(k.day());
+            row.setAgencyId(k.agencyId());
+            row.setRouteId(k.routeId());
+            row.setBookingRevenue(BigDecimal.ZERO);
+            row.setPaymentRevenue(BigDecimal.ZERO);
+            return row;
+        });
+    }
+
+    // Deletes the marks by id; a node refreshing the same day concurrently waits here, then finds them gone
+    private int deleteMarks(List<Long> ids) {
+        int deleted = 0;
+        for (int i = 0; i < ids.size(); i += MARK_DELETE_CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + MARK_DELETE_CHUNK));
+            deleted += jdbcTemplate.update("DELETE FROM daily_booking_stats_marks WHERE id IN ("
+                + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")", chunk.toArray());
+        }
+        return deleted;
+    }
+
+    private LocalDate firstActivityDay() {
+        LocalDateTime booking = entityManager.createQuery("select min(b.createdAt) from Booking b", LocalDateTime.class).getSingleResult();
+        LocalDateTime payment = entityManager.createQuery("select min(p.createdAt) from Payment p", LocalDateTime.class).getSingleResult();
+        LocalDateTime first = booking == null || (payment != null && payment.isBefore(booking)) ? payment : booking;
+        return first == null ? null : first.toLocalDate();
+    }
+
+    private static long count(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    private static BigDecimal amount(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private record Key(LocalDate day, Long agencyId, Long routeId) {}
+}
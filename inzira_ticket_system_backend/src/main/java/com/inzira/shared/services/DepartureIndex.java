@@ -0,0 +1,277 @@
+package com.inzira.shared.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.inzira.shared.dtos.DepartureDTO;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.utils.TransactionCallbacks;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Upcoming SCHEDULED departures per origin/destination district pair, kept in memory for
+ * "next departures" and "cheapest per day" searches that span more than one date.
+ *
+ * Each pair holds two skip lists: departures ordered by date and time, and per date ordered by price.
+ * "Next K after T" is one O(log n) seek plus K steps; "cheapest per day" is one O(log n) seek per day.
+ * Sold-out departures are skipped using the live SeatInventory counters.
+ *
+ * The index is loaded at startup and kept current by ScheduleService, AgencyRouteService and the
+ * expiry jobs; like SeatInventory it is per JVM. Writes are serialised, reads never lock.
+ */
+@Component
+@Slf4j
+public class DepartureIndex {
+
+    public static final int MAX_LIMIT = 50;
+    public static final int MAX_RANGE_DAYS = 62;
+
+    private static final Comparator<Departure> BY_TIME = Comparator.comparing(Departure::departureDate)
+        .thenComparing(Departure::departureTime)
+        .thenComparingLong(Departure::scheduleId);
+
+    private static final Comparator<Departure> BY_PRICE = Comparator.comparingDouble(Departure::price)
+        .thenComparing(Departure::departureTime)
+        .thenComparingLong(Departure::scheduleId);
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    private final Map<RouteKey, RouteDepartures> routes = new ConcurrentHashMap<>();
+    private final Map<Long, Departure> bySchedule = new ConcurrentHashMap<>();
+
+    // Indexes a created or edited schedule (replacing its previous entry) once the change commits
+    public void add(Schedule schedule) {
+        if (!"SCHEDULED".equals(schedule.getStatus())) {
+            remove(schedule.getId());
+            return;
+        }
+        Departure departure = Departure.of(schedule);
+        TransactionCallbacks.afterCommit(() -> put(departure));
+    }
+
+    public void remove(Long scheduleId) {
+        TransactionCallbacks.afterCommit(() -> delete(scheduleId));
+    }
+
+    // Re-reads the upcoming departures of an agency route after its price or route changed
+    public void reloadAgencyRoute(Long agencyRouteId) {
+        TransactionCallbacks.afterCommit(() -> {
+            for (Departure departure : List.copyOf(bySchedule.values())) {
+                if (departure.agencyRouteId().equals(agencyRouteId)) {
+                    delete(departure.scheduleId());
+                }
+            }
+            for (Object[] row : scheduleRepository.findDepartureRowsByAgencyRoute(LocalDate.now(), agencyRouteId)) {
+                put(Departure.of(row));
+            }
+        });
+    }
+
+    /**
+     * Up to limit departures leaving at or after the given time that still have the requested seats,
+     * in departure order.
+     */
+    public List<DepartureDTO> nextDepartures(Long originId, Long destinationId, LocalDateTime after, int limit, int seats) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (seats < 1) {
+            throw new IllegalArgumentException("Number of seats must be at least 1");
+        }
+        List<DepartureDTO> result = new ArrayList<>(limit);
+        RouteDepartures route = routes.get(new RouteKey(originId, destinationId));
+        if (route == null) {
+            return result;
+        }
+
+        Departure from = Departure.probe(after.toLocalDate(), after.toLocalTime());
+        for (Departure departure : route.byTime.tailSet(from, true)) {
+            int available = seatInventory.getAvailableSeats(departure.scheduleId());
+            if (available >= seats) {
+                result.add(departure.toDTO(available));
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The cheapest departure with the requested seats on each date in the range (inclusive); dates
+     * without one are left out. Departures earlier than now on today's date are skipped.
+     */
+    public List<DepartureDTO> cheapestPerDay(Long originId, Long destinationId, LocalDate fromDate, LocalDate toDate, int seats) {
+        if (toDate.isBefore(fromDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+        if (seats < 1) {
+            throw new IllegalArgumentException("Number of seats must be at least 1");
+        }
+        List<DepartureDTO> result = new ArrayList<>();
+        RouteDepartures route = routes.get(new RouteKey(originId, destinationId));
+        if (route == null) {
+            return result;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (NavigableSet<Departure> day : route.byDayPrice.subMap(fromDate, true, toDate, true).values()) {
+            for (Departure departure : day) {
+                if (departure.departureDate().equals(now.toLocalDate()) && departure.departureTime().isBefore(now.toLocalTime())) {
+                    continue;
+                }
+                int available = seatInventory.getAvailableSeats(departure.scheduleId());
+                if (available >= seats) {
+                    result.add(departure.toDTO(available));
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    // Departures between the two districts leaving in [from, to), in departure order; sold-out ones included
+    List<Departure> departuresBetween(Long originId, Long destinationId, LocalDateTime from, LocalDateTime to) {
+        RouteDepartures route = routes.get(new RouteKey(originId, destinationId));
+        if (route == null) {
+            return List.of();
+        }
+        return List.copyOf(route.byTime.subSet(Departure.probe(from.toLocalDate(), from.toLocalTime()), true,
+            Departure.probe(to.toLocalDate(), to.toLocalTime()), false));
+    }
+
+    // The indexed departure of a bookable schedule, or null
+    Departure get(Long scheduleId) {
+        return bySchedule.get(scheduleId);
+    }
+
+    public int size() {
+        return bySchedule.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int loaded = 0;
+        for (Object[] row : scheduleRepository.findDepartureRows(LocalDate.now())) {
+            put(Departure.of(row));
+            loaded++;
+        }
+        log.info("Departure index built with {} upcoming departures", loaded);
+    }
+
+    // Drops departures from previous days, which no search can return any more
+    @Scheduled(cron = "${departure-index.prune-cron:0 5 0 * * *}")
+    public void prune() {
+        LocalDate today = LocalDate.now();
+        int pruned = 0;
+        for (Departure departure : List.copyOf(bySchedule.values())) {
+            if (departure.departureDate().isBefore(today)) {
+                delete(departure.scheduleId());
+                pruned++;
+            }
+        }
+        if (pruned > 0) {
+            log.info("Pruned {} past departures from the departure index", pruned);
+        }
+    }
+
+    synchronized void put(Departure departure) {
+        delete(departure.scheduleId());
+        RouteDepartures route = routes.computeIfAbsent(new RouteKey(departure.originId(), departure.destinationId()), key -> new RouteDepartures());
+        route.byTime.add(departure);
+        route.byDayPrice.computeIfAbsent(departure.departureDate(), date -> new ConcurrentSkipListSet<>(BY_PRICE)).add(departure);
+        bySchedule.put(departure.scheduleId(), departure);
+    }
+
+    synchronized void delete(Long scheduleId) {
+        Departure departure = bySchedule.remove(scheduleId);
+        if (departure == null) {
+            return;
+        }
+        RouteDepartures route = routes.get(new RouteKey(departure.originId(), departure.destinationId()));
+        route.byTime.remove(departure);
+        NavigableSet<Departure> day = route.byDayPrice.get(departure.departureDate());
+        day.remove(departure);
+        if (day.isEmpty()) {
+            route.byDayPrice.remove(departure.departureDate());
+        }
+    }
+
+    private record RouteKey(Long originId, Long destinationId) {}
+
+    private static class RouteDepartures {
+        private final ConcurrentSkipListSet<Departure> byTime = new ConcurrentSkipListSet<>(BY_TIME);
+        private final ConcurrentSkipListMap<LocalDate, NavigableSet<Departure>> byDayPrice = new ConcurrentSkipListMap<>();
+    }
+
+    record Departure(Long scheduleId, Long agencyRouteId, Long agencyId, String agencyName, Long originId, Long destinationId,
+                     LocalDate departureDate, LocalTime departureTime, LocalTime arrivalTime, double price) {
+
+        static Departure of(Schedule schedule) {
+            return new Departure(schedule.getId(), schedule.getAgencyRoute().getId(), schedule.getAgencyRoute().getAgency().getId(),
+                schedule.getAgencyRoute().getAgency().getAgencyName(),
+                schedule.getAgencyRoute().getRoute().getOrigin().getId(), schedule.getAgencyRoute().getRoute().getDestination().getId(),
+                schedule.getDepartureDate(), schedule.getDepartureTime(), schedule.getArrivalTime(), schedule.getAgencyRoute().getPrice());
+        }
+
+        // Row layout of ScheduleRepository.findDepartureRows
+        static Departure of(Object[] row) {
+            return new Departure(((Number) row[0]).longValue(), ((Number) row[1]).longValue(), ((Number) row[2]).longValue(), (String) row[3],
+                ((Number) row[4]).longValue(), ((Number) row[5]).longValue(),
+                (LocalDate) row[6], (LocalTime) row[7], (LocalTime) row[8], ((Number) row[9]).doubleValue());
+        }
+
+        // Sorts before every departure at the given date and time
+        static Departure probe(LocalDate date, LocalTime time) {
+            return new Departure(Long.MIN_VALUE, null, null, null, null, null, date, time, null, 0);
+        }
+
+        LocalDateTime departsAt() {
+            return departureDate.atTime(departureTime);
+        }
+
+        // Arrival times earlier than the departure time are on the next day
+        LocalDateTime arrivesAt() {
+            LocalDateTime arrival = departureDate.atTime(arrivalTime);
+            return arrivalTime.isBefore(departureTime) ? arrival.plusDays(1) : arrival;
+        }
+
+        DepartureDTO toDTO(int availableSeats) {
+            DepartureDTO dto = new DepartureDTO();
+            dto.setScheduleId(scheduleId);
+            dto.setAgencyId(agencyId);
+            dto.setAgencyName(agencyName);
+            dto.setDepartureDate(departureDate);
+            dto.setDepartureTime(departureTime);
+            dto.setArrivalTime(arrivalTime);
+            dto.setPrice(price);
+            dto.setAvailableSeats(availableSeats);
+            return dto;
+        }
+    }
+}
@@ -13,6 +13,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Base64;
 
 @Service
@@ -109,6 +110,9 @@ public class PDFTicketService {
             // Bus and Seats
             addTableRow(journeyTable, "BUS:", booking.getSchedule().getBus().getPlateNumber() + " (" + booking.getSchedule().getBus().getBusType() + ")", normalFont, smallFont);
             addTableRow(journeyTable, "SEATS:", booking.getNumberOfSeats().toString(), normalFont, smallFont);
+            if (booking.getSeatNumbers() != null && !booking.getSeatNumbers().isBlank()) {
+                addTableRow(journeyTable, "SEAT NO:", booking.getSeatNumbers().replace(",", ", "), normalFont, smallFont);
+            }
 
             document.add(journeyTable);
             document.add(new Paragraph(" ", smallFont));
@@ -168,10 +172,12 @@ public class PDFTicketService {
                 Files.createDirectories(ticketsDir);
             }
 
-            // Write PDF to file
-            try (FileOutputStream fos = new FileOutputStream(filePath)) {
+            // Write to a temp file and move it into place, so a download racing a re-render never sees half a PDF
+            Path tempFile = Files.createTempFile(ticketsDir, fileName, ".tmp");
+            try (FileOutputStream fos = new FileOutputStream(tempFile.toFile())) {
                 fos.write(baos.toByteArray());
             }
+            Files.move(tempFile, Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
 
             return "tickets/" + fileName;
 
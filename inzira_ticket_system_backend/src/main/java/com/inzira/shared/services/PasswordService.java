@@ -22,6 +22,7 @@ import com.inzira.shared.repositories.CustomerRepository;
 import com.inzira.shared.repositories.DriverRepository;
 import com.inzira.shared.repositories.UserRepository;
 import com.inzira.shared.security.JwtUtil;
+import com.inzira.shared.security.TokenDenylist;
 
 @Service
 public class PasswordService {
@@ -53,6 +54,9 @@ public class PasswordService {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Transactional
     public void changePassword(String token, ChangePasswordRequest request) {
         // Extract user info from token
@@ -81,6 +85,9 @@ public class PasswordService {
         user.setPassword(encodedNewPassword);
         userRepository.save(user);
 
+        // Sessions opened with the old password end here, this one included
+        tokenDenylist.revokeUser(user.getId());
+
         // Update password in role-specific table
         switch (User.UserRole.valueOf(role)) {
             case ADMIN:
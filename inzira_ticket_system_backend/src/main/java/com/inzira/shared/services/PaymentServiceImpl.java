@@ -2,12 +2,12 @@ package com.inzira.shared.services;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.inzira.admin.services.TrendService;
 import com.inzira.shared.dtos.PaymentRequest;
 import com.inzira.shared.dtos.PaymentResponse;
 import com.inzira.shared.dtos.PaymentStatus;
@@ -16,7 +16,7 @@ import com.inzira.shared.entities.Payment;
 import com.inzira.shared.exceptions.ResourceNotFoundException;
 import com.inzira.shared.repositories.BookingRepository;
 import com.inzira.shared.repositories.PaymentRepository;
-import com.inzira.shared.services.PDFTicketService;
+import com.inzira.shared.utils.ReferenceGenerator;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -34,7 +34,16 @@ public class PaymentServiceImpl implements PaymentService {
     private StripePaymentService stripePaymentService;
 
     @Autowired
-    private PDFTicketService pdfTicketService;
+    private TicketArtifactService ticketArtifactService;
+
+    @Autowired
+    private ReferenceGenerator referenceGenerator;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private TrendService trendService;
 
     @Override
     @Transactional
@@ -52,7 +61,7 @@ public class PaymentServiceImpl implements PaymentService {
             }
             
             // Generate transaction reference
-            String transactionReference = generateTransactionReference();
+            String transactionReference = referenceGenerator.nextTransactionReference();
             
             // Create payment record
             Payment payment = createPaymentRecord(request, booking, transactionReference);
@@ -116,20 +125,18 @@ public class PaymentServiceImpl implements PaymentService {
             if (success) {
                 payment.setStatus("SUCCESS");
                 payment.setUpdatedAt(LocalDateTime.now());
+                trendService.evict(TrendService.Metric.REVENUE, payment.getCreatedAt());
                 
-                // Update booking payment status and auto-confirm + generate ticket
+                // Convert the seat hold into a confirmed booking + queue the ticket
                 Booking booking = payment.getBooking();
-                booking.setPaymentStatus("PAID");
-                booking.setStatus("CONFIRMED");
-                if (booking.getTicketPdfPath() == null || booking.getTicketPdfPath().isBlank()) {
-                    try {
-                        String pdfPath = pdfTicketService.generateTicketPDF(booking);
-                        booking.setTicketPdfPath(pdfPath);
-                    } catch (Exception ex) {
-                        log.warn("Failed to generate PDF ticket after payment: {}", ex.getMessage());
-                    }
+                if (seatHoldService.confirm(booking)) {
+                    ticketArtifactService.requestTicket(booking);
+                } else {
+                    // The money was taken but the seats are gone: not revenue, kept for a refund
+                    log.warn("Payment {} completed after booking {} expired", reference, booking.getId());
+                    payment.setStatus(PaymentStatus.REFUND_PENDING);
+                    payment.setFailureReason("Booking hold expired before payment completed; refund required");
                 }
-                bookingRepository.save(booking);
             }
             
             paymentRepository.save(payment);
@@ -173,7 +180,7 @@ public class PaymentServiceImpl implements PaymentService {
             Payment payment = paymentRepository.findByTransactionReference(reference)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found"));
             
-            if (!"SUCCESS".equals(payment.getStatus())) {
+            if (!"SUCCESS".equals(payment.getStatus()) && !PaymentStatus.REFUND_PENDING.equals(payment.getStatus())) {
                 log.warn("Cannot refund payment with status: {}", payment.getStatus());
                 return false;
             }
@@ -185,6 +192,7 @@ public class PaymentServiceImpl implements PaymentService {
                 payment.setStatus("REFUNDED");
                 payment.setUpdatedAt(LocalDateTime.now());
                 paymentRepository.save(payment);
+                trendService.evict(TrendService.Metric.REVENUE, payment.getCreatedAt());
                 
                 log.info("Refund processed successfully. Reference: {}", reference);
             }
@@ -198,10 +206,6 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     // Helper methods
-    private String generateTransactionReference() {
-        return "TXN-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
-    }
-    
     private Payment createPaymentRecord(PaymentRequest request, Booking booking, String transactionReference) {
         Payment payment = new Payment();
         payment.setBooking(booking);
@@ -247,24 +251,23 @@ public class PaymentServiceImpl implements PaymentService {
     }
     
     private PaymentResponse processCashPayment(PaymentRequest request, Payment payment) {
+        // Convert the seat hold into a confirmed booking before taking the cash
+        Booking booking = payment.getBooking();
+        if (!seatHoldService.confirm(booking)) {
+            payment.setStatus("FAILED");
+            payment.setFailureReason("Booking hold has expired");
+            payment.setUpdatedAt(LocalDateTime.now());
+            paymentRepository.save(payment);
+            return PaymentResponse.error("Booking hold has expired");
+        }
+
         // For cash payments, mark as successful immediately
         payment.setStatus("SUCCESS");
         payment.setUpdatedAt(LocalDateTime.now());
         paymentRepository.save(payment);
         
-        // Update booking payment status and auto-confirm + generate ticket
-        Booking booking = payment.getBooking();
-        booking.setPaymentStatus("PAID");
-        booking.setStatus("CONFIRMED");
-        if (booking.getTicketPdfPath() == null || booking.getTicketPdfPath().isBlank()) {
-            try {
-                String pdfPath = pdfTicketService.generateTicketPDF(booking);
-                booking.setTicketPdfPath(pdfPath);
-            } catch (Exception ex) {
-                log.warn("Failed to generate PDF ticket for cash payment: {}", ex.getMessage());
-            }
-        }
-        bookingRepository.save(booking);
+        // Ticket is rendered after commit by the ticket pipeline
+        ticketArtifactService.requestTicket(booking);
         
         return PaymentResponse.success(payment.getId(), payment.getTransactionReference(), 
                                     payment.getAmount(), payment.getCurrency(), payment.getPaymentMethod());
@@ -0,0 +1,33 @@
+package com.inzira.shared.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import com.inzira.shared.entities.Schedule;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+
+/**
+ * Entity listener on Schedule that keeps the agency's schedule count in step. Like
+ * DailyBookingStatsListener, the service is injected lazily because Hibernate creates the listener
+ * while the EntityManagerFactory is still being built.
+ */
+@Component
+public class ScheduleCountListener {
+
+    @Autowired
+    @Lazy
+    private ScheduleCountService scheduleCountService;
+
+    @PostPersist
+    public void added(Schedule schedule) {
+        scheduleCountService.add(schedule.getAgencyRoute().getAgency().getId(), 1);
+    }
+
+    @PostRemove
+    public void removed(Schedule schedule) {
+        scheduleCountService.add(schedule.getAgencyRoute().getAgency().getId(), -1);
+    }
+}
@@ -0,0 +1,53 @@
+package com.inzira.shared.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.inzira.shared.repositories.AgencyScheduleCountRepository;
+
+/**
+ * Per-agency schedule counts (agency_schedule_counts). ScheduleCountListener adjusts an agency's count
+ * in the transaction that inserts or deletes one of its schedules, so the two cannot drift apart.
+ *
+ * A missing row is created from a count of the schedule table with ON CONFLICT DO NOTHING. A writer
+ * that loses that race applies its change to the row that won; the winner's count could not include
+ * the writer's uncommitted schedule, so nothing is counted twice.
+ */
+@Service
+public class ScheduleCountService {
+
+    private static final String INITIALIZE = "INSERT INTO agency_schedule_counts (agency_id, schedules)"
+        + " SELECT ?, COUNT(*) FROM schedule s JOIN agency_route ar ON ar.id = s.agency_route_id WHERE ar.agency_id = ?"
+        + " ON CONFLICT DO NOTHING";
+
+    @Autowired
+    private AgencyScheduleCountRepository agencyScheduleCountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public long count(Long agencyId) {
+        Long schedules = agencyScheduleCountRepository.findSchedulesByAgencyId(agencyId);
+        if (schedules == null) {
+            agencyScheduleCountRepository.initialize(agencyId);
+            schedules = agencyScheduleCountRepository.findSchedulesByAgencyId(agencyId);
+        }
+        return schedules != null ? schedules : 0;
+    }
+
+    /**
+     * Adjusts the agency's count from inside the transaction that wrote the schedule, so a fresh count
+     * already reflects it. Plain JDBC: this runs during a Hibernate flush, where a query through the
+     * EntityManager would flush again.
+     */
+    public void add(Long agencyId, int delta) {
+        if (update(agencyId, delta) == 0 && jdbcTemplate.update(INITIALIZE, agencyId, agencyId) == 0) {
+            update(agencyId, delta);
+        }
+    }
+
+    private int update(Long agencyId, int delta) {
+        return jdbcTemplate.update("UPDATE agency_schedule_counts SET schedules = schedules + ? WHERE agency_id = ?", delta, agencyId);
+    }
+}
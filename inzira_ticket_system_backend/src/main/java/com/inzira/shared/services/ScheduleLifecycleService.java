@@ -0,0 +1,163 @@
+package com.inzira.shared.services;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.shared.events.DomainEvent.ScheduleStatusChanged;
+import com.inzira.shared.events.DomainEventBus;
+import com.inzira.shared.repositories.ScheduleRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves schedules through their lifecycle once their departure date has passed:
+ * unfinished trips before yesterday become COMPLETED, SCHEDULED or BOOKING_CLOSED from yesterday become
+ * DEPARTED, and COMPLETED or CANCELLED older than archive-after-months become ARCHIVED. The same-day
+ * steps happen on time in ScheduleStateMachine; this sweep completes trips and catches any it missed,
+ * with the same follow-up: seat sales stop on every trip that leaves, and a completed trip's CONFIRMED
+ * bookings are settled as on arrival.
+ *
+ * Each transition selects a bounded chunk of ids through the (status, departure_date) index and moves
+ * them with one conditional UPDATE in its own transaction, so no sweep loads schedule entities or
+ * holds long locks, and a schedule changed meanwhile (e.g. cancelled) is left alone. Each schedule
+ * moved is published as ScheduleStatusChanged, as ScheduleStateMachine does.
+ */
+@Service
+@Slf4j
+public class ScheduleLifecycleService {
+
+    private static final Set<String> UNFINISHED = Set.of("SCHEDULED", "BOOKING_CLOSED", "DEPARTED", "ARRIVED");
+    private static final Set<String> ENDED = Set.of("COMPLETED", "CANCELLED");
+
+    @Value("${schedule-lifecycle.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${schedule-lifecycle.archive-after-months:6}")
+    private int archiveAfterMonths = 6;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ScheduleSearchCache scheduleSearchCache;
+
+    @Autowired
+    private DepartureIndex departureIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
+    @Autowired
+    private ScheduleStateMachine scheduleStateMachine;
+
+    public record Transitions(int completed, int departed, int archived) {
+        public int total() {
+            return completed + departed + archived;
+        }
+    }
+
+    // Completes and departs the schedules whose departure date has passed
+    @Scheduled(fixedDelayString = "${schedule-lifecycle.interval-ms:3600000}")
+    public Transitions advance() {
+        LocalDate today = LocalDate.now();
+        // Completing first leaves only yesterday's trips for the DEPARTED transition
+        int completed = transition(UNFINISHED, today.minusDays(1), "COMPLETED");
+        int departed = transition(Set.of("SCHEDULED", "BOOKING_CLOSED"), today, "DEPARTED");
+        Transitions transitions = new Transitions(completed, departed, 0);
+        if (transitions.total() > 0) {
+            log.info("Schedule lifecycle: {} completed, {} departed", completed, departed);
+        }
+        return transitions;
+    }
+
+    @Scheduled(cron = "${schedule-lifecycle.archive-cron:0 0 2 * * *}")
+    public Transitions archive() {
+        int archived = transition(ENDED, LocalDate.now().minusMonths(archiveAfterMonths), "ARCHIVED");
+        if (archived > 0) {
+            log.info("Schedule lifecycle: {} archived", archived);
+        }
+        return new Transitions(0, 0, archived);
+    }
+
+    // [status, count] of all schedules, in one grouped query
+    public ScheduleStats getScheduleStats() {
+        ScheduleStats stats = new ScheduleStats();
+        for (Object[] row : scheduleRepository.statusCounts()) {
+            long count = ((Number) row[1]).longValue();
+            switch (String.valueOf(row[0])) {
+                case "SCHEDULED" -> stats.scheduled = count;
+                case "BOOKING_CLOSED" -> stats.bookingClosed = count;
+                case "DEPARTED" -> stats.departed = count;
+                case "ARRIVED" -> stats.arrived = count;
+                case "COMPLETED" -> stats.completed = count;
+                case "CANCELLED" -> stats.cancelled = count;
+                case "ARCHIVED" -> stats.archived = count;
+                default -> { }
+            }
+        }
+        return stats;
+    }
+
+    // Moves schedules in one of the statuses departing before the day to the target status, a chunk at a time
+    private int transition(Set<String> from, LocalDate before, String to) {
+        int total = 0;
+        while (true) {
+            List<Long> moved = transactionTemplate.execute(status -> {
+                List<Long> ids = scheduleRepository.findIdsByStatusDepartingBefore(from, before, PageRequest.of(0, chunkSize));
+                if (ids.isEmpty()) {
+                    return null;
+                }
+                scheduleRepository.transition(ids, from, to);
+                // Schedules changed meanwhile were not moved and get no event
+                List<Long> updated = scheduleRepository.findIdsByIdInAndStatus(ids, to);
+                updated.forEach(id -> domainEventBus.publish(new ScheduleStatusChanged(id, to)));
+                if ("COMPLETED".equals(to)) {
+                    scheduleStateMachine.settleBookings(updated);
+                }
+                scheduleSearchCache.evictAll();
+                return updated;
+            });
+            if (moved == null) {
+                return total;
+            }
+            // Committed by now, so a rolled-back chunk never leaves the index or stops sales
+            moved.forEach(departureIndex::remove);
+            if (!"ARCHIVED".equals(to)) {
+                scheduleStateMachine.closeSeats(moved);
+                if ("COMPLETED".equals(to)) {
+                    moved.forEach(scheduleStateMachine::untrack);
+                }
+            }
+            total += moved.size();
+        }
+    }
+
+    public static class ScheduleStats {
+        private long scheduled;
+        private long bookingClosed;
+        private long departed;
+        private long arrived;
+        private long completed;
+        private long cancelled;
+        private long archived;
+
+        public long getScheduled() { return scheduled; }
+        public long getBookingClosed() { return bookingClosed; }
+        public long getDeparted() { return departed; }
+        public long getArrived() { return arrived; }
+        public long getCompleted() { return completed; }
+        public long getCancelled() { return cancelled; }
+        public long getArchived() { return archived; }
+    }
+}
@@ -0,0 +1,321 @@
+package com.inzira.shared.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.events.ClusterMessage;
+import com.inzira.shared.events.ClusterTransport;
+import com.inzira.shared.events.DomainEventBus;
+import com.inzira.shared.utils.TransactionCallbacks;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Schedule search results keyed by (origin, destination, departure date, agency).
+ *
+ * Entries hold the schedules found by the search query; available seats are overlaid from SeatInventory
+ * on every read, so a cached entry never shows stale availability and seat changes do not evict it.
+ * Creating, editing, cancelling or deleting a schedule evicts the agency-wide and agency-specific
+ * entries for its route and date once the change commits. Entries also expire after the TTL (which
+ * bounds staleness of bus, driver and price details) and the oldest are dropped beyond max-entries.
+ *
+ * Every eviction also goes out through the ClusterTransport so the other nodes drop the same entries;
+ * a route eviction is sent inside the changing transaction, so it reaches them only if that commits.
+ *
+ * Hit, miss and eviction counts are published as schedule.search.cache.* meters (actuator /metrics).
+ */
+@Component
+@Slf4j
+public class ScheduleSearchCache {
+
+    static final String EVICT_MESSAGE = "search-cache-evict";
+
+    // Read without locking; changed only together with the structures below
+    private final Map<SearchKey, Entry> entries = new ConcurrentHashMap<>();
+
+    // Guarded by this: keys oldest first, for dropping the oldest once the cache is full, and the keys
+    // listing each schedule, so a status change drops its searches without scanning the cache
+    private final LinkedHashMap<SearchKey, Entry> insertionOrder = new LinkedHashMap<>();
+    private final Map<Long, Set<SearchKey>> keysBySchedule = new HashMap<>();
+
+    // Bumped by every invalidation; a search that raced with one does not store its result
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // The last schedules dropped on a status change, by eviction number; only a search listing one of
+    // them while it was dropped skips storing, so the stream of status events does not defeat the cache
+    private static final int RECENT_EVICTIONS = 64;
+    private final AtomicLongArray recentEvictions = new AtomicLongArray(RECENT_EVICTIONS);
+    private final AtomicLong scheduleEvictions = new AtomicLong();
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
+    @Autowired
+    private ClusterTransport clusterTransport;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ScheduleSearchCache(@Value("${schedule-search-cache.max-entries:10000}") int maxEntries,
+                               @Value("${schedule-search-cache.ttl-seconds:60}") long ttlSeconds,
+                               MeterRegistry meterRegistry) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.hits = Counter.builder("schedule.search.cache.requests").tag("result", "hit")
+            .description("Schedule searches answered from the cache").register(meterRegistry);
+        this.misses = Counter.builder("schedule.search.cache.requests").tag("result", "miss")
+            .description("Schedule searches that ran the search query").register(meterRegistry);
+        this.evictions = Counter.builder("schedule.search.cache.evictions")
+            .description("Entries removed because a schedule changed or the cache was full").register(meterRegistry);
+        Gauge.builder("schedule.search.cache.size", entries, Map::size)
+            .description("Cached schedule searches").register(meterRegistry);
+    }
+
+    // Status changes (departed, cancelled, ...) come from the event bus and drop only the searches listing the schedule
+    @PostConstruct
+    public void init() {
+        domainEventBus.subscribe("schedule-search-cache", events -> {
+            if (events.latestStatus() != null) {
+                evictSchedule(events.scheduleId());
+                send(new Eviction(events.scheduleId(), null, null, null, null, false));
+            }
+        });
+        clusterTransport.start(this::receive);
+    }
+
+    /**
+     * Returns the cached result for the key, or runs the search and caches it. The returned schedules
+     * are copies carrying the live seat count; callers may modify them freely.
+     */
+    public List<Schedule> get(Long originId, Long destinationId, LocalDate departureDate, Long agencyId, Supplier<List<Schedule>> search) {
+        SearchKey key = new SearchKey(originId, destinationId, departureDate, agencyId);
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.loadedAt() < ttlNanos) {
+            hits.increment();
+            return withLiveSeats(entry.schedules());
+        }
+
+        misses.increment();
+        long invalidationsBefore = invalidations.get();
+        long scheduleEvictionsBefore = scheduleEvictions.get();
+        List<Schedule> schedules = List.copyOf(search.get());
+        store(key, new Entry(schedules, System.nanoTime()), invalidationsBefore, scheduleEvictionsBefore);
+        return withLiveSeats(schedules);
+    }
+
+    /**
+     * Evicts every search the schedule appears in, here and on the other nodes. Inside a transaction
+     * the eviction happens after commit, so a search running in between cannot cache the pre-change
+     * result for long.
+     */
+    public void evict(Schedule schedule) {
+        if (schedule.getAgencyRoute() == null || schedule.getAgencyRoute().getRoute() == null) {
+            evictAll();
+            return;
+        }
+        Long originId = schedule.getAgencyRoute().getRoute().getOrigin().getId();
+        Long destinationId = schedule.getAgencyRoute().getRoute().getDestination().getId();
+        Long agencyId = schedule.getAgencyRoute().getAgency().getId();
+        LocalDate departureDate = schedule.getDepartureDate();
+        send(new Eviction(null, originId, destinationId, departureDate, agencyId, false));
+        TransactionCallbacks.afterCommit(() -> evictRoute(originId, destinationId, departureDate, agencyId));
+    }
+
+    // For changes that touch many schedules at once (agency route price, bulk status updates)
+    public void evictAll() {
+        send(new Eviction(null, null, null, null, null, true));
+        TransactionCallbacks.afterCommit(this::clear);
+    }
+
+    // Called from the single event bus delivery thread, and for status changes on other nodes
+    void evictSchedule(Long scheduleId) {
+        synchronized (this) {
+            long eviction = scheduleEvictions.get();
+            recentEvictions.set((int) (eviction % RECENT_EVICTIONS), scheduleId);
+            scheduleEvictions.set(eviction + 1);
+            Set<SearchKey> keys = keysBySchedule.get(scheduleId);
+            if (keys != null) {
+                List.copyOf(keys).forEach(this::remove);
+            }
+        }
+    }
+
+    // An eviction made on another node
+    void receive(ClusterMessage message) {
+        if (!EVICT_MESSAGE.equals(message.name())) {
+            return;
+        }
+        Eviction eviction;
+        try {
+            eviction = objectMapper.readValue(message.data(), Eviction.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed search cache eviction {}: {}", message.sequence(), e.getMessage());
+            return;
+        }
+        if (eviction.all()) {
+            clear();
+        } else if (eviction.scheduleId() != null) {
+            evictSchedule(eviction.scheduleId());
+        } else {
+            evictRoute(eviction.originId(), eviction.destinationId(), eviction.departureDate(), eviction.agencyId());
+        }
+    }
+
+    // Inside a transaction the message commits with the change; a failure here fails the change as well
+    private void send(Eviction eviction) {
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(eviction);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        ClusterMessage message = new ClusterMessage(0, Set.of(), EVICT_MESSAGE, null, data);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            clusterTransport.send(message);
+            return;
+        }
+        try {
+            clusterTransport.send(message);
+        } catch (Exception e) {
+            log.warn("Failed to send search cache eviction to the cluster: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void evictRoute(Long originId, Long destinationId, LocalDate departureDate, Long agencyId) {
+        invalidations.incrementAndGet();
+        remove(new SearchKey(originId, destinationId, departureDate, null));
+        remove(new SearchKey(originId, destinationId, departureDate, agencyId));
+    }
+
+    private synchronized void clear() {
+        invalidations.incrementAndGet();
+        int size = entries.size();
+        entries.clear();
+        insertionOrder.clear();
+        keysBySchedule.clear();
+        evictions.increment(size);
+    }
+
+    // Stores a search result unless an invalidation that could affect it ran while it was loading
+    private synchronized void store(SearchKey key, Entry entry, long invalidationsBefore, long scheduleEvictionsBefore) {
+        if (invalidations.get() != invalidationsBefore || evictedSince(scheduleEvictionsBefore, entry.schedules())) {
+            return;
+        }
+        Entry replaced = insertionOrder.remove(key);
+        if (replaced != null) {
+            unindex(key, replaced);
+        }
+        insertionOrder.put(key, entry);
+        entries.put(key, entry);
+        for (Schedule schedule : entry.schedules()) {
+            keysBySchedule.computeIfAbsent(schedule.getId(), id -> new HashSet<>()).add(key);
+        }
+        trim();
+    }
+
+    private boolean evictedSince(long before, List<Schedule> schedules) {
+        long now = scheduleEvictions.get();
+        for (long eviction = before; eviction < now; eviction++) {
+            long scheduleId = recentEvictions.get((int) (eviction % RECENT_EVICTIONS));
+            if (schedules.stream().anyMatch(schedule -> schedule.getId() == scheduleId)) {
+                return true;
+            }
+        }
+        // Too many to tell (slots were reused meanwhile): assume it raced
+        return scheduleEvictions.get() - before > RECENT_EVICTIONS;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private List<Schedule> withLiveSeats(List<Schedule> cached) {
+        List<Schedule> result = new ArrayList<>(cached.size());
+        for (Schedule schedule : cached) {
+            result.add(copy(schedule, seatInventory.getAvailableSeats(schedule.getId())));
+        }
+        return result;
+    }
+
+    // Caller holds the lock
+    private void remove(SearchKey key) {
+        Entry entry = insertionOrder.remove(key);
+        if (entry != null) {
+            entries.remove(key);
+            unindex(key, entry);
+            evictions.increment();
+        }
+    }
+
+    private void unindex(SearchKey key, Entry entry) {
+        for (Schedule schedule : entry.schedules()) {
+            Set<SearchKey> keys = keysBySchedule.get(schedule.getId());
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysBySchedule.remove(schedule.getId());
+            }
+        }
+    }
+
+    // Drops the oldest entries until the cache is back within max-entries; caller holds the lock
+    private void trim() {
+        while (insertionOrder.size() > maxEntries) {
+            remove(insertionOrder.keySet().iterator().next());
+        }
+    }
+
+    private static Schedule copy(Schedule source, int availableSeats) {
+        Schedule schedule = new Schedule();
+        schedule.setId(source.getId());
+        schedule.setAgencyRoute(source.getAgencyRoute());
+        schedule.setBus(source.getBus());
+        schedule.setDriver(source.getDriver());
+        schedule.setDepartureDate(source.getDepartureDate());
+        schedule.setDepartureTime(source.getDepartureTime());
+        schedule.setArrivalTime(source.getArrivalTime());
+        schedule.setAvailableSeats(availableSeats);
+        schedule.setStatus(source.getStatus());
+        schedule.setCreatedAt(source.getCreatedAt());
+        schedule.setUpdatedAt(source.getUpdatedAt());
+        return schedule;
+    }
+
+    private record SearchKey(Long originId, Long destinationId, LocalDate departureDate, Long agencyId) {}
+
+    private record Entry(List<Schedule> schedules, long loadedAt) {}
+
+    // What to drop on the other nodes: every search, the searches listing a schedule, or a route and date
+    record Eviction(Long scheduleId, Long originId, Long destinationId, LocalDate departureDate, Long agencyId, boolean all) {}
+}
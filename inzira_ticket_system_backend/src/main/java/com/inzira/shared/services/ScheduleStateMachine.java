@@ -0,0 +1,322 @@
+package com.inzira.shared.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.events.DomainEvent.ScheduleStatusChanged;
+import com.inzira.shared.events.DomainEventBus;
+import com.inzira.shared.repositories.BookingRepository;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.utils.TransactionCallbacks;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves schedules through their day at the real departure and arrival times:
+ * SCHEDULED becomes BOOKING_CLOSED booking-close-minutes before departureTime, then DEPARTED at
+ * departureTime and ARRIVED at arrivalTime (on the next day when it is not after departureTime).
+ *
+ * Every tracked schedule has one pending step in a DelayQueue drained by one thread, which sleeps until
+ * the earliest deadline. Steps due together are applied with one conditional UPDATE per target status,
+ * so a schedule cancelled meanwhile is left alone. On arrival the remaining CONFIRMED bookings are settled
+ * in bulk: NO_SHOW when tickets were checked at boarding (some booking of the trip is already COMPLETED),
+ * COMPLETED otherwise. Each move is published as ScheduleStatusChanged on the DomainEventBus, which
+ * drops the cached searches and tells live clients. Steps are rebuilt from the DB at startup; steps that fell due while the node was
+ * down fire right away. ScheduleLifecycleService's date sweep stays as the backstop.
+ */
+@Service
+@Slf4j
+public class ScheduleStateMachine {
+
+    private static final int MAX_BATCH = 500;
+    private static final long RETRY_DELAY_MILLIS = 5000;
+
+    enum Step {
+        CLOSE_BOOKING("BOOKING_CLOSED", Set.of("SCHEDULED")),
+        DEPART("DEPARTED", Set.of("SCHEDULED", "BOOKING_CLOSED")),
+        ARRIVE("ARRIVED", Set.of("SCHEDULED", "BOOKING_CLOSED", "DEPARTED"));
+
+        final String status;
+        // A late step also covers the ones it skipped, e.g. after a long downtime
+        final Set<String> from;
+
+        Step(String status, Set<String> from) {
+            this.status = status;
+            this.from = from;
+        }
+    }
+
+    @Value("${schedule-lifecycle.booking-close-minutes:30}")
+    private long bookingCloseMinutes = 30;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private DepartureIndex departureIndex;
+
+    @Autowired
+    private DailyBookingStatsService dailyBookingStatsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
+    private final DelayQueue<Timer> queue = new DelayQueue<>();
+    private final Map<Long, Timer> timers = new ConcurrentHashMap<>();
+    private volatile Thread timerThread;
+
+    // Starts (or, after an edit, restarts) the timeline of a schedule once its transaction commits
+    public void track(Schedule schedule) {
+        Timer timer = first(schedule.getId(), schedule.getStatus(), schedule.getDepartureDate(),
+            schedule.getDepartureTime(), schedule.getArrivalTime());
+        TransactionCallbacks.afterCommit(() -> {
+            if (timer != null) {
+                put(timer);
+            } else {
+                untrack(schedule.getId());
+            }
+        });
+    }
+
+    // Stops the timeline of a cancelled or deleted schedule
+    public void untrack(Long scheduleId) {
+        Timer timer = timers.remove(scheduleId);
+        if (timer != null) {
+            queue.remove(timer);
+        }
+    }
+
+    public int getTrackedCount() {
+        return timers.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int restored = 0;
+        for (Object[] row : scheduleRepository.findTimelineRows()) {
+            Timer timer = first(((Number) row[0]).longValue(), (String) row[1], (LocalDate) row[2],
+                (LocalTime) row[3], (LocalTime) row[4]);
+            if (timer != null) {
+                put(timer);
+                restored++;
+            }
+        }
+        log.info("Restored the timelines of {} schedules", restored);
+
+        Thread thread = new Thread(this::runTimerLoop, "schedule-timeline");
+        thread.setDaemon(true);
+        timerThread = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = timerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void runTimerLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Timer> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                fire(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Schedule timeline failed on {} timers: {}", batch.size(), e.getMessage());
+            }
+        }
+    }
+
+    void fire(List<Timer> batch) {
+        Map<Step, List<Timer>> due = new EnumMap<>(Step.class);
+        for (Timer timer : batch) {
+            // Skips timers replaced by an edit or dropped by a cancellation since they were queued
+            if (timers.remove(timer.scheduleId(), timer)) {
+                due.computeIfAbsent(timer.step(), step -> new ArrayList<>()).add(timer);
+            }
+        }
+
+        for (Map.Entry<Step, List<Timer>> entry : due.entrySet()) {
+            Step step = entry.getKey();
+            List<Timer> stepTimers = entry.getValue();
+            try {
+                apply(step, stepTimers.stream().map(Timer::scheduleId).toList());
+            } catch (Exception e) {
+                log.warn("Failed to move {} schedules to {}, retrying: {}", stepTimers.size(), step.status, e.getMessage());
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                stepTimers.forEach(timer -> putIfUntracked(timer.withDeadline(retryAt)));
+                continue;
+            }
+            for (Timer timer : stepTimers) {
+                Timer next = timer.next(bookingCloseMinutes);
+                if (next != null) {
+                    putIfUntracked(next);
+                }
+            }
+        }
+    }
+
+    private void apply(Step step, List<Long> ids) {
+        int[] counts = transactionTemplate.execute(status -> {
+            scheduleRepository.transition(ids, step.from, step.status);
+            // Schedules cancelled meanwhile were not moved and get no event
+            List<Long> moved = scheduleRepository.findIdsByIdInAndStatus(ids, step.status);
+            moved.forEach(id -> domainEventBus.publish(new ScheduleStatusChanged(id, step.status)));
+            int settled = step == Step.ARRIVE ? settleBookings(moved) : 0;
+            return new int[] { moved.size(), settled };
+        });
+
+        for (Long id : ids) {
+            departureIndex.remove(id);
+        }
+        if (step != Step.CLOSE_BOOKING) {
+            closeSeats(ids);
+        }
+        log.info("Schedule timeline: {} of {} schedules {}, {} bookings settled", counts[0], ids.size(), step.status, counts[1]);
+    }
+
+    // Stops seat sales on schedules that have left; call once their move has committed
+    void closeSeats(List<Long> ids) {
+        for (Long id : ids) {
+            seatInventory.close(id);
+            seatMapService.evict(id);
+        }
+    }
+
+    // Settles the CONFIRMED bookings of the schedules that just arrived or ended, inside the transaction
+    // that moved them; returns the bookings updated
+    int settleBookings(List<Long> arrived) {
+        if (arrived.isEmpty()) {
+            return 0;
+        }
+        // Bulk updates skip the entity listener, so the rollup days are marked by hand
+        bookingRepository.findConfirmedCreatedAtByScheduleIds(arrived).forEach(dailyBookingStatsService::touch);
+
+        List<Long> verified = bookingRepository.findVerifiedScheduleIds(arrived);
+        List<Long> unverified = arrived.stream().filter(id -> !verified.contains(id)).toList();
+        int settled = 0;
+        if (!verified.isEmpty()) {
+            settled += bookingRepository.settleConfirmed(verified, "NO_SHOW");
+        }
+        if (!unverified.isEmpty()) {
+            settled += bookingRepository.settleConfirmed(unverified, "COMPLETED");
+        }
+        return settled;
+    }
+
+    // Queues the timer unless an edit registered a newer one for the schedule meanwhile
+    private void putIfUntracked(Timer timer) {
+        if (timers.putIfAbsent(timer.scheduleId(), timer) == null) {
+            queue.put(timer);
+        }
+    }
+
+    private void put(Timer timer) {
+        Timer previous = timers.put(timer.scheduleId(), timer);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+        queue.put(timer);
+    }
+
+    // The step a schedule in this status waits for, or null once it has nothing left to do
+    private Timer first(Long scheduleId, String status, LocalDate date, LocalTime departureTime, LocalTime arrivalTime) {
+        Step step = switch (status) {
+            case "SCHEDULED" -> Step.CLOSE_BOOKING;
+            case "BOOKING_CLOSED" -> Step.DEPART;
+            case "DEPARTED" -> Step.ARRIVE;
+            default -> null;
+        };
+        if (step == null) {
+            return null;
+        }
+        LocalDateTime departure = date.atTime(departureTime);
+        LocalDateTime arrival = date.atTime(arrivalTime);
+        if (!arrivalTime.isAfter(departureTime)) {
+            arrival = arrival.plusDays(1);
+        }
+        return Timer.at(scheduleId, step, departure, arrival, bookingCloseMinutes);
+    }
+
+    record Timer(Long scheduleId, Step step, LocalDateTime departure, LocalDateTime arrival, long deadlineMillis) implements Delayed {
+
+        // Jumps straight to the last step already due, so a schedule found long overdue moves once
+        static Timer at(Long scheduleId, Step step, LocalDateTime departure, LocalDateTime arrival, long closeMinutes) {
+            long now = System.currentTimeMillis();
+            Step latest = step;
+            for (Step later : Step.values()) {
+                if (later.ordinal() > step.ordinal() && deadline(later, departure, arrival, closeMinutes) <= now) {
+                    latest = later;
+                }
+            }
+            return new Timer(scheduleId, latest, departure, arrival, deadline(latest, departure, arrival, closeMinutes));
+        }
+
+        Timer next(long closeMinutes) {
+            Step[] steps = Step.values();
+            return step.ordinal() + 1 < steps.length
+                ? at(scheduleId, steps[step.ordinal() + 1], departure, arrival, closeMinutes)
+                : null;
+        }
+
+        Timer withDeadline(long deadline) {
+            return new Timer(scheduleId, step, departure, arrival, deadline);
+        }
+
+        private static long deadline(Step step, LocalDateTime departure, LocalDateTime arrival, long closeMinutes) {
+            LocalDateTime time = switch (step) {
+                case CLOSE_BOOKING -> departure.minusMinutes(closeMinutes);
+                case DEPART -> departure;
+                case ARRIVE -> arrival;
+            };
+            return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineMillis, ((Timer) other).deadlineMillis);
+        }
+    }
+}
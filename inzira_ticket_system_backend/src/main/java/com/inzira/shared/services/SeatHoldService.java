@@ -0,0 +1,223 @@
+package com.inzira.shared.services;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.events.DomainEvent.SeatsReleased;
+import com.inzira.shared.events.DomainEventBus;
+import com.inzira.shared.repositories.BookingRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Seat holds for unpaid bookings.
+ *
+ * A PENDING/PENDING booking holds its seats until Booking.holdExpiresAt. Holds sit in a DelayQueue
+ * drained by one expiry thread, so each hold is released within milliseconds of its deadline instead
+ * of on the next sweep. Each due hold is flipped to EXPIRED with a conditional UPDATE, and only a hold
+ * whose row this node moved returns its seats to SeatInventory and SeatMapService: every node rebuilds
+ * the holds from the DB at startup, so the same hold can fire on several nodes.
+ */
+@Service
+@Slf4j
+public class SeatHoldService {
+
+    private static final int MAX_BATCH = 500;
+    private static final long RETRY_DELAY_MILLIS = 5000;
+
+    @Value("${booking.hold-ttl-seconds:300}")
+    private long holdTtlSeconds;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DailyBookingStatsService dailyBookingStatsService;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
+    private final DelayQueue<SeatHold> queue = new DelayQueue<>();
+    private final Map<Long, SeatHold> holds = new ConcurrentHashMap<>();
+    private volatile Thread expiryThread;
+
+    public LocalDateTime newHoldDeadline() {
+        return LocalDateTime.now().plusSeconds(holdTtlSeconds);
+    }
+
+    // Starts the hold timer for a pending booking once its transaction commits
+    public void hold(Booking booking) {
+        SeatHold hold = new SeatHold(booking.getId(), booking.getSchedule().getId(), booking.getNumberOfSeats(),
+            booking.getSeatNumbers(), booking.getCreatedAt(), toMillis(booking.getHoldExpiresAt()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    track(hold);
+                }
+            });
+        } else {
+            track(hold);
+        }
+    }
+
+    /**
+     * Converts a hold into a confirmed, paid booking with one conditional UPDATE, so a payment and the
+     * expiry thread can never both win. Returns false when the hold already expired or was cancelled.
+     */
+    @Transactional
+    public boolean confirm(Booking booking) {
+        if (bookingRepository.confirmHold(booking.getId()) == 1) {
+            // Keep the managed entity in line with the row so a later save does not write stale values
+            booking.setStatus("CONFIRMED");
+            booking.setPaymentStatus("PAID");
+            booking.setHoldExpiresAt(null);
+            release(booking.getId());
+            dailyBookingStatsService.touch(booking.getCreatedAt());
+            return true;
+        }
+        String status = bookingRepository.findStatusById(booking.getId());
+        return "CONFIRMED".equals(status) || "COMPLETED".equals(status);
+    }
+
+    // Stops tracking a hold whose booking was confirmed or cancelled through another path
+    public void release(Long bookingId) {
+        SeatHold hold = holds.remove(bookingId);
+        if (hold != null) {
+            queue.remove(hold);
+        }
+    }
+
+    public int getActiveHoldCount() {
+        return holds.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int restored = 0;
+        for (Object[] row : bookingRepository.findActiveHolds()) {
+            LocalDateTime deadline = row[4] != null
+                ? (LocalDateTime) row[4]
+                : ((LocalDateTime) row[5]).plusSeconds(holdTtlSeconds);
+            track(new SeatHold(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                ((Number) row[2]).intValue(), (String) row[3], (LocalDateTime) row[5], toMillis(deadline)));
+            restored++;
+        }
+        log.info("Restored {} seat holds", restored);
+
+        Thread thread = new Thread(this::runExpiryLoop, "seat-hold-expiry");
+        thread.setDaemon(true);
+        expiryThread = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = expiryThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void runExpiryLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<SeatHold> batch = new ArrayList<>();
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                expire(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Failed to expire {} seat holds, retrying: {}", batch.size(), e.getMessage());
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MILLIS;
+                for (SeatHold hold : batch) {
+                    track(hold.withDeadline(retryAt));
+                }
+            }
+        }
+    }
+
+    void expire(List<SeatHold> batch) {
+        List<SeatHold> live = batch.stream()
+            .filter(hold -> holds.remove(hold.bookingId(), hold))
+            .toList();
+        if (live.isEmpty()) {
+            return;
+        }
+        int released = transactionTemplate.execute(status -> {
+            int seats = 0;
+            for (SeatHold hold : live) {
+                // Row count, not a re-read: a hold already expired on another node must not release twice
+                if (bookingRepository.expireHold(hold.bookingId()) == 1) {
+                    seatInventory.release(hold.scheduleId(), hold.seats());
+                    seatMapService.release(hold.scheduleId(), hold.seatNumbers());
+                    dailyBookingStatsService.touch(hold.createdAt());
+                    domainEventBus.publish(new SeatsReleased(hold.scheduleId(), hold.seats()));
+                    seats += hold.seats();
+                }
+            }
+            return seats;
+        });
+
+        log.info("Seat hold expiry: {} holds due, released {} seats", live.size(), released);
+    }
+
+    private void track(SeatHold hold) {
+        SeatHold previous = holds.put(hold.bookingId(), hold);
+        if (previous != null) {
+            queue.remove(previous);
+        }
+        queue.put(hold);
+    }
+
+    private long toMillis(LocalDateTime deadline) {
+        LocalDateTime effective = deadline != null ? deadline : newHoldDeadline();
+        return effective.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    record SeatHold(Long bookingId, Long scheduleId, int seats, String seatNumbers, LocalDateTime createdAt, long deadlineMillis) implements Delayed {
+
+        SeatHold withDeadline(long deadline) {
+            return new SeatHold(bookingId, scheduleId, seats, seatNumbers, createdAt, deadline);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deadlineMillis, ((SeatHold) other).deadlineMillis);
+        }
+    }
+}
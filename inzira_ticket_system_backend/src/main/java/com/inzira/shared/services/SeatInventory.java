@@ -0,0 +1,323 @@
+package com.inzira.shared.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.repositories.ScheduleRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Seat reservations, plus an in-memory copy of each schedule's available seats for the read paths.
+ *
+ * Seats are taken and returned with the conditional updates on Schedule.availableSeats, inside the
+ * caller's transaction, so the database row stays the only authority whichever node sells the seats.
+ * The in-memory counters (a slot per schedule in a chunked AtomicIntegerArray) are hints for search,
+ * seat maps and the live feed: this node adjusts them as its own transactions commit, and every
+ * refresh-interval-ms they are reloaded from the database to pick up what other nodes sold. A reload
+ * only replaces a counter nothing changed locally while the database was read, so it never undoes a
+ * reservation that committed meanwhile.
+ *
+ * A closed counter answers "no seats" from memory for one more refresh, then its slot is handed to the
+ * next schedule installed, so the arrays only grow with the number of schedules open at once.
+ */
+@Component
+@Slf4j
+public class SeatInventory {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int REFRESH_BATCH = 1000;
+
+    // Negative counter value: schedule closed to new reservations (cancelled or departed)
+    private static final int CLOSED = Integer.MIN_VALUE / 2;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    // Slots of retired counters, reused before a new one is allocated; guarded by the instance lock
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    // Counters found closed by the last refresh; the next one retires them
+    private volatile Set<Long> closing = Set.of();
+    private volatile AtomicIntegerArray[] chunks = new AtomicIntegerArray[] { new AtomicIntegerArray(CHUNK_SIZE) };
+
+    /**
+     * Takes seats if enough remain on a SCHEDULED trip. The seats come back when the transaction
+     * rolls back, so callers never have to compensate for a failed booking insert; the in-memory hint
+     * follows once it commits.
+     */
+    @Transactional
+    public boolean reserve(Long scheduleId, int seats) {
+        if (seats < 1) {
+            throw new IllegalArgumentException("Number of seats must be at least 1");
+        }
+        Integer slot = slotFor(scheduleId);
+        if (slot == null || chunk(slot).get(slot & CHUNK_MASK) < 0) {
+            return false;
+        }
+
+        if (scheduleRepository.reserveSeats(scheduleId, seats) != 1) {
+            // Sold elsewhere: bring a hint that still showed the seats up to date for the caller's error
+            // message; on a sold-out trip it is already right and the extra read is skipped
+            if (chunk(slot).get(slot & CHUNK_MASK) >= seats) {
+                Integer stored = scheduleRepository.findAvailableSeatsById(scheduleId);
+                if (stored != null) {
+                    setAvailableSeats(scheduleId, stored);
+                }
+            }
+            return false;
+        }
+
+        addAfterCommit(scheduleId, -seats);
+        return true;
+    }
+
+    /**
+     * Returns seats to a SCHEDULED trip; a cancelled or departed one keeps its count. The in-memory
+     * hint follows once the transaction commits, so a rolled-back cancellation does not show freed seats.
+     */
+    @Transactional
+    public void release(Long scheduleId, int seats) {
+        if (seats < 1 || scheduleRepository.releaseSeats(scheduleId, seats) != 1) {
+            return;
+        }
+        addAfterCommit(scheduleId, seats);
+    }
+
+    // Last known available seats; may trail sales on other nodes by up to one refresh
+    public int getAvailableSeats(Long scheduleId) {
+        Integer slot = slotFor(scheduleId);
+        if (slot == null) {
+            return 0;
+        }
+        return Math.max(0, chunk(slot).get(slot & CHUNK_MASK));
+    }
+
+    // Replaces the hint with a count read from the database; ignored for closed or untracked schedules
+    public void setAvailableSeats(Long scheduleId, int available) {
+        Integer slot = slots.get(scheduleId);
+        if (slot == null) {
+            return;
+        }
+        AtomicIntegerArray chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        int current;
+        do {
+            current = chunk.get(index);
+        } while (current >= 0 && !chunk.compareAndSet(index, current, Math.max(0, available)));
+    }
+
+    // Starts tracking a newly created schedule
+    public void register(Schedule schedule) {
+        install(schedule.getId(), schedule.getAvailableSeats());
+    }
+
+    // Stops reservations on a cancelled or departed schedule; later releases are ignored
+    public void close(Long scheduleId) {
+        Integer slot = slots.get(scheduleId);
+        if (slot != null) {
+            chunk(slot).set(slot & CHUNK_MASK, CLOSED);
+        }
+    }
+
+    /**
+     * Reloads the open counters from Schedule.availableSeats, closing those whose schedule is no longer
+     * SCHEDULED. Returns the number of counters refreshed.
+     */
+    @Scheduled(fixedDelayString = "${seat-inventory.refresh-interval-ms:1000}")
+    public int refresh() {
+        // Closed a whole refresh ago: any call that looked the slot up before it closed is long done
+        for (Long scheduleId : closing) {
+            retire(scheduleId);
+        }
+        List<Long> open = new ArrayList<>();
+        Set<Long> closed = new HashSet<>();
+        slots.forEach((scheduleId, slot) -> {
+            if (chunk(slot).get(slot & CHUNK_MASK) >= 0) open.add(scheduleId);
+            else closed.add(scheduleId);
+        });
+        closing = closed;
+
+        int refreshed = 0;
+        for (int from = 0; from < open.size(); from += REFRESH_BATCH) {
+            List<Long> batch = open.subList(from, Math.min(open.size(), from + REFRESH_BATCH));
+            // Counters as they were before the read: one that changed since is left for the next refresh
+            Map<Long, Integer> seen = new HashMap<>();
+            for (Long scheduleId : batch) {
+                Integer slot = slots.get(scheduleId);
+                seen.put(scheduleId, chunk(slot).get(slot & CHUNK_MASK));
+            }
+            Set<Long> scheduled = new HashSet<>();
+            for (Object[] row : scheduleRepository.findAvailableSeatsByIdIn(batch)) {
+                Long scheduleId = ((Number) row[0]).longValue();
+                Integer slot = slots.get(scheduleId);
+                int expected = seen.get(scheduleId);
+                if (expected >= 0) {
+                    chunk(slot).compareAndSet(slot & CHUNK_MASK, expected, Math.max(0, ((Number) row[1]).intValue()));
+                }
+                scheduled.add(scheduleId);
+            }
+            for (Long scheduleId : batch) {
+                if (!scheduled.contains(scheduleId)) close(scheduleId);
+            }
+            refreshed += scheduled.size();
+        }
+        return refreshed;
+    }
+
+    /**
+     * Loads every SCHEDULED trip, correcting availableSeats to bus capacity - seats held by live bookings
+     * where they disagree. A correction only lands if the row has not changed since it was read, so a
+     * booking committed meanwhile by another node is never overwritten.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> corrections = new ArrayList<>();
+        int loaded = 0;
+        for (Object[] row : scheduleRepository.findSeatLedger()) {
+            Long scheduleId = ((Number) row[0]).longValue();
+            int available = Math.max(0, ((Number) row[1]).intValue() - ((Number) row[2]).intValue());
+            int stored = ((Number) row[3]).intValue();
+            if (install(scheduleId, stored)) loaded++;
+            if (available != stored) {
+                corrections.add(new Object[] { available, scheduleId, stored });
+            }
+        }
+
+        if (!corrections.isEmpty()) {
+            int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE schedule SET available_seats = ? WHERE id = ? AND available_seats = ?", corrections);
+            int corrected = 0;
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 1) {
+                    Object[] correction = corrections.get(i);
+                    setAvailableSeats((Long) correction[1], (Integer) correction[0]);
+                    corrected++;
+                }
+            }
+            log.info("Seat inventory corrected available seats of {} scheduled trips", corrected);
+        }
+        log.info("Seat inventory loaded for {} scheduled trips", loaded);
+    }
+
+    private Integer slotFor(Long scheduleId) {
+        Integer slot = slots.get(scheduleId);
+        if (slot != null) {
+            return slot;
+        }
+        // Not seen yet (created on another node or before a restart): start from the stored count
+        List<Object[]> ledger = scheduleRepository.findSeatLedgerById(scheduleId);
+        if (ledger.isEmpty()) {
+            return null;
+        }
+        install(scheduleId, ((Number) ledger.get(0)[3]).intValue());
+        return slots.get(scheduleId);
+    }
+
+    private boolean install(Long scheduleId, int available) {
+        if (slots.containsKey(scheduleId)) {
+            return false;
+        }
+        synchronized (this) {
+            if (slots.containsKey(scheduleId)) {
+                return false;
+            }
+            Integer free = freeSlots.poll();
+            int slot = free != null ? free : nextSlot.getAndIncrement();
+            ensureCapacity(slot);
+            chunk(slot).set(slot & CHUNK_MASK, available);
+            slots.put(scheduleId, slot);
+            return true;
+        }
+    }
+
+    // Forgets a closed counter and frees its slot; a schedule SCHEDULED again is reloaded on next use
+    private synchronized void retire(Long scheduleId) {
+        Integer slot = slots.get(scheduleId);
+        if (slot != null && chunk(slot).get(slot & CHUNK_MASK) < 0) {
+            slots.remove(scheduleId);
+            freeSlots.push(slot);
+        }
+    }
+
+    // Whether the schedule currently holds a counter slot
+    boolean isTracked(Long scheduleId) {
+        return slots.containsKey(scheduleId);
+    }
+
+    private void addAfterCommit(Long scheduleId, int seats) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(scheduleId, seats);
+                }
+            });
+        } else {
+            add(scheduleId, seats);
+        }
+    }
+
+    private void add(Long scheduleId, int seats) {
+        Integer slot = slotFor(scheduleId);
+        if (slot == null) {
+            return;
+        }
+        AtomicIntegerArray chunk = chunk(slot);
+        int index = slot & CHUNK_MASK;
+        while (true) {
+            int available = chunk.get(index);
+            if (available < 0) {
+                return; // closed
+            }
+            if (chunk.compareAndSet(index, available, Math.max(0, available + seats))) {
+                return;
+            }
+        }
+    }
+
+    private AtomicIntegerArray chunk(int slot) {
+        return chunks[slot >>> CHUNK_BITS];
+    }
+
+    // Called under the instance lock; readers only ever see fully initialised chunk arrays
+    private void ensureCapacity(int slot) {
+        int needed = (slot >>> CHUNK_BITS) + 1;
+        AtomicIntegerArray[] current = chunks;
+        if (needed <= current.length) {
+            return;
+        }
+        AtomicIntegerArray[] grown = new AtomicIntegerArray[Math.max(needed, current.length * 2)];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        for (int i = current.length; i < grown.length; i++) {
+            grown[i] = new AtomicIntegerArray(CHUNK_SIZE);
+        }
+        chunks = grown;
+    }
+}
@@ -0,0 +1,308 @@
+package com.inzira.shared.services;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.inzira.shared.dtos.SeatMapDTO;
+import com.inzira.shared.exceptions.ResourceNotFoundException;
+import com.inzira.shared.repositories.BookingRepository;
+import com.inzira.shared.repositories.BookingSeatRepository;
+import com.inzira.shared.repositories.ScheduleRepository;
+
+/**
+ * Per-seat occupancy for each schedule, numbered 1..Bus.capacity.
+ *
+ * Every schedule has its own bitset and lock, so allocations on different schedules never contend.
+ * The bitset is this node's hint of which seats are free; the booking_seats unique key decides. Each
+ * allocated seat is inserted there in the booking transaction, and a seat another node already took
+ * sends the allocation back to a freshly loaded map. SeatInventory stays the gate for seat counts,
+ * this service only decides which seats a booking gets.
+ */
+@Service
+public class SeatMapService {
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingSeatRepository bookingSeatRepository;
+
+    // One pass on the cached map, then fresh maps, before a booking is turned away
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final Map<Long, SeatMap> seatMaps = new ConcurrentHashMap<>();
+
+    /**
+     * Assigns seats to a booking: the requested seats when given (all must be free), otherwise the
+     * first run of adjacent free seats, falling back to the lowest free seats when no run is long enough.
+     * Inside a transaction the seats are freed again if it rolls back.
+     */
+    public List<Integer> allocate(Long scheduleId, int count, List<Integer> requestedSeats) {
+        boolean requested = requestedSeats != null && !requestedSeats.isEmpty();
+        if (requested && requestedSeats.size() != count) {
+            throw new IllegalArgumentException("Selected " + requestedSeats.size() + " seats for a booking of " + count);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            SeatMap seatMap = seatMapFor(scheduleId);
+            List<Integer> seats = requested
+                ? (seatMap.claim(requestedSeats) ? List.copyOf(requestedSeats) : null)
+                : seatMap.claimAdjacent(count);
+            if (seats != null) {
+                if (claimRows(scheduleId, seats)) {
+                    freeOnRollback(seatMap, seats);
+                    return seats;
+                }
+                seatMap.free(seats);
+            }
+            // The map missed another node's bookings or releases: reload it from the database and retry
+            seatMaps.remove(scheduleId, seatMap);
+            // A selection is retried once against a fresh map, and not at all once the database refused it
+            if (attempt == MAX_ATTEMPTS || (requested && (seats != null || attempt > 1))) {
+                throw new IllegalArgumentException(requested
+                    ? "One or more selected seats are not available: " + requestedSeats
+                    : "Not enough seats available");
+            }
+        }
+    }
+
+    // Frees a booking's seats; inside a transaction only once it commits
+    public void release(Long scheduleId, String seatNumbers) {
+        List<Integer> seats = parseSeatNumbers(seatNumbers);
+        if (seats.isEmpty()) {
+            return;
+        }
+        bookingSeatRepository.release(scheduleId, seats);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    freeIfLoaded(scheduleId, seats);
+                }
+            });
+        } else {
+            freeIfLoaded(scheduleId, seats);
+        }
+    }
+
+    public SeatMapDTO getSeatMap(Long scheduleId) {
+        SeatMap seatMap = seatMapFor(scheduleId);
+        SeatMapDTO dto = new SeatMapDTO();
+        dto.setScheduleId(scheduleId);
+        dto.setCapacity(seatMap.capacity);
+        dto.setOccupiedSeats(seatMap.occupied());
+        dto.setAvailableSeats(seatMap.capacity - dto.getOccupiedSeats().size());
+        return dto;
+    }
+
+    // Drops the map and seat rows of a schedule that no longer sells seats; a later read reloads the map
+    // from the seat numbers on its bookings
+    public void evict(Long scheduleId) {
+        seatMaps.remove(scheduleId);
+        bookingSeatRepository.deleteByScheduleId(scheduleId);
+    }
+
+    public static String formatSeatNumbers(List<Integer> seats) {
+        StringBuilder sb = new StringBuilder();
+        for (Integer seat : seats) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(seat);
+        }
+        return sb.toString();
+    }
+
+    public static List<Integer> parseSeatNumbers(String seatNumbers) {
+        List<Integer> seats = new ArrayList<>();
+        if (seatNumbers == null || seatNumbers.isBlank()) {
+            return seats;
+        }
+        for (String part : seatNumbers.split(",")) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) continue;
+            try {
+                seats.add(Integer.valueOf(trimmed));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid seat number: " + trimmed);
+            }
+        }
+        return seats;
+    }
+
+    // Inserts the seats' rows; on a clash gives back the rows this call took and returns false
+    private boolean claimRows(Long scheduleId, List<Integer> seats) {
+        List<Integer> claimed = new ArrayList<>(seats.size());
+        for (Integer seat : seats) {
+            if (bookingSeatRepository.claim(scheduleId, seat) == 0) {
+                if (!claimed.isEmpty()) {
+                    bookingSeatRepository.release(scheduleId, claimed);
+                }
+                return false;
+            }
+            claimed.add(seat);
+        }
+        return true;
+    }
+
+    private void freeOnRollback(SeatMap seatMap, List<Integer> seats) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        seatMap.free(seats);
+                    }
+                }
+            });
+        }
+    }
+
+    private void freeIfLoaded(Long scheduleId, List<Integer> seats) {
+        SeatMap seatMap = seatMaps.get(scheduleId);
+        if (seatMap != null) {
+            seatMap.free(seats);
+        }
+    }
+
+    private SeatMap seatMapFor(Long scheduleId) {
+        SeatMap seatMap = seatMaps.get(scheduleId);
+        if (seatMap != null) {
+            return seatMap;
+        }
+
+        Integer capacity = scheduleRepository.findBusCapacityById(scheduleId);
+        if (capacity == null) {
+            throw new ResourceNotFoundException("Schedule not found with ID: " + scheduleId);
+        }
+        SeatMap loaded = new SeatMap(capacity);
+        loaded.mark(bookingSeatRepository.findSeatNosByScheduleId(scheduleId));
+        // Seat numbers on bookings made before booking_seats existed have no rows; they are still taken
+        int unassigned = 0;
+        for (Object[] row : bookingRepository.findSeatAssignmentsByScheduleId(scheduleId)) {
+            List<Integer> seats = parseSeatNumbers((String) row[0]);
+            if (seats.isEmpty()) {
+                unassigned += ((Number) row[1]).intValue();
+            } else {
+                loaded.mark(seats);
+            }
+        }
+        // Bookings made before seat selection existed still hold seats: park them on the lowest free numbers
+        if (unassigned > 0) {
+            loaded.claimLowest(Math.min(unassigned, loaded.freeCount()));
+        }
+
+        SeatMap existing = seatMaps.putIfAbsent(scheduleId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // Occupancy bitset for one schedule; bit i is seat i + 1
+    static final class SeatMap {
+        private final int capacity;
+        private final BitSet taken;
+
+        SeatMap(int capacity) {
+            this.capacity = capacity;
+            this.taken = new BitSet(capacity);
+        }
+
+        synchronized boolean claim(List<Integer> seats) {
+            for (Integer seat : seats) {
+                if (seat == null || seat < 1 || seat > capacity || taken.get(seat - 1)) {
+                    return false;
+                }
+            }
+            if (seats.stream().distinct().count() != seats.size()) {
+                return false;
+            }
+            for (Integer seat : seats) {
+                taken.set(seat - 1);
+            }
+            return true;
+        }
+
+        /**
+         * Finds the first run of count free seats. nextClearBit/nextSetBit scan a 64-seat word at a time,
+         * so the search is O(capacity / 64) word reads plus one step per occupied run skipped.
+         */
+        synchronized List<Integer> claimAdjacent(int count) {
+            int from = 0;
+            while (true) {
+                int start = taken.nextClearBit(from);
+                if (start + count > capacity) {
+                    break;
+                }
+                int end = taken.nextSetBit(start);
+                if (end < 0 || end > capacity) {
+                    end = capacity;
+                }
+                if (end - start >= count) {
+                    taken.set(start, start + count);
+                    return range(start, count);
+                }
+                from = end;
+            }
+            return claimLowest(count);
+        }
+
+        synchronized List<Integer> claimLowest(int count) {
+            if (freeCount() < count) {
+                return null;
+            }
+            List<Integer> seats = new ArrayList<>(count);
+            int index = taken.nextClearBit(0);
+            while (seats.size() < count) {
+                taken.set(index);
+                seats.add(index + 1);
+                index = taken.nextClearBit(index + 1);
+            }
+            return seats;
+        }
+
+        // Sets the given seats without the all-or-nothing check of claim, for loading
+        synchronized void mark(List<Integer> seats) {
+            for (Integer seat : seats) {
+                if (seat != null && seat >= 1 && seat <= capacity) {
+                    taken.set(seat - 1);
+                }
+            }
+        }
+
+        synchronized void free(List<Integer> seats) {
+            for (Integer seat : seats) {
+                if (seat != null && seat >= 1 && seat <= capacity) {
+                    taken.clear(seat - 1);
+                }
+            }
+        }
+
+        synchronized int freeCount() {
+            return capacity - taken.cardinality();
+        }
+
+        synchronized List<Integer> occupied() {
+            List<Integer> seats = new ArrayList<>(taken.cardinality());
+            for (int i = taken.nextSetBit(0); i >= 0 && i < capacity; i = taken.nextSetBit(i + 1)) {
+                seats.add(i + 1);
+            }
+            return seats;
+        }
+
+        private static List<Integer> range(int start, int count) {
+            List<Integer> seats = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                seats.add(start + i + 1);
+            }
+            return seats;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.inzira.shared.services;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.inzira.shared.events.ClusterMessage;
+import com.inzira.shared.events.ClusterTransport;
+import com.inzira.shared.events.DomainEventBus;
+import com.inzira.shared.events.ScheduleEvents;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.services.DepartureIndex.Departure;
+import com.inzira.shared.services.SseBroadcaster.Message;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * Live seat counts and schedule status over server-sent events.
+ *
+ * Subscribes to DomainEventBus: every coalesced batch that took or returned seats is published as one
+ * "seat-update" event carrying the committed count read from the Schedule row, and a status change as a
+ * "schedule-status" event. Both go to three topics: the schedule, its route and day (what a search result page shows), and
+ * the catch-all "seats" topic. Events of one schedule replace each other in a client's queue.
+ *
+ * Each message also goes out through the ClusterTransport, which numbers it and carries it to the other
+ * nodes; every node relays the messages of the others to its own clients and takes the seat count of a
+ * "seat-update" into its SeatInventory hint, so all nodes show the same figure. A client reconnecting with
+ * Last-Event-ID first gets the latest missed message per key, or a "resync" event telling it to reload
+ * when that history is gone.
+ */
+@Component
+@Slf4j
+public class SeatUpdateFeed {
+
+    public static final String ALL_SEATS = "seats";
+
+    private static final Pattern SEAT_COUNT = Pattern.compile("\"scheduleId\":(\\d+),\"availableSeats\":(\\d+)");
+
+    @Autowired
+    private SseBroadcaster sseBroadcaster;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private DepartureIndex departureIndex;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
+    @Autowired
+    private ClusterTransport clusterTransport;
+
+    @Value("${cluster.replay-limit:1000}")
+    private int replayLimit = 1000;
+
+    @PostConstruct
+    public void init() {
+        domainEventBus.subscribe("sse", this::publish);
+        clusterTransport.start(this::relay);
+    }
+
+    public static String scheduleTopic(Long scheduleId) {
+        return "schedule:" + scheduleId;
+    }
+
+    public static String routeTopic(Long originId, Long destinationId, LocalDate date) {
+        return "route:" + originId + "-" + destinationId + ":" + date;
+    }
+
+    /**
+     * Opens a stream of the seat updates of the given schedules and of one route and day; with
+     * neither, of every schedule. With lastEventId, the stream resumes after that event.
+     */
+    public SseEmitter subscribe(List<Long> scheduleIds, Long originId, Long destinationId, LocalDate date, Long lastEventId) {
+        Set<String> topics = topics(scheduleIds, originId, destinationId, date);
+        return lastEventId == null ? sseBroadcaster.subscribe(topics) : sseBroadcaster.subscribe(topics, missed(topics, lastEventId));
+    }
+
+    // Same stream for the reactive read tier
+    public Flux<ServerSentEvent<String>> stream(List<Long> scheduleIds, Long originId, Long destinationId, LocalDate date, Long lastEventId) {
+        Set<String> topics = topics(scheduleIds, originId, destinationId, date);
+        return sseBroadcaster.stream(topics, lastEventId == null ? List.of() : missed(topics, lastEventId));
+    }
+
+    private static Set<String> topics(List<Long> scheduleIds, Long originId, Long destinationId, LocalDate date) {
+        Set<String> topics = new LinkedHashSet<>();
+        if (scheduleIds != null) {
+            scheduleIds.forEach(id -> topics.add(scheduleTopic(id)));
+        }
+        if (originId != null && destinationId != null && date != null) {
+            topics.add(routeTopic(originId, destinationId, date));
+        }
+        if (topics.isEmpty()) {
+            topics.add(ALL_SEATS);
+        }
+        return topics;
+    }
+
+    // The latest message per key published to the topics after lastEventId, oldest first
+    List<Message> missed(Set<String> topics, long lastEventId) {
+        Optional<List<ClusterMessage>> history = clusterTransport.since(lastEventId, replayLimit);
+        if (history.isEmpty()) {
+            return List.of(new Message(0, "resync", null, String.format("{\"type\":\"RESYNC\",\"timestamp\":%d}", System.currentTimeMillis())));
+        }
+        Map<Object, Message> latest = new LinkedHashMap<>();
+        for (ClusterMessage message : history.get()) {
+            if (!Collections.disjoint(topics, message.topics())) {
+                Object key = message.key() != null ? message.key() : message.sequence();
+                latest.remove(key);
+                latest.put(key, new Message(message.sequence(), message.name(), message.key(), message.data()));
+            }
+        }
+        return List.copyOf(latest.values());
+    }
+
+    void publish(ScheduleEvents events) {
+        Long scheduleId = events.scheduleId();
+        if (events.seatsChanged()) {
+            // The row, not this node's hint: every node sends the same figure whoever sold the seats
+            Integer stored = scheduleRepository.findAvailableSeatsById(scheduleId);
+            int available = stored != null ? Math.max(0, stored) : seatInventory.getAvailableSeats(scheduleId);
+            publish(scheduleId, "seat-update", "seat:" + scheduleId,
+                String.format("{\"type\":\"SEAT_UPDATE\",\"scheduleId\":%d,\"availableSeats\":%d,\"timestamp\":%d}",
+                    scheduleId, available, System.currentTimeMillis()));
+        }
+        String status = events.latestStatus();
+        if (status != null) {
+            publish(scheduleId, "schedule-status", "status:" + scheduleId,
+                String.format("{\"type\":\"SCHEDULE_STATUS\",\"scheduleId\":%d,\"status\":\"%s\",\"timestamp\":%d}",
+                    scheduleId, status, System.currentTimeMillis()));
+        }
+    }
+
+    private void publish(Long scheduleId, String name, String key, String data) {
+        Set<String> topics = new LinkedHashSet<>();
+        topics.add(scheduleTopic(scheduleId));
+        Departure departure = departureIndex.get(scheduleId);
+        if (departure != null) {
+            topics.add(routeTopic(departure.originId(), departure.destinationId(), departure.departureDate()));
+        }
+        topics.add(ALL_SEATS);
+        ClusterMessage message = new ClusterMessage(0, topics, name, key, data);
+        try {
+            message = message.withSequence(clusterTransport.send(message));
+        } catch (Exception e) {
+            // Local clients still get it, without a sequence number to resume from
+            log.warn("Failed to send {} of schedule {} to the cluster: {}", name, scheduleId, e.getMessage());
+        }
+        relay(message);
+    }
+
+    // Hands a message to the local clients of its topics
+    void relay(ClusterMessage message) {
+        if ("seat-update".equals(message.name()) && message.data() != null) {
+            Matcher count = SEAT_COUNT.matcher(message.data());
+            if (count.find()) {
+                seatInventory.setAvailableSeats(Long.valueOf(count.group(1)), Integer.parseInt(count.group(2)));
+            }
+        }
+        Message sse = new Message(message.sequence(), message.name(), message.key(), message.data());
+        for (String topic : message.topics()) {
+            sseBroadcaster.publish(topic, sse);
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package com.inzira.shared.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+/**
+ * Server-sent event fan-out to clients subscribed to topics (a schedule, a route and day, ...).
+ *
+ * Publishing never writes to a connection: the message is put on each subscriber's bounded queue and
+ * the client is handed to a small dedicated pool that drains it, one pool task per client at a time.
+ * A message with a key replaces the queued message with the same key (a newer seat count supersedes
+ * the older one); otherwise the oldest queued message is dropped when the queue is full. A client that
+ * drops more than max-dropped messages in a row is completed and forgotten.
+ *
+ * Writes in progress are checked every stall-check-ms. One stuck longer than stall-timeout is given up
+ * on: the client is completed, the writing thread is interrupted (which unblocks a servlet write), and
+ * until that write returns an extra fan-out thread stands in for it, so stuck clients can never take
+ * the pool away from the others. Heartbeats go out on one shared tick.
+ *
+ * Messages relayed across the cluster carry a sequence number, sent as the SSE id so the browser
+ * reports it back as Last-Event-ID when it reconnects. A client can start with the messages it missed;
+ * live messages it already got that way are then skipped, and a queued message is never replaced by an
+ * older one with the same key.
+ *
+ * A client is either an MVC SseEmitter or a reactive stream (stream(), served by the optional reactive
+ * read tier). A reactive client's writes never block: its stream buffers up to queue-capacity events,
+ * and a client that lets it fill up is disconnected like one that stalled.
+ *
+ * On shutdown every open connection is completed in the lifecycle stop, which runs ahead of the web
+ * server's graceful shutdown, so open streams neither hold that up nor get written to afterwards.
+ *
+ * Sent, dropped and eviction counts are published as sse.* meters (actuator /metrics).
+ */
+@Component
+@Slf4j
+public class SseBroadcaster implements SmartLifecycle {
+
+    private static final int MAX_SENDS_PER_TASK = 16;
+
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private final Map<String, Set<Client>> subscribers = new ConcurrentHashMap<>();
+    // Clients with a write in progress, evicted or not
+    private final Set<Client> sending = ConcurrentHashMap.newKeySet();
+
+    // Keys non-coalescing messages within a client queue
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final int threads;
+    private final int queueCapacity;
+    private final int maxDropped;
+    private final long stallTimeoutNanos;
+    private final long stallCheckMillis;
+    private final long heartbeatSeconds;
+    private final long emitterTimeoutMillis;
+
+    private final Counter sent;
+    private final Counter dropped;
+    private final Counter evicted;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService heartbeat;
+    private volatile boolean running;
+
+    public SseBroadcaster(@Value("${sse.threads:8}") int threads,
+                          @Value("${sse.queue-capacity:32}") int queueCapacity,
+                          @Value("${sse.max-dropped:64}") int maxDropped,
+                          @Value("${sse.stall-timeout-ms:10000}") long stallTimeoutMillis,
+                          @Value("${sse.stall-check-ms:1000}") long stallCheckMillis,
+                          @Value("${sse.heartbeat-seconds:30}") long heartbeatSeconds,
+                          @Value("${sse.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                          MeterRegistry meterRegistry) {
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.maxDropped = maxDropped;
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(stallTimeoutMillis);
+        this.stallCheckMillis = stallCheckMillis;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.sent = Counter.builder("sse.messages").tag("result", "sent")
+            .description("Server-sent events written to clients").register(meterRegistry);
+        this.dropped = Counter.builder("sse.messages").tag("result", "dropped")
+            .description("Server-sent events dropped from a full client queue").register(meterRegistry);
+        this.evicted = Counter.builder("sse.evictions")
+            .description("Clients disconnected for falling behind or stalling").register(meterRegistry);
+        Gauge.builder("sse.clients", clients, Map::size)
+            .description("Connected server-sent event clients").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        // Fixed size, except while stand-ins for stuck writes are running
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "sse-fanout-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleAtFixedRate(this::tick, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        heartbeat.scheduleWithFixedDelay(this::checkStalls, stallCheckMillis, stallCheckMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // Default phase, above the graceful web server shutdown's, so this stops first
+    @Override
+    public void stop() {
+        running = false;
+        clients.values().forEach(this::close);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        executor.shutdownNow();
+        clients.values().forEach(this::close);
+    }
+
+    // Opens a stream subscribed to the topics, starting with a "connected" event
+    public SseEmitter subscribe(Set<String> topics) {
+        return subscribe(topics, List.of());
+    }
+
+    // Same, followed by the messages the client missed (oldest first) ahead of any live one
+    SseEmitter subscribe(Set<String> topics, List<Message> missed) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        String clientId = register(emitter, topics, missed);
+        emitter.onCompletion(() -> disconnect(clientId));
+        emitter.onTimeout(() -> disconnect(clientId));
+        emitter.onError(error -> disconnect(clientId));
+        return emitter;
+    }
+
+    // Reactive counterpart of subscribe: the stream registers the client when subscribed to and leaves on cancel
+    Flux<ServerSentEvent<String>> stream(Set<String> topics, List<Message> missed) {
+        return Flux.defer(() -> {
+            Sinks.Many<ServerSentEvent<String>> sink = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<ServerSentEvent<String>>get(queueCapacity).get());
+            String clientId = register(new StreamConnection(sink), topics, missed);
+            return sink.asFlux()
+                .take(Duration.ofMillis(emitterTimeoutMillis))
+                .doFinally(signal -> disconnect(clientId));
+        });
+    }
+
+    String register(SseEmitter emitter, Set<String> topics) {
+        return register(emitter, topics, List.of());
+    }
+
+    String register(SseEmitter emitter, Set<String> topics, List<Message> missed) {
+        return register(new EmitterConnection(emitter), topics, missed);
+    }
+
+    private String register(Connection connection, Set<String> topics, List<Message> missed) {
+        Client client = new Client(UUID.randomUUID().toString(), connection, Set.copyOf(topics));
+        // Live publishes wait on the client's monitor, so they queue behind the missed messages
+        synchronized (client) {
+            clients.put(client.id, client);
+            for (String topic : client.topics) {
+                // compute, not computeIfAbsent + add, so a concurrent disconnect cannot drop the set under us
+                subscribers.compute(topic, (key, set) -> {
+                    Set<Client> topicClients = set != null ? set : ConcurrentHashMap.newKeySet();
+                    topicClients.add(client);
+                    return topicClients;
+                });
+            }
+            enqueue(client, new Message(0, "connected", null, "{\"message\":\"Connected to seat updates\"}"));
+            missed.forEach(message -> enqueue(client, message));
+            client.caughtUpTo = missed.stream().mapToLong(Message::id).max().orElse(0);
+        }
+        return client.id;
+    }
+
+    public void disconnect(String clientId) {
+        Client client = clients.remove(clientId);
+        if (client == null) {
+            return;
+        }
+        for (String topic : client.topics) {
+            subscribers.computeIfPresent(topic, (key, set) -> {
+                set.remove(client);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /**
+     * Queues the event for every subscriber of the topic. Events with the same non-null key replace
+     * each other in a client's queue, so only the latest is sent. Returns the clients reached.
+     */
+    public int publish(String topic, String name, String key, String data) {
+        return publish(topic, new Message(0, name, key, data));
+    }
+
+    int publish(String topic, Message message) {
+        Set<Client> topicClients = subscribers.get(topic);
+        if (topicClients == null) {
+            return 0;
+        }
+        int reached = 0;
+        for (Client client : topicClients) {
+            enqueue(client, message);
+            reached++;
+        }
+        return reached;
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    // Messages waiting in all client queues
+    public long getQueuedCount() {
+        long queued = 0;
+        for (Client client : clients.values()) {
+            synchronized (client) {
+                queued += client.queue.size();
+            }
+        }
+        return queued;
+    }
+
+    // Shared heartbeat: queues a heartbeat for every client
+    void tick() {
+        Message beat = new Message(0, "heartbeat", "heartbeat", "{\"timestamp\":" + System.currentTimeMillis() + "}");
+        for (Client client : clients.values()) {
+            enqueue(client, beat);
+        }
+    }
+
+    // Gives up on writes stuck longer than stall-timeout; returns how many
+    int checkStalls() {
+        long now = System.nanoTime();
+        int abandoned = 0;
+        for (Client client : sending) {
+            synchronized (client) {
+                if (client.sender == null || client.abandoned || now - client.sendingSince <= stallTimeoutNanos) {
+                    continue;
+                }
+                client.abandoned = true;
+                resizePool(1);
+                // Under the monitor, so the interrupt cannot reach a later write on the same thread
+                client.sender.interrupt();
+            }
+            abandoned++;
+            evict(client, "stalled");
+        }
+        return abandoned;
+    }
+
+    // Number of fan-out threads, stand-ins for stuck writes included
+    int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    private void enqueue(Client client, Message message) {
+        boolean schedule;
+        boolean tooSlow = false;
+        synchronized (client) {
+            if (client.closed || message.id() != 0 && message.id() <= client.caughtUpTo) {
+                return;
+            }
+            Object key = message.key() != null ? message.key() : sequence.incrementAndGet();
+            Message queued = client.queue.get(key);
+            if (queued != null && queued.id() > message.id() && message.id() != 0) {
+                return;
+            }
+            if (client.queue.put(key, message) == null && client.queue.size() > queueCapacity) {
+                Iterator<Message> oldest = client.queue.values().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped.increment();
+                tooSlow = ++client.droppedInARow > maxDropped;
+            }
+            schedule = !client.draining;
+            client.draining = true;
+        }
+        if (tooSlow) {
+            evict(client, "too slow");
+        } else if (schedule) {
+            executor.execute(() -> drain(client));
+        }
+    }
+
+    // Sends a client's queued messages; hands the thread back after a few so one busy client cannot hog it
+    private void drain(Client client) {
+        for (int i = 0; i < MAX_SENDS_PER_TASK; i++) {
+            Message message;
+            synchronized (client) {
+                Iterator<Message> next = client.queue.values().iterator();
+                if (client.closed || !next.hasNext()) {
+                    client.draining = false;
+                    return;
+                }
+                message = next.next();
+                next.remove();
+                client.sendingSince = System.nanoTime();
+                client.sender = Thread.currentThread();
+            }
+            sending.add(client);
+            Exception failure = null;
+            try {
+                client.connection.send(message);
+            } catch (Exception e) {
+                failure = e;
+            }
+            sending.remove(client);
+            boolean abandoned;
+            synchronized (client) {
+                client.sender = null;
+                abandoned = client.abandoned;
+                if (failure == null) {
+                    client.droppedInARow = 0;
+                }
+            }
+            if (abandoned) {
+                // The stall check already evicted the client and started a thread in our place
+                resizePool(-1);
+                return;
+            }
+            if (failure != null) {
+                // The connection is gone; the container reports it through the emitter callbacks too
+                disconnect(client.id);
+                synchronized (client) {
+                    client.closed = true;
+                    client.draining = false;
+                    client.queue.clear();
+                }
+                return;
+            }
+            sent.increment();
+        }
+        executor.execute(() -> drain(client));
+    }
+
+    // Grows the pool before its core size so a new thread starts; shrinks it the other way round
+    private synchronized void resizePool(int delta) {
+        int size = executor.getCorePoolSize() + delta;
+        if (delta > 0) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+
+    private void evict(Client client, String reason) {
+        if (close(client)) {
+            evicted.increment();
+            log.debug("Evicted SSE client {}: {}", client.id, reason);
+        }
+    }
+
+    // Completes and forgets the client; false if it was already closed
+    private boolean close(Client client) {
+        synchronized (client) {
+            if (client.closed) {
+                return false;
+            }
+            client.closed = true;
+            client.queue.clear();
+        }
+        disconnect(client.id);
+        try {
+            client.connection.complete();
+        } catch (Exception e) {
+            log.debug("Failed to complete SSE client {}: {}", client.id, e.getMessage());
+        }
+        return true;
+    }
+
+    // id is the cluster sequence number, 0 for messages that have none (connected, heartbeat, ...)
+    record Message(long id, String name, String key, String data) {}
+
+    // Where a client's messages are written
+    private interface Connection {
+        void send(Message message) throws IOException;
+
+        void complete();
+    }
+
+    private record EmitterConnection(SseEmitter emitter) implements Connection {
+        @Override
+        public void send(Message message) throws IOException {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(message.name()).data(message.data());
+            emitter.send(message.id() != 0 ? event.id(Long.toString(message.id())) : event);
+        }
+
+        @Override
+        public void complete() {
+            emitter.complete();
+        }
+    }
+
+    // Only ever written by the client's single drain task
+    private record StreamConnection(Sinks.Many<ServerSentEvent<String>> sink) implements Connection {
+        @Override
+        public void send(Message message) throws IOException {
+            ServerSentEvent.Builder<String> event = ServerSentEvent.builder(message.data()).event(message.name());
+            Sinks.EmitResult result = sink.tryEmitNext(message.id() != 0 ? event.id(Long.toString(message.id())).build() : event.build());
+            if (result.isFailure()) {
+                throw new IOException("Stream not accepting events: " + result);
+            }
+        }
+
+        @Override
+        public void complete() {
+            sink.tryEmitComplete();
+        }
+    }
+
+    // Queue, drain and stall state are guarded by the client's monitor
+    private static final class Client {
+        private final String id;
+        private final Connection connection;
+        private final Set<String> topics;
+        // Sequence number of the last missed message queued at connect
+        private long caughtUpTo;
+        private final LinkedHashMap<Object, Message> queue = new LinkedHashMap<>();
+        private boolean draining;
+        private boolean closed;
+        private int droppedInARow;
+        // The write in progress: when it started, on which thread, and whether the stall check gave up on it
+        private long sendingSince;
+        private Thread sender;
+        private boolean abandoned;
+
+        private Client(String id, Connection connection, Set<String> topics) {
+            this.id = id;
+            this.connection = connection;
+            this.topics = topics;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.inzira.shared.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.exceptions.ResourceNotFoundException;
+import com.inzira.shared.repositories.BookingRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Renders ticket artifacts (QR code, PDF) off the booking path.
+ *
+ * Jobs are queued after the booking transaction commits and run on a small worker pool with a bounded
+ * queue. When the queue is full the job is dropped: the booking keeps ticketStatus PENDING (or no QR code)
+ * and the recovery sweep re-queues it as capacity frees up, at most max-recoveries times per booking.
+ * Failed renders are retried with backoff and end in ticketStatus FAILED, which the sweep leaves alone
+ * until a ticket is requested again. Results are written with targeted updates, never full entity saves.
+ */
+@Service
+@Slf4j
+public class TicketArtifactService {
+
+    @Value("${ticket-artifacts.workers:2}")
+    private int workers;
+
+    @Value("${ticket-artifacts.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${ticket-artifacts.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${ticket-artifacts.retry-backoff-ms:2000}")
+    private long retryBackoffMillis;
+
+    @Value("${ticket-artifacts.max-recoveries:5}")
+    private int maxRecoveries = 5;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private QRCodeService qrCodeService;
+
+    @Autowired
+    private PDFTicketService pdfTicketService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Bookings queued, rendering or waiting for a retry; keeps the sweep from queueing duplicates
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService retryScheduler;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "ticket-artifacts-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ticket-artifacts-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    // Queues QR code (and PDF when a ticket was requested) for a booking once its transaction commits
+    public void enqueue(Long bookingId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(bookingId, 1);
+                }
+            });
+        } else {
+            submit(bookingId, 1);
+        }
+    }
+
+    // Asks for the ticket PDF of a paid booking unless it is already rendered or queued
+    @Transactional
+    public void requestTicket(Booking booking) {
+        if (bookingRepository.requestTicket(booking.getId()) == 1) {
+            booking.setTicketStatus("PENDING");
+            enqueue(booking.getId());
+        }
+    }
+
+    /**
+     * Renders the ticket on the calling thread, for downloads that arrive before the pipeline got to it.
+     * Returns the stored PDF path.
+     */
+    public String renderNow(Booking booking) {
+        if (booking.getTicketStatus() == null && booking.getTicketPdfPath() == null) {
+            throw new ResourceNotFoundException("Ticket PDF not available for this booking");
+        }
+        return render(booking, true);
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    // Re-queues bookings whose artifacts were never written, up to the free queue capacity
+    @Scheduled(fixedDelayString = "${ticket-artifacts.recovery-interval-ms:60000}")
+    public void recover() {
+        int free = executor.getQueue().remainingCapacity();
+        if (free == 0) {
+            return;
+        }
+        List<Long> queued = new ArrayList<>();
+        for (Long bookingId : bookingRepository.findIdsAwaitingTicketArtifacts(maxRecoveries, PageRequest.of(0, free))) {
+            if (!inFlight.contains(bookingId)) {
+                queued.add(bookingId);
+            }
+        }
+        if (queued.isEmpty()) {
+            return;
+        }
+        // Counted before queueing so a booking that keeps failing drops out after maxRecoveries sweeps
+        transactionTemplate.executeWithoutResult(status -> bookingRepository.countTicketRecovery(queued));
+        queued.forEach(bookingId -> submit(bookingId, 1));
+        log.info("Ticket artifact recovery queued {} bookings", queued.size());
+    }
+
+    private void submit(Long bookingId, int attempt) {
+        if (attempt == 1 && !inFlight.add(bookingId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> process(bookingId, attempt));
+        } catch (RejectedExecutionException e) {
+            // Queue full: the recovery sweep picks the booking up again later
+            inFlight.remove(bookingId);
+            log.debug("Ticket artifact queue full, deferring booking {}", bookingId);
+        }
+    }
+
+    private void process(Long bookingId, int attempt) {
+        try {
+            Booking booking = bookingRepository.findById(bookingId).orElse(null);
+            if (booking != null) {
+                render(booking, "PENDING".equals(booking.getTicketStatus()));
+            }
+            inFlight.remove(bookingId);
+        } catch (Exception e) {
+            if (attempt < maxAttempts) {
+                log.warn("Ticket rendering failed for booking {} (attempt {}), retrying: {}", bookingId, attempt, e.getMessage());
+                retryScheduler.schedule(() -> submit(bookingId, attempt + 1), retryBackoffMillis * attempt, TimeUnit.MILLISECONDS);
+            } else {
+                log.error("Ticket rendering failed for booking {} after {} attempts: {}", bookingId, attempt, e.getMessage());
+                transactionTemplate.executeWithoutResult(status -> bookingRepository.markTicketFailed(bookingId));
+                inFlight.remove(bookingId);
+            }
+        }
+    }
+
+    private String render(Booking booking, boolean withPdf) {
+        String qrCode = booking.getQrCode();
+        if (qrCode == null) {
+            qrCode = qrCodeService.generateQRCode(qrCodeService.generateTicketQRData(
+                booking.getBookingReference(),
+                booking.getCustomer().getEmail(),
+                booking.getSchedule().getAgencyRoute().getRoute().getOrigin().getName() + " → " + booking.getSchedule().getAgencyRoute().getRoute().getDestination().getName(),
+                booking.getSchedule().getDepartureDate().toString()
+            ));
+            booking.setQrCode(qrCode);
+        }
+
+        String code = qrCode;
+        if (!withPdf) {
+            transactionTemplate.executeWithoutResult(status -> bookingRepository.updateQrCode(booking.getId(), code));
+            return null;
+        }
+
+        String pdfPath = pdfTicketService.generateTicketPDF(booking);
+        if (pdfPath == null) {
+            throw new IllegalStateException("PDF renderer returned no file");
+        }
+        transactionTemplate.executeWithoutResult(status -> bookingRepository.markTicketReady(booking.getId(), code, pdfPath));
+        booking.setTicketPdfPath(pdfPath);
+        booking.setTicketStatus("READY");
+        return pdfPath;
+    }
+}
@@ -0,0 +1,60 @@
+package com.inzira.shared.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of strings: 10 bits and 7 hash positions per expected item, about 1% false positives
+ * at that size. mightContain never misses an added item; a true answer has to be confirmed against
+ * an exact set. Items cannot be removed, so a filter is rebuilt once its items have gone stale.
+ *
+ * Safe for concurrent use: bits are set with compare-and-set, and an add is visible to every
+ * mightContain that starts after it returns.
+ */
+public final class BloomFilter {
+
+    static final int BITS_PER_ITEM = 10;
+    static final int HASHES = 7;
+
+    private final AtomicLongArray words;
+    private final long bits;
+
+    public BloomFilter(int expectedItems) {
+        long wordCount = Math.max(1, ((long) Math.max(expectedItems, 1) * BITS_PER_ITEM + 63) / 64);
+        this.words = new AtomicLongArray(Math.toIntExact(wordCount));
+        this.bits = wordCount * 64;
+    }
+
+    public void add(String item) {
+        long h1 = hash(item);
+        long h2 = SketchCodec.hash(h1) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String item) {
+        long h1 = hash(item);
+        long h2 = SketchCodec.hash(h1) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String item) {
+        long h = 1125899906842597L;
+        for (int i = 0; i < item.length(); i++) {
+            h = 31 * h + item.charAt(i);
+        }
+        return SketchCodec.hash(h);
+    }
+}
@@ -0,0 +1,103 @@
+package com.inzira.shared.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Count-min sketch of item frequencies: 4 rows of 256 counters. An estimate never undercounts, and
+ * overcounts by at most about 1% of the total count with 98% probability. Sketches merge by adding
+ * counters, so per-day sketches answer any date range.
+ *
+ * Serialized form: [varint non-zero counters][(varint position delta, varint count)...]; a day with a
+ * few busy items sets only a few counters per row. Null or empty bytes read as an empty sketch.
+ */
+public final class CountMinSketch {
+
+    static final int DEPTH = 4;
+    static final int WIDTH = 256;
+
+    private final int[] counters = new int[DEPTH * WIDTH];
+    private long total;
+
+    public void add(long item, int count) {
+        long hash = SketchCodec.hash(item);
+        for (int row = 0; row < DEPTH; row++) {
+            counters[position(hash, row)] += count;
+        }
+        total += count;
+    }
+
+    public long estimate(long item) {
+        long hash = SketchCodec.hash(item);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters[position(hash, row)]);
+        }
+        return min;
+    }
+
+    // Sum of all counts added, exact
+    public long total() {
+        return total;
+    }
+
+    public void merge(CountMinSketch other) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+    }
+
+    // Merges a serialized sketch without building it first
+    public void merge(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return;
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            int count = SketchCodec.readVarint(in);
+            int position = 0;
+            for (int i = 0; i < count; i++) {
+                position += SketchCodec.readVarint(in);
+                int value = SketchCodec.readVarint(in);
+                counters[position] += value;
+                // Every item adds to one counter per row, so row 0 sums to the total
+                if (position < WIDTH) total += value;
+            }
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed sketch", e);
+        }
+    }
+
+    public byte[] toBytes() {
+        int set = 0;
+        for (int counter : counters) {
+            if (counter != 0) set++;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1 + set * 3);
+        SketchCodec.writeVarint(out, set);
+        int previous = 0;
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i] != 0) {
+                SketchCodec.writeVarint(out, i - previous);
+                SketchCodec.writeVarint(out, counters[i]);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static CountMinSketch fromBytes(byte[] bytes) {
+        CountMinSketch sketch = new CountMinSketch();
+        sketch.merge(bytes);
+        return sketch;
+    }
+
+    // Kirsch-Mitzenmacher: row i uses h1 + i * h2, so one 64-bit hash serves every row
+    private static int position(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return row * WIDTH + ((h1 + row * h2) & (WIDTH - 1));
+    }
+}
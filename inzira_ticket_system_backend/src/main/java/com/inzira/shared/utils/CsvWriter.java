@@ -0,0 +1,59 @@
+package com.inzira.shared.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes CSV row by row, so an export holds one row at a time whatever its size. Nulls are written
+ * as empty fields; fields containing a comma, quote or line break are quoted.
+ */
+public final class CsvWriter {
+
+    private CsvWriter() {}
+
+    /**
+     * Writes the header and every row to the stream as UTF-8 and returns the number of rows. The
+     * header is flushed before the first row is pulled, so the client gets its first bytes right
+     * away. The stream is flushed, not closed.
+     */
+    public static long write(OutputStream out, String header, Stream<Object[]> rows) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(header);
+        writer.write('\n');
+        writer.flush();
+        long count = 0;
+        for (Iterator<Object[]> it = rows.iterator(); it.hasNext(); count++) {
+            writeRow(writer, it.next());
+        }
+        writer.flush();
+        return count;
+    }
+
+    static void writeRow(Writer writer, Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(field(row[i]));
+        }
+        writer.write('\n');
+    }
+
+    static String field(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,177 @@
+package com.inzira.shared.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Booking and transaction references: prefix + 13 Crockford base32 characters + 1 check character.
+ *
+ * The encoded 63-bit value is [41 bits milliseconds since 2024-01-01][12 bits sequence][10 bits node id].
+ * Time and sequence live in one AtomicLong that only moves forward: more than 4096 references in a
+ * millisecond (or a clock step backwards) borrows the next millisecond instead of repeating a value,
+ * so references are unique per node without locks, and distinct node ids keep nodes apart. The node id
+ * is reference.node-id when set; otherwise one is leased from the database (ReferenceNodeLease).
+ *
+ * The check character is Luhn mod 32 over the 13 data characters: it catches every single mistyped
+ * character and almost every swap of neighbouring characters, and keeps references alphanumeric (Crockford's own
+ * mod 37 check needs the extra symbols *~$=U).
+ */
+@Component
+public class ReferenceGenerator {
+
+    public static final String BOOKING_PREFIX = "BK";
+    public static final String GUEST_BOOKING_PREFIX = "GT";
+    public static final String AGENT_BOOKING_PREFIX = "AG";
+    public static final String TRANSACTION_PREFIX = "TXN-";
+
+    static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final int DATA_CHARS = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] DECODE = new byte[128];
+
+    static {
+        java.util.Arrays.fill(DECODE, (byte) -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            DECODE[ALPHABET[i]] = (byte) i;
+            DECODE[Character.toLowerCase(ALPHABET[i])] = (byte) i;
+        }
+        // Crockford decoding: letters that are easily misread map to the digit they look like
+        DECODE['O'] = DECODE['o'] = 0;
+        DECODE['I'] = DECODE['i'] = DECODE['L'] = DECODE['l'] = 1;
+    }
+
+    // Only changes if a leased id is lost and replaced
+    private volatile int nodeId;
+
+    // (milliseconds since EPOCH_MILLIS << SEQUENCE_BITS) | sequence of the last issued reference
+    private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    public ReferenceGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("reference.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    @Autowired
+    public ReferenceGenerator(@Value("${reference.node-id:-1}") int nodeId, ReferenceNodeLease lease) {
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("reference.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId >= 0 ? nodeId : lease.acquire(id -> this.nodeId = id);
+    }
+
+    public String nextBookingReference() {
+        return next(BOOKING_PREFIX);
+    }
+
+    public String nextGuestBookingReference() {
+        return next(GUEST_BOOKING_PREFIX);
+    }
+
+    public String nextAgentBookingReference() {
+        return next(AGENT_BOOKING_PREFIX);
+    }
+
+    public String nextTransactionReference() {
+        return next(TRANSACTION_PREFIX);
+    }
+
+    public String next(String prefix) {
+        long timeAndSequence = nextTimeAndSequence();
+        long value = (timeAndSequence << NODE_BITS) | nodeId;
+
+        int length = prefix.length();
+        char[] chars = new char[length + DATA_CHARS + 1];
+        prefix.getChars(0, length, chars, 0);
+        for (int i = length + DATA_CHARS - 1; i >= length; i--) {
+            chars[i] = ALPHABET[(int) (value & 31)];
+            value >>>= 5;
+        }
+        chars[length + DATA_CHARS] = ALPHABET[checkValue(chars, length)];
+        return new String(chars);
+    }
+
+    /**
+     * True when the reference ends in 13 base32 characters plus a matching check character. Case and
+     * the O/0, I/L/1 confusions are tolerated. Legacy references (timestamp + UUID) do not validate.
+     */
+    public static boolean isValid(String reference) {
+        if (reference == null || reference.length() < DATA_CHARS + 1) {
+            return false;
+        }
+        int start = reference.length() - DATA_CHARS - 1;
+        char[] chars = reference.toCharArray();
+        for (int i = start; i < chars.length; i++) {
+            if (decode(chars[i]) < 0) {
+                return false;
+            }
+        }
+        return checkValue(chars, start) == decode(chars[chars.length - 1]);
+    }
+
+    // Booking reference in the current format (BK/GT/AG + 14 characters), as opposed to a legacy one
+    public static boolean isBookingReferenceFormat(String reference) {
+        return reference != null
+            && reference.length() == 2 + DATA_CHARS + 1
+            && (reference.startsWith(BOOKING_PREFIX) || reference.startsWith(GUEST_BOOKING_PREFIX) || reference.startsWith(AGENT_BOOKING_PREFIX));
+    }
+
+    // Upper-cases and maps O to 0 and I/L to 1 in the encoded part, so typed references match stored ones
+    public static String normalize(String reference) {
+        if (reference == null) {
+            return null;
+        }
+        String trimmed = reference.trim().toUpperCase();
+        if (trimmed.length() < DATA_CHARS + 1) {
+            return trimmed;
+        }
+        char[] chars = trimmed.toCharArray();
+        for (int i = chars.length - DATA_CHARS - 1; i < chars.length; i++) {
+            int value = decode(chars[i]);
+            if (value >= 0) {
+                chars[i] = ALPHABET[value];
+            }
+        }
+        return new String(chars);
+    }
+
+    // Lock-free, strictly increasing: max(last + 1, now) with the sequence in the low bits
+    private long nextTimeAndSequence() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        while (true) {
+            long last = lastTimeAndSequence.get();
+            long next = Math.max(last + 1, now);
+            if (lastTimeAndSequence.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    // Luhn mod 32 over the data characters starting at offset
+    private static int checkValue(char[] chars, int offset) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = offset + DATA_CHARS - 1; i >= offset; i--) {
+            int addend = decode(chars[i]);
+            if (doubled) {
+                addend *= 2;
+                addend = (addend / 32) + (addend % 32);
+            }
+            sum += addend;
+            doubled = !doubled;
+        }
+        return (32 - (sum % 32)) % 32;
+    }
+
+    private static int decode(char c) {
+        return c < 128 ? DECODE[c] : -1;
+    }
+}
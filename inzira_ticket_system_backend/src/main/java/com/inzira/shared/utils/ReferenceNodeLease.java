@@ -0,0 +1,168 @@
+package com.inzira.shared.utils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import com.inzira.shared.repositories.ReferenceNodeRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Leases this process a reference node id from the reference_nodes table when reference.node-id is not
+ * set, so replicas never share one. The lease runs for lease-ms and is renewed every third of that; a
+ * lease that lapsed anyway (a long pause, or the database unreachable) and was taken over is replaced
+ * by a fresh id. The id is released on shutdown, and a crashed node's id is free again once its lease
+ * expires.
+ *
+ * Expiry is judged by each node's clock: keep node clocks within a small part of lease-ms.
+ *
+ * The lease stops with the context's lifecycle beans, after the web server and before the DataSource
+ * closes, so the renewer is done and the id released while the database is still there.
+ */
+@Component
+@Slf4j
+public class ReferenceNodeLease implements SmartLifecycle {
+
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+    private final ReferenceNodeRepository referenceNodeRepository;
+    private final long leaseMillis;
+    private final String owner = UUID.randomUUID().toString();
+
+    // Guarded by this
+    private int nodeId = -1;
+    private IntConsumer onChange;
+
+    private volatile ScheduledExecutorService renewer;
+
+    public ReferenceNodeLease(ReferenceNodeRepository referenceNodeRepository,
+                              @Value("${reference.lease-ms:60000}") long leaseMillis) {
+        this.referenceNodeRepository = referenceNodeRepository;
+        this.leaseMillis = leaseMillis;
+    }
+
+    /**
+     * Leases a free node id and keeps it renewed; onChange gets the replacement if the lease is ever lost.
+     * Throws IllegalStateException when every id is held by a live node.
+     */
+    public synchronized int acquire(IntConsumer onChange) {
+        this.onChange = onChange;
+        nodeId = lease();
+        if (renewer == null) {
+            renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "reference-node-lease");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(1, leaseMillis / 3);
+            renewer.scheduleWithFixedDelay(this::renewQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        log.info("Leased reference node id {}", nodeId);
+        return nodeId;
+    }
+
+    // The lease is taken by the first acquire, not by the context
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+        shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return renewer != null && !renewer.isShutdown();
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Not under the lock: a renewal waiting for it would keep the renewer from finishing
+        ScheduledExecutorService renewer = this.renewer;
+        if (renewer != null) {
+            renewer.shutdownNow();
+            try {
+                if (!renewer.awaitTermination(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    log.warn("Reference node lease renewer did not stop within {} ms", STOP_TIMEOUT_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        release();
+    }
+
+    private synchronized void release() {
+        if (nodeId >= 0) {
+            try {
+                referenceNodeRepository.release(nodeId, owner);
+            } catch (Exception e) {
+                log.warn("Failed to release reference node id {}: {}", nodeId, e.getMessage());
+            }
+            nodeId = -1;
+        }
+    }
+
+    // Extends the lease; returns the node id held afterwards, a new one if the old lease was taken over
+    synchronized int renew() {
+        if (nodeId < 0) {
+            return nodeId;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (referenceNodeRepository.claim(nodeId, owner, now.plus(leaseMillis, ChronoUnit.MILLIS), now) == 0) {
+            int lost = nodeId;
+            nodeId = lease();
+            log.warn("Lease on reference node id {} was taken over, now using {}", lost, nodeId);
+            onChange.accept(nodeId);
+        }
+        return nodeId;
+    }
+
+    // Scans from a random id so nodes starting together rarely compete for the same row
+    private int lease() {
+        int ids = ReferenceGenerator.MAX_NODE_ID + 1;
+        int start = ThreadLocalRandom.current().nextInt(ids);
+        for (int i = 0; i < ids; i++) {
+            int candidate = (start + i) % ids;
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expiresAt = now.plus(leaseMillis, ChronoUnit.MILLIS);
+            if (!referenceNodeRepository.existsById(candidate)) {
+                try {
+                    referenceNodeRepository.insert(candidate, owner, expiresAt);
+                    return candidate;
+                } catch (DataIntegrityViolationException e) {
+                    // Another node inserted it first
+                }
+            } else if (referenceNodeRepository.claim(candidate, owner, expiresAt, now) == 1) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("All " + ids + " reference node ids are leased by running nodes");
+    }
+
+    private void renewQuietly() {
+        try {
+            renew();
+        } catch (Exception e) {
+            log.warn("Failed to renew reference node lease: {}", e.getMessage());
+        }
+    }
+}
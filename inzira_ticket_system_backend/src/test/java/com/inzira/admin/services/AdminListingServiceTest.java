@@ -0,0 +1,178 @@
+package com.inzira.admin.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.shared.dtos.CursorPage;
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.entities.Customer;
+import com.inzira.shared.entities.Payment;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.support.SessionStatements;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+import jakarta.persistence.EntityManager;
+
+// Every test lists a fresh agency, so rows left by other tests never show up in its pages
+@SpringBootTest
+@Import(TestDataFactory.class)
+class AdminListingServiceTest {
+
+    private static final LocalDateTime T0 = LocalDate.now().minusDays(10).atTime(9, 0);
+
+    @Autowired
+    private AdminListingService adminListingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void pagesNewestFirstWithoutGapsOrRepeatsAcrossEqualTimestamps() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Bookings 1 and 2 share a creation time, so the id breaks the tie
+            ids.add(booking(trip, customer, "CONFIRMED", T0.plusMinutes(i == 2 ? 1 : i)).getId());
+        }
+        Long agencyId = trip.schedule().getAgencyRoute().getAgency().getId();
+
+        List<Long> listed = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<Booking> page = adminListingService.listBookings(null, agencyId, null, null, cursor, 2);
+            page.getItems().forEach(b -> listed.add(b.getId()));
+            pageSizes.add(page.getItems().size());
+            cursor = page.getNextCursor();
+            assertThat(page.isHasMore()).isEqualTo(cursor != null);
+        } while (cursor != null);
+
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+        assertThat(listed).containsExactly(ids.get(4), ids.get(3), ids.get(2), ids.get(1), ids.get(0));
+    }
+
+    @Test
+    void filtersByStatusAgencyAndCreationDate() {
+        Trip trip = testData.createTrip(50);
+        Trip otherAgency = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        Booking inRange = booking(trip, customer, "CONFIRMED", T0.plusDays(1));
+        booking(trip, customer, "CANCELLED", T0.plusDays(1));
+        booking(trip, customer, "CONFIRMED", T0.plusDays(3));
+        booking(otherAgency, customer, "CONFIRMED", T0.plusDays(1));
+        Long agencyId = trip.schedule().getAgencyRoute().getAgency().getId();
+
+        CursorPage<Booking> page = adminListingService.listBookings("confirmed", agencyId,
+            T0.toLocalDate(), T0.plusDays(1).toLocalDate(), null, 20);
+
+        assertThat(page.getItems()).extracting(Booking::getId).containsExactly(inRange.getId());
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void listsPaymentsOfTheAgency() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        Payment older = payment(booking(trip, customer, "CONFIRMED", T0), "SUCCESS", T0);
+        Payment newer = payment(booking(trip, customer, "CONFIRMED", T0), "SUCCESS", T0.plusHours(1));
+        payment(booking(trip, customer, "PENDING", T0), "PENDING", T0.plusHours(2));
+        Long agencyId = trip.schedule().getAgencyRoute().getAgency().getId();
+
+        CursorPage<Payment> first = adminListingService.listPayments("SUCCESS", agencyId, null, null, null, 1);
+        CursorPage<Payment> second = adminListingService.listPayments("SUCCESS", agencyId, null, null, first.getNextCursor(), 1);
+
+        assertThat(first.getItems()).extracting(Payment::getId).containsExactly(newer.getId());
+        assertThat(second.getItems()).extracting(Payment::getId).containsExactly(older.getId());
+        assertThat(second.isHasMore()).isFalse();
+    }
+
+    @Test
+    void pageCostIsTheSameForOneRowAndForMany() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        for (int i = 0; i < 10; i++) {
+            booking(trip, customer, "CONFIRMED", T0.plusMinutes(i));
+        }
+        Long agencyId = trip.schedule().getAgencyRoute().getAgency().getId();
+
+        long oneRow = statementsInTransaction(() -> adminListingService.listBookings(null, agencyId, null, null, null, 1));
+        long tenRows = statementsInTransaction(() -> adminListingService.listBookings(null, agencyId, null, null, null, 10));
+
+        assertThat(tenRows).isEqualTo(oneRow);
+    }
+
+    @Test
+    void exportsFilteredRowsNewestFirstAsCsv() throws Exception {
+        Trip trip = testData.createTrip(50);
+        Trip otherAgency = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        Booking older = booking(trip, customer, "CONFIRMED", T0);
+        Booking newer = booking(trip, customer, "CONFIRMED", T0.plusHours(1));
+        booking(trip, customer, "CANCELLED", T0.plusHours(2));
+        booking(otherAgency, customer, "CONFIRMED", T0);
+        Payment payment = payment(newer, "SUCCESS", T0.plusHours(1));
+        Long agencyId = trip.schedule().getAgencyRoute().getAgency().getId();
+        String agencyName = trip.schedule().getAgencyRoute().getAgency().getAgencyName();
+        String customerName = customer.getFirstName() + " " + customer.getLastName();
+
+        ByteArrayOutputStream bookings = new ByteArrayOutputStream();
+        long bookingRows = adminListingService.exportBookings("CONFIRMED", agencyId, null, null, bookings);
+        ByteArrayOutputStream payments = new ByteArrayOutputStream();
+        long paymentRows = adminListingService.exportPayments(null, agencyId, null, null, payments);
+
+        assertThat(bookingRows).isEqualTo(2);
+        assertThat(bookings.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+            AdminListingService.BOOKINGS_CSV_HEADER,
+            String.join(",", newer.getBookingReference(), agencyName, customerName, "CONFIRMED", "PAID", "1", "2500.00", T0.plusHours(1).toString()),
+            String.join(",", older.getBookingReference(), agencyName, customerName, "CONFIRMED", "PAID", "1", "2500.00", T0.toString()));
+        assertThat(paymentRows).isEqualTo(1);
+        assertThat(payments.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+            AdminListingService.PAYMENTS_CSV_HEADER,
+            String.join(",", payment.getTransactionReference(), agencyName, "SUCCESS", "2500.00", "", "CASH", "", T0.plusHours(1).toString()));
+    }
+
+    @Test
+    void rejectsOversizedPagesAndMalformedCursors() {
+        assertThatThrownBy(() -> adminListingService.listBookings(null, null, null, null, null, AdminListingService.MAX_PAGE_SIZE + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> adminListingService.listPayments(null, null, null, null, "not-a-cursor", 10))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Invalid cursor");
+    }
+
+    private Booking booking(Trip trip, Customer customer, String status, LocalDateTime createdAt) {
+        return testData.createBooking(trip, customer, status, createdAt);
+    }
+
+    private Payment payment(Booking booking, String status, LocalDateTime createdAt) {
+        return testData.createPayment(booking, status, createdAt);
+    }
+
+    private long statementsInTransaction(Runnable action) {
+        return SessionStatements.count(transactionTemplate, entityManager, action);
+    }
+}
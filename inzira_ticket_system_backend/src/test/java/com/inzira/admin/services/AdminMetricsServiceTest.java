@@ -0,0 +1,116 @@
+package com.inzira.admin.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.inzira.admin.dtos.AdminMetricsSummary;
+import com.inzira.shared.services.DailyBookingStatsService;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+// Other tests share the database, so counts are compared before and after this test's own rows
+@SpringBootTest
+@Import(TestDataFactory.class)
+class AdminMetricsServiceTest {
+
+    @Autowired
+    private AdminMetricsService adminMetricsService;
+
+    @Autowired
+    private DailyBookingStatsService dailyBookingStatsService;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void summaryCountsNewAgenciesFleetBookingsAndPayments() {
+        // TestDataFactory inserts bookings without touching the rollup: bring today's row up to date first
+        dailyBookingStatsService.touch(LocalDateTime.now());
+        dailyBookingStatsService.flush();
+        AdminMetricsSummary before = fresh();
+
+        Trip trip = testData.createTrip(50);
+        testData.createPayment(testData.createBooking(trip, testData.createCustomer(), "CONFIRMED", LocalDateTime.now()),
+            "SUCCESS", LocalDateTime.now());
+        testData.createBooking(trip, testData.createCustomer(), "PENDING", LocalDateTime.now());
+        // Paid after its hold expired: awaiting a refund, not a successful payment
+        testData.createPayment(testData.createBooking(trip, testData.createCustomer(), "EXPIRED", LocalDateTime.now()),
+            "REFUND_PENDING", LocalDateTime.now());
+        dailyBookingStatsService.flush();
+        AdminMetricsSummary after = fresh();
+
+        assertThat(after.getTotalAgencies() - before.getTotalAgencies()).isEqualTo(1);
+        assertThat(after.getActiveAgencies() - before.getActiveAgencies()).isEqualTo(1);
+        assertThat(after.getInactiveAgencies()).isEqualTo(before.getInactiveAgencies());
+        assertThat(after.getTotalBuses() - before.getTotalBuses()).isEqualTo(1);
+        assertThat(after.getTotalDrivers() - before.getTotalDrivers()).isEqualTo(1);
+        assertThat(after.getTotalBookings() - before.getTotalBookings()).isEqualTo(3);
+        assertThat(after.getConfirmedBookings() - before.getConfirmedBookings()).isEqualTo(1);
+        assertThat(after.getPendingBookings() - before.getPendingBookings()).isEqualTo(1);
+        assertThat(after.getPaymentsSuccess() - before.getPaymentsSuccess()).isEqualTo(1);
+        assertThat(after.getPaymentsPending()).isEqualTo(before.getPaymentsPending());
+        assertThat(after.getPaymentsRefundPending() - before.getPaymentsRefundPending()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentReadersShareOneLoad() throws Exception {
+        adminMetricsService.evict();
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<AdminMetricsSummary>> reads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                reads.add(adminMetricsService::getSummary);
+            }
+            List<Future<AdminMetricsSummary>> results = readers.invokeAll(reads);
+            for (Future<AdminMetricsSummary> result : results) {
+                assertThat(result.get()).isSameAs(results.get(0).get());
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        assertThat(adminMetricsService.getSummary()).isSameAs(adminMetricsService.getSummary());
+    }
+
+    @Test
+    void staleSummaryIsServedWhileItReloadsInTheBackground() throws Exception {
+        AdminMetricsSummary cached = fresh();
+        ReflectionTestUtils.setField(adminMetricsService, "refreshAheadSeconds", 0L);
+        try {
+            // Past refresh-ahead but within max-staleness: the cached summary, and a reload starts
+            assertThat(adminMetricsService.getSummary()).isSameAs(cached);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            AdminMetricsSummary current = adminMetricsService.getSummary();
+            while (current == cached && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+                current = adminMetricsService.getSummary();
+            }
+            assertThat(current).isNotSameAs(cached);
+        } finally {
+            ReflectionTestUtils.setField(adminMetricsService, "refreshAheadSeconds", 10L);
+        }
+    }
+
+    private AdminMetricsSummary fresh() {
+        adminMetricsService.evict();
+        return adminMetricsService.getSummary();
+    }
+}
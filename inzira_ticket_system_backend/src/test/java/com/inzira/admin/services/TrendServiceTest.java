@@ -0,0 +1,141 @@
+package com.inzira.admin.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.admin.dtos.TrendPoint;
+import com.inzira.admin.services.TrendService.Granularity;
+import com.inzira.admin.services.TrendService.Metric;
+import com.inzira.shared.entities.Customer;
+import com.inzira.shared.entities.Payment;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.support.SessionStatements;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+import jakarta.persistence.EntityManager;
+
+// Each test works in its own past year, so other tests' rows and cached buckets never overlap
+@SpringBootTest
+@Import(TestDataFactory.class)
+class TrendServiceTest {
+
+    @Autowired
+    private TrendService trendService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void dailyTrendIsOneQueryWithEmptyDaysFilled() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        testData.createBooking(trip, customer, "CONFIRMED", LocalDateTime.of(2001, 3, 1, 8, 0));
+        testData.createBooking(trip, customer, "CANCELLED", LocalDateTime.of(2001, 3, 1, 23, 59));
+        testData.createBooking(trip, customer, "CONFIRMED", LocalDateTime.of(2001, 3, 3, 0, 0));
+
+        long statements = SessionStatements.count(transactionTemplate, entityManager, () -> {
+            List<TrendPoint> points = trendService.trend(Metric.BOOKINGS, Granularity.DAY, LocalDate.of(2001, 3, 1), LocalDate.of(2001, 3, 4));
+            assertThat(points).containsExactly(
+                new TrendPoint("2001-03-01", 2), new TrendPoint("2001-03-02", 0),
+                new TrendPoint("2001-03-03", 1), new TrendPoint("2001-03-04", 0));
+        });
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void bucketsAlignToHoursMondaysAndMonthStarts() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        testData.createBooking(trip, customer, "CONFIRMED", LocalDateTime.of(2002, 1, 6, 9, 15)); // Sunday
+        testData.createBooking(trip, customer, "CONFIRMED", LocalDateTime.of(2002, 1, 7, 9, 45)); // Monday
+        testData.createBooking(trip, customer, "CONFIRMED", LocalDateTime.of(2002, 2, 1, 10, 0));
+
+        assertThat(trendService.trend(Metric.BOOKINGS, Granularity.WEEK, LocalDate.of(2002, 1, 6), LocalDate.of(2002, 1, 13)))
+            .containsExactly(new TrendPoint("2001-12-31", 1), new TrendPoint("2002-01-07", 1));
+        assertThat(trendService.trend(Metric.BOOKINGS, Granularity.MONTH, LocalDate.of(2002, 1, 15), LocalDate.of(2002, 2, 15)))
+            .containsExactly(new TrendPoint("2002-01-01", 2), new TrendPoint("2002-02-01", 1));
+        assertThat(trendService.trend(Metric.BOOKINGS, Granularity.HOUR, LocalDate.of(2002, 1, 7), LocalDate.of(2002, 1, 7)))
+            .hasSize(24)
+            .filteredOn(point -> point.getValue() > 0)
+            .containsExactly(new TrendPoint("2002-01-07T09:00", 1));
+    }
+
+    @Test
+    void revenueSumsSuccessfulPaymentsOnly() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        LocalDateTime day = LocalDateTime.of(2003, 6, 10, 12, 0);
+        testData.createPayment(testData.createBooking(trip, customer, "CONFIRMED", day), "SUCCESS", day);
+        testData.createPayment(testData.createBooking(trip, customer, "CONFIRMED", day), "SUCCESS", day.plusHours(1));
+        testData.createPayment(testData.createBooking(trip, customer, "PENDING", day), "PENDING", day);
+
+        assertThat(trendService.trend(Metric.REVENUE, Granularity.DAY, day.toLocalDate(), day.toLocalDate()))
+            .containsExactly(new TrendPoint("2003-06-10", 5000));
+    }
+
+    @Test
+    void closedBucketsComeFromCacheUntilEvicted() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        LocalDateTime day = LocalDateTime.of(2004, 9, 1, 12, 0);
+        Payment payment = testData.createPayment(testData.createBooking(trip, customer, "CONFIRMED", day), "SUCCESS", day);
+        LocalDate from = day.toLocalDate().minusDays(1);
+        LocalDate to = day.toLocalDate().plusDays(1);
+
+        assertThat(trendService.trend(Metric.REVENUE, Granularity.DAY, from, to)).extracting(TrendPoint::getValue).containsExactly(0L, 2500L, 0L);
+        assertThat(SessionStatements.count(transactionTemplate, entityManager,
+            () -> trendService.trend(Metric.REVENUE, Granularity.DAY, from, to))).isZero();
+
+        // A refund changes a closed bucket; the payment flows evict it
+        payment.setStatus("REFUNDED");
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.merge(payment);
+            trendService.evict(Metric.REVENUE, payment.getCreatedAt());
+        });
+
+        assertThat(trendService.trend(Metric.REVENUE, Granularity.DAY, from, to)).extracting(TrendPoint::getValue).containsExactly(0L, 0L, 0L);
+    }
+
+    @Test
+    void theCurrentBucketIsAlwaysRecomputed() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        LocalDate today = LocalDate.now();
+        long before = trendService.trend(Metric.BOOKINGS, Granularity.MONTH, today, today).get(0).getValue();
+
+        testData.createBooking(trip, customer, "CONFIRMED", LocalDateTime.now());
+
+        assertThat(trendService.trend(Metric.BOOKINGS, Granularity.MONTH, today, today)).singleElement()
+            .extracting(TrendPoint::getValue).isEqualTo(before + 1);
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThatThrownBy(() -> trendService.trend(Metric.BOOKINGS, Granularity.DAY, LocalDate.of(2005, 1, 2), LocalDate.of(2005, 1, 1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> trendService.trend(Metric.BOOKINGS, Granularity.HOUR, LocalDate.of(2005, 1, 1), LocalDate.of(2005, 12, 31)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
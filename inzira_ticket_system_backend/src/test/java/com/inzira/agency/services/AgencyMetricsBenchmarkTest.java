@@ -0,0 +1,221 @@
+package com.inzira.agency.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.services.DailyBookingStatsService;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.shared.utils.HyperLogLog;
+import com.inzira.support.RecordedStatements;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+/**
+ * Uncached dashboard loads for an agency with a million bookings: three years of history on 30 routes,
+ * 150k customers and a schedule per route per day. The dashboard never reads booking rows, so the
+ * agency is seeded with the rollup rows, customer sketches, schedules and schedule count those bookings
+ * leave behind.
+ */
+@SpringBootTest
+@Import(TestDataFactory.class)
+class AgencyMetricsBenchmarkTest {
+
+    private static final int DAYS = 3 * 365;
+    private static final int ROUTES = 30;
+    private static final int BOOKINGS_PER_ROUTE_DAY = 31;
+    private static final int CUSTOMERS = 150_000;
+    private static final int LOADS = 200;
+
+    @Autowired
+    private AgencyMetricsService agencyMetricsService;
+
+    @Autowired
+    private DailyBookingStatsService dailyBookingStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    // Keeps the Spring context identical to the other booking tests so it is cached and shared
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    @Tag("benchmark")
+    void uncachedDashboardP99StaysUnderFiftyMillisecondsAtAMillionBookings() {
+        Schedule schedule = testData.createTrip(50).schedule();
+        Long agencyId = schedule.getAgencyRoute().getAgency().getId();
+        try {
+            long bookings = seed(schedule);
+
+            for (int i = 0; i < 20; i++) {
+                load(agencyId);
+            }
+            long[] nanos = new long[LOADS];
+            for (int i = 0; i < LOADS; i++) {
+                write(schedule);
+                long start = System.nanoTime();
+                load(agencyId);
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            double p50 = nanos[LOADS / 2] / 1_000_000.0;
+            double p99 = nanos[LOADS * 99 / 100] / 1_000_000.0;
+
+            long cachedStart = System.nanoTime();
+            for (int i = 0; i < LOADS; i++) {
+                agencyMetricsService.getAgencyMetrics(agencyId);
+            }
+            double cached = (System.nanoTime() - cachedStart) / 1_000_000.0 / LOADS;
+
+            System.out.printf("Agency dashboard with %d bookings: uncached p50 %.1f ms, p99 %.1f ms; cached %.3f ms%n",
+                bookings, p50, p99, cached);
+
+            Map<String, Object> metrics = load(agencyId);
+            assertThat(metrics).containsEntry("totalBookings", bookings)
+                .containsEntry("totalSchedules", (long) DAYS * ROUTES + 1);
+            assertThat((long) metrics.get("uniqueCustomers")).isCloseTo(CUSTOMERS, withinPercentage(3));
+            assertThat(p99).isLessThan(50);
+        } finally {
+            jdbcTemplate.update("DELETE FROM daily_booking_stats WHERE agency_id = ?", agencyId);
+            jdbcTemplate.update("DELETE FROM agency_booking_stats WHERE agency_id = ?", agencyId);
+            jdbcTemplate.update("DELETE FROM schedule WHERE agency_route_id = ? AND id <> ?", schedule.getAgencyRoute().getId(), schedule.getId());
+            jdbcTemplate.update("DELETE FROM agency_schedule_counts WHERE agency_id = ?", agencyId);
+        }
+    }
+
+    @Test
+    void loadsAreCachedPerAgencyUntilEvicted() {
+        Trip trip = testData.createTrip(50);
+        Long agencyId = trip.schedule().getAgencyRoute().getAgency().getId();
+
+        Map<String, Object> first = agencyMetricsService.getAgencyMetrics(agencyId);
+        assertThat(first).containsEntry("totalBuses", 1L).containsEntry("activeBuses", 1L)
+            .containsEntry("totalDrivers", 1L).containsEntry("totalAgents", 0L)
+            .containsEntry("totalSchedules", 1L).containsEntry("todaySchedules", 0L)
+            .containsEntry("totalBookings", 0L);
+
+        jdbcTemplate.update("UPDATE bus SET status = 'MAINTENANCE' WHERE agency_id = ?", agencyId);
+        assertThat(agencyMetricsService.getAgencyMetrics(agencyId)).containsEntry("activeBuses", 1L);
+
+        agencyMetricsService.evict(agencyId);
+        assertThat(agencyMetricsService.getAgencyMetrics(agencyId)).containsEntry("activeBuses", 0L);
+    }
+
+    @Test
+    void dashboardStatementsDoNotGrowWithTheAgencysSchedules() {
+        Schedule schedule = testData.createTrip(50).schedule();
+        Long agencyId = schedule.getAgencyRoute().getAgency().getId();
+
+        List<String> few = recordLoad(agencyId);
+        for (int day = 1; day <= 20; day++) {
+            Schedule past = new Schedule();
+            past.setAgencyRoute(schedule.getAgencyRoute());
+            past.setBus(schedule.getBus());
+            past.setDriver(schedule.getDriver());
+            past.setDepartureDate(LocalDate.now().minusDays(day));
+            past.setDepartureTime(schedule.getDepartureTime());
+            past.setArrivalTime(schedule.getArrivalTime());
+            past.setAvailableSeats(0);
+            past.setStatus("ARRIVED");
+            scheduleRepository.save(past);
+        }
+        List<String> many = recordLoad(agencyId);
+
+        // Status counts for buses, drivers, agents and branch offices, today's schedules, all-time and
+        // month totals, customers, month customers and the schedule count
+        assertThat(few).hasSize(10);
+        assertThat(many).hasSameSizeAs(few);
+        // Only today's count reads the schedule table; the all-time count comes from agency_schedule_counts
+        assertThat(many).filteredOn(sql -> sql.matches("(?s).*\\bschedule\\b.*")).hasSize(1);
+        assertThat(agencyMetricsService.getAgencyMetrics(agencyId)).containsEntry("totalSchedules", 21L);
+    }
+
+    private List<String> recordLoad(Long agencyId) {
+        agencyMetricsService.evict(agencyId);
+        RecordedStatements.start("agency-metrics-");
+        try {
+            agencyMetricsService.getAgencyMetrics(agencyId);
+        } finally {
+            agencyMetricsService.evict(agencyId);
+        }
+        return RecordedStatements.stop();
+    }
+
+    // H2 reuses a query's last result until some table changes, which a live database never allows for long
+    private void write(Schedule schedule) {
+        jdbcTemplate.update("UPDATE schedule SET available_seats = available_seats WHERE id = ?", schedule.getId());
+    }
+
+    private Map<String, Object> load(Long agencyId) {
+        agencyMetricsService.evict(agencyId);
+        return agencyMetricsService.getAgencyMetrics(agencyId);
+    }
+
+    // Seeds the agency's rollup rows and past schedules; returns the bookings they stand for
+    private long seed(Schedule schedule) {
+        Long agencyId = schedule.getAgencyRoute().getAgency().getId();
+        LocalDate first = LocalDate.now().minusDays(DAYS);
+        BigDecimal revenue = BigDecimal.valueOf(28 * 2500L);
+        long rows = (long) DAYS * ROUTES;
+        HyperLogLog allCustomers = new HyperLogLog();
+        long customer = 0;
+
+        List<Object[]> stats = new ArrayList<>();
+        List<Object[]> schedules = new ArrayList<>();
+        for (int d = 0; d < DAYS; d++) {
+            Date day = Date.valueOf(first.plusDays(d));
+            for (int route = 1; route <= ROUTES; route++) {
+                HyperLogLog customers = new HyperLogLog();
+                for (int b = 0; b < BOOKINGS_PER_ROUTE_DAY; b++) {
+                    customers.add(customer++ % CUSTOMERS + 1);
+                }
+                allCustomers.merge(customers);
+                // 31 bookings: 25 confirmed, 3 completed, 1 pending, 2 cancelled
+                stats.add(new Object[] { day, agencyId, (long) route, BOOKINGS_PER_ROUTE_DAY, 1, 25, 3, 2, 0, 28, revenue, 28, 28, revenue,
+                    customers.toBytes() });
+                schedules.add(new Object[] { schedule.getAgencyRoute().getId(), schedule.getBus().getId(), schedule.getDriver().getId(),
+                    day, Time.valueOf("08:00:00"), Time.valueOf("10:00:00"), 0, "ARRIVED" });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO daily_booking_stats (stat_date, agency_id, route_id, total_bookings, pending_bookings,"
+            + " confirmed_bookings, completed_bookings, cancelled_bookings, expired_bookings, seats_sold, booking_revenue,"
+            + " payments, successful_payments, payment_revenue, customer_sketch) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", stats);
+        jdbcTemplate.batchUpdate("INSERT INTO schedule (agency_route_id, bus_id, driver_id, departure_date, departure_time,"
+            + " arrival_time, available_seats, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", schedules);
+        jdbcTemplate.update("UPDATE agency_schedule_counts SET schedules = schedules + ? WHERE agency_id = ?", rows, agencyId);
+
+        BigDecimal allRevenue = revenue.multiply(BigDecimal.valueOf(rows));
+        jdbcTemplate.update("INSERT INTO agency_booking_stats (agency_id, total_bookings, pending_bookings, confirmed_bookings,"
+            + " completed_bookings, cancelled_bookings, expired_bookings, seats_sold, booking_revenue, payments, successful_payments,"
+            + " payment_revenue, customer_sketch) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", agencyId, rows * BOOKINGS_PER_ROUTE_DAY,
+            rows, rows * 25, rows * 3, rows * 2, 0, rows * 28, allRevenue, rows * 28, rows * 28, allRevenue, allCustomers.toBytes());
+
+        assertThat(dailyBookingStatsService.totals(agencyId, null, null).getTotalBookings()).isGreaterThanOrEqualTo(1_000_000);
+        return (long) DAYS * ROUTES * BOOKINGS_PER_ROUTE_DAY;
+    }
+}
@@ -0,0 +1,104 @@
+package com.inzira.customer.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.entities.Customer;
+import com.inzira.shared.repositories.BookingRepository;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.shared.services.SeatMapService;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+// Stress test for seat reservation: concurrent bookers must never push availableSeats below zero
+@SpringBootTest
+@Import(TestDataFactory.class)
+class BookingConcurrencyTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    // Ticket rendering is not part of the seat contention under test
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void concurrentBookersNeverOversell() throws Exception {
+        int capacity = 25;
+        int bookers = 64;
+        Trip trip = testData.createTrip(capacity);
+        Customer customer = testData.createCustomer();
+
+        AtomicInteger rejected = new AtomicInteger();
+        runConcurrently(bookers, 16, i -> {
+            try {
+                bookingService.createBooking(testData.newBooking(customer, trip, 1 + i % 2));
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        int available = scheduleRepository.findAvailableSeatsById(trip.schedule().getId());
+        List<Booking> booked = bookingRepository.findByScheduleId(trip.schedule().getId());
+        int sold = booked.stream().mapToInt(Booking::getNumberOfSeats).sum();
+        List<Integer> assignedSeats = booked.stream()
+            .flatMap(b -> SeatMapService.parseSeatNumbers(b.getSeatNumbers()).stream())
+            .toList();
+
+        assertThat(available).isGreaterThanOrEqualTo(0);
+        assertThat(sold + available).isEqualTo(capacity);
+        assertThat(assignedSeats).hasSize(sold).doesNotHaveDuplicates().allMatch(seat -> seat >= 1 && seat <= capacity);
+        assertThat(rejected.get()).isPositive();
+    }
+
+    private interface Task {
+        void run(int index) throws Exception;
+    }
+
+    private void runConcurrently(int tasks, int threads, Task task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    startGate.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
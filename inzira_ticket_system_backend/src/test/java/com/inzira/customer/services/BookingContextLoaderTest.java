@@ -0,0 +1,103 @@
+package com.inzira.customer.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.customer.services.BookingContextLoader.BookingContext;
+import com.inzira.shared.entities.Customer;
+import com.inzira.shared.exceptions.ResourceNotFoundException;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.shared.services.SeatInventory;
+import com.inzira.shared.services.SeatMapService;
+import com.inzira.support.SessionStatements;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+import jakarta.persistence.EntityManager;
+
+// Statement counts on the booking hot path, measured with Hibernate's per-session statistics hook
+@SpringBootTest
+@Import(TestDataFactory.class)
+class BookingContextLoaderTest {
+
+    @Autowired
+    private BookingContextLoader bookingContextLoader;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void loadsTheWholeBookingContextInOneStatement() {
+        Trip trip = testData.createTrip(10);
+
+        long statements = statementsInTransaction(() -> {
+            BookingContext context = bookingContextLoader.load(trip.schedule().getId(), trip.pickupPoint().getId(), trip.dropPoint().getId());
+            // Touch everything the booking flow and ticket rendering read
+            context.schedule().getAgencyRoute().getAgency().getAgencyName();
+            context.schedule().getAgencyRoute().getRoute().getOrigin().getProvince().getName();
+            context.schedule().getAgencyRoute().getRoute().getDestination().getName();
+            context.schedule().getBus().getPlateNumber();
+            context.schedule().getDriver().getAgency().getId();
+            context.pickupPoint().getDistrict().getProvince().getName();
+            context.dropPoint().getDistrict().getName();
+        });
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    void bookingIssuesCustomerLookupContextQuerySeatUpdateAndInserts() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        // Load the in-memory seat count and seat map outside the measured section
+        seatInventory.getAvailableSeats(trip.schedule().getId());
+        seatMapService.getSeatMap(trip.schedule().getId());
+
+        // Counted before commit, so after-commit work (ticket pipeline, hold timer) stays out
+        long statements = statementsInTransaction(() -> bookingService.createBooking(testData.newBooking(customer, trip, 1)));
+
+        // Customer lookup, context query, conditional seat update, seat row insert, booking insert
+        assertThat(statements).isEqualTo(5);
+    }
+
+    @Test
+    void reportsWhichIdIsMissing() {
+        Trip trip = testData.createTrip(10);
+
+        assertThatThrownBy(() -> bookingContextLoader.load(-1L, trip.pickupPoint().getId(), trip.dropPoint().getId()))
+            .isInstanceOf(ResourceNotFoundException.class).hasMessage("Schedule not found");
+        assertThatThrownBy(() -> bookingContextLoader.load(trip.schedule().getId(), -1L, trip.dropPoint().getId()))
+            .isInstanceOf(ResourceNotFoundException.class).hasMessage("Pickup point not found");
+        assertThatThrownBy(() -> bookingContextLoader.load(trip.schedule().getId(), trip.dropPoint().getId(), trip.dropPoint().getId()))
+            .isInstanceOf(IllegalArgumentException.class).hasMessage("Pickup point must be in the origin district");
+    }
+
+    private long statementsInTransaction(Runnable action) {
+        return SessionStatements.count(transactionTemplate, entityManager, action);
+    }
+}
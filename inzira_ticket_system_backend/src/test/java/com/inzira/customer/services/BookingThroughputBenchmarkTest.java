@@ -0,0 +1,87 @@
+package com.inzira.customer.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.inzira.shared.entities.Customer;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+// Bookings/sec through the booking service on one hot schedule
+@SpringBootTest
+@Import(TestDataFactory.class)
+@Tag("benchmark")
+class BookingThroughputBenchmarkTest {
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    // Keeps the Spring context identical to the other booking tests so it is cached and shared
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void reportsReservationThroughput() throws Exception {
+        int bookings = 2000;
+        int threads = 8;
+        Trip trip = testData.createTrip(bookings * 2);
+        Customer customer = testData.createCustomer();
+
+        long start = System.nanoTime();
+        runConcurrently(bookings, threads, i -> bookingService.createBooking(testData.newBooking(customer, trip, 1)));
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("Booking service: %d bookings on one schedule with %d threads in %.2fs (%.0f bookings/sec)%n",
+            bookings, threads, seconds, bookings / seconds);
+
+        assertThat(scheduleRepository.findAvailableSeatsById(trip.schedule().getId())).isEqualTo(bookings);
+    }
+
+    private interface Task {
+        void run(int index) throws Exception;
+    }
+
+    private void runConcurrently(int tasks, int threads, Task task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    startGate.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.inzira.shared.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.customer.services.BookingService;
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.events.DomainEvent.BookingCreated;
+import com.inzira.shared.events.DomainEvent.ScheduleStatusChanged;
+import com.inzira.shared.events.DomainEvent.SeatsReleased;
+import com.inzira.shared.events.DomainEventBus.Subscription;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@SpringBootTest
+@Import(TestDataFactory.class)
+class DomainEventBusTest {
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void onlyCommittedEventsAreDelivered() throws InterruptedException {
+        BlockingQueue<ScheduleEvents> received = new LinkedBlockingQueue<>();
+        try (Subscription subscription = domainEventBus.subscribe("test-commit", only(-1L, received))) {
+            transactionTemplate.executeWithoutResult(status -> {
+                domainEventBus.publish(new BookingCreated(1L, -1L, 2));
+                status.setRollbackOnly();
+            });
+            transactionTemplate.executeWithoutResult(status -> domainEventBus.publish(new BookingCreated(2L, -1L, 3)));
+
+            ScheduleEvents batch = received.poll(10, TimeUnit.SECONDS);
+            assertThat(batch).isNotNull();
+            assertThat(batch.events()).containsExactly(new BookingCreated(2L, -1L, 3));
+            assertThat(received.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        }
+    }
+
+    @Test
+    void aBurstOnOneScheduleIsDeliveredAsOneBatch() throws InterruptedException {
+        BlockingQueue<ScheduleEvents> received = new LinkedBlockingQueue<>();
+        try (Subscription subscription = domainEventBus.subscribe("test-burst", only(-2L, received))) {
+            for (long i = 0; i < 50; i++) {
+                domainEventBus.publish(new BookingCreated(i, -2L, 1));
+            }
+
+            ScheduleEvents batch = received.poll(10, TimeUnit.SECONDS);
+            assertThat(batch).isNotNull();
+            assertThat(batch.events()).hasSize(50);
+            assertThat(batch.seatsChanged()).isTrue();
+            assertThat(batch.latestStatus()).isNull();
+            assertThat(received.poll(500, TimeUnit.MILLISECONDS)).isNull();
+        }
+    }
+
+    @Test
+    void aSlowSubscriberHoldsUpNeitherPublishersNorOtherSubscribers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<ScheduleEvents> received = new LinkedBlockingQueue<>();
+        try (Subscription slow = domainEventBus.subscribe("test-slow", events -> {
+                 try {
+                     release.await(30, TimeUnit.SECONDS);
+                 } catch (InterruptedException e) {
+                     Thread.currentThread().interrupt();
+                 }
+             });
+             Subscription fast = domainEventBus.subscribe("test-fast", only(-3L, received))) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) {
+                domainEventBus.publish(new SeatsReleased(-3L, 1));
+            }
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+
+            assertThat(received.poll(10, TimeUnit.SECONDS)).isNotNull();
+            release.countDown();
+        }
+    }
+
+    @Test
+    void aSubscriberThatFallsBehindKeepsOneBatchPerScheduleAndDropsTheRest() throws InterruptedException {
+        // A bus of its own, with windows short enough that each publish below is a batch of its own
+        DomainEventBus bus = new DomainEventBus();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(bus, "coalesceMillis", 1L);
+        ReflectionTestUtils.setField(bus, "maxQueuedSchedules", 2);
+        ReflectionTestUtils.setField(bus, "meterRegistry", meterRegistry);
+        bus.init();
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingQueue<ScheduleEvents> received = new LinkedBlockingQueue<>();
+        try (Subscription behind = bus.subscribe("test-behind", events -> {
+            busy.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(events);
+        })) {
+            bus.publish(new SeatsReleased(-10L, 1));
+            assertThat(busy.await(10, TimeUnit.SECONDS)).isTrue();
+
+            publishAndSettle(bus, new SeatsReleased(-11L, 1));
+            publishAndSettle(bus, new SeatsReleased(-11L, 2));
+            publishAndSettle(bus, new ScheduleStatusChanged(-11L, "DEPARTED"));
+            publishAndSettle(bus, new SeatsReleased(-12L, 1));
+            publishAndSettle(bus, new SeatsReleased(-13L, 1));
+            release.countDown();
+
+            assertThat(received.poll(10, TimeUnit.SECONDS).scheduleId()).isEqualTo(-10L);
+            assertThat(received.poll(10, TimeUnit.SECONDS).events())
+                .containsExactly(new SeatsReleased(-11L, 2), new ScheduleStatusChanged(-11L, "DEPARTED"));
+            assertThat(received.poll(10, TimeUnit.SECONDS).scheduleId()).isEqualTo(-12L);
+            assertThat(received.poll(500, TimeUnit.MILLISECONDS)).isNull();
+            assertThat(meterRegistry.get("domain.events.dropped").tag("subscriber", "test-behind").counter().count()).isEqualTo(1);
+        } finally {
+            bus.shutdown();
+        }
+    }
+
+    @Test
+    void creatingABookingPublishesItOnceCommitted() throws InterruptedException {
+        Trip trip = testData.createTrip(10);
+        Long scheduleId = trip.schedule().getId();
+        BlockingQueue<ScheduleEvents> received = new LinkedBlockingQueue<>();
+        try (Subscription subscription = domainEventBus.subscribe("test-booking", only(scheduleId, received))) {
+            Booking booking = bookingService.createBooking(testData.newBooking(testData.createCustomer(), trip, 2));
+
+            ScheduleEvents batch = received.poll(10, TimeUnit.SECONDS);
+            assertThat(batch).isNotNull();
+            assertThat(batch.events()).containsExactly(new BookingCreated(booking.getId(), scheduleId, 2));
+        }
+    }
+
+    // Publishes outside a transaction and waits for the window to close
+    private static void publishAndSettle(DomainEventBus bus, DomainEvent event) throws InterruptedException {
+        bus.publish(event);
+        Thread.sleep(100);
+    }
+
+    // Other tests share the bus, so each listens to its own schedule only
+    private static Consumer<ScheduleEvents> only(Long scheduleId, BlockingQueue<ScheduleEvents> received) {
+        return events -> {
+            if (events.scheduleId().equals(scheduleId)) {
+                received.add(events);
+            }
+        };
+    }
+}
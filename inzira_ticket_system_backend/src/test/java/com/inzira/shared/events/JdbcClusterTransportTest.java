@@ -0,0 +1,110 @@
+package com.inzira.shared.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.inzira.shared.repositories.ClusterEventRepository;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.support.TestDataFactory;
+
+@SpringBootTest
+@Import(TestDataFactory.class)
+class JdbcClusterTransportTest {
+
+    @Autowired
+    private ClusterEventRepository clusterEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void eachNodeRelaysWhatTheOthersPublishedInOrder() {
+        List<ClusterMessage> atB = new CopyOnWriteArrayList<>();
+        List<ClusterMessage> atC = new CopyOnWriteArrayList<>();
+        JdbcClusterTransport nodeB = node("node-b", atB);
+        JdbcClusterTransport nodeC = node("node-c", atC);
+        try {
+            long first = nodeB.send(message("{\"availableSeats\":9}"));
+            long second = nodeC.send(message("{\"availableSeats\":8}"));
+            long third = nodeB.send(message("{\"availableSeats\":7}"));
+
+            assertThat(nodeC.poll()).isEqualTo(2);
+            assertThat(nodeB.poll()).isEqualTo(1);
+            assertThat(atC).extracting(ClusterMessage::sequence).containsExactly(first, third);
+            assertThat(atC.get(1).data()).isEqualTo("{\"availableSeats\":7}");
+            assertThat(atC.get(1).topics()).containsExactlyInAnyOrder("schedule:1", "seats");
+            assertThat(atB).extracting(ClusterMessage::sequence).containsExactly(second);
+            assertThat(nodeC.poll()).isZero();
+
+            // Resuming: what followed a sequence number, unless there is too much of it or it is gone
+            assertThat(nodeB.since(first, 10)).hasValueSatisfying(missed ->
+                assertThat(missed).extracting(ClusterMessage::sequence).containsExactly(second, third));
+            assertThat(nodeB.since(first, 1)).isEmpty();
+            clusterEventRepository.deleteById(first);
+            assertThat(nodeB.since(first, 10)).isEmpty();
+        } finally {
+            nodeB.shutdown();
+            nodeC.shutdown();
+        }
+    }
+
+    @Test
+    void aRowCommittedAfterAHigherIdIsStillRelayed() {
+        List<ClusterMessage> received = new CopyOnWriteArrayList<>();
+        JdbcClusterTransport nodeC = node("node-c", received);
+        long last = clusterEventRepository.findMaxId();
+        try {
+            // Ids are taken at insert and rows show up at commit: the later id becomes visible first
+            insert(last + 2);
+            assertThat(nodeC.poll()).isEqualTo(1);
+            insert(last + 1);
+            assertThat(nodeC.poll()).isEqualTo(1);
+            assertThat(nodeC.poll()).isZero();
+            assertThat(received).extracting(ClusterMessage::sequence).containsExactly(last + 2, last + 1);
+        } finally {
+            jdbcTemplate.execute("alter table cluster_events alter column id restart with " + (last + 3));
+            nodeC.shutdown();
+        }
+    }
+
+    @Test
+    void stoppingTheContextStopsThePoller() {
+        JdbcClusterTransport transport = new JdbcClusterTransport(clusterEventRepository, "node-d", 10, 15, 5000);
+        transport.start(message -> {});
+        assertThat(transport.isRunning()).isTrue();
+
+        transport.stop();
+
+        assertThat(transport.isRunning()).isFalse();
+    }
+
+    // A node polled by the test only
+    private JdbcClusterTransport node(String nodeId, List<ClusterMessage> received) {
+        JdbcClusterTransport transport = new JdbcClusterTransport(clusterEventRepository, nodeId, 3_600_000, 15, 5000);
+        transport.start(received::add);
+        return transport;
+    }
+
+    private void insert(long id) {
+        jdbcTemplate.update("insert into cluster_events (id, node_id, topics, name, event_key, data, created_at) values (?, ?, ?, ?, ?, ?, ?)",
+            id, "node-b", "schedule:1", "seat-update", "seat:1", "{\"availableSeats\":" + id + "}", LocalDateTime.now());
+    }
+
+    private static ClusterMessage message(String data) {
+        return new ClusterMessage(0, Set.of("schedule:1", "seats"), "seat-update", "seat:1", data);
+    }
+}
@@ -0,0 +1,146 @@
+package com.inzira.shared.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.inzira.shared.events.DomainEvent.SeatsReleased;
+import com.inzira.shared.events.DomainEventBus;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.shared.services.SseBroadcaster;
+import com.inzira.support.TestDataFactory;
+
+import reactor.core.Disposable;
+import reactor.netty.resources.ConnectionProvider;
+
+// Compares idle seat-update streams on the servlet API (SseEmitter on Tomcat) and on the reactive read tier (Netty)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = { "reactive.enabled=true", "reactive.port=0" })
+@Import(TestDataFactory.class)
+@Tag("benchmark")
+class ReactiveReadBenchmarkTest {
+
+    private static final int STREAMS = 2000;
+    private static final int WAVE = 100;
+
+    @LocalServerPort
+    private int servletPort;
+
+    @Autowired
+    private ReactiveReadServer reactiveReadServer;
+
+    @Autowired
+    private SseBroadcaster sseBroadcaster;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void idleStreamsCostNoRequestThreadsOnTheReactiveTier() throws InterruptedException {
+        Long scheduleId = testData.createTrip(10).schedule().getId();
+        String path = "/api/sse/seat-updates?scheduleId=" + scheduleId;
+
+        // Reactive first: its streams are gone as soon as the clients leave, the servlet ones only at the next heartbeat
+        Result reactive = open("reactive", reactiveReadServer.getPort(), path, scheduleId, "reactor-http", "reactive-jpa");
+        Result servlet = open("servlet", servletPort, path, scheduleId, "-exec-");
+
+        for (Result result : List.of(servlet, reactive)) {
+            System.out.printf("%s tier, %d idle streams: %d connected in %d ms, %d request threads, +%d KB heap,"
+                + " one update reached %d in %d ms%n", result.tier, STREAMS, result.connected, result.connectMillis,
+                result.requestThreads, result.heapBytes / 1024, result.updated, result.fanOutMillis);
+        }
+        assertThat(reactive.connected).isGreaterThanOrEqualTo(STREAMS * 99 / 100);
+        assertThat(servlet.connected).isGreaterThanOrEqualTo(STREAMS * 99 / 100);
+        assertThat(reactive.updated).isEqualTo(reactive.connected);
+        // Netty's event loops are sized by CPU and blocking reads by reactive.jpa-threads, whatever the connections
+        assertThat(reactive.requestThreads).isLessThan(50);
+    }
+
+    private Result open(String tier, int port, String path, Long scheduleId, String... threadNames) throws InterruptedException {
+        int clientsBefore = sseBroadcaster.getClientCount();
+        long heapBefore = usedHeap();
+        AtomicInteger connected = new AtomicInteger();
+        AtomicInteger updated = new AtomicInteger();
+        ConnectionProvider connections = ConnectionProvider.newConnection();
+        reactor.netty.http.client.HttpClient client = reactor.netty.http.client.HttpClient.create(connections)
+            .baseUrl("http://localhost:" + port);
+
+        long start = System.nanoTime();
+        List<Disposable> streams = new ArrayList<>(STREAMS);
+        int lost = 0;
+        try {
+            // Opened in waves, so the listen backlog is not what limits them; a stream that never connects is counted out
+            while (streams.size() < STREAMS) {
+                for (int i = 0; i < WAVE; i++) {
+                    streams.add(client.get().uri(path).responseContent().asString().subscribe(chunk -> {
+                        if (chunk.contains("event:connected")) {
+                            connected.incrementAndGet();
+                        }
+                        if (chunk.contains("event:seat-update")) {
+                            updated.incrementAndGet();
+                        }
+                    }, error -> { }));
+                }
+                int opened = streams.size() - lost;
+                awaitUpTo(10_000, () -> connected.get() >= opened);
+                lost = streams.size() - connected.get();
+            }
+            long connectMillis = (System.nanoTime() - start) / 1_000_000;
+            int requestThreads = threadsNamed(threadNames);
+            long heapBytes = usedHeap() - heapBefore;
+
+            start = System.nanoTime();
+            domainEventBus.publish(new SeatsReleased(scheduleId, 1));
+            awaitUpTo(30_000, () -> updated.get() >= connected.get());
+            long fanOutMillis = (System.nanoTime() - start) / 1_000_000;
+            return new Result(tier, connected.get(), connectMillis, requestThreads, heapBytes, updated.get(), fanOutMillis);
+        } finally {
+            streams.forEach(Disposable::dispose);
+            if (tier.equals("reactive")) {
+                awaitUpTo(120_000, () -> sseBroadcaster.getClientCount() <= clientsBefore);
+                assertThat(sseBroadcaster.getClientCount()).isLessThanOrEqualTo(clientsBefore);
+            }
+            connections.dispose();
+        }
+    }
+
+    private static int threadsNamed(String... names) {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> Arrays.stream(names).anyMatch(name -> thread.getName().contains(name)))
+            .count();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void awaitUpTo(long millis, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    private record Result(String tier, int connected, long connectMillis, int requestThreads, long heapBytes, int updated,
+                          long fanOutMillis) {}
+}
@@ -0,0 +1,73 @@
+package com.inzira.shared.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inzira.shared.entities.Route;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+// The reactive read tier answers the same reads as the servlet endpoints, with the same bodies
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = { "reactive.enabled=true", "reactive.port=0" })
+@Import(TestDataFactory.class)
+class ReactiveReadRoutesTest {
+
+    @LocalServerPort
+    private int servletPort;
+
+    @Autowired
+    private ReactiveReadServer reactiveReadServer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void readsMatchTheServletEndpoints() throws Exception {
+        Trip trip = testData.createTrip(10);
+        Route route = trip.schedule().getAgencyRoute().getRoute();
+        String search = "/api/agency/schedules/search?originId=" + route.getOrigin().getId()
+            + "&destinationId=" + route.getDestination().getId() + "&departureDate=" + trip.schedule().getDepartureDate();
+
+        for (String path : List.of(search, "/api/agency/schedules/" + trip.schedule().getId() + "/seats")) {
+            JsonNode servlet = get(servletPort, path, 200);
+            JsonNode reactive = get(reactiveReadServer.getPort(), path, 200);
+            assertThat(reactive.get("success").asBoolean()).isTrue();
+            assertThat(reactive.get("message")).isEqualTo(servlet.get("message"));
+            assertThat(reactive.get("data")).isEqualTo(servlet.get("data"));
+        }
+        assertThat(get(reactiveReadServer.getPort(), "/api/agency/schedules/999999/seats", 404).get("success").asBoolean()).isFalse();
+        assertThat(get(reactiveReadServer.getPort(), search.replace("departureDate=", "departureDate=x"), 400).get("message").asText())
+            .contains("departureDate");
+    }
+
+    private JsonNode get(int port, String path, int expectedStatus) throws Exception {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+            HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).isEqualTo(expectedStatus);
+        return objectMapper.readTree(response.body());
+    }
+}
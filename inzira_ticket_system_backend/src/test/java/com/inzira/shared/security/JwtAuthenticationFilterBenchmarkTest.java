@@ -0,0 +1,127 @@
+package com.inzira.shared.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Cost of authenticating one request: the previous six parses of the token (key and parser rebuilt
+ * each time) vs the filter now, with a cache hit, with the cache turned off, and on a public path.
+ * The JUnit entry point runs a short in-process pass; for real numbers run main() (forked, longer).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+@Tag("benchmark")
+public class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final String SECRET = "testSecretKeyThatIsAtLeast256BitsLongForJWTSigningInTests";
+
+    private JwtAuthenticationFilter cachedFilter;
+    private JwtAuthenticationFilter uncachedFilter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = JwtUtilTest.newJwtUtil(86_400_000L, 10_000);
+        token = jwtUtil.generateToken("agent@inzira.rw", "AGENT", 7L, 42L);
+        cachedFilter = filter(jwtUtil);
+        uncachedFilter = filter(JwtUtilTest.newJwtUtil(86_400_000L, 0));
+    }
+
+    @Benchmark
+    public Object legacyAuthentication() {
+        // What doFilterInternal did: email, validate, expiry, role, userId, roleEntityId
+        String email = legacyClaims(token).getSubject();
+        legacyClaims(token);
+        boolean expired = legacyClaims(token).getExpiration().before(new Date());
+        String role = legacyClaims(token).get("role", String.class);
+        Long userId = legacyClaims(token).get("userId", Long.class);
+        Long roleEntityId = legacyClaims(token).get("roleEntityId", Long.class);
+        return new Object[] { email, expired, role, userId, roleEntityId };
+    }
+
+    @Benchmark
+    public Object cachedFilter() throws Exception {
+        return run(cachedFilter, "/api/agent/bookings");
+    }
+
+    @Benchmark
+    public Object uncachedFilter() throws Exception {
+        return run(uncachedFilter, "/api/agent/bookings");
+    }
+
+    @Benchmark
+    public Object publicPathFilter() throws Exception {
+        return run(cachedFilter, "/api/agency/schedules/search");
+    }
+
+    private Object run(JwtAuthenticationFilter filter, String path) throws Exception {
+        MockHttpServletRequest request = JwtUtilTest.request(path, token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    private static JwtAuthenticationFilter filter(JwtUtil jwtUtil) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        return filter;
+    }
+
+    @Test
+    void quickRun() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(JwtAuthenticationFilterBenchmarkTest.class.getSimpleName())
+            .forks(0)
+            .warmupIterations(1)
+            .warmupTime(TimeValue.milliseconds(300))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.milliseconds(300))
+            .build();
+        new Runner(options).run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(JwtAuthenticationFilterBenchmarkTest.class.getSimpleName())
+            .forks(1)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,127 @@
+package com.inzira.shared.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.inzira.shared.repositories.RevokedTokenRepository;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+
+class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(86_400_000L, 3);
+    }
+
+    @Test
+    void aTokenIsVerifiedOnceAndItsClaimsComeFromTheCache() {
+        String token = jwtUtil.generateToken("agent@inzira.rw", "AGENT", 7L, 42L);
+
+        JwtPrincipal principal = jwtUtil.parse(token);
+        assertThat(principal).isEqualTo(new JwtPrincipal("agent@inzira.rw", "AGENT", 7L, 42L, principal.tokenId(),
+            principal.issuedAt(), principal.expiresAt(), false));
+        assertThat(jwtUtil.parse(token)).isSameAs(principal);
+        assertThat(jwtUtil.getRoleEntityIdFromToken(token)).isEqualTo(42L);
+        assertThat(jwtUtil.validateToken(token)).isTrue();
+        assertThat(jwtUtil.isTokenExpired(token)).isFalse();
+        assertThat(jwtUtil.getCachedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tamperedAndExpiredTokensAreRejectedAndTheCacheStaysBounded() {
+        String token = jwtUtil.generateToken("agent@inzira.rw", "AGENT", 7L, 42L);
+        jwtUtil.parse(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertThat(jwtUtil.validateToken(tampered)).isFalse();
+        assertThatThrownBy(() -> jwtUtil.parse(tampered)).isInstanceOf(JwtException.class);
+
+        // Signed by a util with a negative lifetime: expired on arrival, cached or not
+        JwtUtil expiring = newJwtUtil(-1000L, 3);
+        String expired = expiring.generateToken("agent@inzira.rw", "AGENT", 7L, 42L);
+        assertThatThrownBy(() -> jwtUtil.parse(expired)).isInstanceOf(ExpiredJwtException.class);
+        assertThat(jwtUtil.isTokenExpired(expired)).isTrue();
+
+        for (long userId = 1; userId <= 10; userId++) {
+            jwtUtil.parse(jwtUtil.generateToken("user" + userId + "@inzira.rw", "CUSTOMER", userId, userId));
+        }
+        assertThat(jwtUtil.getCachedCount()).isEqualTo(3);
+    }
+
+    @Test
+    void theFilterAuthenticatesProtectedPathsAndSkipsPublicOnes() throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtil", jwtUtil);
+        String token = jwtUtil.generateToken("agent@inzira.rw", "AGENT", 7L, 42L);
+        try {
+            MockHttpServletRequest request = request("/api/agent/bookings", token);
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            assertThat(authentication.getName()).isEqualTo("agent@inzira.rw");
+            assertThat(authentication.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_AGENT");
+            assertThat(request.getAttribute("roleEntityId")).isEqualTo(42L);
+
+            // A valid token on a public path is not looked at, so it never reaches the cache
+            SecurityContextHolder.clearContext();
+            request = request("/api/agency/schedules/search", jwtUtil.generateToken("customer@inzira.rw", "CUSTOMER", 8L, 9L));
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+            assertThat(jwtUtil.getCachedCount()).isEqualTo(1);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void refreshTokensOnlyRefreshAndRevokedTokensFailEvenWhenCached() {
+        String access = jwtUtil.generateToken("agent@inzira.rw", "AGENT", 7L, 42L);
+        String refresh = jwtUtil.generateRefreshToken("agent@inzira.rw", "AGENT", 7L, 42L);
+        assertThat(jwtUtil.parseRefreshToken(refresh).refresh()).isTrue();
+        assertThatThrownBy(() -> jwtUtil.parse(refresh)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtil.parseRefreshToken(access)).isInstanceOf(JwtException.class);
+
+        JwtPrincipal principal = jwtUtil.parse(access);
+        assertThat(principal.tokenId()).isNotNull();
+        TokenDenylist tokenDenylist = (TokenDenylist) ReflectionTestUtils.getField(jwtUtil, "tokenDenylist");
+        tokenDenylist.revokeToken(principal);
+        assertThatThrownBy(() -> jwtUtil.parse(access)).isInstanceOf(JwtException.class).hasMessageContaining("revoked");
+        assertThat(jwtUtil.validateToken(access)).isFalse();
+        assertThat(jwtUtil.parse(jwtUtil.generateToken("agent@inzira.rw", "AGENT", 7L, 42L)).email()).isEqualTo("agent@inzira.rw");
+    }
+
+    static JwtUtil newJwtUtil(long expiration, int cacheMaxEntries) {
+        RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+        when(revokedTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(revokedTokenRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "testSecretKeyThatIsAtLeast256BitsLongForJWTSigningInTests");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expiration);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", cacheMaxEntries);
+        ReflectionTestUtils.setField(jwtUtil, "tokenDenylist", new TokenDenylist(revokedTokenRepository, 1000, 604_800_000L, 1000));
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    static MockHttpServletRequest request(String path, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,193 @@
+package com.inzira.shared.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.inzira.shared.dtos.ChangePasswordRequest;
+import com.inzira.shared.dtos.LoginRequest;
+import com.inzira.shared.dtos.LoginResponse;
+import com.inzira.shared.dtos.RegisterRequest;
+import com.inzira.shared.entities.RevokedToken;
+import com.inzira.shared.repositories.RevokedTokenRepository;
+import com.inzira.shared.services.AuthService;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.shared.services.PasswordService;
+import com.inzira.support.TestDataFactory;
+
+import io.jsonwebtoken.JwtException;
+
+@SpringBootTest
+@Import(TestDataFactory.class)
+class TokenDenylistTest {
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void aRevocationOnOneNodeIsRefusedByTheOthersAfterTheirNextPoll() {
+        TokenDenylist nodeB = node();
+        TokenDenylist nodeC = node();
+        try {
+            long now = System.currentTimeMillis();
+            JwtPrincipal token = new JwtPrincipal("a@inzira.rw", "CUSTOMER", -1L, 1L, UUID.randomUUID().toString(), now, now + 60_000, false);
+            JwtPrincipal otherUsersToken = new JwtPrincipal("b@inzira.rw", "CUSTOMER", -2L, 2L, UUID.randomUUID().toString(), now, now + 60_000, false);
+
+            nodeB.revokeToken(token);
+            nodeB.revokeUser(-2L);
+            assertThat(nodeB.isRevoked(token)).isTrue();
+            assertThat(nodeB.isRevoked(otherUsersToken)).isTrue();
+            assertThat(nodeC.isRevoked(token)).isFalse();
+            assertThat(nodeC.isRevoked(otherUsersToken)).isFalse();
+
+            assertThat(nodeC.poll()).isGreaterThanOrEqualTo(2);
+            assertThat(nodeC.isRevoked(token)).isTrue();
+            assertThat(nodeC.isRevoked(otherUsersToken)).isTrue();
+            // Issued after the user was revoked: the revocation is rounded up to the next second
+            assertThat(nodeC.isRevoked(new JwtPrincipal("b@inzira.rw", "CUSTOMER", -2L, 2L, null, now + 2000, now + 60_000, false))).isFalse();
+
+            // A node started later loads what is still live; rows past their expiry are pruned
+            RevokedToken expired = new RevokedToken();
+            expired.setTokenId("expired-" + UUID.randomUUID());
+            expired.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+            revokedTokenRepository.save(expired);
+            TokenDenylist nodeD = node();
+            try {
+                assertThat(nodeD.isRevoked(token)).isTrue();
+                nodeD.prune();
+                assertThat(revokedTokenRepository.existsById(expired.getId())).isFalse();
+                assertThat(nodeD.isRevoked(token)).isTrue();
+            } finally {
+                nodeD.shutdown();
+            }
+        } finally {
+            nodeB.shutdown();
+            nodeC.shutdown();
+        }
+    }
+
+    @Test
+    void refreshRotatesAndLogoutAndPasswordChangeEndSessions() throws InterruptedException {
+        String email = register();
+
+        LoginResponse first = authService.login(login(email, "secret1"));
+        assertThat(first.getExpiresIn()).isPositive();
+        LoginResponse second = authService.refresh(first.getRefreshToken());
+        assertThat(jwtUtil.parse(second.getToken()).email()).isEqualTo(email);
+        // A refresh token is good for one refresh
+        assertThatThrownBy(() -> authService.refresh(first.getRefreshToken())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> authService.refresh(second.getToken())).isInstanceOf(IllegalArgumentException.class);
+
+        authService.logout(second.getToken(), second.getRefreshToken());
+        assertThatThrownBy(() -> jwtUtil.parse(second.getToken())).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> authService.refresh(second.getRefreshToken())).isInstanceOf(IllegalArgumentException.class);
+        assertThat(jwtUtil.parse(first.getToken()).email()).isEqualTo(email);
+
+        LoginResponse third = authService.login(login(email, "secret1"));
+        ChangePasswordRequest change = new ChangePasswordRequest();
+        change.setCurrentPassword("secret1");
+        change.setNewPassword("secret2");
+        passwordService.changePassword(third.getToken(), change);
+        assertThatThrownBy(() -> jwtUtil.parse(first.getToken())).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtil.parse(third.getToken())).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> authService.refresh(third.getRefreshToken())).isInstanceOf(IllegalArgumentException.class);
+
+        // Issue times are whole seconds, so a new session starts in the next one
+        Thread.sleep(1000);
+        LoginResponse fourth = authService.login(login(email, "secret2"));
+        assertThat(jwtUtil.parse(fourth.getToken()).email()).isEqualTo(email);
+    }
+
+    @Test
+    void aRefreshTokenIsRotatedOnceAcrossConcurrentAndReplayedRequests() throws Exception {
+        String email = register();
+        LoginResponse session = authService.login(login(email, "secret1"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<LoginResponse>> refreshes = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                refreshes.add(() -> authService.refresh(session.getRefreshToken()));
+            }
+            int rotated = 0;
+            for (Future<LoginResponse> result : pool.invokeAll(refreshes)) {
+                try {
+                    result.get();
+                    rotated++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(IllegalArgumentException.class);
+                }
+            }
+            assertThat(rotated).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Replayed on a node that has not polled the revocation yet: the unique token id refuses it
+        JwtPrincipal replayed = jwtUtil.parseRefreshToken(authService.login(login(email, "secret1")).getRefreshToken());
+        TokenDenylist first = node();
+        TokenDenylist second = node();
+        try {
+            assertThat(first.revokeToken(replayed)).isTrue();
+            assertThat(second.revokeToken(replayed)).isFalse();
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    // A node polled by the test only
+    private TokenDenylist node() {
+        TokenDenylist node = new TokenDenylist(revokedTokenRepository, 3_600_000, 604_800_000L, 1000);
+        node.start();
+        return node;
+    }
+
+    // A new active customer with password "secret1"; returns the email
+    private String register() {
+        String email = "denylist-" + UUID.randomUUID() + "@inzira.rw";
+        RegisterRequest register = new RegisterRequest();
+        register.setEmail(email);
+        register.setPassword("secret1");
+        register.setFirstName("Test");
+        register.setLastName("Customer");
+        register.setPhoneNumber("0788000000");
+        register.setRole("CUSTOMER");
+        authService.registerUser(register);
+        return email;
+    }
+
+    private static LoginRequest login(String email, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return request;
+    }
+}
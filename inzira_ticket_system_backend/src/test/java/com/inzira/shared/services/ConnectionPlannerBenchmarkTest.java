@@ -0,0 +1,123 @@
+package com.inzira.shared.services;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.inzira.agency.repositories.AgencyRouteRepository;
+import com.inzira.shared.dtos.ItineraryDTO;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.services.DepartureIndex.Departure;
+
+/**
+ * Connection search latency on a network of 30 districts and 300 served pairs with 5000 departures a day
+ * over three days. The JUnit entry point runs a short in-process pass; for real numbers run main().
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Tag("benchmark")
+public class ConnectionPlannerBenchmarkTest {
+
+    private static final int DISTRICTS = 30;
+    private static final int PAIRS = 300;
+    private static final int DEPARTURES_PER_DAY = 5000;
+    private static final int DAYS = 3;
+
+    private final ConnectionPlanner planner = new ConnectionPlanner();
+    private final LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+    @Setup(Level.Trial)
+    public void load() {
+        Random random = new Random(42);
+        Set<Long> seen = new HashSet<>();
+        List<long[]> pairs = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        while (pairs.size() < PAIRS) {
+            long origin = random.nextInt(DISTRICTS);
+            long destination = random.nextInt(DISTRICTS);
+            if (origin != destination && seen.add(origin * DISTRICTS + destination)) {
+                pairs.add(new long[] { origin, destination });
+                rows.add(new Object[] { origin, "District " + origin, destination, "District " + destination });
+            }
+        }
+
+        SeatInventory seatInventory = new SeatInventory();
+        DepartureIndex departureIndex = new DepartureIndex();
+        ReflectionTestUtils.setField(departureIndex, "seatInventory", seatInventory);
+        long id = 1;
+        for (int day = 0; day < DAYS; day++) {
+            for (int i = 0; i < DEPARTURES_PER_DAY; i++, id++) {
+                long[] pair = pairs.get(random.nextInt(PAIRS));
+                LocalTime departure = LocalTime.of(5 + random.nextInt(16), random.nextInt(12) * 5);
+                Schedule schedule = new Schedule();
+                schedule.setId(id);
+                schedule.setAvailableSeats(30);
+                seatInventory.register(schedule);
+                departureIndex.put(new Departure(id, pair[0], pair[0], "Agency", pair[0], pair[1], tomorrow.plusDays(day),
+                    departure, departure.plusMinutes(60 + random.nextInt(180)), 1000 + random.nextInt(40) * 100));
+            }
+        }
+
+        AgencyRouteRepository agencyRouteRepository = mock(AgencyRouteRepository.class);
+        when(agencyRouteRepository.findServedDistrictPairs()).thenReturn(rows);
+        ReflectionTestUtils.setField(planner, "agencyRouteRepository", agencyRouteRepository);
+        ReflectionTestUtils.setField(planner, "departureIndex", departureIndex);
+        ReflectionTestUtils.setField(planner, "seatInventory", seatInventory);
+    }
+
+    @Benchmark
+    public List<ItineraryDTO> plan() {
+        long origin = ThreadLocalRandom.current().nextInt(DISTRICTS);
+        long destination = (origin + 1 + ThreadLocalRandom.current().nextInt(DISTRICTS - 1)) % DISTRICTS;
+        LocalDateTime after = tomorrow.atTime(6 + ThreadLocalRandom.current().nextInt(12), 0);
+        return planner.plan(origin, destination, after, 1, 5);
+    }
+
+    @Test
+    void quickRun() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(ConnectionPlannerBenchmarkTest.class.getSimpleName())
+            .forks(0)
+            .warmupIterations(1)
+            .warmupTime(TimeValue.milliseconds(500))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.milliseconds(500))
+            .build();
+        new Runner(options).run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(ConnectionPlannerBenchmarkTest.class.getSimpleName())
+            .forks(1)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,143 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.inzira.agency.repositories.AgencyRouteRepository;
+import com.inzira.shared.dtos.ItineraryDTO;
+import com.inzira.shared.dtos.ItineraryLegDTO;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.services.DepartureIndex.Departure;
+
+class ConnectionPlannerTest {
+
+    // Districts
+    private static final long A = 1, B = 2, C = 3, D = 4, E = 5;
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+    private static final LocalDateTime MORNING = DAY.atTime(6, 0);
+
+    private final List<Object[]> servedPairs = new ArrayList<>();
+    private ConnectionPlanner planner;
+    private DepartureIndex departureIndex;
+    private SeatInventory seatInventory;
+    private long nextScheduleId = 1;
+
+    @BeforeEach
+    void setUp() {
+        AgencyRouteRepository agencyRouteRepository = mock(AgencyRouteRepository.class);
+        when(agencyRouteRepository.findServedDistrictPairs()).thenReturn(servedPairs);
+        seatInventory = new SeatInventory();
+        departureIndex = new DepartureIndex();
+        ReflectionTestUtils.setField(departureIndex, "seatInventory", seatInventory);
+
+        planner = new ConnectionPlanner();
+        ReflectionTestUtils.setField(planner, "agencyRouteRepository", agencyRouteRepository);
+        ReflectionTestUtils.setField(planner, "departureIndex", departureIndex);
+        ReflectionTestUtils.setField(planner, "seatInventory", seatInventory);
+    }
+
+    @Test
+    void ranksByArrivalThenPriceAndDropsDominatedItineraries() {
+        leg(A, C, "08:00", "11:00", 6000, 10);
+        leg(A, B, "08:00", "10:00", 2000, 10);
+        leg(B, C, "10:45", "12:00", 2000, 10);
+        leg(A, C, "09:00", "13:00", 7000, 10); // later and dearer than the transfer: dominated
+
+        List<ItineraryDTO> itineraries = planner.plan(A, C, MORNING, 1, 5);
+
+        assertThat(itineraries).extracting(ItineraryDTO::getTransfers, ItineraryDTO::getTotalPrice)
+            .containsExactly(tuple(0, 6000.0), tuple(1, 4000.0));
+        assertThat(itineraries.get(1).getLegs()).extracting(ItineraryLegDTO::getOriginName, ItineraryLegDTO::getDestinationName)
+            .containsExactly(tuple("D1", "D2"), tuple("D2", "D3"));
+        assertThat(itineraries.get(1).getArrival()).isEqualTo(DAY.atTime(12, 0));
+    }
+
+    @Test
+    void enforcesMinimumConnectionTime() {
+        leg(A, B, "08:00", "10:00", 2000, 10);
+        leg(B, C, "10:15", "11:30", 2000, 10); // 15 minutes after arrival, minimum is 30
+        leg(B, C, "13:00", "14:15", 2000, 10);
+
+        List<ItineraryDTO> itineraries = planner.plan(A, C, MORNING, 1, 5);
+
+        assertThat(itineraries).singleElement().extracting(ItineraryDTO::getArrival).isEqualTo(DAY.atTime(14, 15));
+    }
+
+    @Test
+    void allowsAtMostTwoTransfers() {
+        leg(A, B, "06:00", "07:00", 1000, 10);
+        leg(B, C, "08:00", "09:00", 1000, 10);
+        leg(C, D, "10:00", "11:00", 1000, 10);
+        leg(D, E, "12:00", "13:00", 1000, 10);
+
+        assertThat(planner.plan(A, D, MORNING, 1, 5)).singleElement().extracting(ItineraryDTO::getTransfers).isEqualTo(2);
+        assertThat(planner.plan(A, E, MORNING, 1, 5)).isEmpty();
+    }
+
+    @Test
+    void skipsLegsWithoutEnoughSeatsAndOvernightArrivalsCount() {
+        leg(A, B, "08:00", "10:00", 2000, 1);
+        leg(A, B, "20:00", "02:00", 2500, 10); // arrives the next day
+        leg(B, C, "09:00", "10:00", 1000, 10); // next-day departure is added below
+
+        Departure nextDay = new Departure(nextScheduleId, 1L, 1L, "Agency", B, C, DAY.plusDays(1), LocalTime.of(3, 0), LocalTime.of(4, 0), 1000);
+        register(nextScheduleId++, 10);
+        departureIndex.put(nextDay);
+
+        List<ItineraryDTO> itineraries = planner.plan(A, C, MORNING, 2, 5);
+
+        assertThat(itineraries).singleElement().satisfies(itinerary -> {
+            assertThat(itinerary.getDeparture()).isEqualTo(DAY.atTime(20, 0));
+            assertThat(itinerary.getArrival()).isEqualTo(DAY.plusDays(1).atTime(4, 0));
+        });
+    }
+
+    @Test
+    void graphIsRebuiltAfterInvalidation() {
+        leg(A, B, "08:00", "10:00", 2000, 10);
+        assertThat(planner.plan(A, B, MORNING, 1, 5)).hasSize(1);
+
+        servedPairs.clear();
+        assertThat(planner.plan(A, B, MORNING, 1, 5)).hasSize(1); // still the cached graph
+        planner.invalidateGraph();
+        assertThat(planner.plan(A, B, MORNING, 1, 5)).isEmpty();
+    }
+
+    @Test
+    void rejectsInvalidRequests() {
+        assertThatThrownBy(() -> planner.plan(A, A, MORNING, 1, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.plan(A, B, MORNING, 0, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> planner.plan(A, B, MORNING, 1, ConnectionPlanner.MAX_LIMIT + 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // A departure on DAY between two districts; the pair is added to the served graph
+    private void leg(long origin, long destination, String departure, String arrival, double price, int seats) {
+        if (servedPairs.stream().noneMatch(pair -> pair[0].equals(origin) && pair[2].equals(destination))) {
+            servedPairs.add(new Object[] { origin, "D" + origin, destination, "D" + destination });
+        }
+        long scheduleId = nextScheduleId++;
+        register(scheduleId, seats);
+        departureIndex.put(new Departure(scheduleId, 1L, 1L, "Agency", origin, destination, DAY,
+            LocalTime.parse(departure), LocalTime.parse(arrival), price));
+    }
+
+    private void register(long scheduleId, int seats) {
+        Schedule schedule = new Schedule();
+        schedule.setId(scheduleId);
+        schedule.setAvailableSeats(seats);
+        seatInventory.register(schedule);
+    }
+}
@@ -0,0 +1,210 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.agency.services.AgencyMetricsService;
+import com.inzira.shared.dtos.BookingStatsTotals;
+import com.inzira.shared.dtos.PointPopularity;
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.entities.Customer;
+import com.inzira.shared.repositories.BookingRepository;
+import com.inzira.shared.services.BookingSketchService.PointType;
+import com.inzira.support.SessionStatements;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+import jakarta.persistence.EntityManager;
+
+// Every test reads a fresh agency, so rows left by other tests never reach its totals
+@SpringBootTest
+@Import(TestDataFactory.class)
+class DailyBookingStatsServiceTest {
+
+    @Autowired
+    private DailyBookingStatsService dailyBookingStatsService;
+
+    @Autowired
+    private BookingSketchService bookingSketchService;
+
+    @Autowired
+    private AgencyMetricsService agencyMetricsService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void rebuildRollsUpBookingsAndPaymentsPerDay() {
+        Trip trip = testData.createTrip(50);
+        Trip otherAgency = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        LocalDateTime day = LocalDateTime.of(2007, 5, 1, 10, 0);
+        testData.createPayment(testData.createBooking(trip, customer, "CONFIRMED", day), "SUCCESS", day);
+        testData.createBooking(trip, customer, "CANCELLED", day.plusHours(13));
+        testData.createPayment(testData.createBooking(trip, customer, "PENDING", day.plusDays(1)), "PENDING", day.plusDays(1));
+        testData.createBooking(otherAgency, customer, "CONFIRMED", day);
+        Long agencyId = agencyId(trip);
+        LocalDate first = day.toLocalDate();
+
+        dailyBookingStatsService.rebuild(first, first.plusDays(1));
+        // Rebuilding replaces rows, so running it twice changes nothing
+        dailyBookingStatsService.rebuild(first, first.plusDays(1));
+
+        BookingStatsTotals firstDay = dailyBookingStatsService.totals(agencyId, first, first);
+        assertThat(firstDay.getTotalBookings()).isEqualTo(2);
+        assertThat(firstDay.getConfirmedBookings()).isEqualTo(1);
+        assertThat(firstDay.getCancelledBookings()).isEqualTo(1);
+        assertThat(firstDay.getSeatsSold()).isEqualTo(1);
+        assertThat(firstDay.getBookingRevenue()).isEqualByComparingTo("2500");
+        assertThat(firstDay.getPayments()).isEqualTo(1);
+        assertThat(firstDay.getPaymentRevenue()).isEqualByComparingTo("2500");
+
+        BookingStatsTotals allTime = dailyBookingStatsService.totals(agencyId, null, null);
+        assertThat(allTime.getTotalBookings()).isEqualTo(3);
+        assertThat(allTime.getPendingBookings()).isEqualTo(1);
+        assertThat(allTime.getPayments()).isEqualTo(2);
+        assertThat(allTime.getSuccessfulPayments()).isEqualTo(1);
+    }
+
+    @Test
+    void committedStatusChangesReachTheRollupOnFlush() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        Booking booking = testData.createBooking(trip, customer, "PENDING", LocalDateTime.now());
+        Long agencyId = agencyId(trip);
+        LocalDate today = LocalDate.now();
+
+        dailyBookingStatsService.flush();
+        assertThat(dailyBookingStatsService.totals(agencyId, today, today).getPendingBookings()).isEqualTo(1);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Booking managed = bookingRepository.findById(booking.getId()).orElseThrow();
+            managed.setStatus("CONFIRMED");
+        });
+        dailyBookingStatsService.flush();
+
+        BookingStatsTotals totals = dailyBookingStatsService.totals(agencyId, today, today);
+        assertThat(totals.getPendingBookings()).isZero();
+        assertThat(totals.getConfirmedBookings()).isEqualTo(1);
+        assertThat(totals.getBookingRevenue()).isEqualByComparingTo("2500");
+    }
+
+    @Test
+    void aDayMarkedByANodeThatDiedIsRefreshedByAnother() {
+        Trip trip = testData.createTrip(50);
+        Long agencyId = agencyId(trip);
+        // An old booking, outside the nightly reconcile window, settled on a node that died before flushing
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(40);
+        Booking booking = testData.createBooking(trip, testData.createCustomer(), "CONFIRMED", createdAt);
+        dailyBookingStatsService.rebuild(createdAt.toLocalDate(), createdAt.toLocalDate());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE booking SET status = 'COMPLETED' WHERE id = ?", booking.getId());
+            dailyBookingStatsService.touch(createdAt);
+            dailyBookingStatsService.touch(createdAt);
+            // One mark per day and transaction, however many rows changed
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_booking_stats_marks WHERE stat_date = ?",
+                Integer.class, Date.valueOf(createdAt.toLocalDate()))).isEqualTo(1);
+        });
+
+        // A rolled-back change leaves no mark
+        transactionTemplate.executeWithoutResult(status -> {
+            dailyBookingStatsService.touch(createdAt.minusDays(1));
+            status.setRollbackOnly();
+        });
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM daily_booking_stats_marks WHERE stat_date = ?",
+            Integer.class, Date.valueOf(createdAt.toLocalDate().minusDays(1)))).isZero();
+
+        // Any node's flush picks the committed mark up from the table
+        dailyBookingStatsService.flush();
+        BookingStatsTotals totals = dailyBookingStatsService.totals(agencyId, createdAt.toLocalDate(), createdAt.toLocalDate());
+        assertThat(totals.getConfirmedBookings()).isZero();
+        assertThat(totals.getCompletedBookings()).isEqualTo(1);
+        assertThat(dailyBookingStatsService.getDirtyDayCount()).isZero();
+    }
+
+    @Test
+    void agencyMetricsAreSummedFromTheRollup() {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        Customer other = testData.createCustomer();
+        testData.createBooking(trip, customer, "CONFIRMED", LocalDateTime.now());
+        testData.createBooking(trip, customer, "COMPLETED", LocalDateTime.now());
+        testData.createBooking(trip, other, "PENDING", LocalDateTime.now());
+        Long agencyId = agencyId(trip);
+        dailyBookingStatsService.flush();
+
+        Map<String, Object> metrics = agencyMetricsService.getAgencyMetrics(agencyId);
+
+        assertThat(metrics).containsEntry("totalBookings", 3L)
+            .containsEntry("confirmedBookings", 1L)
+            .containsEntry("completedBookings", 1L)
+            .containsEntry("pendingBookings", 1L)
+            .containsEntry("uniqueCustomers", 2L);
+        assertThat((BigDecimal) metrics.get("totalRevenue")).isEqualByComparingTo("5000");
+        assertThat((BigDecimal) metrics.get("monthlyRevenue")).isEqualByComparingTo("5000");
+    }
+
+    @Test
+    void sketchesCountDistinctCustomersAndBusyPoints() {
+        Trip trip = testData.createTrip(50);
+        Customer first = testData.createCustomer();
+        Customer second = testData.createCustomer();
+        LocalDateTime day = LocalDateTime.of(2008, 2, 1, 9, 0);
+        testData.createBooking(trip, first, "CONFIRMED", day);
+        testData.createBooking(trip, first, "CONFIRMED", day.plusDays(1));
+        testData.createBooking(trip, second, "COMPLETED", day.plusDays(1));
+        testData.createBooking(trip, testData.createCustomer(), "CANCELLED", day);
+        Long agencyId = agencyId(trip);
+        LocalDate from = day.toLocalDate();
+        dailyBookingStatsService.rebuild(from, from.plusDays(1));
+
+        // Customers count whatever the status, points only for sold bookings
+        assertThat(bookingSketchService.distinctCustomers(agencyId, null, from, from.plusDays(1))).isEqualTo(3);
+        assertThat(bookingSketchService.distinctCustomers(agencyId, null, from.plusDays(1), from.plusDays(1))).isEqualTo(2);
+        assertThat(dailyBookingStatsService.customers(agencyId)).isEqualTo(3);
+        assertThat(bookingSketchService.topPoints(PointType.PICKUP, agencyId, from, from.plusDays(1), 5))
+            .containsExactly(new PointPopularity(trip.pickupPoint().getId(), trip.pickupPoint().getName(), 3));
+        assertThat(bookingSketchService.topPoints(PointType.DROP, agencyId, from.plusDays(1), from.plusDays(1), 5))
+            .extracting(PointPopularity::getBookings).containsExactly(2L);
+    }
+
+    @Test
+    void totalsAreOneQueryWhateverTheRange() {
+        long statements = SessionStatements.count(transactionTemplate, entityManager,
+            () -> dailyBookingStatsService.totals(null, LocalDate.of(2000, 1, 1), LocalDate.now()));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    private static Long agencyId(Trip trip) {
+        return trip.schedule().getAgencyRoute().getAgency().getId();
+    }
+}
@@ -0,0 +1,121 @@
+package com.inzira.shared.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.inzira.shared.dtos.DepartureDTO;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.services.DepartureIndex.Departure;
+
+/**
+ * Multi-day searches over 100k upcoming schedules (200 district pairs, 90 days): DepartureIndex vs a
+ * scan-and-sort over the same departures, the in-memory equivalent of what a date-range query does.
+ * The JUnit entry point runs a short in-process pass; for real numbers run main() (forked, longer).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Tag("benchmark")
+public class DepartureIndexBenchmarkTest {
+
+    private static final int SCHEDULES = 100_000;
+    private static final int ROUTES = 200;
+    private static final int DAYS = 90;
+
+    private final DepartureIndex index = new DepartureIndex();
+    private final List<Departure> departures = new ArrayList<>(SCHEDULES);
+    private final LocalDate today = LocalDate.now();
+
+    @Setup(Level.Trial)
+    public void load() {
+        SeatInventory seatInventory = new SeatInventory();
+        ReflectionTestUtils.setField(index, "seatInventory", seatInventory);
+
+        Random random = new Random(42);
+        for (long id = 1; id <= SCHEDULES; id++) {
+            long route = random.nextInt(ROUTES);
+            LocalDate date = today.plusDays(random.nextInt(DAYS));
+            LocalTime time = LocalTime.of(5 + random.nextInt(17), random.nextInt(4) * 15);
+            Departure departure = new Departure(id, route, route, "Agency " + route, route, route + ROUTES,
+                date, time, time.plusHours(3), 1500 + random.nextInt(20) * 100);
+
+            Schedule schedule = new Schedule();
+            schedule.setId(id);
+            schedule.setAvailableSeats(random.nextInt(10) == 0 ? 0 : 30); // one in ten sold out
+            seatInventory.register(schedule);
+
+            index.put(departure);
+            departures.add(departure);
+        }
+    }
+
+    @Benchmark
+    public List<DepartureDTO> nextFiveDepartures() {
+        long route = ThreadLocalRandom.current().nextInt(ROUTES);
+        LocalDateTime after = today.plusDays(ThreadLocalRandom.current().nextInt(DAYS)).atTime(12, 0);
+        return index.nextDepartures(route, route + ROUTES, after, 5, 1);
+    }
+
+    @Benchmark
+    public List<DepartureDTO> cheapestPerDayOverTwoWeeks() {
+        long route = ThreadLocalRandom.current().nextInt(ROUTES);
+        LocalDate from = today.plusDays(1 + ThreadLocalRandom.current().nextInt(DAYS - 15));
+        return index.cheapestPerDay(route, route + ROUTES, from, from.plusDays(13), 1);
+    }
+
+    @Benchmark
+    public List<Departure> scanNextFiveDepartures() {
+        long route = ThreadLocalRandom.current().nextInt(ROUTES);
+        LocalDateTime after = today.plusDays(ThreadLocalRandom.current().nextInt(DAYS)).atTime(12, 0);
+        return departures.stream()
+            .filter(d -> d.originId() == route && d.destinationId() == route + ROUTES)
+            .filter(d -> !d.departureDate().atTime(d.departureTime()).isBefore(after))
+            .sorted(Comparator.comparing(Departure::departureDate).thenComparing(Departure::departureTime))
+            .limit(5)
+            .toList();
+    }
+
+    @Test
+    void quickRun() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(DepartureIndexBenchmarkTest.class.getSimpleName())
+            .forks(0)
+            .warmupIterations(1)
+            .warmupTime(TimeValue.milliseconds(300))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.milliseconds(300))
+            .build();
+        new Runner(options).run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(DepartureIndexBenchmarkTest.class.getSimpleName())
+            .forks(1)
+            .build();
+        new Runner(options).run();
+    }
+}
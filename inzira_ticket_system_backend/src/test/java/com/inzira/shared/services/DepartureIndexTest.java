@@ -0,0 +1,101 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.inzira.shared.dtos.DepartureDTO;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.services.DepartureIndex.Departure;
+
+class DepartureIndexTest {
+
+    private static final long ORIGIN = 1;
+    private static final long DESTINATION = 2;
+    private static final LocalDate DAY = LocalDate.now().plusDays(1);
+
+    private DepartureIndex index;
+    private SeatInventory seatInventory;
+
+    @BeforeEach
+    void setUp() {
+        index = new DepartureIndex();
+        seatInventory = new SeatInventory();
+        ReflectionTestUtils.setField(index, "seatInventory", seatInventory);
+    }
+
+    @Test
+    void nextDeparturesAreInDepartureOrderAndSkipSoldOutTrips() {
+        add(1, DAY, LocalTime.of(14, 0), 3000, 10);
+        add(2, DAY, LocalTime.of(8, 0), 3000, 10);
+        add(3, DAY.plusDays(1), LocalTime.of(6, 0), 3000, 0);
+        add(4, DAY.plusDays(2), LocalTime.of(6, 0), 3000, 10);
+        add(5, DAY, LocalTime.of(9, 0), 3000, 10, DESTINATION, ORIGIN); // opposite direction
+
+        assertThat(index.nextDepartures(ORIGIN, DESTINATION, DAY.atStartOfDay(), 5, 1))
+            .extracting(DepartureDTO::getScheduleId).containsExactly(2L, 1L, 4L);
+        assertThat(index.nextDepartures(ORIGIN, DESTINATION, DAY.atTime(8, 0), 2, 1))
+            .extracting(DepartureDTO::getScheduleId).containsExactly(2L, 1L);
+        assertThat(index.nextDepartures(ORIGIN, DESTINATION, DAY.atTime(8, 1), 5, 1))
+            .extracting(DepartureDTO::getScheduleId).containsExactly(1L, 4L);
+        assertThat(index.nextDepartures(ORIGIN, DESTINATION, DAY.atTime(8, 1), 5, 11)).isEmpty();
+    }
+
+    @Test
+    void cheapestPerDayPicksTheLowestPriceWithSeats() {
+        add(1, DAY, LocalTime.of(8, 0), 3000, 10);
+        add(2, DAY, LocalTime.of(10, 0), 2500, 10);
+        add(3, DAY, LocalTime.of(12, 0), 2000, 0);
+        add(4, DAY.plusDays(2), LocalTime.of(8, 0), 4000, 10);
+        add(5, DAY.plusDays(5), LocalTime.of(8, 0), 1000, 10);
+
+        assertThat(index.cheapestPerDay(ORIGIN, DESTINATION, DAY, DAY.plusDays(3), 1))
+            .extracting(DepartureDTO::getScheduleId, DepartureDTO::getPrice)
+            .containsExactly(tuple(2L, 2500.0), tuple(4L, 4000.0));
+    }
+
+    @Test
+    void editedAndRemovedDeparturesAreReindexed() {
+        add(1, DAY, LocalTime.of(8, 0), 3000, 10);
+        add(2, DAY, LocalTime.of(10, 0), 3000, 10);
+
+        // Moved to a later day and repriced
+        index.put(new Departure(1L, 1L, 1L, "Agency", ORIGIN, DESTINATION, DAY.plusDays(1), LocalTime.of(7, 0), LocalTime.of(9, 0), 1500));
+        index.delete(2L);
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.nextDepartures(ORIGIN, DESTINATION, DAY.atStartOfDay(), 5, 1))
+            .extracting(DepartureDTO::getScheduleId, DepartureDTO::getDepartureDate)
+            .containsExactly(tuple(1L, DAY.plusDays(1)));
+        assertThat(index.cheapestPerDay(ORIGIN, DESTINATION, DAY, DAY, 1)).isEmpty();
+    }
+
+    @Test
+    void rejectsUnboundedRequests() {
+        assertThatThrownBy(() -> index.nextDepartures(ORIGIN, DESTINATION, DAY.atStartOfDay(), DepartureIndex.MAX_LIMIT + 1, 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.cheapestPerDay(ORIGIN, DESTINATION, DAY, DAY.plusDays(DepartureIndex.MAX_RANGE_DAYS), 1))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> index.cheapestPerDay(ORIGIN, DESTINATION, DAY, DAY.minusDays(1), 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void add(long scheduleId, LocalDate date, LocalTime time, double price, int seats) {
+        add(scheduleId, date, time, price, seats, ORIGIN, DESTINATION);
+    }
+
+    private void add(long scheduleId, LocalDate date, LocalTime time, double price, int seats, long originId, long destinationId) {
+        Schedule schedule = new Schedule();
+        schedule.setId(scheduleId);
+        schedule.setAvailableSeats(seats);
+        seatInventory.register(schedule);
+        index.put(new Departure(scheduleId, 1L, 1L, "Agency", originId, destinationId, date, time, time.plusHours(2), price));
+    }
+}
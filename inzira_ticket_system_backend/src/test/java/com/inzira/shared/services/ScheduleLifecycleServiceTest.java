@@ -0,0 +1,153 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.events.DomainEventBus;
+import com.inzira.shared.events.DomainEventBus.Subscription;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.services.ScheduleLifecycleService.ScheduleStats;
+import com.inzira.shared.services.ScheduleLifecycleService.Transitions;
+import com.inzira.support.TestDataFactory;
+
+@SpringBootTest
+@Import(TestDataFactory.class)
+class ScheduleLifecycleServiceTest {
+
+    @Autowired
+    private ScheduleLifecycleService scheduleLifecycleService;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void pastSchedulesAreCompletedDepartedAndArchivedInChunks() throws InterruptedException {
+        LocalDate today = LocalDate.now();
+        Schedule yesterday = schedule(today.minusDays(1), "SCHEDULED");
+        Schedule lastWeek = schedule(today.minusDays(7), "SCHEDULED");
+        Schedule departedLastWeek = schedule(today.minusDays(7), "DEPARTED");
+        Schedule cancelledLastWeek = schedule(today.minusDays(7), "CANCELLED");
+        Schedule upcoming = schedule(today, "SCHEDULED");
+        Schedule lastYear = schedule(today.minusYears(1), "COMPLETED");
+        Schedule cancelledLastYear = schedule(today.minusYears(1), "CANCELLED");
+
+        Map<Long, String> published = new ConcurrentHashMap<>();
+        Subscription subscription = domainEventBus.subscribe("test-lifecycle", events -> {
+            if (events.latestStatus() != null) {
+                published.put(events.scheduleId(), events.latestStatus());
+            }
+        });
+        ReflectionTestUtils.setField(scheduleLifecycleService, "chunkSize", 2);
+        try {
+            Transitions advanced = scheduleLifecycleService.advance();
+            assertThat(advanced.completed()).isGreaterThanOrEqualTo(2);
+            assertThat(advanced.departed()).isGreaterThanOrEqualTo(1);
+            assertThat(status(yesterday)).isEqualTo("DEPARTED");
+            assertThat(status(lastWeek)).isEqualTo("COMPLETED");
+            assertThat(status(departedLastWeek)).isEqualTo("COMPLETED");
+            assertThat(status(cancelledLastWeek)).isEqualTo("CANCELLED");
+            assertThat(status(upcoming)).isEqualTo("SCHEDULED");
+
+            // Nothing left to move on a second run
+            assertThat(scheduleLifecycleService.advance().total()).isZero();
+
+            Transitions archived = scheduleLifecycleService.archive();
+            assertThat(archived.archived()).isGreaterThanOrEqualTo(2);
+            assertThat(status(lastYear)).isEqualTo("ARCHIVED");
+            assertThat(status(cancelledLastYear)).isEqualTo("ARCHIVED");
+            assertThat(status(lastWeek)).isEqualTo("COMPLETED");
+
+            // Every move reaches live clients through the bus
+            long deadline = System.currentTimeMillis() + 5000;
+            List<Long> moved = List.of(yesterday.getId(), lastWeek.getId(), departedLastWeek.getId(), lastYear.getId(), cancelledLastYear.getId());
+            while (!published.keySet().containsAll(moved) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(published).containsEntry(yesterday.getId(), "DEPARTED")
+                .containsEntry(lastWeek.getId(), "COMPLETED")
+                .containsEntry(departedLastWeek.getId(), "COMPLETED")
+                .containsEntry(lastYear.getId(), "ARCHIVED")
+                .containsEntry(cancelledLastYear.getId(), "ARCHIVED")
+                .doesNotContainKeys(cancelledLastWeek.getId(), upcoming.getId());
+        } finally {
+            subscription.close();
+            ReflectionTestUtils.setField(scheduleLifecycleService, "chunkSize", 500);
+        }
+    }
+
+    @Test
+    void aTripTheTimelineMissedIsSettledAndClosedByTheSweep() {
+        // Left untracked, e.g. by a restart, and still selling seats last week
+        TestDataFactory.Trip trip = testData.createTrip(10);
+        Schedule missed = trip.schedule();
+        Booking confirmed = testData.createBooking(trip, testData.createCustomer(), "CONFIRMED", LocalDateTime.now().minusDays(8));
+        jdbcTemplate.update("UPDATE schedule SET departure_date = ? WHERE id = ?", Date.valueOf(LocalDate.now().minusDays(7)), missed.getId());
+        seatInventory.register(missed);
+        assertThat(seatInventory.getAvailableSeats(missed.getId())).isPositive();
+
+        scheduleLifecycleService.advance();
+
+        assertThat(status(missed)).isEqualTo("COMPLETED");
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM booking WHERE id = ?", String.class, confirmed.getId()))
+            .isEqualTo("COMPLETED");
+        assertThat(seatInventory.getAvailableSeats(missed.getId())).isZero();
+    }
+
+    @Test
+    void statsMatchTheScheduleTable() {
+        schedule(LocalDate.now().minusYears(2), "ARCHIVED");
+        Map<String, Long> expected = scheduleRepository.findAll().stream()
+            .collect(Collectors.groupingBy(Schedule::getStatus, Collectors.counting()));
+
+        ScheduleStats stats = scheduleLifecycleService.getScheduleStats();
+
+        assertThat(stats.getScheduled()).isEqualTo(expected.getOrDefault("SCHEDULED", 0L));
+        assertThat(stats.getDeparted()).isEqualTo(expected.getOrDefault("DEPARTED", 0L));
+        assertThat(stats.getCompleted()).isEqualTo(expected.getOrDefault("COMPLETED", 0L));
+        assertThat(stats.getCancelled()).isEqualTo(expected.getOrDefault("CANCELLED", 0L));
+        assertThat(stats.getArchived()).isEqualTo(expected.getOrDefault("ARCHIVED", 0L)).isPositive();
+    }
+
+    private Schedule schedule(LocalDate departureDate, String status) {
+        Schedule schedule = testData.createTrip(10).schedule();
+        jdbcTemplate.update("UPDATE schedule SET departure_date = ?, status = ? WHERE id = ?",
+            Date.valueOf(departureDate), status, schedule.getId());
+        return schedule;
+    }
+
+    private String status(Schedule schedule) {
+        return jdbcTemplate.queryForObject("SELECT status FROM schedule WHERE id = ?", String.class, schedule.getId());
+    }
+}
@@ -0,0 +1,147 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inzira.agency.services.ScheduleService;
+import com.inzira.customer.services.BookingService;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.events.ClusterMessage;
+import com.inzira.shared.repositories.ClusterEventRepository;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@Import(TestDataFactory.class)
+class ScheduleSearchCacheTest {
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ScheduleSearchCache scheduleSearchCache;
+
+    @Autowired
+    private ClusterEventRepository clusterEventRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void repeatedSearchIsServedFromCacheWithLiveSeats() throws Exception {
+        Trip trip = testData.createTrip(10);
+        double hitsBefore = requests("hit");
+
+        List<Schedule> first = search(trip);
+        bookingService.createBooking(testData.newBooking(testData.createCustomer(), trip, 3));
+        List<Schedule> second = search(trip);
+
+        assertThat(requests("hit")).isEqualTo(hitsBefore + 1);
+        assertThat(first).singleElement().extracting(Schedule::getAvailableSeats).isEqualTo(10);
+        assertThat(second).singleElement().extracting(Schedule::getAvailableSeats).isEqualTo(7);
+        // Served outside any session: the pickup/drop point lists must already be loaded
+        assertThat(objectMapper.writeValueAsString(second)).contains("pickupPoints");
+    }
+
+    @Test
+    void cancellingAScheduleEvictsItsSearches() {
+        Trip trip = testData.createTrip(10);
+        Long agencyId = trip.schedule().getAgencyRoute().getAgency().getId();
+        assertThat(search(trip)).hasSize(1);
+        assertThat(searchByAgency(trip, agencyId)).hasSize(1);
+
+        scheduleService.cancelSchedule(trip.schedule().getId());
+
+        assertThat(search(trip)).isEmpty();
+        assertThat(searchByAgency(trip, agencyId)).isEmpty();
+    }
+
+    @Test
+    void movingAScheduleEvictsTheOldAndNewDate() {
+        Trip trip = testData.createTrip(10);
+        LocalDate oldDate = trip.schedule().getDepartureDate();
+        LocalDate newDate = oldDate.plusDays(1);
+        assertThat(search(trip, oldDate)).hasSize(1);
+        assertThat(search(trip, newDate)).isEmpty();
+
+        Schedule update = new Schedule();
+        update.setDepartureDate(newDate);
+        update.setDepartureTime(trip.schedule().getDepartureTime());
+        update.setArrivalTime(trip.schedule().getArrivalTime());
+        scheduleService.updateSchedule(trip.schedule().getId(), update);
+
+        assertThat(search(trip, oldDate)).isEmpty();
+        assertThat(search(trip, newDate)).hasSize(1);
+    }
+
+    @Test
+    void evictionsAreSentToTheOtherNodes() {
+        Trip trip = testData.createTrip(10);
+        long lastEvent = clusterEventRepository.findMaxId();
+
+        scheduleService.cancelSchedule(trip.schedule().getId());
+
+        List<ClusterMessage> sent = clusterEventRepository.findByIdGreaterThanOrderByIdAsc(lastEvent, PageRequest.of(0, 100)).stream()
+            .filter(event -> ScheduleSearchCache.EVICT_MESSAGE.equals(event.getName()))
+            .map(event -> new ClusterMessage(event.getId(), Set.of(), event.getName(), event.getEventKey(), event.getData()))
+            .toList();
+        assertThat(sent).isNotEmpty();
+
+        // Played back as if another node had cancelled it: the search cached since is dropped again
+        assertThat(search(trip)).isEmpty();
+        search(trip);
+        double missesBefore = requests("miss");
+        sent.forEach(scheduleSearchCache::receive);
+        search(trip);
+        assertThat(requests("miss")).isEqualTo(missesBefore + 1);
+    }
+
+    private List<Schedule> search(Trip trip) {
+        return search(trip, trip.schedule().getDepartureDate());
+    }
+
+    private List<Schedule> search(Trip trip, LocalDate date) {
+        return scheduleService.searchSchedules(originId(trip), destinationId(trip), date);
+    }
+
+    private List<Schedule> searchByAgency(Trip trip, Long agencyId) {
+        return scheduleService.searchSchedulesByAgency(originId(trip), destinationId(trip), trip.schedule().getDepartureDate(), agencyId);
+    }
+
+    private static Long originId(Trip trip) {
+        return trip.schedule().getAgencyRoute().getRoute().getOrigin().getId();
+    }
+
+    private static Long destinationId(Trip trip) {
+        return trip.schedule().getAgencyRoute().getRoute().getDestination().getId();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("schedule.search.cache.requests").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,120 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.entities.Customer;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+@SpringBootTest
+@Import(TestDataFactory.class)
+class ScheduleStateMachineTest {
+
+    @Autowired
+    private ScheduleStateMachine scheduleStateMachine;
+
+    @Autowired
+    private DailyBookingStatsService dailyBookingStatsService;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void schedulesMoveAtTheirRealTimesAndBookingsAreSettledOnArrival() throws InterruptedException {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        Booking confirmed = testData.createBooking(trip, customer, "CONFIRMED", LocalDateTime.now());
+        Booking pending = testData.createBooking(trip, customer, "PENDING", LocalDateTime.now());
+        LocalDateTime departure = LocalDateTime.now().plusSeconds(3).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime arrival = departure.plusSeconds(2);
+
+        // Booking closes 30 minutes before departure, so that step is already due
+        track(trip, departure, arrival);
+        assertThat(awaitStatus(trip, "BOOKING_CLOSED")).isBefore(departure);
+
+        LocalDateTime departed = awaitStatus(trip, "DEPARTED");
+        assertThat(departed).isAfterOrEqualTo(departure).isBefore(departure.plusSeconds(2));
+
+        LocalDateTime arrived = awaitStatus(trip, "ARRIVED");
+        assertThat(arrived).isAfterOrEqualTo(arrival).isBefore(arrival.plusSeconds(2));
+        assertThat(bookingStatus(confirmed)).isEqualTo("COMPLETED");
+        assertThat(bookingStatus(pending)).isEqualTo("PENDING");
+    }
+
+    @Test
+    void overdueVerifiedTripsArriveAtOnceAndMarkUnboardedPassengersNoShow() throws InterruptedException {
+        Trip trip = testData.createTrip(50);
+        Customer customer = testData.createCustomer();
+        Booking boarded = testData.createBooking(trip, customer, "COMPLETED", LocalDateTime.now());
+        Booking missed = testData.createBooking(trip, customer, "CONFIRMED", LocalDateTime.now());
+        Long agencyId = trip.schedule().getAgencyRoute().getAgency().getId();
+        LocalDateTime departure = LocalDateTime.now().minusHours(3).truncatedTo(ChronoUnit.SECONDS);
+
+        // As after a restart: every step is overdue, so the trip goes straight to ARRIVED
+        track(trip, departure, departure.plusHours(2));
+        awaitStatus(trip, "ARRIVED");
+
+        assertThat(bookingStatus(boarded)).isEqualTo("COMPLETED");
+        assertThat(bookingStatus(missed)).isEqualTo("NO_SHOW");
+        // A no-show still paid for the seat
+        dailyBookingStatsService.flush();
+        LocalDate today = LocalDate.now();
+        assertThat(dailyBookingStatsService.totals(agencyId, today, today).getSeatsSold()).isEqualTo(2);
+    }
+
+    private void track(Trip trip, LocalDateTime departure, LocalDateTime arrival) {
+        Schedule schedule = transactionTemplate.execute(status -> {
+            Schedule managed = scheduleRepository.findById(trip.schedule().getId()).orElseThrow();
+            managed.setDepartureDate(departure.toLocalDate());
+            managed.setDepartureTime(departure.toLocalTime());
+            managed.setArrivalTime(arrival.toLocalTime());
+            return scheduleRepository.save(managed);
+        });
+        scheduleStateMachine.track(schedule);
+    }
+
+    // Waits for the schedule to reach the status; returns when it was first seen there
+    private LocalDateTime awaitStatus(Trip trip, String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            String status = jdbcTemplate.queryForObject("SELECT status FROM schedule WHERE id = ?", String.class,
+                trip.schedule().getId());
+            if (expected.equals(status)) {
+                return LocalDateTime.now();
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Schedule " + trip.schedule().getId() + " never reached " + expected);
+    }
+
+    private String bookingStatus(Booking booking) {
+        return jdbcTemplate.queryForObject("SELECT status FROM booking WHERE id = ?", String.class, booking.getId());
+    }
+}
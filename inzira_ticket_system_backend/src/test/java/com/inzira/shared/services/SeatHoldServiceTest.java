@@ -0,0 +1,112 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.inzira.customer.services.BookingService;
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+@SpringBootTest
+@Import(TestDataFactory.class)
+class SeatHoldServiceTest {
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void expiredHoldReleasesSeatsPromptly() throws Exception {
+        Trip trip = testData.createTrip(10);
+        Booking booking = bookingService.createBooking(testData.newBooking(testData.createCustomer(), trip, 3));
+        Long scheduleId = trip.schedule().getId();
+        assertThat(booking.getHoldExpiresAt()).isAfter(LocalDateTime.now());
+        assertThat(seatInventory.getAvailableSeats(scheduleId)).isEqualTo(7);
+
+        // Pull the deadline in instead of waiting out the configured TTL
+        booking.setHoldExpiresAt(LocalDateTime.now().plusNanos(200_000_000));
+        seatHoldService.hold(booking);
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (seatInventory.getAvailableSeats(scheduleId) < 10 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(seatInventory.getAvailableSeats(scheduleId)).isEqualTo(10);
+        assertThat(seatMapService.getSeatMap(scheduleId).getOccupiedSeats()).isEmpty();
+        assertThat(bookingService.getBookingById(booking.getId()).getStatus()).isEqualTo("EXPIRED");
+
+        // A payment arriving after expiry cannot resurrect the booking
+        assertThat(seatHoldService.confirm(booking)).isFalse();
+    }
+
+    @Test
+    void aHoldAlreadyExpiredOnAnotherNodeReleasesNothing() throws Exception {
+        Trip trip = testData.createTrip(10);
+        Booking booking = bookingService.createBooking(testData.newBooking(testData.createCustomer(), trip, 3));
+        Long scheduleId = trip.schedule().getId();
+        seatHoldService.release(booking.getId());
+
+        // Node A expired it and returned the seats; this node's restored timer fires later
+        jdbcTemplate.update("UPDATE booking SET status = 'EXPIRED' WHERE id = ?", booking.getId());
+        jdbcTemplate.update("UPDATE schedule SET available_seats = available_seats + 3 WHERE id = ?", scheduleId);
+        booking.setHoldExpiresAt(LocalDateTime.now().minusSeconds(1));
+        seatHoldService.hold(booking);
+        long deadline = System.currentTimeMillis() + 2000;
+        while (seatHoldService.getActiveHoldCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Thread.sleep(100);
+
+        assertThat(scheduleRepository.findAvailableSeatsById(scheduleId)).isEqualTo(10);
+    }
+
+    @Test
+    void confirmedBookingSurvivesItsDeadline() throws Exception {
+        Trip trip = testData.createTrip(10);
+        Booking booking = bookingService.createBooking(testData.newBooking(testData.createCustomer(), trip, 2));
+        Long scheduleId = trip.schedule().getId();
+
+        assertThat(seatHoldService.confirm(booking)).isTrue();
+
+        // Even if a stale hold fires afterwards, the conditional expiry leaves the paid booking alone
+        booking.setHoldExpiresAt(LocalDateTime.now().minusSeconds(1));
+        seatHoldService.hold(booking);
+        Thread.sleep(500);
+
+        Booking reloaded = bookingService.getBookingById(booking.getId());
+        assertThat(reloaded.getStatus()).isEqualTo("CONFIRMED");
+        assertThat(reloaded.getPaymentStatus()).isEqualTo("PAID");
+        assertThat(seatInventory.getAvailableSeats(scheduleId)).isEqualTo(8);
+    }
+}
@@ -0,0 +1,110 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.support.TestDataFactory;
+
+// Seat reservations/sec on one hot schedule: the JPA conditional update alone vs SeatInventory.reserve,
+// which runs the same update plus the in-memory count upkeep, while seats remain and once sold out
+@SpringBootTest
+@Import(TestDataFactory.class)
+@Tag("benchmark")
+class SeatInventoryBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int RESERVATIONS = 4000;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    // Keeps the Spring context identical to the other booking tests so it is cached and shared
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void comparesInventoryWithJpaPath() throws Exception {
+        // Warm both paths up on a throwaway trip so neither pays for JIT and pool start-up
+        Schedule warmup = testData.createTrip(2 * RESERVATIONS).schedule();
+        run(RESERVATIONS, () -> Boolean.TRUE.equals(transactionTemplate.execute(
+            status -> scheduleRepository.reserveSeats(warmup.getId(), 1) == 1)));
+        run(RESERVATIONS, () -> seatInventory.reserve(warmup.getId(), 1));
+
+        Schedule jpaSchedule = testData.createTrip(RESERVATIONS).schedule();
+        BooleanSupplier jpa = () -> Boolean.TRUE.equals(transactionTemplate.execute(
+            status -> scheduleRepository.reserveSeats(jpaSchedule.getId(), 1) == 1));
+        double jpaOpen = rate(jpa, RESERVATIONS);
+        double jpaSoldOut = rate(jpa, 0);
+
+        Schedule memSchedule = testData.createTrip(RESERVATIONS).schedule();
+        seatInventory.getAvailableSeats(memSchedule.getId()); // load the counter outside the timed section
+        BooleanSupplier inventory = () -> seatInventory.reserve(memSchedule.getId(), 1);
+        double memOpen = rate(inventory, RESERVATIONS);
+        double memSoldOut = rate(inventory, 0);
+
+        System.out.printf("Seat reservations/sec on one schedule with %d threads, seats left: JPA %.0f, SeatInventory %.0f (%.1fx);"
+            + " sold out: JPA %.0f, SeatInventory %.0f (%.1fx)%n",
+            THREADS, jpaOpen, memOpen, memOpen / jpaOpen, jpaSoldOut, memSoldOut, memSoldOut / jpaSoldOut);
+    }
+
+    // Attempts per second over RESERVATIONS attempts, checking that exactly `expected` were granted
+    private double rate(BooleanSupplier attempt, int expected) throws Exception {
+        long start = System.nanoTime();
+        int granted = run(RESERVATIONS, attempt);
+        double rate = RESERVATIONS / ((System.nanoTime() - start) / 1_000_000_000.0);
+        assertThat(granted).isEqualTo(expected);
+        return rate;
+    }
+
+    // Runs the attempts on THREADS threads released together; returns how many succeeded
+    private int run(int attempts, BooleanSupplier attempt) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                futures.add(pool.submit(() -> {
+                    startGate.await();
+                    if (attempt.getAsBoolean()) granted.incrementAndGet();
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return granted.get();
+    }
+}
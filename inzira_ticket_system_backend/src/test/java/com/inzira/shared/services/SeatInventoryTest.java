@@ -0,0 +1,145 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.support.TestDataFactory;
+
+// Seats are taken from the Schedule row; the in-memory counts only follow it
+@SpringBootTest
+@Import(TestDataFactory.class)
+class SeatInventoryTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    // Keeps the Spring context identical to the other booking tests so it is cached and shared
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void inventoryNeverOversells() throws Exception {
+        int capacity = 200;
+        Schedule schedule = testData.createTrip(capacity).schedule();
+
+        int granted = run(capacity * 3, () -> seatInventory.reserve(schedule.getId(), 1));
+
+        assertThat(granted).isEqualTo(capacity);
+        assertThat(scheduleRepository.findAvailableSeatsById(schedule.getId())).isZero();
+        assertThat(seatInventory.getAvailableSeats(schedule.getId())).isZero();
+    }
+
+    @Test
+    void rolledBackReservationIsReturned() {
+        Schedule schedule = testData.createTrip(10).schedule();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(seatInventory.reserve(schedule.getId(), 4)).isTrue();
+            status.setRollbackOnly();
+        });
+
+        assertThat(scheduleRepository.findAvailableSeatsById(schedule.getId())).isEqualTo(10);
+        assertThat(seatInventory.getAvailableSeats(schedule.getId())).isEqualTo(10);
+    }
+
+    @Test
+    void seatsSoldByAnotherNodeAreRespectedAndPickedUp() {
+        Schedule schedule = testData.createTrip(10).schedule();
+        assertThat(seatInventory.getAvailableSeats(schedule.getId())).isEqualTo(10);
+
+        // Another node sells 8 seats straight on the row; this node's count is stale until the refresh
+        transactionTemplate.executeWithoutResult(status -> scheduleRepository.reserveSeats(schedule.getId(), 8));
+
+        assertThat(seatInventory.reserve(schedule.getId(), 3)).isFalse();
+        assertThat(seatInventory.getAvailableSeats(schedule.getId())).isEqualTo(2);
+
+        transactionTemplate.executeWithoutResult(status -> scheduleRepository.releaseSeats(schedule.getId(), 5));
+        seatInventory.refresh();
+        assertThat(seatInventory.getAvailableSeats(schedule.getId())).isEqualTo(7);
+    }
+
+    @Test
+    void releaseOnClosedScheduleKeepsItsCount() {
+        Schedule schedule = testData.createTrip(10).schedule();
+        assertThat(seatInventory.reserve(schedule.getId(), 4)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status ->
+            scheduleRepository.transition(List.of(schedule.getId()), List.of("SCHEDULED"), "CANCELLED"));
+        seatInventory.release(schedule.getId(), 4);
+        seatInventory.refresh();
+
+        assertThat(scheduleRepository.findAvailableSeatsById(schedule.getId())).isEqualTo(6);
+        assertThat(seatInventory.getAvailableSeats(schedule.getId())).isZero();
+    }
+
+    @Test
+    void closedCountersGiveTheirSlotsBack() {
+        Schedule schedule = testData.createTrip(10).schedule();
+        assertThat(seatInventory.getAvailableSeats(schedule.getId())).isEqualTo(10);
+
+        transactionTemplate.executeWithoutResult(status ->
+            scheduleRepository.transition(List.of(schedule.getId()), List.of("SCHEDULED"), "CANCELLED"));
+        seatInventory.close(schedule.getId());
+        // The first refresh still answers from the closed counter, the next one retires it
+        seatInventory.refresh();
+        seatInventory.refresh();
+
+        assertThat(seatInventory.isTracked(schedule.getId())).isFalse();
+        assertThat(seatInventory.reserve(schedule.getId(), 1)).isFalse();
+        assertThat(seatInventory.getAvailableSeats(schedule.getId())).isZero();
+        assertThat(seatInventory.isTracked(schedule.getId())).isFalse();
+    }
+
+    // Runs the attempts on THREADS threads released together; returns how many succeeded
+    private int run(int attempts, BooleanSupplier attempt) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                futures.add(pool.submit(() -> {
+                    startGate.await();
+                    if (attempt.getAsBoolean()) granted.incrementAndGet();
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return granted.get();
+    }
+}
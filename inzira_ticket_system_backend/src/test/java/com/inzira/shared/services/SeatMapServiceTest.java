@@ -0,0 +1,54 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.inzira.support.TestDataFactory;
+
+@SpringBootTest
+@Import(TestDataFactory.class)
+class SeatMapServiceTest {
+
+    @Autowired
+    private SeatMapService seatMapService;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void aSeatTakenOnAnotherNodeIsNotSoldAgain() {
+        Long scheduleId = testData.createTrip(10).schedule().getId();
+        assertThat(seatMapService.getSeatMap(scheduleId).getOccupiedSeats()).isEmpty();
+
+        // Another node sells seats 1 and 2; this node's map still shows them free
+        jdbcTemplate.update("insert into booking_seats (schedule_id, seat_no) values (?, 1), (?, 2)", scheduleId, scheduleId);
+
+        assertThatThrownBy(() -> seatMapService.allocate(scheduleId, 1, List.of(2)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(seatMapService.allocate(scheduleId, 2, null)).containsExactly(3, 4);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from booking_seats where schedule_id = ?", Integer.class, scheduleId))
+            .isEqualTo(4);
+    }
+
+    @Test
+    void aSeatReleasedOnAnotherNodeCanBeSoldAgain() {
+        Long scheduleId = testData.createTrip(4).schedule().getId();
+        assertThat(seatMapService.allocate(scheduleId, 4, null)).containsExactly(1, 2, 3, 4);
+
+        // Another node cancels the booking on seat 3
+        jdbcTemplate.update("delete from booking_seats where schedule_id = ? and seat_no = 3", scheduleId);
+
+        assertThat(seatMapService.allocate(scheduleId, 1, List.of(3))).containsExactly(3);
+    }
+}
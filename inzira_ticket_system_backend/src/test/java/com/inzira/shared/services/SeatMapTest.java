@@ -0,0 +1,82 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.inzira.shared.services.SeatMapService.SeatMap;
+
+class SeatMapTest {
+
+    @Test
+    void allocatesFirstAdjacentRun() {
+        SeatMap seatMap = new SeatMap(10);
+        assertThat(seatMap.claim(List.of(2, 5))).isTrue();
+
+        // Seats 1, 3-4 are too short for three; 6-8 is the first fitting run
+        assertThat(seatMap.claimAdjacent(3)).containsExactly(6, 7, 8);
+        assertThat(seatMap.claimAdjacent(2)).containsExactly(3, 4);
+    }
+
+    @Test
+    void findsRunsAcrossWordBoundaries() {
+        SeatMap seatMap = new SeatMap(130);
+        for (int seat = 1; seat <= 62; seat++) {
+            seatMap.claim(List.of(seat));
+        }
+
+        assertThat(seatMap.claimAdjacent(4)).containsExactly(63, 64, 65, 66);
+    }
+
+    @Test
+    void fallsBackToScatteredSeatsWhenNoRunFits() {
+        SeatMap seatMap = new SeatMap(6);
+        seatMap.claim(List.of(2, 4, 6));
+
+        assertThat(seatMap.claimAdjacent(2)).containsExactly(1, 3);
+        assertThat(seatMap.claimAdjacent(2)).isNull();
+    }
+
+    @Test
+    void rejectsTakenDuplicateAndOutOfRangeSelections() {
+        SeatMap seatMap = new SeatMap(4);
+        assertThat(seatMap.claim(List.of(1))).isTrue();
+
+        assertThat(seatMap.claim(List.of(1, 2))).isFalse();
+        assertThat(seatMap.claim(List.of(2, 2))).isFalse();
+        assertThat(seatMap.claim(List.of(5))).isFalse();
+        assertThat(seatMap.occupied()).containsExactly(1);
+
+        seatMap.free(List.of(1));
+        assertThat(seatMap.freeCount()).isEqualTo(4);
+    }
+
+    @Test
+    void concurrentAllocationsNeverShareASeat() throws Exception {
+        int capacity = 5000;
+        SeatMap seatMap = new SeatMap(capacity);
+        Set<Integer> assigned = ConcurrentHashMap.newKeySet();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int i = 0; i < 4000; i++) {
+            int count = 1 + i % 3;
+            pool.submit(() -> {
+                List<Integer> seats = seatMap.claimAdjacent(count);
+                if (seats != null) {
+                    seats.forEach(seat -> assertThat(assigned.add(seat)).isTrue());
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(assigned).hasSize(capacity - seatMap.freeCount());
+    }
+}
@@ -0,0 +1,483 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.events.ClusterMessage;
+import com.inzira.shared.events.ClusterTransport;
+import com.inzira.shared.events.DomainEvent.BookingCreated;
+import com.inzira.shared.events.DomainEvent.ScheduleStatusChanged;
+import com.inzira.shared.events.DomainEvent.SeatsReleased;
+import com.inzira.shared.events.DomainEventBus;
+import com.inzira.shared.events.ScheduleEvents;
+import com.inzira.shared.repositories.ScheduleRepository;
+import com.inzira.shared.services.DepartureIndex.Departure;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SseBroadcasterTest {
+
+    private static final int QUEUE_CAPACITY = 8;
+
+    private SseBroadcaster broadcaster;
+    private final List<StalledEmitter> stalledEmitters = new ArrayList<>();
+    private ScheduleRepository scheduleRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Stalls are checked by calling checkStalls(), so neither scheduled task runs during a test
+        broadcaster = new SseBroadcaster(4, QUEUE_CAPACITY, 16, 200, 3_600_000, 3600, 60_000, new SimpleMeterRegistry());
+        broadcaster.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stalledEmitters.forEach(StalledEmitter::release);
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void subscribersOnlyGetTheirTopicsAndKeyedEventsCoalesce() throws InterruptedException {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        broadcaster.register(first, Set.of("schedule:1"));
+        broadcaster.register(second, Set.of("schedule:2", "seats"));
+
+        for (int seats = 50; seats >= 0; seats--) {
+            broadcaster.publish("schedule:1", "seat-update", "seat:1", "{\"availableSeats\":" + seats + "}");
+        }
+        broadcaster.publish("seats", "notice", null, "{\"n\":1}");
+        broadcaster.publish("seats", "notice", null, "{\"n\":2}");
+
+        await(() -> first.last().contains("\"availableSeats\":0}"));
+        await(() -> second.received.get() == 3);
+        // Intermediate counts may be skipped, never reordered
+        assertThat(first.events).doesNotContain("notice").allMatch(event -> event.contains("connected") || event.contains("seat-update"));
+        assertThat(second.events).hasSize(3).noneMatch(event -> event.contains("seat-update"));
+        assertThat(second.last()).contains("{\"n\":2}");
+    }
+
+    @Test
+    void stoppingCompletesEveryOpenConnection() throws InterruptedException {
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter idle = new RecordingEmitter();
+        broadcaster.register(stalled, Set.of("feed"));
+        broadcaster.register(idle, Set.of("feed"));
+        await(stalled::isSending);
+        broadcaster.start();
+
+        broadcaster.stop();
+
+        assertThat(broadcaster.isRunning()).isFalse();
+        assertThat(broadcaster.getClientCount()).isZero();
+        assertThat(stalled.completed).isTrue();
+        assertThat(idle.completed).isTrue();
+    }
+
+    @Test
+    void slowAndStalledClientsAreEvictedWithoutHoldingUpTheOthers() throws InterruptedException {
+        StalledEmitter stalled = new StalledEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        broadcaster.register(stalled, Set.of("feed"));
+        broadcaster.register(healthy, Set.of("feed"));
+        await(stalled::isSending);
+
+        // Unkeyed events overflow the stalled client's queue; each queue keeps at most its capacity
+        for (int i = 0; i < 10; i++) {
+            broadcaster.publish("feed", "notice", null, "{\"n\":" + i + "}");
+            assertThat(broadcaster.getQueuedCount()).isLessThanOrEqualTo(2L * QUEUE_CAPACITY);
+        }
+        await(() -> healthy.last().contains("{\"n\":9}"));
+
+        Thread.sleep(250);
+        assertThat(broadcaster.checkStalls()).isEqualTo(1);
+        assertThat(stalled.completed).isTrue();
+        assertThat(broadcaster.getClientCount()).isEqualTo(1);
+
+        // Dropping more than max-dropped events in a row evicts a client that keeps falling behind
+        StalledEmitter slow = new StalledEmitter();
+        broadcaster.register(slow, Set.of("feed"));
+        await(slow::isSending);
+        for (int i = 0; i < QUEUE_CAPACITY + 17; i++) {
+            String data = "{\"n\":" + (100 + i) + "}";
+            broadcaster.publish("feed", "notice", null, data);
+            // The healthy client keeps up, however the fan-out threads get scheduled
+            await(() -> healthy.last().contains(data));
+        }
+        assertThat(slow.completed).isTrue();
+        assertThat(broadcaster.getClientCount()).isEqualTo(1);
+    }
+
+    @Test
+    void stuckWritesNeverTakeThePoolFromTheOtherClients() throws InterruptedException {
+        // One stuck write per fan-out thread
+        List<StalledEmitter> stalled = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            StalledEmitter emitter = new StalledEmitter();
+            stalled.add(emitter);
+            broadcaster.register(emitter, Set.of("feed"));
+        }
+        await(() -> stalled.stream().allMatch(StalledEmitter::isSending));
+        RecordingEmitter healthy = new RecordingEmitter();
+        broadcaster.register(healthy, Set.of("feed"));
+        broadcaster.publish("feed", "notice", null, "{\"n\":1}");
+        Thread.sleep(250);
+        assertThat(healthy.received.get()).isZero();
+
+        assertThat(broadcaster.checkStalls()).isEqualTo(4);
+        await(() -> healthy.last().contains("{\"n\":1}"));
+        // The writes are still stuck, their clients gone, and stand-in threads carry on meanwhile
+        assertThat(stalled).allMatch(emitter -> emitter.completed && emitter.isSending());
+        assertThat(broadcaster.getClientCount()).isEqualTo(1);
+        assertThat(broadcaster.getPoolSize()).isEqualTo(8);
+        assertThat(broadcaster.checkStalls()).isZero();
+
+        stalled.forEach(StalledEmitter::release);
+        await(() -> broadcaster.getPoolSize() == 4);
+    }
+
+    @Test
+    void tenThousandClientsStayWithinBoundedMemory() throws InterruptedException {
+        int clients = 10_000;
+        int schedules = 100;
+        int rounds = 200;
+        // The loop below publishes far faster than real write-backs, so here only stalled writes evict
+        broadcaster.shutdown();
+        broadcaster = new SseBroadcaster(4, QUEUE_CAPACITY, Integer.MAX_VALUE, 200, 3_600_000, 3600, 60_000, new SimpleMeterRegistry());
+        broadcaster.init();
+        Runtime runtime = Runtime.getRuntime();
+        long baseline = usedHeap(runtime);
+
+        List<RecordingEmitter> emitters = new ArrayList<>(clients);
+        List<StalledEmitter> stalled = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            // Every client follows one schedule, one in a hundred follows every schedule too
+            Set<String> topics = i % 100 == 0 ? Set.of("schedule:" + i % schedules, "seats") : Set.of("schedule:" + i % schedules);
+            // One in a thousand never reads
+            if (i % 1000 == 999) {
+                StalledEmitter emitter = new StalledEmitter();
+                stalled.add(emitter);
+                broadcaster.register(emitter, topics);
+            } else {
+                RecordingEmitter emitter = new RecordingEmitter(false);
+                emitters.add(emitter);
+                broadcaster.register(emitter, topics);
+            }
+        }
+        long registered = usedHeap(runtime) - baseline;
+
+        long start = System.nanoTime();
+        long published = 0;
+        for (int round = rounds; round > 0; round--) {
+            for (int schedule = 0; schedule < schedules; schedule++) {
+                String data = "{\"scheduleId\":" + schedule + ",\"availableSeats\":" + (round - 1) + "}";
+                published += broadcaster.publish("schedule:" + schedule, "seat-update", "seat:" + schedule, data);
+                published += broadcaster.publish("seats", "seat-update", "seat:" + schedule, data);
+            }
+            assertThat(broadcaster.getQueuedCount()).isLessThanOrEqualTo((long) clients * QUEUE_CAPACITY);
+        }
+        double publishMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+        // Each stuck write holds a fan-out thread until the stall check gives up on it
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (!emitters.stream().allMatch(emitter -> emitter.lastData.contains("\"availableSeats\":0}"))
+            || !stalled.stream().allMatch(emitter -> emitter.completed)) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            Thread.sleep(100);
+            broadcaster.checkStalls();
+        }
+        double deliveredMillis = (System.nanoTime() - start) / 1_000_000.0;
+        long loaded = usedHeap(runtime) - baseline;
+        long delivered = emitters.stream().mapToLong(emitter -> emitter.received.get()).sum();
+
+        System.out.printf("SSE fan-out to %d clients: %d events queued in %.0f ms, %d written (coalesced) after %.0f ms;"
+            + " heap %d KB after subscribe, %d KB under load%n", clients, published, publishMillis, delivered, deliveredMillis,
+            registered / 1024, loaded / 1024);
+
+        assertThat(broadcaster.getClientCount()).isEqualTo(emitters.size());
+        assertThat(delivered).isLessThanOrEqualTo(published + clients);
+        // Client state plus at most a full queue per client, whatever was published
+        assertThat(loaded).isLessThan(64L * 1024 * 1024);
+    }
+
+    @Test
+    void bookingEventsReachScheduleRouteAndCatchAllSubscribersOnce() throws InterruptedException {
+        SeatInventory seatInventory = newSeatInventory();
+        DepartureIndex departureIndex = newDepartureIndex(seatInventory);
+        DomainEventBus domainEventBus = new DomainEventBus();
+        ReflectionTestUtils.setField(domainEventBus, "coalesceMillis", 50L);
+        domainEventBus.init();
+        InMemoryTransport transport = new InMemoryTransport();
+        SeatUpdateFeed feed = newFeed(seatInventory, departureIndex, domainEventBus, transport);
+
+        try {
+            LocalDate day = LocalDate.now().plusDays(1);
+            RecordingEmitter bySchedule = new RecordingEmitter();
+            RecordingEmitter byRoute = new RecordingEmitter();
+            RecordingEmitter other = new RecordingEmitter();
+            broadcaster.register(bySchedule, Set.of(SeatUpdateFeed.scheduleTopic(7L)));
+            broadcaster.register(byRoute, Set.of(SeatUpdateFeed.routeTopic(3L, 4L, day)));
+            broadcaster.register(other, Set.of(SeatUpdateFeed.scheduleTopic(8L)));
+
+            seatInventory.reserve(7L, 2);
+            domainEventBus.publish(new BookingCreated(1L, 7L, 2));
+            seatInventory.reserve(7L, 3);
+            domainEventBus.publish(new BookingCreated(2L, 7L, 3));
+
+            // Both bookings fall in one coalesce window: one update with the count after both
+            for (RecordingEmitter emitter : List.of(bySchedule, byRoute)) {
+                await(() -> emitter.received.get() == 2);
+                assertThat(emitter.last()).contains("event:seat-update", "\"scheduleId\":7,\"availableSeats\":25", "id:1");
+            }
+            Thread.sleep(100);
+            assertThat(bySchedule.received.get()).isEqualTo(2);
+            assertThat(other.received.get()).isEqualTo(1);
+
+            domainEventBus.publish(new ScheduleStatusChanged(7L, "CANCELLED"));
+            await(() -> bySchedule.last().contains("event:schedule-status"));
+            assertThat(bySchedule.last()).contains("\"status\":\"CANCELLED\"", "id:2");
+        } finally {
+            domainEventBus.shutdown();
+        }
+    }
+
+    @Test
+    void reconnectingClientResumesAfterItsLastEventId() throws InterruptedException {
+        SeatInventory seatInventory = newSeatInventory();
+        InMemoryTransport transport = new InMemoryTransport();
+        SeatUpdateFeed feed = newFeed(seatInventory, newDepartureIndex(seatInventory), new DomainEventBus(), transport);
+        Schedule other = new Schedule();
+        other.setId(8L);
+        other.setAvailableSeats(30);
+        seatInventory.register(other);
+        Set<String> topics = Set.of(SeatUpdateFeed.scheduleTopic(7L));
+
+        seatInventory.reserve(7L, 2);
+        feed.publish(new ScheduleEvents(7L, List.of(new BookingCreated(1L, 7L, 2))));
+        seatInventory.reserve(7L, 3);
+        feed.publish(new ScheduleEvents(7L, List.of(new BookingCreated(2L, 7L, 3))));
+        feed.publish(new ScheduleEvents(7L, List.of(new ScheduleStatusChanged(7L, "CANCELLED"))));
+        feed.publish(new ScheduleEvents(8L, List.of(new SeatsReleased(8L, 1))));
+        // Published on another node and relayed here
+        transport.remote(new ClusterMessage(0, topics, "seat-update", "seat:7", "{\"scheduleId\":7,\"availableSeats\":20}"));
+
+        // Saw event 1 before the connection dropped: gets the latest seat count and the status, nothing of schedule 8
+        RecordingEmitter resumed = new RecordingEmitter();
+        broadcaster.register(resumed, topics, feed.missed(topics, 1));
+        await(() -> resumed.received.get() == 3);
+        assertThat(resumed.events.get(1)).contains("event:schedule-status", "id:3");
+        assertThat(resumed.events.get(2)).contains("\"availableSeats\":20", "id:5");
+
+        // A relay it already caught up on is skipped; newer ones come through
+        feed.relay(new ClusterMessage(5, topics, "seat-update", "seat:7", "{\"scheduleId\":7,\"availableSeats\":20}"));
+        transport.remote(new ClusterMessage(0, topics, "seat-update", "seat:7", "{\"scheduleId\":7,\"availableSeats\":19}"));
+        await(() -> resumed.received.get() == 4);
+        assertThat(resumed.last()).contains("\"availableSeats\":19", "id:6");
+        // The relayed count replaces this node's own
+        assertThat(seatInventory.getAvailableSeats(7L)).isEqualTo(19);
+
+        // History it cannot be given: told to reload
+        RecordingEmitter lost = new RecordingEmitter();
+        broadcaster.register(lost, topics, feed.missed(topics, 99));
+        await(() -> lost.received.get() == 2);
+        assertThat(lost.last()).contains("event:resync");
+    }
+
+    // Schedule 7's row in the shared database
+    private SeatInventory newSeatInventory() {
+        AtomicInteger stored = new AtomicInteger(30);
+        scheduleRepository = mock(ScheduleRepository.class);
+        when(scheduleRepository.reserveSeats(eq(7L), anyInt())).thenAnswer(call -> {
+            stored.addAndGet(-(int) call.getArgument(1));
+            return 1;
+        });
+        when(scheduleRepository.findAvailableSeatsById(7L)).thenAnswer(call -> stored.get());
+
+        SeatInventory seatInventory = new SeatInventory();
+        ReflectionTestUtils.setField(seatInventory, "jdbcTemplate", mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(seatInventory, "scheduleRepository", scheduleRepository);
+        Schedule schedule = new Schedule();
+        schedule.setId(7L);
+        schedule.setAvailableSeats(30);
+        seatInventory.register(schedule);
+        return seatInventory;
+    }
+
+    private static DepartureIndex newDepartureIndex(SeatInventory seatInventory) {
+        DepartureIndex departureIndex = new DepartureIndex();
+        ReflectionTestUtils.setField(departureIndex, "seatInventory", seatInventory);
+        departureIndex.put(new Departure(7L, 1L, 1L, "Agency", 3L, 4L, LocalDate.now().plusDays(1),
+            LocalTime.of(8, 0), LocalTime.of(10, 0), 2500));
+        return departureIndex;
+    }
+
+    private SeatUpdateFeed newFeed(SeatInventory seatInventory, DepartureIndex departureIndex,
+                                   DomainEventBus domainEventBus, ClusterTransport transport) {
+        SeatUpdateFeed feed = new SeatUpdateFeed();
+        ReflectionTestUtils.setField(feed, "sseBroadcaster", broadcaster);
+        ReflectionTestUtils.setField(feed, "seatInventory", seatInventory);
+        ReflectionTestUtils.setField(feed, "scheduleRepository", scheduleRepository);
+        ReflectionTestUtils.setField(feed, "departureIndex", departureIndex);
+        ReflectionTestUtils.setField(feed, "domainEventBus", domainEventBus);
+        ReflectionTestUtils.setField(feed, "clusterTransport", transport);
+        feed.init();
+        return feed;
+    }
+
+    private static long usedHeap(Runtime runtime) {
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met in time");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static String text(SseEmitter.SseEventBuilder event) {
+        StringBuilder text = new StringBuilder();
+        event.build().forEach(part -> text.append(part.getData()));
+        return text.toString();
+    }
+
+    // Single-node stand-in for the database transport; remote() plays a message published by another node
+    private static class InMemoryTransport implements ClusterTransport {
+        private final List<ClusterMessage> sent = new ArrayList<>();
+        private Consumer<ClusterMessage> receiver;
+
+        @Override
+        public synchronized long send(ClusterMessage message) {
+            sent.add(message.withSequence(sent.size() + 1));
+            return sent.size();
+        }
+
+        @Override
+        public void start(Consumer<ClusterMessage> receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public synchronized Optional<List<ClusterMessage>> since(long sequence, int limit) {
+            if (sequence < 1 || sequence > sent.size() || sent.size() - sequence > limit) {
+                return Optional.empty();
+            }
+            return Optional.of(List.copyOf(sent.subList((int) sequence, sent.size())));
+        }
+
+        void remote(ClusterMessage message) {
+            receiver.accept(message.withSequence(send(message)));
+        }
+    }
+
+    // Stands in for a connected client that reads everything; heartbeats are not recorded
+    private static class RecordingEmitter extends SseEmitter {
+        private final boolean keepEvents;
+        private final List<String> events = new ArrayList<>();
+        private final AtomicInteger received = new AtomicInteger();
+        private volatile String lastData = "";
+        private volatile boolean completed;
+
+        RecordingEmitter() {
+            this(true);
+        }
+
+        RecordingEmitter(boolean keepEvents) {
+            this.keepEvents = keepEvents;
+        }
+
+        @Override
+        public synchronized void send(SseEventBuilder event) {
+            String text = text(event);
+            if (text.contains("event:heartbeat")) {
+                return;
+            }
+            if (keepEvents) {
+                events.add(text);
+            }
+            lastData = text;
+            received.incrementAndGet();
+        }
+
+        synchronized String last() {
+            return lastData;
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+
+    // Stands in for a client that stopped reading: a write blocks through complete() and interrupts, as a
+    // socket write can, until the test ends
+    private class StalledEmitter extends SseEmitter {
+        private final CountDownLatch released = new CountDownLatch(1);
+        private volatile boolean sending;
+        private volatile boolean completed;
+
+        StalledEmitter() {
+            stalledEmitters.add(this);
+        }
+
+        @Override
+        public void send(SseEventBuilder event) throws IOException {
+            sending = true;
+            boolean interrupted = false;
+            while (released.getCount() > 0) {
+                try {
+                    released.await(60, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            sending = false;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Broken pipe");
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        boolean isSending() {
+            return sending;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.inzira.shared.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.inzira.customer.services.BookingService;
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.entities.Customer;
+import com.inzira.shared.exceptions.ResourceNotFoundException;
+import com.inzira.shared.repositories.BookingRepository;
+import com.inzira.support.TestDataFactory;
+import com.inzira.support.TestDataFactory.Trip;
+
+@SpringBootTest
+@Import(TestDataFactory.class)
+class TicketArtifactServiceTest {
+
+    @Autowired
+    private TicketArtifactService ticketArtifactService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestDataFactory testData;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void bookingCommitsBeforeArtifactsAreRendered() throws Exception {
+        Trip trip = testData.createTrip(10);
+        Customer customer = testData.createCustomer();
+        when(pdfTicketService.generateTicketPDF(argThat(b -> forCustomer(b, customer)))).thenReturn("tickets/test.pdf");
+
+        Booking booking = bookingService.createBooking(testData.newBooking(customer, trip, 1));
+
+        assertThat(booking.getQrCode()).isNull();
+        assertThat(booking.getTicketStatus()).isEqualTo("PENDING");
+
+        Booking rendered = awaitTicketStatus(booking.getId(), "READY");
+        assertThat(rendered.getQrCode()).isNotBlank();
+        assertThat(rendered.getTicketPdfPath()).isEqualTo("tickets/test.pdf");
+        // The pipeline's targeted update must not disturb the booking itself
+        assertThat(rendered.getStatus()).isEqualTo("PENDING");
+    }
+
+    @Test
+    void failedRenderIsRetried() throws Exception {
+        Trip trip = testData.createTrip(10);
+        Customer customer = testData.createCustomer();
+        when(pdfTicketService.generateTicketPDF(argThat(b -> forCustomer(b, customer))))
+            .thenThrow(new RuntimeException("disk full"))
+            .thenReturn("tickets/retried.pdf");
+
+        Booking booking = bookingService.createBooking(testData.newBooking(customer, trip, 1));
+
+        Booking rendered = awaitTicketStatus(booking.getId(), "READY");
+        assertThat(rendered.getTicketPdfPath()).isEqualTo("tickets/retried.pdf");
+        verify(pdfTicketService, atLeast(2)).generateTicketPDF(argThat(b -> forCustomer(b, customer)));
+    }
+
+    @Test
+    void recoverySkipsFailedAndExhaustedBookings() {
+        Trip trip = testData.createTrip(10);
+        // No QR code and no ticket requested: what the sweep picks up after a dropped job
+        Booking failing = testData.createBooking(trip, testData.createCustomer(), "PENDING", LocalDateTime.now());
+        Booking exhausted = testData.createBooking(trip, testData.createCustomer(), "PENDING", LocalDateTime.now());
+        exhausted.setTicketRecoveries(5);
+        bookingRepository.save(exhausted);
+        assertThat(awaitingRecovery()).contains(failing.getId()).doesNotContain(exhausted.getId());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(bookingRepository.markTicketFailed(failing.getId())).isEqualTo(1);
+            assertThat(bookingRepository.countTicketRecovery(List.of(exhausted.getId()))).isEqualTo(1);
+        });
+        assertThat(awaitingRecovery()).doesNotContain(failing.getId(), exhausted.getId());
+
+        // Asking for the ticket again starts over
+        transactionTemplate.executeWithoutResult(status -> bookingRepository.requestTicket(failing.getId()));
+        assertThat(awaitingRecovery()).contains(failing.getId());
+    }
+
+    @Test
+    void unrequestedTicketIsNotRenderedOnDemand() {
+        // e.g. an unpaid guest booking: QR code only, the PDF is requested once payment completes
+        Booking booking = new Booking();
+        assertThatThrownBy(() -> ticketArtifactService.renderNow(booking))
+            .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private List<Long> awaitingRecovery() {
+        return bookingRepository.findIdsAwaitingTicketArtifacts(5, PageRequest.of(0, Integer.MAX_VALUE));
+    }
+
+    private boolean forCustomer(Booking booking, Customer customer) {
+        return booking != null && booking.getCustomer() != null && customer.getId().equals(booking.getCustomer().getId());
+    }
+
+    private Booking awaitTicketStatus(Long bookingId, String status) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        Booking booking = bookingRepository.findById(bookingId).orElseThrow();
+        while (!status.equals(booking.getTicketStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            booking = bookingRepository.findById(bookingId).orElseThrow();
+        }
+        assertThat(booking.getTicketStatus()).isEqualTo(status);
+        return booking;
+    }
+}
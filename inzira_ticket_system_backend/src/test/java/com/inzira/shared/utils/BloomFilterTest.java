@@ -0,0 +1,38 @@
+package com.inzira.shared.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void addedItemsAreNeverMissedAndStrangersRarelyMatch() {
+        BloomFilter filter = new BloomFilter(10_000);
+        String[] added = new String[10_000];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = UUID.randomUUID().toString();
+            filter.add(added[i]);
+        }
+        for (String item : added) {
+            assertThat(filter.mightContain(item)).isTrue();
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) falsePositives++;
+        }
+        // About 1% expected at the sized capacity
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void anEmptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(0);
+        assertThat(filter.mightContain("")).isFalse();
+        filter.add("");
+        assertThat(filter.mightContain("")).isTrue();
+    }
+}
@@ -0,0 +1,57 @@
+package com.inzira.shared.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class CountMinSketchTest {
+
+    @Test
+    void neverUndercountsAndOvercountsByLittleOfTheTotal() {
+        CountMinSketch sketch = new CountMinSketch();
+        long[] truth = new long[500];
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            // Skewed like route points: a few stops take most of the traffic
+            int item = (int) Math.min(truth.length - 1, Math.abs(random.nextGaussian()) * 40);
+            sketch.add(item, 1);
+            truth[item]++;
+        }
+
+        for (int item = 0; item < truth.length; item++) {
+            long estimate = sketch.estimate(item);
+            assertThat(estimate).isGreaterThanOrEqualTo(truth[item]);
+            assertThat(estimate - truth[item]).isLessThanOrEqualTo(sketch.total() * 3 / 100);
+        }
+        assertThat(sketch.total()).isEqualTo(100_000);
+    }
+
+    @Test
+    void mergedSketchesAddUp() {
+        CountMinSketch monday = new CountMinSketch();
+        CountMinSketch tuesday = new CountMinSketch();
+        monday.add(11, 3);
+        monday.add(12, 1);
+        tuesday.add(11, 2);
+
+        CountMinSketch both = CountMinSketch.fromBytes(monday.toBytes());
+        both.merge(tuesday.toBytes());
+
+        assertThat(both.estimate(11)).isEqualTo(5);
+        assertThat(both.estimate(12)).isEqualTo(1);
+        assertThat(both.total()).isEqualTo(6);
+    }
+
+    @Test
+    void aDayWithAFewPointsSerializesInAFewBytes() {
+        CountMinSketch day = new CountMinSketch();
+        for (long point = 1; point <= 3; point++) {
+            day.add(point, 25);
+        }
+
+        assertThat(day.toBytes().length).isLessThan(40);
+        assertThat(CountMinSketch.fromBytes(new byte[0]).total()).isZero();
+    }
+}
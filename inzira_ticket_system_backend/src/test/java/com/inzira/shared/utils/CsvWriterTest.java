@@ -0,0 +1,82 @@
+package com.inzira.shared.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class CsvWriterTest {
+
+    private static final long MILLION = 1_000_000;
+
+    @Test
+    void quotesOnlyFieldsThatNeedIt() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = CsvWriter.write(out, "A,B,C,D", Stream.of(
+            new Object[] { "plain", null, new BigDecimal("2500.00"), "a,b" },
+            new Object[] { "say \"hi\"", "two\nlines", 3, LocalDateTime.of(2025, 1, 2, 3, 4, 5) }));
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+            "A,B,C,D\n"
+            + "plain,,2500.00,\"a,b\"\n"
+            + "\"say \"\"hi\"\"\",\"two\nlines\",3,2025-01-02T03:04:05\n");
+    }
+
+    // A million rows make ~90 MB of CSV; built in memory they could never fit in the child JVM's 32 MB heap
+    @Test
+    void exportsAMillionRowsInASmallHeap() throws Exception {
+        Process process = new ProcessBuilder(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-Xmx32m", "-cp", System.getProperty("java.class.path"), MillionRowExport.class.getName())
+            .redirectErrorStream(true)
+            .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        assertThat(process.waitFor(2, TimeUnit.MINUTES)).isTrue();
+        assertThat(process.exitValue()).as(output).isZero();
+        assertThat(output).contains("rows=" + MILLION);
+    }
+
+    // Streams synthetic booking rows through gzip, as the export endpoint does, into a byte counter
+    public static class MillionRowExport {
+        public static void main(String[] args) throws Exception {
+            LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+            Stream<Object[]> rows = LongStream.range(0, MILLION).mapToObj(i -> new Object[] {
+                "BK" + (100_000_000 + i), "Agency " + (i % 50), "Customer " + i, "CONFIRMED", "PAID", 2,
+                BigDecimal.valueOf(5000), start.plusSeconds(i) });
+            CountingStream counter = new CountingStream();
+            GZIPOutputStream gzip = new GZIPOutputStream(counter, true);
+
+            long count = CsvWriter.write(gzip, "Reference,Agency,Customer,Status,PaymentStatus,Seats,Amount,CreatedAt", rows);
+            gzip.finish();
+
+            System.out.println("rows=" + count + " gzipBytes=" + counter.bytes);
+        }
+    }
+
+    private static class CountingStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.inzira.shared.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesWithinFourStandardErrorsAcrossCardinalities() {
+        for (int cardinality : new int[] { 10, 1_000, 50_000, 1_000_000 }) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (long id = 0; id < cardinality; id++) {
+                sketch.add(id);
+                sketch.add(id); // repeats never count twice
+            }
+            assertThat((double) sketch.estimate()).as("cardinality %d", cardinality)
+                .isCloseTo(cardinality, withinPercentage(6.5));
+        }
+    }
+
+    @Test
+    void mergedSketchesCountTheUnion() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        for (long id = 0; id < 30_000; id++) monday.add(id);
+        for (long id = 20_000; id < 50_000; id++) tuesday.add(id);
+
+        HyperLogLog week = HyperLogLog.fromBytes(monday.toBytes());
+        week.merge(tuesday.toBytes());
+
+        assertThat((double) week.estimate()).isCloseTo(50_000, withinPercentage(6.5));
+    }
+
+    @Test
+    void smallSketchesSerializeSparsely() {
+        HyperLogLog day = new HyperLogLog();
+        for (long id = 0; id < 40; id++) day.add(id * 7919);
+
+        byte[] bytes = day.toBytes();
+
+        assertThat(bytes.length).isLessThan(130);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(day.estimate()).isBetween(38L, 42L);
+        assertThat(HyperLogLog.fromBytes(null).estimate()).isZero();
+    }
+
+    @Test
+    void largeSketchesRoundTripDensely() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long id = 0; id < 100_000; id++) sketch.add(id);
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes).hasSize(HyperLogLog.REGISTERS + 1);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void rejectsMalformedBytes() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 7 })).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[] { 0, 5, 1 })).isInstanceOf(IllegalArgumentException.class);
+    }
+}
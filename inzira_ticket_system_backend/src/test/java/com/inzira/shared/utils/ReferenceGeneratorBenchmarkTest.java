@@ -0,0 +1,77 @@
+package com.inzira.shared.utils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Reference generation throughput: the previous timestamp + UUID references vs ReferenceGenerator.
+ * The JUnit entry point runs a short in-process pass; for real numbers run main() (forked, longer).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(4)
+@Tag("benchmark")
+public class ReferenceGeneratorBenchmarkTest {
+
+    private final ReferenceGenerator generator = new ReferenceGenerator(1);
+
+    @Benchmark
+    public String legacyBookingReference() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        return "BK" + timestamp + uuid;
+    }
+
+    @Benchmark
+    public String legacyTransactionReference() {
+        return "TXN-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Benchmark
+    public String bookingReference() {
+        return generator.nextBookingReference();
+    }
+
+    @Benchmark
+    public String transactionReference() {
+        return generator.nextTransactionReference();
+    }
+
+    @Test
+    void quickRun() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(ReferenceGeneratorBenchmarkTest.class.getSimpleName())
+            .forks(0)
+            .warmupIterations(1)
+            .warmupTime(TimeValue.milliseconds(300))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.milliseconds(300))
+            .build();
+        new Runner(options).run();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(ReferenceGeneratorBenchmarkTest.class.getSimpleName())
+            .forks(1)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.inzira.shared.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class ReferenceGeneratorTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    @Test
+    void referencesHavePrefixDataAndCheckCharacter() {
+        ReferenceGenerator generator = new ReferenceGenerator(7);
+
+        String booking = generator.nextBookingReference();
+        String transaction = generator.nextTransactionReference();
+
+        assertThat(booking).hasSize(16).startsWith("BK").matches("BK[0-9A-HJKMNP-TV-Z]{14}");
+        assertThat(transaction).hasSize(18).startsWith("TXN-");
+        assertThat(ReferenceGenerator.isValid(booking)).isTrue();
+        assertThat(ReferenceGenerator.isValid(transaction)).isTrue();
+        assertThat(ReferenceGenerator.isBookingReferenceFormat(booking)).isTrue();
+    }
+
+    @Test
+    void referencesAreUniqueAndIncreasingUnderContention() throws Exception {
+        ReferenceGenerator generator = new ReferenceGenerator(1);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 50_000;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                String previous = "";
+                for (int i = 0; i < perThread; i++) {
+                    String reference = generator.nextBookingReference();
+                    // Fixed width base32 in alphabet order: string order is numeric order
+                    assertThat(reference).isGreaterThan(previous);
+                    assertThat(seen.add(reference)).isTrue();
+                    previous = reference;
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(seen).hasSize(threads * perThread);
+    }
+
+    @Test
+    void nodesNeverCollide() {
+        ReferenceGenerator first = new ReferenceGenerator(1);
+        ReferenceGenerator second = new ReferenceGenerator(2);
+        Set<String> seen = new java.util.HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(seen.add(first.nextBookingReference())).isTrue();
+            assertThat(seen.add(second.nextBookingReference())).isTrue();
+        }
+    }
+
+    @Test
+    void checkCharacterCatchesEverySingleTypo() {
+        String reference = new ReferenceGenerator(3).nextGuestBookingReference();
+
+        for (int position = 2; position < reference.length(); position++) {
+            for (char typo : ALPHABET.toCharArray()) {
+                if (typo == reference.charAt(position)) continue;
+                String mistyped = reference.substring(0, position) + typo + reference.substring(position + 1);
+                assertThat(ReferenceGenerator.isValid(mistyped)).as(mistyped).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void normalizeToleratesCaseAndLookalikeLetters() {
+        String reference = new ReferenceGenerator(4).nextAgentBookingReference();
+        String typed = " " + reference.toLowerCase().replace('0', 'o').replace('1', 'l') + " ";
+
+        assertThat(ReferenceGenerator.normalize(typed)).isEqualTo(reference);
+        assertThat(ReferenceGenerator.isValid(typed.trim())).isTrue();
+    }
+
+    @Test
+    void legacyReferencesAreNotTreatedAsCurrentFormat() {
+        List<String> legacy = List.of("BK20250101120000A1B2C3D4", "TXN-1735732800000-a1b2c3d4");
+        for (String reference : legacy) {
+            assertThat(ReferenceGenerator.isBookingReferenceFormat(reference)).isFalse();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.inzira.shared.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import com.inzira.shared.repositories.ReferenceNodeRepository;
+import com.inzira.shared.services.PDFTicketService;
+import com.inzira.support.TestDataFactory;
+
+@SpringBootTest
+@Import(TestDataFactory.class)
+class ReferenceNodeLeaseTest {
+
+    @Autowired
+    private ReferenceNodeRepository referenceNodeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private PDFTicketService pdfTicketService;
+
+    @Test
+    void runningNodesNeverShareANodeIdAndAReleasedOneIsFreeAgain() {
+        ReferenceNodeLease nodeB = node();
+        ReferenceNodeLease nodeC = node();
+        try {
+            int idB = nodeB.acquire(id -> { });
+            int idC = nodeC.acquire(id -> { });
+
+            assertThat(idB).isNotEqualTo(idC).isBetween(0, ReferenceGenerator.MAX_NODE_ID);
+            assertThat(referenceNodeRepository.existsById(idB)).isTrue();
+            assertThat(nodeB.renew()).isEqualTo(idB);
+
+            nodeB.shutdown();
+            assertThat(referenceNodeRepository.existsById(idB)).isFalse();
+        } finally {
+            nodeB.shutdown();
+            nodeC.shutdown();
+        }
+    }
+
+    @Test
+    void anExpiredLeaseIsTakenOverAndItsOldOwnerMovesToAnotherId() {
+        ReferenceNodeLease nodeB = node();
+        AtomicInteger replacement = new AtomicInteger(-1);
+        try {
+            int idB = nodeB.acquire(replacement::set);
+            // nodeB stalls past its expiry, and another node claims the id meanwhile
+            jdbcTemplate.update("update reference_nodes set expires_at = ? where node_id = ?", LocalDateTime.now().minusMinutes(1), idB);
+            assertThat(referenceNodeRepository.claim(idB, "node-c", LocalDateTime.now().plusMinutes(1), LocalDateTime.now())).isEqualTo(1);
+
+            int renewed = nodeB.renew();
+
+            assertThat(renewed).isNotEqualTo(idB);
+            assertThat(replacement.get()).isEqualTo(renewed);
+            assertThat(referenceNodeRepository.findById(idB)).hasValueSatisfying(node -> assertThat(node.getOwner()).isEqualTo("node-c"));
+            referenceNodeRepository.release(idB, "node-c");
+        } finally {
+            nodeB.shutdown();
+        }
+    }
+
+    // A lease renewed by the test only
+    private ReferenceNodeLease node() {
+        return new ReferenceNodeLease(referenceNodeRepository, 3_600_000);
+    }
+}
@@ -0,0 +1,36 @@
+package com.inzira.support;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL Hibernate prepares on threads whose name starts with a prefix, for work that runs
+ * on a service's own pool where SessionStatements cannot follow it. Installed for every test through
+ * hibernate.session_factory.statement_inspector; records nothing until started.
+ */
+public class RecordedStatements implements StatementInspector {
+
+    private static final List<String> recorded = new CopyOnWriteArrayList<>();
+    private static volatile String threadPrefix;
+
+    public static void start(String threadPrefix) {
+        recorded.clear();
+        RecordedStatements.threadPrefix = threadPrefix;
+    }
+
+    public static List<String> stop() {
+        threadPrefix = null;
+        return List.copyOf(recorded);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        String prefix = threadPrefix;
+        if (prefix != null && Thread.currentThread().getName().startsWith(prefix)) {
+            recorded.add(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,35 @@
+package com.inzira.support;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Runs an action in a fresh transaction and counts the JDBC statements its session prepares before
+ * the commit. Session-scoped, unlike the global Statistics, so background work (ticket pipeline,
+ * hold expiry, other tests' leftovers) never adds to the count.
+ */
+public final class SessionStatements {
+
+    private SessionStatements() {}
+
+    public static long count(TransactionTemplate transactionTemplate, EntityManager entityManager, Runnable action) {
+        return transactionTemplate.execute(status -> {
+            Counter counter = new Counter();
+            entityManager.unwrap(Session.class).addEventListeners(counter);
+            action.run();
+            return counter.count;
+        });
+    }
+
+    private static class Counter extends BaseSessionEventListener {
+        private long count;
+
+        @Override
+        public void jdbcPrepareStatementStart() {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.inzira.support;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.inzira.agency.entities.Agency;
+import com.inzira.agency.entities.AgencyRoute;
+import com.inzira.agency.repositories.AgencyRepository;
+import com.inzira.agency.repositories.AgencyRouteRepository;
+import com.inzira.shared.entities.Booking;
+import com.inzira.shared.entities.Bus;
+import com.inzira.shared.entities.Customer;
+import com.inzira.shared.entities.District;
+import com.inzira.shared.entities.Driver;
+import com.inzira.shared.entities.Payment;
+import com.inzira.shared.entities.Province;
+import com.inzira.shared.entities.Route;
+import com.inzira.shared.entities.RoutePoint;
+import com.inzira.shared.entities.Schedule;
+import com.inzira.shared.repositories.BookingRepository;
+import com.inzira.shared.repositories.BusRepository;
+import com.inzira.shared.repositories.CustomerRepository;
+import com.inzira.shared.repositories.DistrictRepository;
+import com.inzira.shared.repositories.DriverRepository;
+import com.inzira.shared.repositories.PaymentRepository;
+import com.inzira.shared.repositories.ProvinceRepository;
+import com.inzira.shared.repositories.RoutePointRepository;
+import com.inzira.shared.repositories.RouteRepository;
+import com.inzira.shared.repositories.ScheduleRepository;
+
+// Builds the minimal entity graph a booking needs; every call uses unique names so tests can share one context
+@TestComponent
+public class TestDataFactory {
+
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired private ProvinceRepository provinceRepository;
+    @Autowired private DistrictRepository districtRepository;
+    @Autowired private RouteRepository routeRepository;
+    @Autowired private RoutePointRepository routePointRepository;
+    @Autowired private AgencyRepository agencyRepository;
+    @Autowired private AgencyRouteRepository agencyRouteRepository;
+    @Autowired private BusRepository busRepository;
+    @Autowired private DriverRepository driverRepository;
+    @Autowired private ScheduleRepository scheduleRepository;
+    @Autowired private CustomerRepository customerRepository;
+    @Autowired private BookingRepository bookingRepository;
+    @Autowired private PaymentRepository paymentRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    // Everything a booking request refers to
+    public record Trip(Schedule schedule, RoutePoint pickupPoint, RoutePoint dropPoint) {}
+
+    public Trip createTrip(int capacity) {
+        int n = SEQ.incrementAndGet();
+
+        Province province = new Province();
+        province.setName("Province " + n);
+        province = provinceRepository.save(province);
+
+        District origin = district("Origin " + n, province);
+        District destination = district("Destination " + n, province);
+
+        Route route = new Route();
+        route.setOrigin(origin);
+        route.setDestination(destination);
+        route.setDistanceKm(100);
+        route = routeRepository.save(route);
+
+        Agency agency = new Agency();
+        agency.setAgencyName("Agency " + n);
+        agency.setEmail("agency" + n + "@test.inzira.com");
+        agency.setPhoneNumber("0780000000");
+        agency.setAddress("Kigali");
+        agency.setPassword("secret");
+        agency.setStatus("ACTIVE");
+        agency = agencyRepository.save(agency);
+
+        AgencyRoute agencyRoute = new AgencyRoute();
+        agencyRoute.setAgency(agency);
+        agencyRoute.setRoute(route);
+        agencyRoute.setPrice(2500);
+        agencyRoute = agencyRouteRepository.save(agencyRoute);
+
+        Bus bus = new Bus();
+        bus.setPlateNumber("RAB" + n);
+        bus.setBusType("Normal");
+        bus.setCapacity(capacity);
+        bus.setStatus("ACTIVE");
+        bus.setAgency(agency);
+        bus = busRepository.save(bus);
+
+        Driver driver = new Driver();
+        driver.setFirstName("Driver");
+        driver.setLastName(String.valueOf(n));
+        driver.setEmail("driver" + n + "@test.inzira.com");
+        driver.setPhoneNumber("0780000000");
+        driver.setLicenseNumber("LIC" + n);
+        driver.setPassword("secret");
+        driver.setStatus("ACTIVE");
+        driver.setAgency(agency);
+        driver = driverRepository.save(driver);
+
+        Schedule schedule = new Schedule();
+        schedule.setAgencyRoute(agencyRoute);
+        schedule.setBus(bus);
+        schedule.setDriver(driver);
+        schedule.setDepartureDate(LocalDate.now().plusDays(1));
+        schedule.setDepartureTime(LocalTime.of(8, 0));
+        schedule.setArrivalTime(LocalTime.of(10, 0));
+        schedule.setAvailableSeats(capacity);
+        schedule.setStatus("SCHEDULED");
+        schedule = scheduleRepository.save(schedule);
+
+        return new Trip(schedule, routePoint("Pickup " + n, origin), routePoint("Drop " + n, destination));
+    }
+
+    public Customer createCustomer() {
+        int n = SEQ.incrementAndGet();
+        Customer customer = new Customer();
+        customer.setFirstName("Customer");
+        customer.setLastName(String.valueOf(n));
+        customer.setEmail("customer" + n + "@test.inzira.com");
+        customer.setPhoneNumber("0780000000");
+        customer.setPassword("secret");
+        customer.setStatus("ACTIVE");
+        return customerRepository.save(customer);
+    }
+
+    // Unsaved booking request referring to the trip by id only, as the API would send it
+    public Booking newBooking(Customer customer, Trip trip, int seats) {
+        Schedule schedule = new Schedule();
+        schedule.setId(trip.schedule().getId());
+        RoutePoint pickup = new RoutePoint();
+        pickup.setId(trip.pickupPoint().getId());
+        RoutePoint drop = new RoutePoint();
+        drop.setId(trip.dropPoint().getId());
+
+        Booking booking = new Booking();
+        booking.setCustomer(customer);
+        booking.setSchedule(schedule);
+        booking.setPickupPoint(pickup);
+        booking.setDropPoint(drop);
+        booking.setNumberOfSeats(seats);
+        return booking;
+    }
+
+    // Saved booking on the trip with the given status and creation time (set through SQL, as createdAt is not updatable)
+    public Booking createBooking(Trip trip, Customer customer, String status, LocalDateTime createdAt) {
+        Booking booking = new Booking();
+        booking.setBookingReference("BK" + UUID.randomUUID());
+        booking.setCustomer(customer);
+        booking.setSchedule(trip.schedule());
+        booking.setPickupPoint(trip.pickupPoint());
+        booking.setDropPoint(trip.dropPoint());
+        booking.setNumberOfSeats(1);
+        booking.setTotalAmount(BigDecimal.valueOf(2500));
+        booking.setStatus(status);
+        booking.setPaymentStatus("CONFIRMED".equals(status) ? "PAID" : "PENDING");
+        booking = bookingRepository.save(booking);
+        jdbcTemplate.update("update booking set created_at = ? where id = ?", createdAt, booking.getId());
+        booking.setCreatedAt(createdAt);
+        return booking;
+    }
+
+    // Saved cash payment for the booking's amount with the given status and creation time
+    public Payment createPayment(Booking booking, String status, LocalDateTime createdAt) {
+        Payment payment = new Payment();
+        payment.setBooking(booking);
+        payment.setAmount(booking.getTotalAmount());
+        payment.setPaymentMethod("CASH");
+        payment.setStatus(status);
+        payment.setTransactionReference("TX" + UUID.randomUUID());
+        payment = paymentRepository.save(payment);
+        jdbcTemplate.update("update payments set created_at = ? where id = ?", createdAt, payment.getId());
+        payment.setCreatedAt(createdAt);
+        return payment;
+    }
+
+    private District district(String name, Province province) {
+        District district = new District();
+        district.setName(name);
+        district.setProvince(province);
+        return districtRepository.save(district);
+    }
+
+    private RoutePoint routePoint(String name, District district) {
+        RoutePoint point = new RoutePoint();
+        point.setName(name);
+        point.setDistrict(district);
+        return routePointRepository.save(point);
+    }
+}
@@ -45,6 +45,8 @@ const PaymentStatus = ({ transactionReference, onStatusChange }) => {
                 return '⏳';
             case 'FAILED':
                 return '❌';
+            case 'REFUND_PENDING':
+                return '💸';
             case 'REFUNDED':
                 return '↩️';
             case 'CANCELLED':
@@ -62,6 +64,7 @@ const PaymentStatus = ({ transactionReference, onStatusChange }) => {
                 return 'text-yellow-600 bg-yellow-50 border-yellow-200';
             case 'FAILED':
                 return 'text-red-600 bg-red-50 border-red-200';
+            case 'REFUND_PENDING':
             case 'REFUNDED':
                 return 'text-blue-600 bg-blue-50 border-blue-200';
             case 'CANCELLED':
@@ -79,6 +82,8 @@ const PaymentStatus = ({ transactionReference, onStatusChange }) => {
                 return 'Payment is being processed';
             case 'FAILED':
                 return 'Payment failed';
+            case 'REFUND_PENDING':
+                return 'Your booking expired before payment completed; a refund is being arranged';
             case 'REFUNDED':
                 return 'Payment has been refunded';
             case 'CANCELLED':
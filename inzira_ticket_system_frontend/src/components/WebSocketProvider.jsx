@@ -40,7 +40,8 @@ export const WebSocketProvider = ({ children }) => {
         console.log('SSE connection established')
       }
 
-      eventSource.onmessage = (event) => {
+      // The server sends named "seat-update" events, which onmessage never sees
+      eventSource.addEventListener('seat-update', (event) => {
         try {
           const data = JSON.parse(event.data)
           if (data.type === 'SEAT_UPDATE') {
@@ -52,7 +53,12 @@ export const WebSocketProvider = ({ children }) => {
         } catch (error) {
           console.error('Error parsing SSE message:', error)
         }
-      }
+      })
+
+      // Missed updates are no longer available after a reconnect: drop the live counts and use the loaded ones
+      eventSource.addEventListener('resync', () => {
+        setSeatUpdates({})
+      })
 
       eventSource.onerror = () => {
         setIsConnected(false)
@@ -1,4 +1,5 @@
 import React, { createContext, useContext, useState, useEffect } from 'react'
+import { authAPI } from '../services/api'
 
 const AuthContext = createContext()
 
@@ -25,20 +26,29 @@ export const AuthProvider = ({ children }) => {
       } catch (error) {
         // Invalid user data, clear storage
         localStorage.removeItem('token')
+        localStorage.removeItem('refreshToken')
         localStorage.removeItem('user')
       }
     }
     setLoading(false)
   }, [])
 
-  const login = (userData, token) => {
+  const login = (userData, token, refreshToken) => {
     localStorage.setItem('token', token)
+    if (refreshToken) {
+      localStorage.setItem('refreshToken', refreshToken)
+    }
     localStorage.setItem('user', JSON.stringify(userData))
     setUser(userData)
   }
 
   const logout = () => {
+    // Revoke the session on the server; signing out here does not wait for it
+    if (localStorage.getItem('token')) {
+      authAPI.logout(localStorage.getItem('refreshToken')).catch(() => {})
+    }
     localStorage.removeItem('token')
+    localStorage.removeItem('refreshToken')
     localStorage.removeItem('user')
     setUser(null)
   }
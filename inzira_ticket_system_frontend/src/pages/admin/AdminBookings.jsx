@@ -11,6 +11,8 @@ const AdminBookings = () => {
   const [page, setPage] = useState(1)
   const [perPage, setPerPage] = useState(10)
   const [total, setTotal] = useState(0)
+  // cursors[i] fetches page i + 1; the API pages by cursor, so only pages reached so far are known
+  const [cursors, setCursors] = useState([null])
   const [filters, setFilters] = useState({
     status: '',
     agencyId: '',
@@ -20,7 +22,7 @@ const AdminBookings = () => {
   })
   const [agencies, setAgencies] = useState([])
 
-  const fetchData = async () => {
+  const fetchData = async (targetPage = page) => {
     setLoading(true)
     setError(null)
     try {
@@ -29,12 +31,18 @@ const AdminBookings = () => {
         agencyId: filters.agencyId || undefined,
         start: filters.start || undefined,
         end: filters.end || undefined,
+        cursor: cursors[targetPage - 1] || undefined,
+        size: perPage,
       })
-      const data = res.data?.data || []
-      // simple client-side paging for now
-      setTotal(data.length)
-      const startIdx = (page - 1) * perPage
-      setRows(data.slice(startIdx, startIdx + perPage))
+      const result = res.data?.data || {}
+      const items = result.items || []
+      setRows(items)
+      setCursors(prev => {
+        const next = prev.slice(0, targetPage)
+        if (result.nextCursor) next.push(result.nextCursor)
+        return next
+      })
+      setTotal((targetPage - 1) * perPage + items.length + (result.hasMore ? 1 : 0))
     } catch (e) {
       setError(e?.response?.data?.message || 'Failed to load bookings')
     } finally {
@@ -56,8 +64,9 @@ const AdminBookings = () => {
 
   const handleFilter = (e) => {
     e.preventDefault()
+    setCursors([null])
     setPage(1)
-    fetchData()
+    fetchData(1)
   }
 
   const exportCsv = async () => {
@@ -172,7 +181,7 @@ const AdminBookings = () => {
         <div className="flex items-center justify-between p-3">
           <div className="flex items-center gap-2">
             <span className="text-sm text-gray-600">Items per page</span>
-            <select value={perPage} onChange={(e)=>{setPerPage(Number(e.target.value)); setPage(1)}} className="border rounded px-2 py-1">
+            <select value={perPage} onChange={(e)=>{setPerPage(Number(e.target.value)); setCursors([null]); setPage(1)}} className="border rounded px-2 py-1">
               <option value={5}>5</option>
               <option value={10}>10</option>
               <option value={20}>20</option>
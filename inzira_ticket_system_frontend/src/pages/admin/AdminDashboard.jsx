@@ -51,6 +51,7 @@ const AdminDashboard = () => {
           success: summary.paymentsSuccess || 0,
           pending: summary.paymentsPending || 0,
           refunded: summary.paymentsRefunded || 0,
+          refundPending: summary.paymentsRefundPending || 0,
         },
         scheduleStats
       })
@@ -218,7 +219,7 @@ const AdminDashboard = () => {
                 </div>
                 <div className="text-sm text-gray-600">Successful Payments</div>
                 <div className="text-xs text-gray-500 mt-1">
-                  {systemStats.payments?.pending || 0} pending · {systemStats.payments?.refunded || 0} refunded
+                  {systemStats.payments?.pending || 0} pending · {systemStats.payments?.refunded || 0} refunded · {systemStats.payments?.refundPending || 0} awaiting refund
                 </div>
               </div>
             </div>
@@ -11,6 +11,8 @@ const AdminPayments = () => {
   const [page, setPage] = useState(1)
   const [perPage, setPerPage] = useState(10)
   const [total, setTotal] = useState(0)
+  // cursors[i] fetches page i + 1; the API pages by cursor, so only pages reached so far are known
+  const [cursors, setCursors] = useState([null])
   const [filters, setFilters] = useState({
     status: '',
     agencyId: '',
@@ -19,7 +21,7 @@ const AdminPayments = () => {
   })
   const [agencies, setAgencies] = useState([])
 
-  const fetchData = async () => {
+  const fetchData = async (targetPage = page) => {
     setLoading(true)
     setError(null)
     try {
@@ -28,11 +30,18 @@ const AdminPayments = () => {
         agencyId: filters.agencyId || undefined,
         start: filters.start || undefined,
         end: filters.end || undefined,
+        cursor: cursors[targetPage - 1] || undefined,
+        size: perPage,
       })
-      const data = res.data?.data || []
-      setTotal(data.length)
-      const startIdx = (page - 1) * perPage
-      setRows(data.slice(startIdx, startIdx + perPage))
+      const result = res.data?.data || {}
+      const items = result.items || []
+      setRows(items)
+      setCursors(prev => {
+        const next = prev.slice(0, targetPage)
+        if (result.nextCursor) next.push(result.nextCursor)
+        return next
+      })
+      setTotal((targetPage - 1) * perPage + items.length + (result.hasMore ? 1 : 0))
     } catch (e) {
       setError(e?.response?.data?.message || 'Failed to load payments')
     } finally {
@@ -53,8 +62,9 @@ const AdminPayments = () => {
 
   const handleFilter = (e) => {
     e.preventDefault()
+    setCursors([null])
     setPage(1)
-    fetchData()
+    fetchData(1)
   }
 
   const exportCsv = async () => {
@@ -100,6 +110,7 @@ const AdminPayments = () => {
             <option value="PENDING">PENDING</option>
             <option value="SUCCESS">SUCCESS</option>
             <option value="FAILED">FAILED</option>
+            <option value="REFUND_PENDING">REFUND_PENDING</option>
             <option value="REFUNDED">REFUNDED</option>
             <option value="CANCELLED">CANCELLED</option>
           </select>
@@ -171,7 +182,7 @@ const AdminPayments = () => {
         <div className="flex items-center justify-between p-3">
           <div className="flex items-center gap-2">
             <span className="text-sm text-gray-600">Items per page</span>
-            <select value={perPage} onChange={(e)=>{setPerPage(Number(e.target.value)); setPage(1)}} className="border rounded px-2 py-1">
+            <select value={perPage} onChange={(e)=>{setPerPage(Number(e.target.value)); setCursors([null]); setPage(1)}} className="border rounded px-2 py-1">
               <option value={5}>5</option>
               <option value={10}>10</option>
               <option value={20}>20</option>
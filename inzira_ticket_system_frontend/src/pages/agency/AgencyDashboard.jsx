@@ -142,7 +142,7 @@ const AgencyDashboard = () => {
                 <div className="text-2xl font-bold text-purple-600 mb-1">
                   {metrics?.uniqueCustomers || 0}
                 </div>
-                <div className="text-sm text-gray-600">Unique Customers</div>
+                <div className="text-sm text-gray-600">Customers Who Booked</div>
               </div>
             </div>
 
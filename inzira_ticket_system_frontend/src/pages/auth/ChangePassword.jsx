@@ -2,6 +2,7 @@ import React, { useState } from 'react'
 import { useForm } from 'react-hook-form'
 import { Eye, EyeOff, Lock, Save, ArrowLeft } from 'lucide-react'
 import { authAPI } from '../../services/api'
+import { useAuth } from '../../contexts/AuthContext'
 import { useNavigate, Link } from 'react-router-dom'
 import toast from 'react-hot-toast'
 
@@ -11,6 +12,7 @@ const ChangePassword = () => {
   const [showConfirmPassword, setShowConfirmPassword] = useState(false)
   const [loading, setLoading] = useState(false)
   const navigate = useNavigate()
+  const { logout } = useAuth()
 
   const {
     register,
@@ -28,8 +30,10 @@ const ChangePassword = () => {
         currentPassword: data.currentPassword,
         newPassword: data.newPassword
       })
-      toast.success('Password changed successfully!')
-      navigate(-1) // Go back to previous page
+      // Changing the password ends every session, this one included
+      logout()
+      toast.success('Password changed successfully! Please sign in again.')
+      navigate('/login')
     } catch (error) {
       toast.error(error.response?.data?.message || 'Failed to change password')
     } finally {
@@ -52,10 +52,10 @@ const Login = () => {
       console.log('Login response received:', response.data)
       
       if (response.data && response.data.success && response.data.data) {
-        const { token, ...userData } = response.data.data
+        const { token, refreshToken, expiresIn, ...userData } = response.data.data
 
         console.log('Login successful, user data:', userData)
-        login(userData, token)
+        login(userData, token, refreshToken)
         toast.success('Login successful!')
 
         // Redirect based on role
@@ -24,15 +24,52 @@ api.interceptors.request.use(
   }
 )
 
+// Access tokens are short-lived: one refresh at a time, shared by every request that got a 401
+let refreshing = null
+
+const refreshTokens = () => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem('refreshToken')
+    refreshing = (refreshToken
+      ? axios.post(`${API_BASE_URL}auth/refresh`, { refreshToken }).then((response) => {
+          const { token, refreshToken: nextRefreshToken } = response.data.data
+          localStorage.setItem('token', token)
+          localStorage.setItem('refreshToken', nextRefreshToken)
+          return token
+        })
+      : Promise.reject(new Error('No refresh token'))
+    ).finally(() => {
+      refreshing = null
+    })
+  }
+  return refreshing
+}
+
+// A 401 from these means bad credentials or a dead refresh token, not an expired access token
+const NO_REFRESH_URLS = ['/auth/login', '/auth/refresh', '/auth/logout']
+
 // Response interceptor for error handling
 api.interceptors.response.use(
   (response) => {
     return response
   },
-  (error) => {
+  async (error) => {
+    const request = error.config
+    if (error.response?.status === 401 && request && !request._retried && !NO_REFRESH_URLS.includes(request.url)) {
+      // Expired or revoked access token - get a new one and replay the request once
+      request._retried = true
+      try {
+        const token = await refreshTokens()
+        request.headers.Authorization = `Bearer ${token}`
+        return api(request)
+      } catch (refreshError) {
+        // Fall through to sign-in
+      }
+    }
     if (error.response?.status === 401) {
       // Unauthorized - clear token and redirect to login
       localStorage.removeItem('token')
+      localStorage.removeItem('refreshToken')
       localStorage.removeItem('user')
       window.location.href = '/login'
     }
@@ -47,6 +84,8 @@ export const authAPI = {
   register: (data) => api.post('/auth/register', data),
   getCurrentUser: () => api.get('/auth/me'),
   changePassword: (data) => api.post('/auth/change-password', data),
+  refresh: (refreshToken) => api.post('/auth/refresh', { refreshToken }),
+  logout: (refreshToken) => api.post('/auth/logout', { refreshToken }),
 }
 
 // Shared APIs (accessible by multiple roles)